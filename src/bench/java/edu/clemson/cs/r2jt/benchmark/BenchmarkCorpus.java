@@ -0,0 +1,429 @@
+package edu.clemson.cs.r2jt.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
+import edu.clemson.cs.r2jt.absyn.EqualsExp;
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.absyn.FunctionArgList;
+import edu.clemson.cs.r2jt.absyn.FunctionExp;
+import edu.clemson.cs.r2jt.absyn.InfixExp;
+import edu.clemson.cs.r2jt.absyn.IntegerExp;
+import edu.clemson.cs.r2jt.absyn.VarExp;
+import edu.clemson.cs.r2jt.data.Location;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.errors.ErrorHandler;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.VerificationCondition;
+import edu.clemson.cs.r2jt.scope.SymbolTable;
+import edu.clemson.cs.r2jt.type.BooleanType;
+import edu.clemson.cs.r2jt.type.ConstructedType;
+import edu.clemson.cs.r2jt.type.Type;
+import edu.clemson.cs.r2jt.type.TypeMatcher;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+
+/**
+ * <p>A fixed set of theorems and verification conditions for the prover
+ * benchmarks, read from a resource in this package.  See
+ * <code>vc-corpus.txt</code> for the format.</p>
+ *
+ * <p>The corpus builds its expressions directly rather than running them
+ * through the front end, so the prover benchmarks need neither a RESOLVE
+ * workspace nor a populated symbol table.  Expressions are typed with just two
+ * math types, <code>Z</code> and <code>B</code>, which is all the prover needs
+ * to bind and match them.</p>
+ */
+public class BenchmarkCorpus {
+
+    public static final String DEFAULT_CORPUS = "vc-corpus.txt";
+
+    private static final Pattern TOKEN = Pattern.compile("\\(|\\)|[^\\s()]+");
+
+    private static final Set<String> BOOLEAN_OPERATORS =
+            new HashSet<String>(Arrays.asList("=", "/=", "and", "or",
+                    "implies", "<", "<=", ">", ">="));
+
+    private static final Set<String> INFIX_OPERATORS =
+            new HashSet<String>(Arrays.asList("=", "/=", "and", "or",
+                    "implies", "<", "<=", ">", ">=", "+", "-", "*"));
+
+    private static final Type Z =
+            new ConstructedType(symbol("Integer_Theory"), symbol("Z"),
+                    new edu.clemson.cs.r2jt.collections.List<Type>(), null);
+
+    private static final Type B = BooleanType.INSTANCE;
+
+    private final CompileEnvironment myEnvironment;
+    private final MathExpTypeResolver myTyper;
+
+    private final List<String> myTheoremNames = new LinkedList<String>();
+    private final List<Exp> myTheorems = new LinkedList<Exp>();
+
+    private final List<String> myVCNames = new LinkedList<String>();
+    private final List<List<Exp>> myAntecedents = new LinkedList<List<Exp>>();
+    private final List<List<Exp>> myConsequents = new LinkedList<List<Exp>>();
+
+    private BenchmarkCorpus() {
+        myEnvironment = newEnvironment();
+        myTyper =
+                new CorpusTypeResolver(new SymbolTable("Benchmark",
+                        myEnvironment), myEnvironment);
+    }
+
+    /**
+     * <p>Reads the corpus in the named resource of this package.</p>
+     *
+     * @throws IllegalArgumentException If the resource does not exist or is
+     *             malformed.
+     */
+    public static BenchmarkCorpus load(String resource) {
+        BenchmarkCorpus retval = new BenchmarkCorpus();
+
+        InputStream in = BenchmarkCorpus.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("No such corpus: " + resource);
+        }
+
+        try {
+            BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(in, "UTF-8"));
+            try {
+                int lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    line = line.trim();
+
+                    if (line.length() > 0 && !line.startsWith("#")) {
+                        try {
+                            retval.addEntry(line);
+                        }
+                        catch (IllegalArgumentException e) {
+                            throw new IllegalArgumentException(resource + ":"
+                                    + lineNumber + ": " + e.getMessage());
+                        }
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Could not read " + resource, e);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns a <code>CompileEnvironment</code> with no flags set, as the
+     * compiler would build for a bare command line.</p>
+     */
+    public static CompileEnvironment newEnvironment(String... args) {
+        Main.setUpFlagDependencies();
+
+        CompileEnvironment retval;
+        try {
+            retval = new CompileEnvironment(args);
+        }
+        catch (FlagDependencyException e) {
+            throw new IllegalArgumentException(e);
+        }
+        retval.setErrorHandler(new ErrorHandler(retval));
+
+        return retval;
+    }
+
+    public CompileEnvironment getEnvironment() {
+        return myEnvironment;
+    }
+
+    public MathExpTypeResolver getTyper() {
+        return myTyper;
+    }
+
+    public List<String> getTheoremNames() {
+        return Collections.unmodifiableList(myTheoremNames);
+    }
+
+    /**
+     * <p>Returns fresh copies of the theorems, which the caller is free to
+     * modify.</p>
+     */
+    public List<Exp> getTheorems() {
+        return copyAll(myTheorems);
+    }
+
+    /**
+     * <p>Returns every top-level expression in the corpus: the theorems
+     * followed by the antecedents and consequents of each VC.  The
+     * expressions are fresh copies.</p>
+     */
+    public List<Exp> getAllExpressions() {
+        List<Exp> retval = getTheorems();
+
+        for (int i = 0; i < myVCNames.size(); i++) {
+            retval.addAll(copyAll(myAntecedents.get(i)));
+            retval.addAll(copyAll(myConsequents.get(i)));
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns a new <code>VerificationCondition</code> for each VC in the
+     * corpus, built from fresh copies of its expressions.</p>
+     */
+    public List<VerificationCondition> buildVCs() {
+        List<VerificationCondition> retval =
+                new ArrayList<VerificationCondition>(myVCNames.size());
+
+        for (int i = 0; i < myVCNames.size(); i++) {
+            retval.add(new VerificationCondition(
+                    toResolveList(copyAll(myAntecedents.get(i))),
+                    toResolveList(copyAll(myConsequents.get(i))), myVCNames
+                            .get(i)));
+        }
+
+        return retval;
+    }
+
+    private void addEntry(String line) {
+        int colon = line.indexOf(':');
+        int space = line.indexOf(' ');
+        if (colon == -1 || space == -1 || space > colon) {
+            throw new IllegalArgumentException("Expected \"<kind> <name>: "
+                    + "...\", found: " + line);
+        }
+
+        String kind = line.substring(0, space);
+        String name = line.substring(space + 1, colon).trim();
+        String body = line.substring(colon + 1).trim();
+
+        if (kind.equals("theorem")) {
+            myTheoremNames.add(name);
+            myTheorems.add(parseExp(body));
+        }
+        else if (kind.equals("vc")) {
+            int arrow = body.indexOf("==>");
+            if (arrow == -1) {
+                throw new IllegalArgumentException("VC without \"==>\": "
+                        + line);
+            }
+
+            myVCNames.add(name);
+            myAntecedents.add(parseConjuncts(body.substring(0, arrow)));
+            myConsequents.add(parseConjuncts(body.substring(arrow + 3)));
+        }
+        else {
+            throw new IllegalArgumentException("Unknown entry kind: " + kind);
+        }
+    }
+
+    private List<Exp> parseConjuncts(String conjuncts) {
+        List<Exp> retval = new LinkedList<Exp>();
+
+        for (String conjunct : conjuncts.split(";")) {
+            if (conjunct.trim().length() > 0) {
+                retval.add(parseExp(conjunct));
+            }
+        }
+
+        return retval;
+    }
+
+    private Exp parseExp(String text) {
+        LinkedList<String> tokens = new LinkedList<String>();
+        Matcher m = TOKEN.matcher(text);
+        while (m.find()) {
+            tokens.add(m.group());
+        }
+
+        Exp retval = parseExp(tokens);
+        if (!tokens.isEmpty()) {
+            throw new IllegalArgumentException("Unexpected \"" + tokens.peek()
+                    + "\" after expression in: " + text);
+        }
+
+        return retval;
+    }
+
+    private Exp parseExp(LinkedList<String> tokens) {
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Unexpected end of expression.");
+        }
+
+        Exp retval;
+        String token = tokens.removeFirst();
+        if (token.equals("(")) {
+            if (tokens.isEmpty() || tokens.peek().equals("(")
+                    || tokens.peek().equals(")")) {
+                throw new IllegalArgumentException("Expected an operator.");
+            }
+
+            String operator = tokens.removeFirst();
+
+            edu.clemson.cs.r2jt.collections.List<Exp> arguments =
+                    new edu.clemson.cs.r2jt.collections.List<Exp>();
+            while (!tokens.isEmpty() && !tokens.peek().equals(")")) {
+                arguments.add(parseExp(tokens));
+            }
+
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("Missing \")\".");
+            }
+            tokens.removeFirst();
+
+            retval = buildApplication(operator, arguments);
+        }
+        else if (token.equals(")")) {
+            throw new IllegalArgumentException("Unexpected \")\".");
+        }
+        else {
+            retval = buildAtom(token);
+        }
+
+        return retval;
+    }
+
+    private static Exp buildApplication(String operator,
+            edu.clemson.cs.r2jt.collections.List<Exp> arguments) {
+
+        Exp retval;
+
+        if (INFIX_OPERATORS.contains(operator)) {
+            if (arguments.size() != 2) {
+                throw new IllegalArgumentException("Operator " + operator
+                        + " takes two arguments.");
+            }
+
+            if (operator.equals("=")) {
+                retval =
+                        new EqualsExp(null, arguments.get(0), EqualsExp.EQUAL,
+                                arguments.get(1));
+            }
+            else if (operator.equals("/=")) {
+                retval =
+                        new EqualsExp(null, arguments.get(0),
+                                EqualsExp.NOT_EQUAL, arguments.get(1));
+            }
+            else {
+                retval =
+                        new InfixExp(null, arguments.get(0), symbol(operator),
+                                arguments.get(1));
+            }
+        }
+        else {
+            edu.clemson.cs.r2jt.collections.List<FunctionArgList> argLists =
+                    new edu.clemson.cs.r2jt.collections.List<FunctionArgList>();
+            argLists.add(new FunctionArgList(arguments));
+
+            retval =
+                    new FunctionExp(null, null, symbol(operator), null,
+                            argLists);
+        }
+
+        if (BOOLEAN_OPERATORS.contains(operator)) {
+            retval.setType(B);
+        }
+        else {
+            retval.setType(Z);
+        }
+
+        return retval;
+    }
+
+    private static Exp buildAtom(String token) {
+        Exp retval;
+
+        if (token.matches("-?[0-9]+")) {
+            retval = new IntegerExp(null, null, Integer.parseInt(token));
+            retval.setType(Z);
+        }
+        else {
+            Type type = Z;
+            if (token.endsWith(":B")) {
+                type = B;
+                token = token.substring(0, token.length() - 2);
+            }
+            else if (token.equals("true") || token.equals("false")) {
+                type = B;
+            }
+
+            VarExp var;
+            if (token.startsWith("?")) {
+                var = new VarExp(null, null, symbol(token.substring(1)));
+                var.setQuantification(VarExp.FORALL);
+            }
+            else {
+                var = new VarExp(null, null, symbol(token));
+            }
+
+            var.setType(type);
+            retval = var;
+        }
+
+        return retval;
+    }
+
+    private static PosSymbol symbol(String name) {
+        return new PosSymbol((Location) null, Symbol.symbol(name));
+    }
+
+    private static List<Exp> copyAll(List<Exp> exps) {
+        List<Exp> retval = new LinkedList<Exp>();
+
+        for (Exp e : exps) {
+            retval.add(e.copy());
+        }
+
+        return retval;
+    }
+
+    private static edu.clemson.cs.r2jt.collections.List<Exp> toResolveList(
+            List<Exp> exps) {
+
+        edu.clemson.cs.r2jt.collections.List<Exp> retval =
+                new edu.clemson.cs.r2jt.collections.List<Exp>();
+        retval.addAll(exps);
+
+        return retval;
+    }
+
+    /**
+     * <p>A type resolver for the corpus's expressions.  The stock
+     * <code>MathExpTypeResolver</code> consults the type correspondences of
+     * the module in scope, and there is no such module here, so this resolver
+     * just matches the types directly.</p>
+     */
+    private static class CorpusTypeResolver extends MathExpTypeResolver {
+
+        public CorpusTypeResolver(SymbolTable table, CompileEnvironment env) {
+            super(table, new TypeMatcher(), env);
+        }
+
+        @Override
+        public boolean matchTypes(Location loc, Type t1, Type t2,
+                boolean quiet, boolean strict) throws TypeResolutionException {
+
+            return t1 == null || t2 == null
+                    || getTypeMatcher().mathMatches(t1, t2);
+        }
+    }
+}
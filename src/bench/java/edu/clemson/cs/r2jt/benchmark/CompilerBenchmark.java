@@ -0,0 +1,112 @@
+package edu.clemson.cs.r2jt.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.init.Controller;
+
+/**
+ * <p>Benchmarks compiling a single target file end to end with
+ * <code>Controller.compileTargetFile()</code>, including every module it
+ * imports.  Each invocation starts from a fresh
+ * <code>CompileEnvironment</code>, so nothing is reused between runs.</p>
+ *
+ * <p>The target files come from a RESOLVE workspace, which is not part of
+ * this repository.  Pass the workspace's <code>Main</code> directory with
+ * <code>-p workspace=&lt;dir&gt;</code>; target files are looked up by name
+ * anywhere beneath it.  Compiler flags, such as <code>-vcs</code> or
+ * <code>-prove -nogui</code>, may be passed with
+ * <code>-p flags=&lt;flags&gt;</code>.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CompilerBenchmark {
+
+    @Param("")
+    public String workspace;
+
+    @Param( { "Integer_Template.co", "Std_Location_Linking_Realiz.rb",
+            "Std_Integer_Fac.fa" })
+    public String target;
+
+    @Param("")
+    public String flags;
+
+    private File myMainDir;
+    private File myTargetFile;
+    private String[] myFlags;
+
+    @Setup
+    public void setUp() {
+        if (workspace.length() == 0) {
+            throw new IllegalStateException("No RESOLVE workspace given.  "
+                    + "Pass its Main directory with -p workspace=<dir>.");
+        }
+
+        myMainDir = new File(workspace).getAbsoluteFile();
+        if (!myMainDir.isDirectory()) {
+            throw new IllegalStateException("Not a directory: " + myMainDir);
+        }
+
+        myTargetFile = find(myMainDir, target);
+        if (myTargetFile == null) {
+            throw new IllegalStateException("Cannot find " + target
+                    + " in " + myMainDir);
+        }
+
+        String trimmedFlags = flags.trim();
+        if (trimmedFlags.length() == 0) {
+            myFlags = new String[0];
+        }
+        else {
+            myFlags = trimmedFlags.split("\\s+");
+        }
+    }
+
+    @Benchmark
+    public CompileEnvironment compileTargetFile() {
+        CompileEnvironment environment =
+                BenchmarkCorpus.newEnvironment(myFlags);
+        environment.setMainDir(myMainDir);
+        environment.setTargetFile(myTargetFile);
+
+        new Controller(environment).compileTargetFile(myTargetFile);
+
+        return environment;
+    }
+
+    private static File find(File dir, String name) {
+        File retval = null;
+
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (int i = 0; i < files.length && retval == null; i++) {
+                if (files[i].isDirectory()) {
+                    retval = find(files[i], name);
+                }
+                else if (files[i].getName().equals(name)) {
+                    retval = files[i];
+                }
+            }
+        }
+
+        return retval;
+    }
+}
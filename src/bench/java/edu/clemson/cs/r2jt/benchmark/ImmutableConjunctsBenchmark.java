@@ -0,0 +1,124 @@
+package edu.clemson.cs.r2jt.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.clemson.cs.r2jt.proving.ImmutableConjuncts;
+import edu.clemson.cs.r2jt.proving.VC;
+import edu.clemson.cs.r2jt.proving.VerificationCondition;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>Benchmarks the <code>ImmutableConjuncts</code> operations that each
+ * proof step performs on the antecedent and consequent of a VC.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImmutableConjunctsBenchmark {
+
+    /**
+     * <p>The antecedents and consequents of the corpus VCs.</p>
+     */
+    private List<ImmutableConjuncts> myConjuncts;
+
+    /**
+     * <p>For each entry of <code>myConjuncts</code>, a conjunct from a
+     * different VC to append to it and search it for.</p>
+     */
+    private List<PExp> myOtherConjuncts;
+
+    /**
+     * <p>For each entry of <code>myConjuncts</code>, a map replacing its first
+     * conjunct with its last.</p>
+     */
+    private List<Map<PExp, PExp>> mySubstitutions;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCorpus corpus =
+                BenchmarkCorpus.load(BenchmarkCorpus.DEFAULT_CORPUS);
+
+        myConjuncts = new ArrayList<ImmutableConjuncts>();
+        for (VerificationCondition vc : corpus.buildVCs()) {
+            VC immutableVC = vc.getImmutableVC(corpus.getTyper());
+            myConjuncts.add(immutableVC.getAntecedent());
+            myConjuncts.add(immutableVC.getConsequent());
+        }
+
+        myOtherConjuncts = new ArrayList<PExp>();
+        mySubstitutions = new ArrayList<Map<PExp, PExp>>();
+        int conjunctsCount = myConjuncts.size();
+        ImmutableConjuncts c;
+        Map<PExp, PExp> substitution;
+        for (int i = 0; i < conjunctsCount; i++) {
+            c = myConjuncts.get(i);
+
+            myOtherConjuncts.add(myConjuncts.get((i + 2) % conjunctsCount)
+                    .get(0));
+
+            substitution = new HashMap<PExp, PExp>();
+            substitution.put(c.get(0), c.get(c.size() - 1));
+            mySubstitutions.add(substitution);
+        }
+    }
+
+    @Benchmark
+    public void appended(Blackhole bh) {
+        int conjunctsCount = myConjuncts.size();
+        for (int i = 0; i < conjunctsCount; i++) {
+            bh.consume(myConjuncts.get(i).appended(myOtherConjuncts.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void removed(Blackhole bh) {
+        for (ImmutableConjuncts c : myConjuncts) {
+            bh.consume(c.removed(0));
+        }
+    }
+
+    @Benchmark
+    public void substitute(Blackhole bh) {
+        int conjunctsCount = myConjuncts.size();
+        for (int i = 0; i < conjunctsCount; i++) {
+            bh.consume(myConjuncts.get(i).substitute(mySubstitutions.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void containsEqual(Blackhole bh) {
+        int conjunctsCount = myConjuncts.size();
+        for (int i = 0; i < conjunctsCount; i++) {
+            bh.consume(myConjuncts.get(i).containsEqual(
+                    myOtherConjuncts.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void eliminateRedundantConjuncts(Blackhole bh) {
+        int conjunctsCount = myConjuncts.size();
+        for (int i = 0; i < conjunctsCount; i++) {
+            bh.consume(myConjuncts.get(i).appended(myConjuncts.get(i))
+                    .eliminateRedundantConjuncts());
+        }
+    }
+}
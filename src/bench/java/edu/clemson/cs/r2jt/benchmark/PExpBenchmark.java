@@ -0,0 +1,164 @@
+package edu.clemson.cs.r2jt.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.proving.absyn.BindingException;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+
+/**
+ * <p>Benchmarks the conversion of <code>Exp</code>s into <code>PExp</code>s
+ * and the two operations the prover spends most of its time in once it has
+ * them: binding a theorem's pattern to a subexpression of a VC and
+ * substituting the resulting bindings.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PExpBenchmark {
+
+    private MathExpTypeResolver myTyper;
+
+    private List<Exp> myExps;
+
+    /**
+     * <p>The left-hand side of each equality theorem.</p>
+     */
+    private List<PExp> myPatterns;
+
+    /**
+     * <p>Every subexpression of every VC conjunct.</p>
+     */
+    private List<PExp> myTargets;
+
+    /**
+     * <p>The right-hand side of each theorem paired, index for index, with a
+     * binding of its left-hand side that actually succeeds.</p>
+     */
+    private List<PExp> myReplacements;
+    private List<Map<PExp, PExp>> myBindings;
+
+    /**
+     * <p>The VC conjuncts and a map that replaces each of their free
+     * variables with an application of a function to that variable.</p>
+     */
+    private List<PExp> myConjuncts;
+    private Map<PExp, PExp> myVariableSubstitutions;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCorpus corpus =
+                BenchmarkCorpus.load(BenchmarkCorpus.DEFAULT_CORPUS);
+        myTyper = corpus.getTyper();
+        myExps = corpus.getAllExpressions();
+
+        myPatterns = new ArrayList<PExp>();
+        List<PExp> rightHandSides = new ArrayList<PExp>();
+        for (Exp theorem : corpus.getTheorems()) {
+            PExp pTheorem = PExp.buildPExp(theorem, myTyper);
+            myPatterns.add(pTheorem.getSubExpressions().get(0));
+            rightHandSides.add(pTheorem.getSubExpressions().get(1));
+        }
+
+        int theoremCount = myPatterns.size();
+        myConjuncts = new ArrayList<PExp>();
+        for (Exp e : myExps.subList(theoremCount, myExps.size())) {
+            myConjuncts.add(PExp.buildPExp(e, myTyper));
+        }
+
+        myTargets = new ArrayList<PExp>();
+        myVariableSubstitutions = new HashMap<PExp, PExp>();
+        for (PExp conjunct : myConjuncts) {
+            collectSubexpressions(conjunct);
+        }
+
+        myReplacements = new ArrayList<PExp>();
+        myBindings = new ArrayList<Map<PExp, PExp>>();
+        for (int i = 0; i < theoremCount; i++) {
+            for (PExp target : myTargets) {
+                try {
+                    myBindings.add(myPatterns.get(i).bindTo(target));
+                    myReplacements.add(rightHandSides.get(i));
+                }
+                catch (BindingException e) {
+                    // Not every theorem applies to every subexpression
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void buildPExp(Blackhole bh) {
+        for (Exp e : myExps) {
+            bh.consume(PExp.buildPExp(e, myTyper));
+        }
+    }
+
+    @Benchmark
+    public void bindTo(Blackhole bh) {
+        for (PExp pattern : myPatterns) {
+            for (PExp target : myTargets) {
+                try {
+                    bh.consume(pattern.bindTo(target));
+                }
+                catch (BindingException e) {
+                    bh.consume(e);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void substituteBindings(Blackhole bh) {
+        int bindingCount = myBindings.size();
+        for (int i = 0; i < bindingCount; i++) {
+            bh.consume(myReplacements.get(i).substitute(myBindings.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void substituteVariables(Blackhole bh) {
+        for (PExp conjunct : myConjuncts) {
+            bh.consume(conjunct.substitute(myVariableSubstitutions));
+        }
+    }
+
+    private void collectSubexpressions(PExp e) {
+        myTargets.add(e);
+
+        if (e.isVariable() && e.getQuantifiedVariables().isEmpty()
+                && !myVariableSubstitutions.containsKey(e)) {
+
+            List<PExp> arguments = new LinkedList<PExp>();
+            arguments.add(e);
+            myVariableSubstitutions.put(e, new PSymbol(e.getType(), "f",
+                    arguments, myTyper));
+        }
+
+        for (PExp subexpression : e.getSubExpressions()) {
+            collectSubexpressions(subexpression);
+        }
+    }
+}
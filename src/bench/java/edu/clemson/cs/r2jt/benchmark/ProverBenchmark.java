@@ -0,0 +1,173 @@
+package edu.clemson.cs.r2jt.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.AbstractEqualityRuleNormalizer;
+import edu.clemson.cs.r2jt.proving.AlternativeProver;
+import edu.clemson.cs.r2jt.proving.BestFirstProver;
+import edu.clemson.cs.r2jt.proving.ChainingIterable;
+import edu.clemson.cs.r2jt.proving.ConsequentSubstitutionRuleNormalizer;
+import edu.clemson.cs.r2jt.proving.ExistentialInstantiationStep;
+import edu.clemson.cs.r2jt.proving.FailoverChooser;
+import edu.clemson.cs.r2jt.proving.FirstChoiceGivenTransformationChooser;
+import edu.clemson.cs.r2jt.proving.LengthWindowTransformationChooser;
+import edu.clemson.cs.r2jt.proving.NoBacktrackChooser;
+import edu.clemson.cs.r2jt.proving.NormalizingTransformerFitnessFunction;
+import edu.clemson.cs.r2jt.proving.ProductiveStepChooser;
+import edu.clemson.cs.r2jt.proving.SimpleTransformerFitnessFunction;
+import edu.clemson.cs.r2jt.proving.SubstitutionRuleNormalizer;
+import edu.clemson.cs.r2jt.proving.TransformationChooser;
+import edu.clemson.cs.r2jt.proving.UnableToProveException;
+import edu.clemson.cs.r2jt.proving.UpfrontFitnessTransformationChooser;
+import edu.clemson.cs.r2jt.proving.VC;
+import edu.clemson.cs.r2jt.proving.VCInconsistentException;
+import edu.clemson.cs.r2jt.proving.VCProvedException;
+import edu.clemson.cs.r2jt.proving.VCProver;
+import edu.clemson.cs.r2jt.proving.VCTransformer;
+import edu.clemson.cs.r2jt.proving.VerificationCondition;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>Benchmarks the alternative prover over the VCs of the benchmark corpus,
+ * both as a whole and just the per-VC ranking of the theorem library that
+ * precedes each proof.  The same steps are also searched best-first, for
+ * comparison.</p>
+ *
+ * <p>The prover is assembled the same way <code>Prover</code> assembles the
+ * first of its rounds: a reduction phase over the equality theorems, followed
+ * by consequent substitutions ranked by fitness.  The search is cut off at
+ * <code>MAX_DEPTH</code> steps so that the deliberately unprovable VCs in the
+ * corpus finish in bounded time.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProverBenchmark {
+
+    /**
+     * <p>Matches the fitness threshold <code>Prover</code> uses for
+     * consequent substitutions.</p>
+     */
+    private static final double FITNESS_THRESHOLD = 0.8;
+
+    private static final int MAX_DEPTH = 3;
+
+    private List<VerificationCondition> myVCs;
+    private List<VC> myImmutableVCs;
+
+    private UpfrontFitnessTransformationChooser myConsequentSubstitutions;
+    private AlternativeProver myProver;
+    private BestFirstProver myBestFirstProver;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCorpus corpus =
+                BenchmarkCorpus.load(BenchmarkCorpus.DEFAULT_CORPUS);
+        MathExpTypeResolver typer = corpus.getTyper();
+        CompileEnvironment environment = corpus.getEnvironment();
+
+        List<PExp> theorems = new ArrayList<PExp>();
+        for (Exp theorem : corpus.getTheorems()) {
+            theorems.add(PExp.buildPExp(theorem, typer));
+        }
+
+        ChainingIterable<VCTransformer> reductions =
+                new ChainingIterable<VCTransformer>();
+        SubstitutionRuleNormalizer normalizer =
+                new SubstitutionRuleNormalizer(typer, false);
+        for (PExp theorem : theorems) {
+            reductions.add(normalizer.normalize(theorem));
+        }
+
+        TransformationChooser reductionStep =
+                new NoBacktrackChooser(new ProductiveStepChooser(
+                        new UpfrontFitnessTransformationChooser(
+                                new NormalizingTransformerFitnessFunction(),
+                                reductions, 0, typer, environment)));
+
+        myConsequentSubstitutions =
+                new UpfrontFitnessTransformationChooser(
+                        new SimpleTransformerFitnessFunction(),
+                        AbstractEqualityRuleNormalizer.normalizeAll(
+                                new ConsequentSubstitutionRuleNormalizer(
+                                        typer, false), theorems),
+                        FITNESS_THRESHOLD, typer, environment);
+
+        TransformationChooser mainStrategy =
+                new FirstChoiceGivenTransformationChooser(
+                        myConsequentSubstitutions,
+                        new ExistentialInstantiationStep(theorems));
+
+        myProver =
+                new AlternativeProver(environment, new FailoverChooser(
+                        reductionStep, new LengthWindowTransformationChooser(
+                                mainStrategy, 0, MAX_DEPTH)), typer, theorems);
+
+        myBestFirstProver =
+                new BestFirstProver(environment, new FailoverChooser(
+                        reductionStep, new LengthWindowTransformationChooser(
+                                mainStrategy, 0, MAX_DEPTH)), typer, theorems);
+
+        // Prover.proveVC() propagates expansions before proving each VC
+        myVCs = corpus.buildVCs();
+        myImmutableVCs = new ArrayList<VC>();
+        for (VerificationCondition vc : myVCs) {
+            vc.propagateExpansionsInPlace();
+            myImmutableVCs.add(vc.getImmutableVC(typer));
+        }
+    }
+
+    @Benchmark
+    public void preoptimizeForVC() {
+        for (VC vc : myImmutableVCs) {
+            myConsequentSubstitutions.preoptimizeForVC(vc);
+        }
+    }
+
+    @Benchmark
+    public void prove(Blackhole bh) {
+        proveAll(myProver, bh);
+    }
+
+    @Benchmark
+    public void proveBestFirst(Blackhole bh) {
+        proveAll(myBestFirstProver, bh);
+    }
+
+    private void proveAll(VCProver prover, Blackhole bh) {
+        for (VerificationCondition vc : myVCs) {
+            try {
+                prover.prove(vc, null, null, Long.MAX_VALUE);
+            }
+            catch (VCProvedException e) {
+                bh.consume(e);
+            }
+            catch (UnableToProveException e) {
+                bh.consume(e);
+            }
+            catch (VCInconsistentException e) {
+                bh.consume(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package edu.clemson.cs.r2jt.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.absyn.ResolveConceptualElement;
+import edu.clemson.cs.r2jt.absyn.VarExp;
+import edu.clemson.cs.r2jt.treewalk.TreeWalker;
+import edu.clemson.cs.r2jt.treewalk.TreeWalkerVisitor;
+
+/**
+ * <p>Benchmarks a <code>TreeWalker</code> traversal of the expressions in the
+ * benchmark corpus.  The visitor does almost nothing, so this measures the
+ * cost of the walk itself: collecting each node's children and looking up the
+ * visitor methods that apply to it.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeWalkerBenchmark {
+
+    private List<Exp> myExps;
+
+    @Setup
+    public void setUp() {
+        myExps =
+                BenchmarkCorpus.load(BenchmarkCorpus.DEFAULT_CORPUS)
+                        .getAllExpressions();
+    }
+
+    @Benchmark
+    public int walk() {
+        CountingVisitor visitor = new CountingVisitor();
+        TreeWalker walker = new TreeWalker(visitor);
+
+        for (Exp e : myExps) {
+            walker.visit(e);
+        }
+
+        return visitor.nodes + visitor.variables;
+    }
+
+    /**
+     * <p>Counts the nodes visited, and separately the variables, so that the
+     * walker has both a generic and a type-specific method to dispatch
+     * to.</p>
+     */
+    public static class CountingVisitor extends TreeWalkerVisitor {
+
+        public int nodes;
+        public int variables;
+
+        @Override
+        public void preAny(ResolveConceptualElement data) {
+            nodes++;
+        }
+
+        @Override
+        public void preVarExp(VarExp data) {
+            variables++;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package edu.clemson.cs.r2jt.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.type.FieldItem;
+import edu.clemson.cs.r2jt.type.FunctionType;
+import edu.clemson.cs.r2jt.type.PrimitiveType;
+import edu.clemson.cs.r2jt.type.TupleType;
+import edu.clemson.cs.r2jt.type.Type;
+import edu.clemson.cs.r2jt.type.TypeMatcher;
+
+/**
+ * <p>Benchmarks matching every pair of a set of math types of the sort the
+ * analyzer compares over and over: the primitive types of a few theories and
+ * functions and tuples over them.</p>
+ *
+ * <p><code>canonicalForms</code> only renders the canonical forms of each
+ * pair, which is what it once cost <code>mathMatches()</code> just to look a
+ * pair up in its cache.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeMatcherBenchmark {
+
+    private List<Type> myTypes;
+
+    @Setup
+    public void setUp() {
+        List<Type> primitives = new ArrayList<Type>();
+        for (String theory : new String[] { "Integer_Theory", "Set_Theory",
+                "String_Theory" }) {
+            ModuleID id = ModuleID.createTheoryID(Symbol.symbol(theory));
+            for (String name : new String[] { "Z", "N", "Entity" }) {
+                primitives.add(new PrimitiveType(id, new PosSymbol(null, Symbol
+                        .symbol(name)), 0));
+            }
+        }
+
+        myTypes = new ArrayList<Type>(primitives);
+        for (int i = 0; i < primitives.size(); i++) {
+            Type domain = primitives.get(i);
+            Type range = primitives.get((i + 1) % primitives.size());
+
+            edu.clemson.cs.r2jt.collections.List<FieldItem> fields =
+                    new edu.clemson.cs.r2jt.collections.List<FieldItem>();
+            fields.add(new FieldItem(null, domain));
+            fields.add(new FieldItem(null, range));
+
+            myTypes.add(new FunctionType(new TupleType(fields), range));
+            myTypes.add(new FunctionType(domain, range));
+        }
+    }
+
+    @Benchmark
+    public void mathMatches(Blackhole bh) {
+        TypeMatcher tm = new TypeMatcher();
+        for (Type t1 : myTypes) {
+            for (Type t2 : myTypes) {
+                bh.consume(tm.mathMatches(t1, t2));
+            }
+        }
+    }
+
+    @Benchmark
+    public void canonicalForms(Blackhole bh) {
+        for (Type t1 : myTypes) {
+            for (Type t2 : myTypes) {
+                bh.consume(TypeMatcher.getCanonicalForm(t1));
+                bh.consume(TypeMatcher.getCanonicalForm(t2));
+            }
+        }
+    }
+}
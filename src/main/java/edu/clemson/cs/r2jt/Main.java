@@ -162,6 +162,15 @@ public class Main {
                     else if (args[i].equals("-perf")) {
                         compileEnvironment.setPerformanceFlag();
                     }
+                    else if (args[i].equals("-perfJSON")) {
+                        if (i + 1 >= args.length || args[i + 1].startsWith("-")) {
+                            throw new FlagDependencyException("The -perfJSON "
+                                    + "flag requires a file name.");
+                        }
+
+                        i++;
+                        compileEnvironment.setPerformanceFile(args[i]);
+                    }
                     else if (args[i].equalsIgnoreCase("-maindir")) {
                         if (i + 1 < args.length) {
                             i++;
@@ -525,6 +534,10 @@ public class Main {
                 .println("  -showIndirect  Show the bindings associated with indirect types.");
         System.out.println("  -assertions    Print Only Final Assertions");
         System.out.println("  -R             Recurse through directories.");
+        System.out.println("  -perf          Report the time and memory spent "
+                + "in each compiler phase.");
+        System.out.println("  -perfJSON <f>  Write the -perf report to <f> "
+                + "as JSON.");
         System.out.println("  -D <dir>       Use <dir> as the main directory.");
         System.out.println("  -translate     Translate to Java code.");
         System.out.println("  -VCs           Generate verification "
@@ -540,8 +553,12 @@ public class Main {
      * <p>This method sets up dependencies between compiler flags.  If you are
      * integrating your module into the compiler flag management system, this is
      * where to do it.</p>
+     *
+     * <p>Clients that drive the compiler without going through
+     * <code>main()</code> must call this before building a
+     * <code>CompileEnvironment</code>.  It is safe to call more than once.</p>
      */
-    private synchronized static void setUpFlagDependencies() {
+    public synchronized static void setUpFlagDependencies() {
 
         if (!FlagDependencies.isSealed()) {
 
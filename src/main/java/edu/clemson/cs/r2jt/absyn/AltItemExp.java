@@ -160,6 +160,11 @@ public class AltItemExp extends Exp {
         return result;
     }
 
+    protected int structuralHashCode(int depth) {
+        return 31 * structuralHashCode(test, depth - 1)
+                + structuralHashCode(assignment, depth - 1);
+    }
+
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
         return new AltItemExp(location, substitute(test, substitutions),
                 substitute(assignment, substitutions));
@@ -144,6 +144,20 @@ public class AlternativeExp extends Exp {
         return result;
     }
 
+    protected int structuralHashCode(int depth) {
+        int retval = 0;
+
+        if (alternatives != null) {
+            for (AltItemExp alternative : alternatives) {
+                retval =
+                        31 * retval
+                                + structuralHashCode(alternative, depth - 1);
+            }
+        }
+
+        return retval;
+    }
+
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
         AlternativeExp retval = new AlternativeExp();
         List<AltItemExp> newAlternatives = new List<AltItemExp>();
@@ -281,6 +281,12 @@ public class BetweenExp extends Exp {
         return retval;
     }
 
+    protected int structuralHashCode(int depth) {
+        //equivalent() ignores the order of the subexpressions and isn't
+        //symmetric, so we can't safely hash anything beyond our kind
+        return BetweenExp.class.getName().hashCode();
+    }
+
     public Exp replace(Exp old, Exp replace) {
         if (old instanceof BetweenExp) {
             return null;
@@ -256,6 +256,22 @@ public class DotExp extends Exp {
         return retval;
     }
 
+    protected int structuralHashCode(int depth) {
+        int retval = structuralHashCode(semanticExp, depth - 1);
+
+        if (segments != null) {
+            for (Exp segment : segments) {
+                retval = 31 * retval + structuralHashCode(segment, depth - 1);
+            }
+        }
+
+        return retval;
+    }
+
+    public boolean equals(Exp exp) {
+        return structurallyEquals(exp);
+    }
+
     public void prettyPrint() {
         Iterator<Exp> it = segments.iterator();
         if (it.hasNext()) {
@@ -119,6 +119,14 @@ public class EqualsExp extends Exp {
         return retval;
     }
 
+    protected int structuralHashCode(int depth) {
+        int retval = operator;
+        retval = 31 * retval + structuralHashCode(left, depth - 1);
+        retval = 31 * retval + structuralHashCode(right, depth - 1);
+
+        return retval;
+    }
+
     // ===========================================================
     // Accessor Methods
     // ===========================================================
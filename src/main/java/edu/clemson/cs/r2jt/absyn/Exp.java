@@ -58,9 +58,6 @@
 
 package edu.clemson.cs.r2jt.absyn;
 
-import java.util.Iterator;
-import java.util.Set;
-
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.data.Location;
 import edu.clemson.cs.r2jt.data.PosSymbol;
@@ -82,6 +79,11 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
     /** If the type can be determined in the builder we set it here.  */
     protected Type bType = null;
 
+    /* The epoch of the last MathExpTypeResolver that reported a failure to
+     * resolve the type of this expression, or 0 if none has.
+     */
+    private int typeFailureEpoch = 0;
+
     //private boolean isLocal = false;
     private int marker = 0;
 
@@ -146,34 +148,18 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
     public final Exp substitute(java.util.Map<Exp, Exp> substitutions) {
         Exp retval;
 
-        boolean match = false;
-
-        java.util.Map.Entry<Exp, Exp> curEntry = null;
         if (substitutions.size() > 0) {
-            Set<java.util.Map.Entry<Exp, Exp>> entries =
-                    substitutions.entrySet();
-            Iterator<java.util.Map.Entry<Exp, Exp>> entryIter =
-                    entries.iterator();
-            //System.out.println("Recursing: " + this.toString(0) + " : " + this.getClass());
-            while (entryIter.hasNext() && !match) {
-                curEntry = entryIter.next();
-                //System.out.print(curEntry.getKey().toString(0) + " --?-> " + curEntry.getValue().toString(0));
-                match = curEntry.getKey().equivalent(this);
-
-                /*if (match) {
-                	System.out.println(" [Yes] ");
-                }
-                else {
-                	System.out.println(" [ No] ");
-                }*/
-            }
+            //The index is built once for the top-level call and then passed
+            //down through substituteChildren() in place of the original map
+            SubstitutionIndex index = SubstitutionIndex.of(substitutions);
+
+            java.util.Map.Entry<Exp, Exp> match = index.findMatch(this);
 
-            if (match) {
-                //System.out.println(curEntry.getKey().toString(0) + " --> " + curEntry.getValue().toString(0));
-                retval = curEntry.getValue();
+            if (match != null) {
+                retval = match.getValue();
             }
             else {
-                retval = substituteChildren(substitutions);
+                retval = substituteChildren(index);
             }
         }
         else {
@@ -220,6 +206,105 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
         return exp.toString(1).equals(this.toString(1));
     }
 
+    /**
+     * <p>For use by subclasses whose <code>equivalent()</code> compares their
+     * entire structure, to implement <code>equals(Exp)</code> without
+     * rendering either expression as a string.  If some subexpression does not
+     * support <code>equivalent()</code>, falls back on comparing printed forms
+     * as <code>Exp.equals(Exp)</code> does.</p>
+     * 
+     * @param exp The expression to compare this one to.
+     * @return <code>true</code> <strong>iff</strong> the two expressions are
+     *         structurally equal.
+     */
+    protected final boolean structurallyEquals(Exp exp) {
+        boolean retval;
+
+        try {
+            retval = equivalent(exp);
+        }
+        catch (UnsupportedOperationException e) {
+            retval = exp.toString(1).equals(this.toString(1));
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns a hash code for the structure of this expression that is
+     * consistent with <code>equivalent()</code>:  any two expressions that are
+     * <code>equivalent()</code> have the same structural hash code.</p>
+     * 
+     * <p>Since <code>Exp</code>s can be changed in place, this is recomputed on
+     * each call rather than stored in the node.  Clients that hash the same 
+     * unchanging tree repeatedly should keep the result themselves, or use 
+     * <code>structuralHashCode(int)</code> with a small depth.</p>
+     * 
+     * @return The structural hash code.
+     */
+    public final int structuralHashCode() {
+        return structuralHashCode(Integer.MAX_VALUE);
+    }
+
+    /**
+     * <p>Returns a hash code for the structure of this expression down to
+     * <code>depth</code> levels, consistent with <code>equivalent()</code> as
+     * described in <code>structuralHashCode()</code>.  A small depth gives a
+     * hash that is cheap to compute but still discriminates well.</p>
+     * 
+     * <p>By default, combines the name of this class with the structural hash
+     * codes of this expression's subexpressions.  Subclasses that override
+     * <code>equivalent()</code> must override this method to hash exactly what
+     * <code>equivalent()</code> compares.</p>
+     * 
+     * @param depth The number of levels to include.  Must be positive.
+     * @return The structural hash code.
+     */
+    protected int structuralHashCode(int depth) {
+        int retval = getClass().getName().hashCode();
+
+        for (Exp e : getSubExpressions()) {
+            retval = 31 * retval + structuralHashCode(e, depth - 1);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Helper method to hash subexpressions that might be 
+     * <code>null</code> or lie beyond the depth being hashed.</p>
+     */
+    protected static int structuralHashCode(Exp e, int depth) {
+        int retval;
+
+        if (e == null || depth <= 0) {
+            retval = 0;
+        }
+        else {
+            retval = e.structuralHashCode(depth);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Helper method to hash <code>PosSymbol</code>s that might be 
+     * <code>null</code>, consistent with <code>posSymbolEquivalent()</code>.
+     * </p>
+     */
+    protected static int structuralHashCode(PosSymbol s) {
+        int retval;
+
+        if (s == null || s.getName() == null) {
+            retval = 0;
+        }
+        else {
+            retval = s.getName().hashCode();
+        }
+
+        return retval;
+    }
+
     public List<InfixExp> split(Exp assumpts, boolean single) {
         if (this instanceof InfixExp) {
             if (((InfixExp) this).getOpName().toString().equals("implies"))
@@ -289,6 +374,14 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
         type = t;
     }
 
+    public int getTypeFailureEpoch() {
+        return typeFailureEpoch;
+    }
+
+    public void setTypeFailureEpoch(int epoch) {
+        typeFailureEpoch = epoch;
+    }
+
     //    public boolean isLocal() { return isLocal; }
 
     //    public void setIsLocal(boolean i) { isLocal = i; }
@@ -325,7 +418,6 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
      *         function and variable names.
      */
     public boolean equivalent(Exp e) {
-        System.out.println(e.toString(1));
         throw new UnsupportedOperationException(
                 "Equivalence for classes of type " + this.getClass()
                         + " is not currently supported.");
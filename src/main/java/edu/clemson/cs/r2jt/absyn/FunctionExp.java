@@ -155,6 +155,29 @@ public class FunctionExp extends Exp {
         return retval;
     }
 
+    protected int structuralHashCode(int depth) {
+        int retval = structuralHashCode(qualifier);
+        retval = 31 * retval + structuralHashCode(name);
+        retval = 31 * retval + structuralHashCode(natural, depth - 1);
+        retval = 31 * retval + quantification;
+
+        if (paramList != null) {
+            for (FunctionArgList params : paramList) {
+                for (Exp arg : params.getArguments()) {
+                    retval = 31 * retval + structuralHashCode(arg, depth - 1);
+                }
+
+                retval = 31 * retval + 1;
+            }
+        }
+
+        return retval;
+    }
+
+    public boolean equals(Exp exp) {
+        return structurallyEquals(exp);
+    }
+
     private boolean paramsEquivalent(List<FunctionArgList> p1,
             List<FunctionArgList> p2) {
         boolean retval = true;
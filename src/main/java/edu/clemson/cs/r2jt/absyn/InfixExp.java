@@ -128,6 +128,18 @@ public class InfixExp extends Exp {
         return retval;
     }
 
+    protected int structuralHashCode(int depth) {
+        int retval = structuralHashCode(opName);
+        retval = 31 * retval + structuralHashCode(left, depth - 1);
+        retval = 31 * retval + structuralHashCode(right, depth - 1);
+
+        return retval;
+    }
+
+    public boolean equals(Exp exp) {
+        return structurallyEquals(exp);
+    }
+
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
         Exp retval;
 
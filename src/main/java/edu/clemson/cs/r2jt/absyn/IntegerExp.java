@@ -254,4 +254,12 @@ public class IntegerExp extends Exp {
 
         return retval;
     }
+
+    protected int structuralHashCode(int depth) {
+        return value;
+    }
+
+    public boolean equals(Exp exp) {
+        return structurallyEquals(exp);
+    }
 }
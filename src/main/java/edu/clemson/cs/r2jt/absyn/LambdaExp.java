@@ -202,6 +202,11 @@ public class LambdaExp extends Exp {
         return result;
     }
 
+    protected int structuralHashCode(int depth) {
+        return 31 * structuralHashCode(name)
+                + structuralHashCode(body, depth - 1);
+    }
+
     /** Returns true if the variable is found in any sub expression   
         of this one. **/
     public boolean containsVar(String varName, boolean IsOldExp) {
@@ -119,6 +119,14 @@ public class OutfixExp extends Exp {
         return retval;
     }
 
+    protected int structuralHashCode(int depth) {
+        return 31 * operator + structuralHashCode(argument, depth - 1);
+    }
+
+    public boolean equals(Exp exp) {
+        return structurallyEquals(exp);
+    }
+
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
         Exp retval =
                 new OutfixExp(location, operator, substitute(argument,
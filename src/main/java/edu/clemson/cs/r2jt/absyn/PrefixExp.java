@@ -260,6 +260,15 @@ public class PrefixExp extends Exp {
         return retval;
     }
 
+    protected int structuralHashCode(int depth) {
+        return 31 * structuralHashCode(symbol)
+                + structuralHashCode(argument, depth - 1);
+    }
+
+    public boolean equals(Exp exp) {
+        return structurallyEquals(exp);
+    }
+
     public void prettyPrint() {
         System.out.print(symbol.getName() + "(");
         argument.prettyPrint();
@@ -0,0 +1,118 @@
+package edu.clemson.cs.r2jt.absyn;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>A read-only view of a substitution map, as passed to
+ * <code>Exp.substitute()</code>, that indexes the keys by their structural
+ * hash codes.  Each subexpression can then be matched against the keys with a
+ * hash lookup followed by <code>equivalent()</code> on only those keys with
+ * the same hash, rather than by calling <code>equivalent()</code> on every
+ * key.</p>
+ *
+ * <p>The index is built once per top-level call to <code>substitute()</code>
+ * and passed down through <code>substituteChildren()</code> in place of the
+ * original map, so the hash codes of the keys are computed exactly once.  The
+ * keys are hashed to a small fixed depth, which keeps hashing each
+ * subexpression of the target constant-time.</p>
+ */
+class SubstitutionIndex extends AbstractMap<Exp, Exp> {
+
+    /**
+     * <p>How many levels of each expression are included in its hash.</p>
+     */
+    private static final int HASH_DEPTH = 3;
+
+    private final Map<Exp, Exp> mySubstitutions;
+
+    /**
+     * <p>Maps each structural hash code to the entries whose keys have that
+     * hash code, in the iteration order of <code>mySubstitutions</code>.</p>
+     */
+    private final Map<Integer, List<Map.Entry<Exp, Exp>>> myEntriesByHash =
+            new HashMap<Integer, List<Map.Entry<Exp, Exp>>>();
+
+    private SubstitutionIndex(Map<Exp, Exp> substitutions) {
+        mySubstitutions = substitutions;
+
+        Integer hash;
+        List<Map.Entry<Exp, Exp>> bucket;
+        for (Map.Entry<Exp, Exp> entry : substitutions.entrySet()) {
+            hash = entry.getKey().structuralHashCode(HASH_DEPTH);
+
+            bucket = myEntriesByHash.get(hash);
+            if (bucket == null) {
+                bucket = new LinkedList<Map.Entry<Exp, Exp>>();
+                myEntriesByHash.put(hash, bucket);
+            }
+
+            bucket.add(entry);
+        }
+    }
+
+    /**
+     * <p>Returns an index over <code>substitutions</code>, reusing it if it is
+     * already an index.</p>
+     */
+    public static SubstitutionIndex of(Map<Exp, Exp> substitutions) {
+        SubstitutionIndex retval;
+
+        if (substitutions instanceof SubstitutionIndex) {
+            retval = (SubstitutionIndex) substitutions;
+        }
+        else {
+            retval = new SubstitutionIndex(substitutions);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the first entry, in the iteration order of the original map,
+     * whose key is <code>equivalent()</code> to <code>e</code>, or
+     * <code>null</code> if there is no such entry.</p>
+     */
+    public Map.Entry<Exp, Exp> findMatch(Exp e) {
+        Map.Entry<Exp, Exp> retval = null;
+
+        List<Map.Entry<Exp, Exp>> bucket =
+                myEntriesByHash.get(e.structuralHashCode(HASH_DEPTH));
+
+        if (bucket != null) {
+            for (Map.Entry<Exp, Exp> entry : bucket) {
+                if (entry.getKey().equivalent(e)) {
+                    retval = entry;
+                    break;
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    @Override
+    public Set<Map.Entry<Exp, Exp>> entrySet() {
+        return Collections.unmodifiableSet(mySubstitutions.entrySet());
+    }
+
+    @Override
+    public int size() {
+        return mySubstitutions.size();
+    }
+
+    @Override
+    public Exp get(Object key) {
+        return mySubstitutions.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return mySubstitutions.containsKey(key);
+    }
+}
@@ -138,6 +138,10 @@ public class VarExp extends Exp {
         return retval;
     }
 
+    protected int structuralHashCode(int depth) {
+        return 31 * structuralHashCode(qualifier) + structuralHashCode(name);
+    }
+
     public Exp substituteChildren(java.util.Map<Exp, Exp> substitutions) {
         Exp retval = new VarExp(location, qualifier, name, quantification);
         retval.setType(type);
@@ -253,4 +253,8 @@ public class VariableNameExp extends VariableExp {
         return retval;
     }
 
+    protected int structuralHashCode(int depth) {
+        return 31 * structuralHashCode(qualifier) + structuralHashCode(name);
+    }
+
 }
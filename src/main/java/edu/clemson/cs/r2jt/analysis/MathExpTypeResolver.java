@@ -58,6 +58,10 @@
 
 package edu.clemson.cs.r2jt.analysis;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import edu.clemson.cs.r2jt.absyn.*;
 import edu.clemson.cs.r2jt.collections.*;
 import edu.clemson.cs.r2jt.data.*;
@@ -114,6 +118,14 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
 
     private boolean printVarErrors = true;
 
+    /* Distinguishes this resolver from every other, so that a failure to
+     * resolve an expression's type is remembered only by the resolver that
+     * reported it.  See getMathExpType().
+     */
+    private static final AtomicInteger nextEpoch = new AtomicInteger(1);
+
+    private final int myEpoch = nextEpoch.getAndIncrement();
+
     // In the case of indexed expressions within an inductive
     //     definition and return statements on operations/proc-
     //     edures, we may encounter this:
@@ -224,12 +236,37 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
     // Public Methods - Abstract Visit Methods
     // ===========================================================
 
+    /**
+     * <p>Returns the math type of <code>exp</code>, resolving it only if
+     * it has not been resolved before.  A resolved type is recorded on the
+     * expression itself, so it is shared by every resolver that later meets
+     * the same node, such as those of the modules importing the theory that
+     * contains it.</p>
+     *
+     * <p>A failure to resolve the type is recorded too, along with the epoch
+     * of this resolver, once it has been reported as an error.  This resolver
+     * then fails again at once, rather than retrying every configuration of
+     * overloads and reporting the same error again.  Other resolvers, whose
+     * symbol tables may differ, try again.</p>
+     */
     public Type getMathExpType(Exp exp) throws TypeResolutionException {
 
         Type retval = exp.getType();
 
         if (retval == null) {
-            retval = exp.accept(this);
+            if (exp.getTypeFailureEpoch() == myEpoch) {
+                throw new TypeResolutionException(exp);
+            }
+
+            try {
+                retval = exp.accept(this);
+            }
+            catch (TypeResolutionException trex) {
+                if (!err.getIgnore()) {
+                    exp.setTypeFailureEpoch(myEpoch);
+                }
+                throw trex;
+            }
         }
 
         exp.setType(retval);
@@ -1419,6 +1456,18 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
 
     public Type tryParamTypeConfiguration(FunctionExp exp, List<Type> argtypes,
             int whichArg) {
+        return tryParamTypeConfiguration(exp, argtypes, whichArg,
+                new HashSet<String>());
+    }
+
+    /*
+     * Each configuration is tried again with every alternative for each later
+     * argument, the first of which is always the original type.  tried holds
+     * the configurations already tried, keyed on the canonical forms of their
+     * argument types, so that each is only resolved once.
+     */
+    private Type tryParamTypeConfiguration(FunctionExp exp,
+            List<Type> argtypes, int whichArg, Set<String> tried) {
 
         try {
             if (exp.getName().getName().equals("NB")) {
@@ -1427,7 +1476,11 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
                                 + argtypes);
             }
 
-            Type retType = getFunctionExpType2(exp, argtypes, true);
+            Type retType = null;
+            String key = getConfigurationKey(argtypes);
+            if (key == null || tried.add(key)) {
+                retType = getFunctionExpType2(exp, argtypes, true);
+            }
             if (retType != null) {
                 return retType;
             }
@@ -1449,7 +1502,8 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
                 newArgs.addAll(argtypes);
                 newArgs.set(whichArg, it.next());
                 retValue =
-                        tryParamTypeConfiguration(exp, newArgs, whichArg + 1);
+                        tryParamTypeConfiguration(exp, newArgs, whichArg + 1,
+                                tried);
                 if (retValue != null)
                     return retValue;
             }
@@ -1457,6 +1511,21 @@ public class MathExpTypeResolver extends TypeResolutionVisitor {
         }
     }
 
+    // Returns a key identifying a configuration of argument types, or null
+    //     if one of them has no canonical form
+    private String getConfigurationKey(List<Type> argtypes) {
+        StringBuilder sb = new StringBuilder();
+        Iterator<Type> i = argtypes.iterator();
+        while (i.hasNext()) {
+            String form = TypeMatcher.getCanonicalForm(i.next());
+            if (form == null) {
+                return null;
+            }
+            sb.append(form).append(";");
+        }
+        return sb.toString();
+    }
+
     public Type getFunctionExpType2(FunctionExp exp, List<Type> argtypes,
             boolean error) throws TypeResolutionException {
 
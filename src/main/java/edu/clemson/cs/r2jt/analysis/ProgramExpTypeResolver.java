@@ -98,8 +98,17 @@ public class ProgramExpTypeResolver extends TypeResolutionVisitor {
             CompileEnvironment instanceEnvironment) {
         //this.env = new Environment(instanceEnvironment);
         //myInstanceEnvironment = instanceEnvironment;
+        this(table, instanceEnvironment.getErrorHandler());
+    }
+
+    /**
+     * Construct a resolver that reports to <code>err</code> rather than to
+     * the environment's handler, for callers that run alongside others and
+     * so have a handler of their own.
+     */
+    public ProgramExpTypeResolver(SymbolTable table, ErrorHandler err) {
         this.table = table;
-        this.err = instanceEnvironment.getErrorHandler();
+        this.err = err;
     }
 
     // ===========================================================
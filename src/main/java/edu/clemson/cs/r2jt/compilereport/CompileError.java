@@ -0,0 +1,36 @@
+package edu.clemson.cs.r2jt.compilereport;
+
+/**
+ * <p>A single error reported while compiling for the web interface: the name
+ * of the file it was found in, the line it was found on, and the message
+ * describing it, including any excerpt of the offending code.</p>
+ */
+public class CompileError {
+
+    private final String myFileName;
+    private final int myLine;
+    private final String myMessage;
+
+    public CompileError(String fileName, int line, String message) {
+        myFileName = fileName;
+        myLine = line;
+        myMessage = message;
+    }
+
+    public String getFileName() {
+        return myFileName;
+    }
+
+    public int getLine() {
+        return myLine;
+    }
+
+    public String getMessage() {
+        return myMessage;
+    }
+
+    @Override
+    public String toString() {
+        return myFileName + "(" + myLine + "): " + myMessage;
+    }
+}
@@ -1,5 +1,10 @@
 package edu.clemson.cs.r2jt.compilereport;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+
 import edu.clemson.cs.r2jt.ResolveCompiler;
 import edu.clemson.cs.r2jt.collections.List;
 
@@ -15,11 +20,10 @@ public class CompileReport {
     private boolean error = false;
     private String facilityName = "";
     private String proveVCs = null;
-    private boolean myErrors = false;
-    private StringBuilder myErrorBuffer = new StringBuilder();
+    private final List<CompileError> myErrors = new List<CompileError>();
     private boolean myBugReports = false;
     private StringBuilder myBugReportBuffer = new StringBuilder();
-    private String myOutput = "";
+    private StringBuilder myOutput = new StringBuilder();
 
     //public  WebSocketWriter myWsWriter = null;
     //private List<String> proveList = null;
@@ -103,25 +107,66 @@ public class CompileReport {
     }
 
     public boolean hasErrors() {
-        return myErrors;
+        synchronized (myErrors) {
+            return !myErrors.isEmpty();
+        }
     }
 
-    public void addError(String error) {
-        if (myErrors) {
-            myErrorBuffer.append(",");
+    public void addError(CompileError error) {
+        synchronized (myErrors) {
+            myErrors.add(error);
         }
-        myErrorBuffer.append("{\"error\":");
-        myErrorBuffer.append(error);
-        myErrorBuffer.append("}");
-        myErrors = true;
         this.error = true;
     }
 
+    /**
+     * <p>Returns the errors reported so far, in the order they were
+     * reported.</p>
+     */
+    public java.util.List<CompileError> getErrorList() {
+        synchronized (myErrors) {
+            return Collections
+                    .unmodifiableList(new List<CompileError>(myErrors));
+        }
+    }
+
+    /**
+     * <p>Writes the errors reported so far to <code>out</code>, one at a time,
+     * in the same form returned by {@link #getErrors()}.  <code>out</code> is
+     * neither flushed nor closed.</p>
+     */
+    public void writeErrors(Writer out) throws IOException {
+        out.write("\"errors\":[");
+
+        boolean first = true;
+        for (CompileError e : getErrorList()) {
+            if (!first) {
+                out.write(",");
+            }
+            first = false;
+
+            out.write("{\"error\":{\"fn\":\"");
+            out.write(e.getFileName());
+            out.write("\",\"ln\":\"");
+            out.write(Integer.toString(e.getLine()));
+            out.write("\",\"msg\":\"");
+            out.write(ResolveCompiler.webEncode(e.getMessage()));
+            out.write("\"}}");
+        }
+
+        out.write("]");
+    }
+
     public String getErrors() {
-        String ret = "\"errors\":[";
-        ret += myErrorBuffer.toString();
-        ret += "]";
-        return ret;
+        StringWriter ret = new StringWriter();
+        try {
+            writeErrors(ret);
+        }
+        catch (IOException ioEx) {
+            // A StringWriter never throws
+            throw new RuntimeException(ioEx);
+        }
+        return ret.toString();
     }
 
     public boolean hasBugReports() {
@@ -146,11 +191,21 @@ public class CompileReport {
     }
 
     public String getOutput() {
-        return myOutput;
+        return myOutput.toString();
     }
 
     public void setOutput(String op) {
-        myOutput = op;
+        myOutput.setLength(0);
+        myOutput.append(op);
+    }
+
+    /**
+     * <p>Adds the characters of <code>op</code> from <code>start</code> 
+     * (inclusive) to <code>end</code> (exclusive) to the end of the output, so 
+     * that output can be built up as it is produced.</p>
+     */
+    public void appendOutput(CharSequence op, int start, int end) {
+        myOutput.append(op, start, end);
     }
 
     /*public WebSocketWriter getWsWriter(){
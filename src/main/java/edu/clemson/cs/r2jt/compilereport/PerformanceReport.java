@@ -0,0 +1,380 @@
+package edu.clemson.cs.r2jt.compilereport;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Collects the time and memory spent in each phase of compiling each
+ * module, for the <code>-perf</code> flag.</p>
+ *
+ * <p>A phase is timed by bracketing it with {@link #begin(String, Phase)} and
+ * {@link #end(Measurement)}.  Each measurement records the elapsed wall time
+ * and, where the JVM supports it, the CPU time and bytes allocated by the
+ * current thread in between, so a phase must begin and end on the same thread.
+ * While the report is disabled <code>begin()</code> returns <code>null</code>
+ * and <code>end()</code> ignores it, so instrumented code costs next to
+ * nothing when <code>-perf</code> is not given.</p>
+ *
+ * <p>The collected measurements can be printed as a table, one block per
+ * module with one row per phase, or written out as JSON.</p>
+ */
+public class PerformanceReport {
+
+    /**
+     * <p>The compiler phases that are measured, in the order they run.</p>
+     */
+    public static enum Phase {
+
+        LEX("lex"), PARSE("parse"), BUILD("RBuilder"), PREPROCESS(
+                "PreProcessor"), POPULATE("population"), ANALYZE("analysis"),
+        VC_GENERATION("VC generation"), CONVERSION("conversion"), PROVING(
+                "proving"), TRANSLATION("translation");
+
+        private final String myName;
+
+        private Phase(String name) {
+            myName = name;
+        }
+
+        @Override
+        public String toString() {
+            return myName;
+        }
+    }
+
+    private static final ThreadMXBean THREADS =
+            ManagementFactory.getThreadMXBean();
+
+    private boolean myEnabledFlag = false;
+
+    private final List<Measurement> myMeasurements =
+            new ArrayList<Measurement>();
+
+    public void setEnabled(boolean enabled) {
+        myEnabledFlag = enabled;
+
+        if (enabled && THREADS.isThreadCpuTimeSupported()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    public boolean isEnabled() {
+        return myEnabledFlag;
+    }
+
+    /**
+     * <p>Starts measuring <code>phase</code> of the module named
+     * <code>module</code>.</p>
+     *
+     * @return The measurement to pass to {@link #end(Measurement)}, or
+     *         <code>null</code> if this report is disabled.
+     */
+    public Measurement begin(String module, Phase phase) {
+        return begin(module, phase, null);
+    }
+
+    /**
+     * <p>Starts measuring <code>phase</code> of the module named
+     * <code>module</code>, distinguishing it from other measurements of the
+     * same phase by <code>detail</code>, such as the name of the VC being
+     * proved.</p>
+     *
+     * @return The measurement to pass to {@link #end(Measurement)}, or
+     *         <code>null</code> if this report is disabled.
+     */
+    public Measurement begin(String module, Phase phase, String detail) {
+        Measurement retval = null;
+
+        if (myEnabledFlag) {
+            retval = new Measurement(module, phase, detail);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Finishes <code>m</code> and adds it to this report.  Does nothing if
+     * <code>m</code> is <code>null</code>.</p>
+     */
+    public void end(Measurement m) {
+        if (m != null) {
+            m.finish();
+
+            synchronized (myMeasurements) {
+                myMeasurements.add(m);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        synchronized (myMeasurements) {
+            return myMeasurements.isEmpty();
+        }
+    }
+
+    public void clear() {
+        synchronized (myMeasurements) {
+            myMeasurements.clear();
+        }
+    }
+
+    /**
+     * <p>Prints one block per module, in the order the modules were first
+     * measured, with the totals of each of its phases, followed by the
+     * individual measurements of any phase measured more than once with
+     * details, such as proving each VC.</p>
+     */
+    public void printTable(PrintStream out) {
+        Map<String, List<Measurement>> modules = getMeasurementsByModule();
+
+        String format = "%-40s %8s %12s %12s %12s%n";
+        out.printf(format, "Module / Phase", "Count", "Wall (ms)", "CPU (ms)",
+                "Alloc (KB)");
+
+        Total grandTotal = new Total();
+        for (Map.Entry<String, List<Measurement>> module : modules.entrySet()) {
+            out.println(module.getKey());
+
+            Map<Phase, Total> phases = new LinkedHashMap<Phase, Total>();
+            for (Phase p : Phase.values()) {
+                phases.put(p, new Total());
+            }
+
+            Total moduleTotal = new Total();
+            for (Measurement m : module.getValue()) {
+                phases.get(m.myPhase).add(m);
+                moduleTotal.add(m);
+                grandTotal.add(m);
+            }
+
+            for (Map.Entry<Phase, Total> phase : phases.entrySet()) {
+                Total t = phase.getValue();
+                if (t.myCount > 0) {
+                    printRow(out, format, "  " + phase.getKey(), t);
+
+                    if (t.myCount > 1) {
+                        for (Measurement m : module.getValue()) {
+                            if (m.myPhase == phase.getKey()
+                                    && m.myDetail != null) {
+                                printRow(out, format, "    " + m.myDetail,
+                                        new Total(m));
+                            }
+                        }
+                    }
+                }
+            }
+
+            printRow(out, format, "  total", moduleTotal);
+        }
+
+        printRow(out, format, "Total", grandTotal);
+    }
+
+    /**
+     * <p>Writes every measurement, in the order they were taken, as a JSON
+     * object of the form
+     * <code>{"measurements": [{"module": ..., "phase": ..., "detail": ...,
+     * "wallNanos": ..., "cpuNanos": ..., "allocatedBytes": ...}, ...]}</code>.
+     * The <code>detail</code> is omitted where there is none, and
+     * <code>cpuNanos</code> and <code>allocatedBytes</code> are -1 where the
+     * JVM cannot measure them.</p>
+     */
+    public void writeJSON(Writer out) throws IOException {
+        List<Measurement> measurements;
+        synchronized (myMeasurements) {
+            measurements = new ArrayList<Measurement>(myMeasurements);
+        }
+
+        out.write("{\n  \"measurements\": [");
+
+        boolean first = true;
+        for (Measurement m : measurements) {
+            if (!first) {
+                out.write(",");
+            }
+            first = false;
+
+            out.write("\n    {\"module\": ");
+            writeJSONString(out, m.myModule);
+            out.write(", \"phase\": ");
+            writeJSONString(out, m.myPhase.toString());
+            if (m.myDetail != null) {
+                out.write(", \"detail\": ");
+                writeJSONString(out, m.myDetail);
+            }
+            out.write(", \"wallNanos\": " + m.myWallNanos);
+            out.write(", \"cpuNanos\": " + m.myCPUNanos);
+            out.write(", \"allocatedBytes\": " + m.myAllocatedBytes + "}");
+        }
+
+        out.write("\n  ]\n}\n");
+        out.flush();
+    }
+
+    private Map<String, List<Measurement>> getMeasurementsByModule() {
+        Map<String, List<Measurement>> retval =
+                new LinkedHashMap<String, List<Measurement>>();
+
+        synchronized (myMeasurements) {
+            List<Measurement> module;
+            for (Measurement m : myMeasurements) {
+                module = retval.get(m.myModule);
+                if (module == null) {
+                    module = new ArrayList<Measurement>();
+                    retval.put(m.myModule, module);
+                }
+                module.add(m);
+            }
+        }
+
+        return retval;
+    }
+
+    private static void printRow(PrintStream out, String format, String name,
+            Total t) {
+        out.printf(format, name, t.myCount, millis(t.myWallNanos),
+                (t.myCPUNanos < 0 ? "-" : millis(t.myCPUNanos)),
+                (t.myAllocatedBytes < 0 ? "-" : ""
+                        + (t.myAllocatedBytes / 1024)));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1000000.0);
+    }
+
+    private static void writeJSONString(Writer out, String s)
+            throws IOException {
+        out.write('"');
+
+        char c;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            c = s.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            }
+            else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            }
+            else {
+                out.write(c);
+            }
+        }
+
+        out.write('"');
+    }
+
+    private static long getCurrentThreadCPUTime() {
+        long retval = -1;
+
+        if (THREADS.isCurrentThreadCpuTimeSupported()
+                && THREADS.isThreadCpuTimeEnabled()) {
+            retval = THREADS.getCurrentThreadCpuTime();
+        }
+
+        return retval;
+    }
+
+    private static long getCurrentThreadAllocatedBytes() {
+        long retval = -1;
+
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) THREADS;
+
+            if (threads.isThreadAllocatedMemorySupported()
+                    && threads.isThreadAllocatedMemoryEnabled()) {
+                retval =
+                        threads.getThreadAllocatedBytes(Thread.currentThread()
+                                .getId());
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>A single measured phase, as returned by
+     * {@link PerformanceReport#begin(String, Phase, String)}.</p>
+     */
+    public static class Measurement {
+
+        private final String myModule;
+        private final Phase myPhase;
+        private final String myDetail;
+
+        private long myWallNanos;
+        private long myCPUNanos;
+        private long myAllocatedBytes;
+
+        private Measurement(String module, Phase phase, String detail) {
+            myModule = module;
+            myPhase = phase;
+            myDetail = detail;
+
+            myAllocatedBytes = getCurrentThreadAllocatedBytes();
+            myCPUNanos = getCurrentThreadCPUTime();
+            myWallNanos = System.nanoTime();
+        }
+
+        private void finish() {
+            myWallNanos = System.nanoTime() - myWallNanos;
+            myCPUNanos = difference(myCPUNanos, getCurrentThreadCPUTime());
+            myAllocatedBytes =
+                    difference(myAllocatedBytes,
+                            getCurrentThreadAllocatedBytes());
+        }
+
+        private static long difference(long start, long end) {
+            long retval = -1;
+
+            if (start >= 0 && end >= 0) {
+                retval = end - start;
+            }
+
+            return retval;
+        }
+    }
+
+    private static class Total {
+
+        private int myCount;
+        private long myWallNanos;
+        private long myCPUNanos;
+        private long myAllocatedBytes;
+
+        public Total() {}
+
+        public Total(Measurement m) {
+            add(m);
+        }
+
+        public void add(Measurement m) {
+            myCount++;
+            myWallNanos += m.myWallNanos;
+
+            if (m.myCPUNanos < 0 || myCPUNanos < 0) {
+                myCPUNanos = -1;
+            }
+            else {
+                myCPUNanos += m.myCPUNanos;
+            }
+
+            if (m.myAllocatedBytes < 0 || myAllocatedBytes < 0) {
+                myAllocatedBytes = -1;
+            }
+            else {
+                myAllocatedBytes += m.myAllocatedBytes;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package edu.clemson.cs.r2jt.data;
+
+/**
+ * <p>The text of a source file together with the offset at which each of its
+ * lines starts, so that any line can be sliced out of the text directly
+ * rather than by reading every line before it.</p>
+ *
+ * <p>Lines are terminated as they are by <code>java.io.LineNumberReader</code>:
+ * by a line feed, a carriage return, or a carriage return followed by a line
+ * feed.</p>
+ */
+public class LineIndex {
+
+    private final String myText;
+    private final int[] myLineStarts;
+
+    public LineIndex(String text) {
+        myText = text;
+
+        int length = text.length();
+        int lineCount = 0;
+        int[] starts = new int[16];
+        int offset = 0;
+        while (offset < length) {
+            if (lineCount == starts.length) {
+                int[] grown = new int[starts.length * 2];
+                System.arraycopy(starts, 0, grown, 0, lineCount);
+                starts = grown;
+            }
+            starts[lineCount++] = offset;
+
+            offset = nextLineStart(text, offset);
+        }
+
+        myLineStarts = new int[lineCount];
+        System.arraycopy(starts, 0, myLineStarts, 0, lineCount);
+    }
+
+    public String getText() {
+        return myText;
+    }
+
+    public int getLineCount() {
+        return myLineStarts.length;
+    }
+
+    /**
+     * <p>Returns line <code>n</code>, counting from 1, without its line
+     * terminator, or <code>null</code> if there is no such line.</p>
+     */
+    public String getLine(int n) {
+        String retval = null;
+
+        if (n >= 1 && n <= myLineStarts.length) {
+            int start = myLineStarts[n - 1];
+            int end;
+            if (n == myLineStarts.length) {
+                end = myText.length();
+            }
+            else {
+                end = myLineStarts[n];
+            }
+
+            if (end > start && myText.charAt(end - 1) == '\n') {
+                end--;
+            }
+            if (end > start && myText.charAt(end - 1) == '\r') {
+                end--;
+            }
+
+            retval = myText.substring(start, end);
+        }
+
+        return retval;
+    }
+
+    private static int nextLineStart(String text, int offset) {
+        int length = text.length();
+        char c;
+        while (offset < length) {
+            c = text.charAt(offset++);
+
+            if (c == '\n') {
+                break;
+            }
+            else if (c == '\r') {
+                if (offset < length && text.charAt(offset) == '\n') {
+                    offset++;
+                }
+                break;
+            }
+        }
+
+        return offset;
+    }
+}
@@ -17,6 +17,7 @@ public class MetaFile {
     private String myAssocConcept;
     private String myPkg;
     private String myFileSource;
+    private LineIndex myLineIndex;
     private ModuleKind myKind;
     private boolean myCustom;
     private String myCustomPath;
@@ -46,6 +47,7 @@ public class MetaFile {
 
     public void setMyFileSource(String myFileSource) {
         this.myFileSource = myFileSource;
+        myLineIndex = null;
     }
 
     public void setIsCustomLoc() {
@@ -76,6 +78,18 @@ public class MetaFile {
         return myFileSource;
     }
 
+    /**
+     * <p>Returns the line index of this file's source, built the first time
+     * it is asked for and shared by everything reporting errors in it.</p>
+     */
+    public synchronized LineIndex getLineIndex() {
+        if (myLineIndex == null) {
+            myLineIndex = new LineIndex(myFileSource);
+        }
+
+        return myLineIndex;
+    }
+
     public ModuleKind getMyKind() {
         return myKind;
     }
@@ -64,8 +64,11 @@ import antlr.NoViableAltException;
 import antlr.Token;
 import antlr.collections.AST;
 import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import edu.clemson.cs.r2jt.compilereport.CompileError;
+import edu.clemson.cs.r2jt.data.LineIndex;
 import edu.clemson.cs.r2jt.data.Location;
-import edu.clemson.cs.r2jt.data.MetaFile;
 import edu.clemson.cs.r2jt.data.Pos;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.init.Environment;
@@ -106,6 +109,11 @@ public class ErrorHandler {
 
     private boolean webOutput;
 
+    /* The line index of each file lexed or excerpted so far, keyed by its
+     * absolute path, so that excerpting a line does not reread the file. */
+    private final Map<String, LineIndex> myLineIndexes =
+            new HashMap<String, LineIndex>();
+
     // ===========================================================
     // Constructors
     // ===========================================================
@@ -146,6 +154,17 @@ public class ErrorHandler {
         this.myFile = file;
     }
 
+    /**
+     * Records the contents of <code>file</code>, as it was lexed, so that
+     * lines of it can be excerpted in later messages without reading it
+     * again.
+     */
+    public void setSource(File file, String source) {
+        synchronized (myLineIndexes) {
+            myLineIndexes.put(file.getAbsolutePath(), new LineIndex(source));
+        }
+    }
+
     // ===========================================================
     // Public Methods
     // ===========================================================
@@ -192,12 +211,8 @@ public class ErrorHandler {
             updateErrorCount();
         }
 
-        String json = "{";
-        json += "\"fn\":\"" + fileName + "\",";
-        json += "\"ln\":\"" + lineNum + "\",";
-        json += "\"msg\":\"" + ResolveCompiler.webEncode(msg) + "\"";
-        json += "}";
-        myInstanceEnvironment.getCompileReport().addError(json);
+        myInstanceEnvironment.getCompileReport().addError(
+                new CompileError(fileName, lineNum, msg));
     }
 
     /** Outputs an error message. */
@@ -465,6 +480,15 @@ public class ErrorHandler {
         warningCount = 0;
     }
 
+    /**
+     * Adds the error and warning counts of <code>other</code> to those of
+     * this handler, as though its messages had been reported here.
+     */
+    public void addCounts(ErrorHandler other) {
+        errorCount += other.errorCount;
+        warningCount += other.warningCount;
+    }
+
     public boolean countExceeds(int n) {
         return (errorCount > n);
     }
@@ -522,45 +546,57 @@ public class ErrorHandler {
     }
 
     private String printLine(File file, int n) {
-        String str = "";
+        String str = getLineIndex(file).getLine(n);
+        if (str == null) {
+            str = "";
+        }
+        return str;
+    }
+
+    private LineIndex getLineIndex(File file) {
+        LineIndex index;
         String fileName = file.getName();
         fileName = fileName.substring(0, fileName.indexOf("."));
         String pkg = file.getParentFile().getName();
-        //System.out.println("compilePosModule: "+targetFile.getName().getLocation());
         String key = pkg + "." + fileName;
-        //System.out.println("Checking UserFileMap for: " + key + " (ErrorHandler(522)");
         if (myInstanceEnvironment.isUserFile(key)) {
-            //System.out.println("found: "+key);
-            MetaFile inputFile = myInstanceEnvironment.getUserFileFromMap(key);
-            String source = inputFile.getMyFileSource();
-            StringReader sr = new StringReader(source);
-            LineNumberReader reader = new LineNumberReader(sr);
-            try {
-                for (int i = 1; i < n; i++) {
-                    reader.readLine();
+            index =
+                    myInstanceEnvironment.getUserFileFromMap(key)
+                            .getLineIndex();
+        }
+        else {
+            synchronized (myLineIndexes) {
+                index = myLineIndexes.get(file.getAbsolutePath());
+                if (index == null) {
+                    index = new LineIndex(readFile(file));
+                    myLineIndexes.put(file.getAbsolutePath(), index);
                 }
-                str = reader.readLine();
-            }
-            catch (IOException ioEx) {
-                System.err.println(ioEx);
             }
         }
-        else {
+        return index;
+    }
+
+    private String readFile(File file) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            Reader reader = new FileReader(file);
             try {
-                FileReader fileReader = new FileReader(file);
-                LineNumberReader reader = new LineNumberReader(fileReader);
-                for (int i = 1; i < n; i++) {
-                    reader.readLine();
+                char[] buffer = new char[8192];
+                int count;
+                while ((count = reader.read(buffer)) != -1) {
+                    sb.append(buffer, 0, count);
                 }
-                str = reader.readLine();
-            }
-            catch (FileNotFoundException fileEx) {
-                System.err.println(fileEx);
             }
-            catch (IOException ioEx) {
-                System.err.println(ioEx);
+            finally {
+                reader.close();
             }
         }
-        return str;
+        catch (FileNotFoundException fileEx) {
+            System.err.println(fileEx);
+        }
+        catch (IOException ioEx) {
+            System.err.println(ioEx);
+        }
+        return sb.toString();
     }
 }
@@ -11,6 +11,7 @@ import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.collections.Map;
 import edu.clemson.cs.r2jt.collections.Stack;
 import edu.clemson.cs.r2jt.compilereport.CompileReport;
+import edu.clemson.cs.r2jt.compilereport.PerformanceReport;
 import edu.clemson.cs.r2jt.data.MetaFile;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.errors.ErrorHandler;
@@ -46,6 +47,7 @@ public class CompileEnvironment {
 
     private ErrorHandler err;
     private CompileReport myCompileReport = new CompileReport();
+    private PerformanceReport myPerformanceReport = new PerformanceReport();
     private String myTargetSource = null;
     private String myTargetFileName = null;
     private String myCurrentTargetFileName = null;
@@ -76,6 +78,7 @@ public class CompileEnvironment {
     private boolean debugOff = false;
 
     private String outputFile = null;
+    private String myPerformanceFile = null;
 
     /**
      * Array of the names of the Std Facilities to be automatically included by
@@ -220,6 +223,7 @@ public class CompileEnvironment {
         showTable = false;
         showBind = false;
         perf = false;
+        myPerformanceReport.setEnabled(false);
     }
 
     /*public static Environment getInstance() {
@@ -332,10 +336,22 @@ public class CompileEnvironment {
     }
 
     /**
-     * For performance.
+     * Indicates that the time and memory spent in each phase of compiling
+     * each module should be measured and reported.
      */
     public void setPerformanceFlag() {
         perf = true;
+        myPerformanceReport.setEnabled(true);
+    }
+
+    /**
+     * Indicates that the performance measurements should be written as JSON
+     * to the specified file rather than printed as a table.  Implies the
+     * performance flag.
+     */
+    public void setPerformanceFile(String performanceFile) {
+        myPerformanceFile = performanceFile;
+        setPerformanceFlag();
     }
 
     /**
@@ -385,12 +401,29 @@ public class CompileEnvironment {
     }
 
     /**
-     * For performance.
+     * Returns true if the time and memory spent in each phase of compiling
+     * each module is being measured, false otherwise.
      */
     public boolean perf() {
         return perf;
     }
 
+    /**
+     * Returns the file the performance measurements should be written to as
+     * JSON, or null if they should be printed as a table.
+     */
+    public String getPerformanceFile() {
+        return myPerformanceFile;
+    }
+
+    /**
+     * Returns the report collecting the performance measurements.  It is
+     * disabled unless the performance flag has been set.
+     */
+    public PerformanceReport getPerformanceReport() {
+        return myPerformanceReport;
+    }
+
     /**
      * Returns true iff we should suppress debug output.
      */
@@ -61,6 +61,11 @@ package edu.clemson.cs.r2jt.init;
 import java.io.*;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -81,13 +86,15 @@ import edu.clemson.cs.r2jt.archiving.Archiver;
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.compilereport.CompileReport;
+import edu.clemson.cs.r2jt.compilereport.PerformanceReport;
+import edu.clemson.cs.r2jt.compilereport.PerformanceReport.Measurement;
+import edu.clemson.cs.r2jt.compilereport.PerformanceReport.Phase;
 import edu.clemson.cs.r2jt.data.*;
 import edu.clemson.cs.r2jt.errors.ErrorHandler;
 import edu.clemson.cs.r2jt.errors.BugReport;
 import edu.clemson.cs.r2jt.parsing.*;
 import edu.clemson.cs.r2jt.population.*;
 import edu.clemson.cs.r2jt.processing.*;
-import edu.clemson.cs.r2jt.proving.AlternativeProver;
 import edu.clemson.cs.r2jt.proving.Prover;
 import edu.clemson.cs.r2jt.proving.ProverException;
 import edu.clemson.cs.r2jt.proving.TheoremToVCsConverter;
@@ -116,9 +123,17 @@ public class Controller {
     //private Environment myInstanceEnvironment = Environment.getInstance();
     private final CompileEnvironment myInstanceEnvironment;
     CompileReport myCompileReport;
+    private final PerformanceReport myPerformanceReport;
     private Archiver myArchive;
     //private final Archiver myArchive;
 
+    /*
+     * While archiving, translations wait here until every module is compiled
+     * and then run together; see runPendingTranslations().
+     */
+    private final List<Translation> myPendingTranslations =
+            new List<Translation>();
+
     private ErrorHandler err;
 
     //private Archiver arc = Archiver.getInstance();
@@ -138,6 +153,7 @@ public class Controller {
         myInstanceEnvironment = e;
         err = e.getErrorHandler();
         myCompileReport = e.getCompileReport();
+        myPerformanceReport = e.getPerformanceReport();
         /*if(myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)){
         	myArchive = new Archiver(myInstanceEnvironment);
         }
@@ -182,6 +198,7 @@ public class Controller {
             }
         }
         else {
+            myPendingTranslations.clear();
             if (myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
                 myArchive = new Archiver(myInstanceEnvironment, file, null);
             }
@@ -203,9 +220,11 @@ public class Controller {
                 //arc.printArchiveList();
                 //arc.prepArchiver(file);
 
+                runPendingTranslations();
                 myArchive.cleanupFiles();
             }
         }
+        reportPerformance();
     }
 
     /**
@@ -222,6 +241,7 @@ public class Controller {
         else {
             //myInstanceEnvironment.setTargetFileName("Std_Unbounded_List_Realiz.rb");
             //myInstanceEnvironment.setTargetSource(myInstanceEnvironment.getUserFileFromMap("Unbounded_List_Template.Std_Unbounded_List_Realiz"));
+            myPendingTranslations.clear();
             if (myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
                 //System.out.println(inputFile.getMyFile(myInstanceEnvironment.getMainDir()));
                 if (inputFile.getMyKind().equals(ModuleKind.FACILITY)) {
@@ -252,6 +272,7 @@ public class Controller {
                 //arc.printArchiveList();
                 //arc.prepArchiver(file);
 
+                runPendingTranslations();
                 myArchive.cleanupFiles();
             }
         }
@@ -268,12 +289,45 @@ public class Controller {
         } else { */
 
         //}
+        reportPerformance();
     }
 
     // ===========================================================
     // Private Methods
     // ===========================================================
 
+    /**
+     * Prints the performance measurements taken while compiling the last
+     * target, if any, and clears them.  If a performance file was given, the
+     * measurements of every target compiled so far are written to it as JSON
+     * instead.
+     */
+    private void reportPerformance() {
+        if (myPerformanceReport.isEnabled() && !myPerformanceReport.isEmpty()) {
+            String performanceFile = myInstanceEnvironment.getPerformanceFile();
+            if (performanceFile == null) {
+                myPerformanceReport.printTable(System.out);
+                myPerformanceReport.clear();
+            }
+            else {
+                try {
+                    Writer out =
+                            new BufferedWriter(new FileWriter(performanceFile));
+                    try {
+                        myPerformanceReport.writeJSON(out);
+                    }
+                    finally {
+                        out.close();
+                    }
+                }
+                catch (IOException e) {
+                    err.error("Could not write performance report to "
+                            + performanceFile + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
     // -----------------------------------------------------------
     // New Target File Compilation Methods
     // -----------------------------------------------------------
@@ -388,7 +442,6 @@ public class Controller {
 
     private void compileNewTargetFile(File file) {
         //private File compileNewTargetFile(File file) {
-        //long start = System.currentTimeMillis();
         try {
             // AST debugging file output
             /*astDumpFile = new File(myInstanceEnvironment.getTargetFile()+".ast");
@@ -410,9 +463,7 @@ public class Controller {
             compileImportedModules(dec);
 
             /* Invoke PreProcessor */
-            PreProcessor preProc = new PreProcessor(myInstanceEnvironment);
-            TreeWalker tw = new TreeWalker(preProc);
-            tw.visit(dec);
+            preProcessModuleDec(dec);
 
             /* Have compile imported modules bring in extra stuff that 
              * the PreProcessor may have added manually.
@@ -437,6 +488,7 @@ public class Controller {
                 //System.out.println("Translated: " + file.toString());
                 if (myInstanceEnvironment.flags
                         .isFlagSet(Archiver.FLAG_ARCHIVE)) {
+                    runPendingTranslations();
                     myArchive.addFileToArchive(file);
                     if (!myCompileReport.hasError()) {
                         if (myArchive.createJar()) {
@@ -470,13 +522,10 @@ public class Controller {
             BugReport.abortProgram(ex, myInstanceEnvironment);
             myCompileReport.setError();
         }
-        //long end = System.currentTimeMillis();
-        //System.out.println("Execution time: " + (end - start) + " ms");
     }
 
     private void compileNewTargetSource(MetaFile inputFile) {
         //private File compileNewTargetFile(File file) {
-        //long start = System.currentTimeMillis();CharStream cs = null;
         File file = null;
         try {
             // AST debugging file output
@@ -510,7 +559,7 @@ public class Controller {
                     getSourceTokenStream(fileName, fileSource);
             CommonTree ast = getParseTree(fileName, tokens);
             //myInstanceEnvironment.setCurrentTargetFileName(file.getName());
-            ModuleDec dec = getModuleDec(ast);
+            ModuleDec dec = getModuleDec(fileName, ast);
             ModuleID id = ModuleID.createID(dec);
 
             checkNameCompatibility(dec.getName().getLocation(), id, file);
@@ -522,9 +571,7 @@ public class Controller {
             compileImportedModules(dec);
 
             /* Invoke PreProcessor */
-            PreProcessor preProc = new PreProcessor(myInstanceEnvironment);
-            TreeWalker tw = new TreeWalker(preProc);
-            tw.visit(dec);
+            preProcessModuleDec(dec);
 
             /* Have compile imported modules bring in extra stuff that 
              * the PreProcessor may have added manually.
@@ -552,6 +599,7 @@ public class Controller {
                 //System.out.println("Translated: " + file.toString());
                 if (myInstanceEnvironment.flags
                         .isFlagSet(Archiver.FLAG_ARCHIVE)) {
+                    runPendingTranslations();
                     myArchive.addFileToArchive(file);
                     if (!myCompileReport.hasError()) {
                         if (myArchive.createJar()) {
@@ -580,8 +628,6 @@ public class Controller {
             BugReport.abortProgram(ex, myInstanceEnvironment);
             myCompileReport.setError();
         }
-        //long end = System.currentTimeMillis();
-        //System.out.println("Execution time: " + (end - start) + " ms");
     }
 
     private File createFileFromSource(ModuleID id, String fileName) {
@@ -590,7 +636,6 @@ public class Controller {
     }
 
     /*private void simpleTranslateNewTargetFile(File file) {
-    	//long start = System.currentTimeMillis();
     	CharStream cs = null;
     	try {
     		String fileName = file.getAbsolutePath();
@@ -601,12 +646,9 @@ public class Controller {
     		BugReport.abortProgram(ex, myInstanceEnvironment);
     		myCompileReport.setError();
     	}
-    	//long end = System.currentTimeMillis();
-    	//System.out.println("Execution time: " + (end - start) + " ms");
     }*/
 
     private void simpleTranslateNewTargetFile(File file) {
-        //long start = System.currentTimeMillis();
         //File file = null;
         try {
             // AST debugging file output
@@ -679,12 +721,9 @@ public class Controller {
             BugReport.abortProgram(ex, myInstanceEnvironment);
             myCompileReport.setError();
         }
-        //long end = System.currentTimeMillis();
-        //System.out.println("Execution time: " + (end - start) + " ms");
     }
 
     private void simpleTranslateNewTargetSource(MetaFile inputFile) {
-        //long start = System.currentTimeMillis();
         /*CharStream cs = null;
         try {
         	String fileName = myInstanceEnvironment.getTargetFileName();
@@ -729,7 +768,7 @@ public class Controller {
                     getSourceTokenStream(fileName, fileSource);
             CommonTree ast = getParseTree(fileName, tokens);
             //myInstanceEnvironment.setCurrentTargetFileName(file.getName());
-            ModuleDec dec = getModuleDec(ast);
+            ModuleDec dec = getModuleDec(fileName, ast);
             ModuleID id = ModuleID.createID(dec);
 
             checkNameCompatibility(dec.getName().getLocation(), id, file);
@@ -789,8 +828,6 @@ public class Controller {
             BugReport.abortProgram(ex, myInstanceEnvironment);
             myCompileReport.setError();
         }
-        //long end = System.currentTimeMillis();
-        //System.out.println("Execution time: " + (end - start) + " ms");
     }
 
     private void simpleTranslateTree(CommonTree ast, CommonTokenStream tokens) {
@@ -931,9 +968,7 @@ public class Controller {
             compileImportedModules(dec);
 
             /* Invoke PreProcessor */
-            PreProcessor preProc = new PreProcessor(myInstanceEnvironment);
-            TreeWalker tw = new TreeWalker(preProc);
-            tw.visit(dec);
+            preProcessModuleDec(dec);
 
             /* Have compile imported modules bring in extra stuff that 
              * the PreProcessor may have added manually.
@@ -983,7 +1018,7 @@ public class Controller {
             myInstanceEnvironment.setTargetFile(file);
             CommonTokenStream tokens = getSourceTokenStream(name, fileSource);
             CommonTree ast = getParseTree(name, tokens);
-            ModuleDec dec = getModuleDec(ast);
+            ModuleDec dec = getModuleDec(name, ast);
             ModuleID id = ModuleID.createID(dec);
 
             //System.out.println(file.toString() + " Controller(772)");
@@ -994,9 +1029,7 @@ public class Controller {
             compileImportedModules(dec);
 
             /* Invoke PreProcessor */
-            PreProcessor preProc = new PreProcessor(myInstanceEnvironment);
-            TreeWalker tw = new TreeWalker(preProc);
-            tw.visit(dec);
+            preProcessModuleDec(dec);
 
             /* Have compile imported modules bring in extra stuff that 
              * the PreProcessor may have added manually.
@@ -1048,7 +1081,7 @@ public class Controller {
         //err.setFile(file);
         CommonTokenStream tokens = getFileTokenStream(file);
         CommonTree ast = getParseTree(file.toString(), tokens);
-        ModuleDec dec = getModuleDec(ast);
+        ModuleDec dec = getModuleDec(file.toString(), ast);
         return dec;
     }
 
@@ -1056,11 +1089,25 @@ public class Controller {
             throws Exception {
         CommonTree ast = null;
         int initErrorCount = err.getErrorCount();
+        String moduleName = new File(fileName).getName();
+
+        if (myPerformanceReport.isEnabled()) {
+            // The parser normally pulls tokens from the lexer as it goes, so
+            // lex the whole module up front to measure lexing on its own
+            Measurement lexing =
+                    myPerformanceReport.begin(moduleName, Phase.LEX);
+            tokens.fill();
+            myPerformanceReport.end(lexing);
+        }
+
+        Measurement parsing =
+                myPerformanceReport.begin(moduleName, Phase.PARSE);
         RParser parser = new RParser(tokens);
 
         ColsASTAdaptor adaptor = new ColsASTAdaptor();
         parser.setTreeAdaptor(adaptor);
         RuleReturnScope results = parser.module(err);
+        myPerformanceReport.end(parsing);
         if (myInstanceEnvironment.flags
                 .isFlagSet(ResolveCompiler.FLAG_EXPORT_AST)) {
             if (fileName.equals(myInstanceEnvironment.getTargetFile()
@@ -1084,6 +1131,7 @@ public class Controller {
             int initErrorCount = err.getErrorCount();
             String fileName = file.getAbsolutePath();
             cs = new ANTLRFileStream(fileName);
+            err.setSource(file, cs.substring(0, cs.size() - 1));
             RLexer lexer = new RLexer(cs);
             tokens = new CommonTokenStream();
             tokens.setTokenSource(lexer);
@@ -1120,7 +1168,8 @@ public class Controller {
         return tokens;
     }
 
-    private ModuleDec getModuleDec(CommonTree ast) throws Exception {
+    private ModuleDec getModuleDec(String fileName, CommonTree ast)
+            throws Exception {
         // AST debugging file output
         /*try{
         	FileWriter fstream = new FileWriter(astDumpFile, true);
@@ -1131,10 +1180,14 @@ public class Controller {
         	
         }*/
         int initErrorCount = err.getErrorCount();
+        Measurement building =
+                myPerformanceReport.begin(new File(fileName).getName(),
+                        Phase.BUILD);
         RBuilder builder = new RBuilder(new CommonTreeNodeStream(ast));
         ColsASTAdaptor adaptor = new ColsASTAdaptor();
         builder.setTreeAdaptor(adaptor);
         ModuleDec dec = builder.module(err).dec;
+        myPerformanceReport.end(building);
 
         String currFileName = dec.getName().getFile().toString();
         if (myInstanceEnvironment.flags
@@ -1153,6 +1206,24 @@ public class Controller {
         return dec;
     }
 
+    private void preProcessModuleDec(ModuleDec dec) {
+        Measurement preProcessing =
+                myPerformanceReport.begin(getModuleName(dec), Phase.PREPROCESS);
+        PreProcessor preProc = new PreProcessor(myInstanceEnvironment);
+        TreeWalker tw = new TreeWalker(preProc);
+        tw.visit(dec);
+        myPerformanceReport.end(preProcessing);
+    }
+
+    /**
+     * Returns the name under which the phases of compiling <code>dec</code>
+     * are measured, which is the name of the file it came from.
+     */
+    private String getModuleName(ModuleDec dec) {
+        File file = dec.getName().getFile();
+        return (file == null) ? dec.getName().getName() : file.getName();
+    }
+
     // -----------------------------------------------------------
     // Import Compilation Methods
     // -----------------------------------------------------------
@@ -1458,6 +1529,9 @@ public class Controller {
     private MathExpTypeResolver getSymbolTable(ModuleDec dec)
             throws CompilerException {
         int initErrorCount = err.getErrorCount();
+        String moduleName = getModuleName(dec);
+        Measurement population =
+                myPerformanceReport.begin(moduleName, Phase.POPULATE);
         SymbolTable table =
                 new SymbolTable(ModuleID.createID(dec), myInstanceEnvironment);
         Populator populator = new Populator(table, myInstanceEnvironment);
@@ -1475,6 +1549,7 @@ public class Controller {
                 new VisitorSanityCheck(myInstanceEnvironment);
         TreeWalker tw = new TreeWalker(sctwv);
         tw.visit(dec);
+        myPerformanceReport.end(population);
 
         // ************************************************************
 
@@ -1491,6 +1566,8 @@ public class Controller {
                         myInstanceEnvironment);
             }
         } // DEBUG
+        Measurement analysis =
+                myPerformanceReport.begin(moduleName, Phase.ANALYZE);
         table.bindTypeNames();
         if (err.getErrorCount() != initErrorCount) {
             throw new CompilerException();
@@ -1502,6 +1579,7 @@ public class Controller {
         } // DEBUG
         Analyzer analyzer = new Analyzer(table, myInstanceEnvironment);
         analyzer.visitModuleDec(dec);
+        myPerformanceReport.end(analysis);
         if (err.getErrorCount() != initErrorCount) {
             throw new CompilerException();
         }
@@ -1520,28 +1598,41 @@ public class Controller {
 
         // Create a new instance of the VC Generator and invoke the
         // tree walker on it.
+        Measurement generation =
+                myPerformanceReport.begin(getModuleName(dec),
+                        Phase.VC_GENERATION);
         VCGenerator vcgen = new VCGenerator(table, myInstanceEnvironment);
         TreeWalker tw = new TreeWalker(vcgen);
         tw.visit(dec);
+        myPerformanceReport.end(generation);
     }
 
     private void verifyModuleDec(MathExpTypeResolver context, ModuleDec dec) {
         SymbolTable table = context.getSymbolTable();
+        String moduleName = getModuleName(dec);
+        Measurement generation =
+                myPerformanceReport.begin(moduleName, Phase.VC_GENERATION);
         Verifier verifier = new Verifier(table, myInstanceEnvironment);
         verifier.visitModuleDec(dec);
         verifier.outputAsrt();
-
-        //Regardless of whether or not we intend to do any proving, we sanity
-        //check resulting VCs so that we fail early if there's a problem.  The
-        //most likely problem is that some Exp in one of the generated VCs got
-        //through without typing information--which would cause the Prover to
-        //(rightly) crash.
+        myPerformanceReport.end(generation);
+
+        //Regardless of whether or not we intend to do any proving, we convert
+        //resulting VCs to the Prover's immutable form so that we fail early if
+        //there's a problem.  The most likely problem is that some Exp in one of
+        //the generated VCs got through without typing information--which would
+        //cause the Prover to (rightly) crash.  Each converted VC is cached
+        //inside its VerificationCondition, so the Prover starts from this
+        //conversion rather than repeating it.
         Iterable<VerificationCondition> vcsToProve =
                 getVCsToProve(verifier, dec);
 
+        Measurement conversion =
+                myPerformanceReport.begin(moduleName, Phase.CONVERSION);
         try {
             for (VerificationCondition vc : vcsToProve) {
-                AlternativeProver.convertToImmutableVC(vc, context);
+                vc.propagateExpansionsInPlace();
+                vc.getImmutableVC(context);
             }
         }
         catch (Exception e) {
@@ -1549,6 +1640,7 @@ public class Controller {
             			"not valid Prover input!  See 'caused by' Exception for " +
             			"details.", e);*/
         }
+        myPerformanceReport.end(conversion);
         //End sanity check
 
         if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_LEGACY_PROVE)
@@ -1599,8 +1691,20 @@ public class Controller {
     // ------------------------------------------------------------
 
     private void translateModuleDec(File file, SymbolTable table, ModuleDec dec) {
+        /*
+         * A translation put off while archiving runs alongside others, so it
+         * reports to a handler of its own, whose counts are added to err once
+         * they have all finished.
+         */
+        ErrorHandler translationErr = err;
+        if (myArchive != null) {
+            translationErr = new ErrorHandler(myInstanceEnvironment);
+            translationErr.setFile(file);
+            translationErr.setIgnore(err.getIgnore());
+        }
         Translator translator =
-                new Translator(myInstanceEnvironment, table, dec, err);
+                new Translator(myInstanceEnvironment, table, dec,
+                        translationErr);
         if (myArchive != null && !translator.onNoCompileList(file)) {
             myArchive.addFileToArchive(file);
         }
@@ -1608,10 +1712,96 @@ public class Controller {
         String thisFile = dec.getName().getFile().toString();
         // We only translate if this is the target file or if file is stale
         if ((thisFile.equals(targetFile)) || translator.needToTranslate(file)) {
+            Translation translation =
+                    new Translation(file, translator, dec, translationErr);
+            if (myArchive != null) {
+                myPendingTranslations.add(translation);
+            }
+            else {
+                translation.call();
+            }
+        }
+    }
+
+    /*
+     * Runs the translations put off while archiving, concurrently.  By now
+     * the symbol tables of all the modules they translate are complete and
+     * the environment is no longer changing, so each translator only reads
+     * shared state, apart from the symbol table of its own module and the
+     * error handler it was given, whose counts are added to err once all
+     * of the translations are done.  The Archiver then compiles all of the
+     * resulting Java files with a single run of javac.
+     */
+    private void runPendingTranslations() {
+        int count = myPendingTranslations.size();
+        try {
+            if (count == 1) {
+                myPendingTranslations.get(0).call();
+            }
+            else if (count > 1) {
+                int threads =
+                        Math.min(count, Runtime.getRuntime()
+                                .availableProcessors());
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                try {
+                    for (Future<Void> translation : pool
+                            .invokeAll(myPendingTranslations)) {
+                        translation.get();
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+                finally {
+                    pool.shutdown();
+                }
+            }
+        }
+        finally {
+            for (Translation translation : myPendingTranslations) {
+                err.addCounts(translation.myErrors);
+            }
+            myPendingTranslations.clear();
+        }
+    }
+
+    private class Translation implements Callable<Void> {
+
+        private final File myFile;
+        private final Translator myTranslator;
+        private final ModuleDec myDec;
+        private final ErrorHandler myErrors;
+
+        public Translation(File file, Translator translator, ModuleDec dec,
+                ErrorHandler errors) {
+            myFile = file;
+            myTranslator = translator;
+            myDec = dec;
+            myErrors = errors;
+        }
+
+        public Void call() {
+            Measurement translation =
+                    myPerformanceReport.begin(myFile.getName(),
+                            Phase.TRANSLATION);
             //System.out.println("Starting Translation: "+dec.getName().getName());
-            translator.visitModuleDec(dec);
+            myTranslator.visitModuleDec(myDec);
             //System.out.println("Translated: "+dec.getName().getName());
-            translator.outputJavaCode(file);
+            myTranslator.outputJavaCode(myFile);
+            myPerformanceReport.end(translation);
+
+            return null;
         }
     }
 
@@ -1623,10 +1813,14 @@ public class Controller {
         String thisFile = dec.getName().getFile().toString();
         // We only translate if this is the target file or if file is stale
         if ((thisFile.equals(targetFile)) || translator.needToTranslate(file)) {
+            Measurement translation =
+                    myPerformanceReport
+                            .begin(file.getName(), Phase.TRANSLATION);
             //System.out.println("Starting Translation: "+dec.getName().getName());
             translator.visitModuleDec(dec);
             //System.out.println("Translated: "+dec.getName().getName());
             translator.outputJavaCode(file);
+            myPerformanceReport.end(translation);
         }
     }
 
@@ -192,16 +192,8 @@ public class OperationLocator {
 
     private List<OperationEntry> locateOperationsInImports(PosSymbol name)
             throws SymbolSearchException {
-        List<OperationEntry> opers = new List<OperationEntry>();
-        Iterator<ModuleScope> i =
-                table.getModuleScope().getProgramVisibleModules();
-        while (i.hasNext()) {
-            ModuleScope iscope = i.next();
-            if (iscope.containsOperation(name.getSymbol())) {
-                opers.add(iscope.getOperation(name.getSymbol()));
-            }
-        }
-        return opers;
+        return table.getModuleScope().getProgramVisibleOperations(
+                name.getSymbol());
     }
 
     private OperationEntry getUniqueOperation(PosSymbol name,
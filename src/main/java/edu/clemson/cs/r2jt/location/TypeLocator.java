@@ -475,8 +475,7 @@ public class TypeLocator {
             return entry;
         }
         List<TypeEntry> entries =
-                getTypeEntries(tid.getName(), modscope
-                        .getProgramVisibleModules());
+                modscope.getProgramVisibleTypes(tid.getName());
 
         if (entries.size() == 0) {
             String msg = cantFindProgTypeMessage(tid.getName().toString());
@@ -570,8 +569,7 @@ public class TypeLocator {
                 return entry;
             }
         }
-        List<TypeEntry> entries =
-                getTypeEntries(tid.getName(), modscope.getMathVisibleModules());
+        List<TypeEntry> entries = modscope.getMathVisibleTypes(tid.getName());
         if (entries.size() == 0) {
             String msg = cantFindTypeMessage(tid.getName().toString());
             throw new SymbolSearchException(msg);
@@ -304,16 +304,7 @@ public class VariableLocator {
 
     public List<VarEntry> locateMathVariablesInImports(PosSymbol name)
             throws SymbolSearchException {
-        List<VarEntry> vars = new List<VarEntry>();
-        Iterator<ModuleScope> i =
-                table.getModuleScope().getMathVisibleModules();
-        while (i.hasNext()) {
-            ModuleScope iscope = i.next();
-            if (iscope.containsVariable(name.getSymbol())) {
-                vars.add(iscope.getVariable(name.getSymbol()));
-            }
-        }
-        return vars;
+        return table.getModuleScope().getMathVisibleVariables(name.getSymbol());
     }
 
     // ===========================================================
@@ -387,16 +378,8 @@ public class VariableLocator {
 
     private List<VarEntry> locateProgramVariablesInImports(PosSymbol name)
             throws SymbolSearchException {
-        List<VarEntry> vars = new List<VarEntry>();
-        Iterator<ModuleScope> i =
-                table.getModuleScope().getProgramVisibleModules();
-        while (i.hasNext()) {
-            ModuleScope iscope = i.next();
-            if (iscope.containsVariable(name.getSymbol())) {
-                vars.add(iscope.getVariable(name.getSymbol()));
-            }
-        }
-        return vars;
+        return table.getModuleScope().getProgramVisibleVariables(
+                name.getSymbol());
     }
 
     private VarEntry getUniqueProgramVariable(PosSymbol name,
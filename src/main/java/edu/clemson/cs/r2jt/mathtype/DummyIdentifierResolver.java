@@ -13,6 +13,13 @@ public class DummyIdentifierResolver extends IdentifierResolver {
         throw new NoSuchSymbolException(name);
     }
 
+    @Override
+    MathSymbolTableEntry findInnermostBinding(String name,
+            MathSymbolTable.ImportStrategy importStrategy) {
+
+        return null;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public List<MathSymbolTableEntry> getAllBindings(String name,
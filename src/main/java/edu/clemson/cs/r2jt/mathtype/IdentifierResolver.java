@@ -82,6 +82,47 @@ public abstract class IdentifierResolver {
             throws NoSuchSymbolException,
                 DuplicateSymbolException;
 
+    /**
+     * <p>Behaves exactly as 
+     * {@link #getInnermostBinding(String, MathSymbolTable.ImportStrategy)
+     * getInnermostBinding()}, except that if there is no declaration for the
+     * given symbol, returns <code>null</code> rather than throwing a
+     * <code>NoSuchSymbolException</code>.  Searches that routinely miss, such
+     * as a search that fails over from a scope to its imports, should use this
+     * method so that each miss does not cost an exception.</p>
+     * 
+     * <p>By default this simply catches the exception thrown by
+     * <code>getInnermostBinding()</code>.  Subclasses that can detect a miss
+     * more cheaply should override it.</p>
+     * 
+     * @param name The symbol to find.
+     * @param importStrategy The strategy to use when searching imported modules
+     *            if no declaration can be found in this scope.
+     * 
+     * @return Information about the innermost declaration of a symbol with
+     *         the given name, or <code>null</code> if there is no such 
+     *         declaration.
+     * 
+     * @throws DuplicateSymbolException If the given symbol appears in two or
+     *             more imports as permitted by the given
+     *             <code>ImportStrategy</code>.
+     */
+    MathSymbolTableEntry findInnermostBinding(String name,
+            MathSymbolTable.ImportStrategy importStrategy)
+            throws DuplicateSymbolException {
+
+        MathSymbolTableEntry result;
+
+        try {
+            result = getInnermostBinding(name, importStrategy);
+        }
+        catch (NoSuchSymbolException nsse) {
+            result = null;
+        }
+
+        return result;
+    }
+
     /**
      * <p>For a given symbol name, <code>name</code>, returns information about
      * all declarations with that name in scope, in order from innermost
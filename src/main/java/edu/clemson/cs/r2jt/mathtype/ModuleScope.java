@@ -1,14 +1,26 @@
 package edu.clemson.cs.r2jt.mathtype;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import edu.clemson.cs.r2jt.absyn.ResolveConceptualElement;
 
 /**
  * <p>A <code>ModuleScope</code> refines {@link Scope Scope} with additional
  * information specific to modules, such as a list of imports.</p>
+ * 
+ * <p>Since a <code>ModuleScope</code> is immutable, searches of its imports
+ * are answered from an index of the module-level declarations of every
+ * module searched, built the first time each 
+ * {@link MathSymbolTable.ImportStrategy ImportStrategy} is used, rather than by
+ * visiting each imported module in turn.  A module reachable along several
+ * import paths is indexed, and so reported, only once.</p>
  */
 public class ModuleScope extends Scope implements ModuleScopeInterface {
 
@@ -16,6 +28,10 @@ public class ModuleScope extends Scope implements ModuleScopeInterface {
     private final List<ModuleIdentifier> myImportedModules;
     private final MathSymbolTable mySymbolTable;
 
+    private List<ModuleIdentifier> myTransitiveImports;
+    private Map<String, List<MathSymbolTableEntry>> myNamedImportIndex;
+    private Map<String, List<MathSymbolTableEntry>> myRecursiveImportIndex;
+
     ModuleScope(ModuleIdentifier module,
             ResolveConceptualElement definingElement,
             IdentifierResolver parent,
@@ -44,22 +60,65 @@ public class ModuleScope extends Scope implements ModuleScopeInterface {
         return new LinkedList<ModuleIdentifier>(myImportedModules);
     }
 
+    /**
+     * <p>Returns the modules imported by this module, followed by the modules
+     * they import, and so on, in depth-first order.  Each module appears only
+     * once, however many paths through the import graph lead to it, and this
+     * module itself never appears.</p>
+     * 
+     * <p>The list is computed the first time it is requested, since the scopes
+     * of imported modules may not have been sealed when this scope was.</p>
+     * 
+     * @return The transitive closure of this module's imports.
+     */
+    synchronized List<ModuleIdentifier> getTransitiveImports() {
+        if (myTransitiveImports == null) {
+            Set<ModuleIdentifier> visited =
+                    new LinkedHashSet<ModuleIdentifier>();
+            visited.add(myModuleName);
+            addTransitiveImports(myImportedModules, visited);
+            visited.remove(myModuleName);
+
+            myTransitiveImports =
+                    Collections
+                            .unmodifiableList(new ArrayList<ModuleIdentifier>(
+                                    visited));
+        }
+
+        return myTransitiveImports;
+    }
+
+    private void addTransitiveImports(List<ModuleIdentifier> imports,
+            Set<ModuleIdentifier> visited) {
+
+        for (ModuleIdentifier importedModule : imports) {
+            if (visited.add(importedModule)) {
+                addTransitiveImports(
+                        getImportedScope(importedModule).myImportedModules,
+                        visited);
+            }
+        }
+    }
+
     @Override
-    public MathSymbolTableEntry getInnermostBinding(String name,
+    MathSymbolTableEntry findInnermostBinding(String name,
             MathSymbolTable.ImportStrategy importStrategy)
-            throws NoSuchSymbolException,
-                DuplicateSymbolException {
+            throws DuplicateSymbolException {
 
-        MathSymbolTableEntry binding;
+        MathSymbolTableEntry binding =
+                super.findInnermostBinding(name, importStrategy);
 
-        try {
-            binding = super.getInnermostBinding(name, importStrategy);
-        }
-        catch (NoSuchSymbolException e) {
-            binding =
-                    ModuleScopeBuilder.getBindingInImports(name,
-                            importStrategy, myImportedModules, mySymbolTable,
-                            myModuleName);
+        if (binding == null && importStrategy.considerImports()) {
+            List<MathSymbolTableEntry> matches =
+                    getImportIndex(importStrategy).get(name);
+
+            if (matches != null) {
+                if (matches.size() > 1) {
+                    throw new DuplicateSymbolException(name);
+                }
+
+                binding = matches.get(0);
+            }
         }
 
         return binding;
@@ -71,8 +130,7 @@ public class ModuleScope extends Scope implements ModuleScopeInterface {
 
         List<MathSymbolTableEntry> result =
                 super.getAllBindings(name, importStrategy);
-        ModuleScopeBuilder.buildAllBindingsFromImports(name, result,
-                importStrategy, myImportedModules, mySymbolTable, myModuleName);
+        addImportedBindings(name, result, importStrategy);
 
         return result;
     }
@@ -83,7 +141,91 @@ public class ModuleScope extends Scope implements ModuleScopeInterface {
             MathSymbolTable.ImportStrategy importStrategy) {
 
         super.buildAllBindingsList(symbol, accumulator, importStrategy);
-        ModuleScopeBuilder.buildAllBindingsFromImports(symbol, accumulator,
-                importStrategy, myImportedModules, mySymbolTable, myModuleName);
+        addImportedBindings(symbol, accumulator, importStrategy);
+    }
+
+    private void addImportedBindings(String symbol,
+            List<MathSymbolTableEntry> accumulator,
+            MathSymbolTable.ImportStrategy importStrategy) {
+
+        if (importStrategy.considerImports()) {
+            List<MathSymbolTableEntry> matches =
+                    getImportIndex(importStrategy).get(symbol);
+
+            if (matches != null) {
+                accumulator.addAll(matches);
+            }
+        }
+    }
+
+    /**
+     * <p>Returns an index from each symbol name to every module-level
+     * declaration of that name in the modules searched under 
+     * <code>importStrategy</code>: the directly imported modules for
+     * <code>IMPORT_NAMED</code>, and the transitive closure of the imports for
+     * <code>IMPORT_RECURSIVE</code>.  Each index is built the first time it is
+     * needed.</p>
+     */
+    private synchronized Map<String, List<MathSymbolTableEntry>> getImportIndex(
+            MathSymbolTable.ImportStrategy importStrategy) {
+
+        Map<String, List<MathSymbolTableEntry>> retval;
+
+        if (importStrategy.cascadingStrategy().considerImports()) {
+            if (myRecursiveImportIndex == null) {
+                myRecursiveImportIndex =
+                        buildImportIndex(getTransitiveImports());
+            }
+            retval = myRecursiveImportIndex;
+        }
+        else {
+            if (myNamedImportIndex == null) {
+                myNamedImportIndex = buildImportIndex(myImportedModules);
+            }
+            retval = myNamedImportIndex;
+        }
+
+        return retval;
+    }
+
+    private Map<String, List<MathSymbolTableEntry>> buildImportIndex(
+            List<ModuleIdentifier> modules) {
+
+        Map<String, List<MathSymbolTableEntry>> retval =
+                new HashMap<String, List<MathSymbolTableEntry>>();
+
+        Map<String, MathSymbolTableEntry> bindings;
+        List<MathSymbolTableEntry> entries;
+        for (ModuleIdentifier module : modules) {
+            bindings = getImportedScope(module).getLocalBindings();
+
+            for (Map.Entry<String, MathSymbolTableEntry> binding : bindings
+                    .entrySet()) {
+
+                entries = retval.get(binding.getKey());
+                if (entries == null) {
+                    entries = new ArrayList<MathSymbolTableEntry>(1);
+                    retval.put(binding.getKey(), entries);
+                }
+                entries.add(binding.getValue());
+            }
+        }
+
+        return retval;
+    }
+
+    private ModuleScope getImportedScope(ModuleIdentifier importedModule) {
+        ModuleScope retval;
+
+        try {
+            retval = mySymbolTable.getModuleScope(importedModule);
+        }
+        catch (NoSuchSymbolException nsse) {
+            //Not possible once MathSymbolTable has validated the imports
+            throw new IllegalStateException("Module '" + myModuleName
+                    + "' imports non-existent module '" + importedModule + "'.");
+        }
+
+        return retval;
     }
 }
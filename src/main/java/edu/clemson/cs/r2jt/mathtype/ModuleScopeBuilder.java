@@ -106,8 +106,9 @@ public class ModuleScopeBuilder extends ScopeBuilder
     }
 
     /*
-     * The following helper methods factor out code shared between 
-     * ModuleScopeBuilder and ModuleScope. 
+     * The following helper methods search the imports of a module whose scope
+     * is still being built.  Sealed ModuleScopes instead search an index of
+     * their imports.
      */
 
     static MathSymbolTableEntry getBindingInImports(String name,
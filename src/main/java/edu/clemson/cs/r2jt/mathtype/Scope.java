@@ -1,5 +1,6 @@
 package edu.clemson.cs.r2jt.mathtype;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -49,8 +50,39 @@ public class Scope extends IdentifierResolver {
             throws NoSuchSymbolException,
                 DuplicateSymbolException {
 
-        return ScopeBuilder.getInnermostBinding(name, myBindings, myParent,
-                importStrategy);
+        MathSymbolTableEntry result =
+                findInnermostBinding(name, importStrategy);
+
+        if (result == null) {
+            throw new NoSuchSymbolException(name);
+        }
+
+        return result;
+    }
+
+    @Override
+    MathSymbolTableEntry findInnermostBinding(String name,
+            MathSymbolTable.ImportStrategy importStrategy)
+            throws DuplicateSymbolException {
+
+        MathSymbolTableEntry result = myBindings.get(name);
+
+        if (result == null) {
+            result = myParent.findInnermostBinding(name, importStrategy);
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns an unmodifiable view of the symbols introduced directly in
+     * this <code>Scope</code>, not including those of its parents or
+     * imports.</p>
+     * 
+     * @return The symbols bound in this <code>Scope</code>, by name.
+     */
+    Map<String, MathSymbolTableEntry> getLocalBindings() {
+        return Collections.unmodifiableMap(myBindings);
     }
 
     @Override
@@ -4,10 +4,22 @@ public class AlternativeProofStep {
 
     private final ProofPathSuggestion myStep;
     private final VC myVCAfter;
+    private final int myAlternative;
 
     public AlternativeProofStep(ProofPathSuggestion step, VC after) {
+        this(step, after, 0);
+    }
+
+    /**
+     * <p>Creates a step in which <code>after</code> was the
+     * <code>alternative</code>th VC, counting from zero, produced by applying
+     * the transformer of <code>step</code>.</p>
+     */
+    public AlternativeProofStep(ProofPathSuggestion step, VC after,
+            int alternative) {
         myStep = step;
         myVCAfter = after;
+        myAlternative = alternative;
     }
 
     public ProofPathSuggestion getStep() {
@@ -18,6 +30,10 @@ public class AlternativeProofStep {
         return myVCAfter;
     }
 
+    public int getAlternative() {
+        return myAlternative;
+    }
+
     public String toString() {
         String retval;
 
@@ -1,6 +1,7 @@
 package edu.clemson.cs.r2jt.proving;
 
 import java.math.BigInteger;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -10,17 +11,40 @@ import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 
-public class AlternativeProver implements VCProver {
+/**
+ * <p>The <code>AlternativeProver</code> searches depth-first for a proof of a
+ * VC, following the steps suggested by a <code>TransformationChooser</code>.
+ * </p>
+ *
+ * <p>Before the search starts, the antecedents of the VC and the ground
+ * instances of the theorems over the terms of the VC are gathered into a
+ * <code>CongruenceClosure</code>.  Consequents that follow from it by
+ * equational reasoning alone are discharged immediately, and the search stops
+ * as soon as every remaining consequent of the VC at hand follows from it.</p>
+ */
+public class AlternativeProver implements VCProver, CertificateReplayer {
 
     private final TransformationChooser myChooser;
     private final MathExpTypeResolver myTyper;
     private final CompileEnvironment myInstanceEnvironment;
+    private final Iterable<PExp> myTheorems;
 
     public AlternativeProver(CompileEnvironment e,
             TransformationChooser chooser, MathExpTypeResolver typer) {
+        this(e, chooser, typer, Collections.<PExp> emptyList());
+    }
+
+    /**
+     * <p>Creates a prover whose congruence closure includes the ground
+     * instances of <code>theorems</code>.</p>
+     */
+    public AlternativeProver(CompileEnvironment e,
+            TransformationChooser chooser, MathExpTypeResolver typer,
+            Iterable<PExp> theorems) {
         myChooser = chooser;
         myTyper = typer;
         myInstanceEnvironment = e;
+        myTheorems = theorems;
     }
 
     @Override
@@ -36,7 +60,7 @@ public class AlternativeProver implements VCProver {
                 VCProvedException,
                 UnableToProveException {
 
-        VC vc = convertToImmutableVC(originalVC);
+        VC vc = originalVC.getImmutableVC(myTyper);
 
         Metrics metrics = new Metrics();
         metrics.progressListener = progressListener;
@@ -47,10 +71,32 @@ public class AlternativeProver implements VCProver {
 
         metrics.actionCanceller = actionCanceller;
 
-        myChooser.preoptimizeForVC(vc);
+        if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_PROVER_STATS)) {
+            metrics.statistics = new ProverStatistics();
+        }
+
+        CongruenceClosureStep closure =
+                new CongruenceClosureStep(originalVC.getCongruenceClosure(
+                        myTyper, myTheorems));
 
         try {
-            continueProofFrom(vc, 0, metrics, new ProofData());
+            Iterator<VC> closed = closure.transform(vc);
+            if (closed.hasNext()) {
+                VC closedVC = closed.next();
+                ProofPathSuggestion suggestion =
+                        new ProofPathSuggestion(closure, new ProofData());
+
+                try {
+                    startProofFrom(closedVC, metrics, closure);
+                }
+                catch (VCProvedException e) {
+                    e.addStep(new AlternativeProofStep(suggestion, closedVC));
+                    throw e;
+                }
+            }
+            else {
+                startProofFrom(vc, metrics, closure);
+            }
         }
         catch (VCProvedException e) {
             e.setOriginal(vc);
@@ -60,8 +106,31 @@ public class AlternativeProver implements VCProver {
         throw new UnableToProveException(metrics);
     }
 
+    @Override
+    public void replay(VerificationCondition vc, ProofCertificate certificate)
+            throws VCProvedException {
+
+        certificate.replay(vc, myChooser, myTyper, myTheorems);
+    }
+
+    private void startProofFrom(VC vc, Metrics metrics,
+            CongruenceClosureStep closure)
+            throws UnableToProveException,
+                VCProvedException,
+                VCInconsistentException {
+
+        if (vc.getConsequent().size() == 0) {
+            throw new VCProvedException(metrics);
+        }
+
+        myChooser.preoptimizeForVC(vc);
+
+        continueProofFrom(vc, 0, metrics, new ProofData(), closure);
+    }
+
     private void continueProofFrom(final VC vc, final int curLength,
-            final Metrics metrics, final ProofData proofData)
+            final Metrics metrics, final ProofData proofData,
+            final CongruenceClosureStep closure)
             throws UnableToProveException,
                 VCProvedException,
                 VCInconsistentException {
@@ -73,17 +142,28 @@ public class AlternativeProver implements VCProver {
 
         metrics.incrementProofsConsidered();
 
+        if (metrics.statistics != null) {
+            metrics.statistics.recordDepth(curLength);
+        }
+
         if (vc.getConsequent().size() == 0) {
             throw new VCProvedException(metrics);
         }
 
+        if (closure != null && closure.provesAll(vc)) {
+            VCProvedException proved = new VCProvedException(metrics);
+            proved.addStep(new AlternativeProofStep(new ProofPathSuggestion(
+                    closure, proofData), closure.dischargeAll(vc)));
+            throw proved;
+        }
+
         if (!metrics.actionCanceller.running) {
             //Someone from the outside world told us to stop proving.  We finish
             //without being able to prove.
             throw new UnableToProveException(metrics);
         }
 
-        attemptStep(vc, curLength, metrics, proofData);
+        attemptStep(vc, curLength, metrics, proofData, closure);
     }
 
     public void attemptStep(VC vc, int curLength, Metrics metrics,
@@ -92,17 +172,28 @@ public class AlternativeProver implements VCProver {
                 VCProvedException,
                 VCInconsistentException {
 
+        attemptStep(vc, curLength, metrics, proofData, null);
+    }
+
+    private void attemptStep(VC vc, int curLength, Metrics metrics,
+            ProofData proofData, CongruenceClosureStep closure)
+            throws UnableToProveException,
+                VCProvedException,
+                VCInconsistentException {
+
         Iterator<ProofPathSuggestion> suggestions =
                 myChooser.suggestTransformations(vc, curLength, metrics,
                         proofData);
 
         Iterator<VC> substitutions;
         ProofPathSuggestion suggestion;
+        int alternative;
         while (suggestions.hasNext()) {
             suggestion = suggestions.next();
 
-            substitutions = suggestion.step.transform(vc);
+            substitutions = metrics.applyStep(suggestion.step, vc);
 
+            alternative = 0;
             while (substitutions.hasNext()) {
                 VC newVC = substitutions.next();
 
@@ -124,20 +215,26 @@ public class AlternativeProver implements VCProver {
 
                 try {
                     continueProofFrom(newVC, curLength + 1, metrics,
-                            suggestion.data.addStep(vc));
+                            suggestion.data.addStep(vc), closure);
                 }
                 catch (VCProvedException e) {
-                    e.addStep(new AlternativeProofStep(suggestion, newVC));
+                    e.addStep(new AlternativeProofStep(suggestion, newVC,
+                            alternative));
                     throw e;
                 }
+
+                alternative++;
             }
         }
     }
 
-    private VC convertToImmutableVC(VerificationCondition vc) {
-        return convertToImmutableVC(vc, myTyper);
-    }
-
+    /**
+     * <p>Builds a new immutable <code>VC</code> from the given 
+     * <code>VerificationCondition</code>.  Clients that may convert the same
+     * VC more than once should prefer 
+     * <code>VerificationCondition.getImmutableVC()</code>, which caches the
+     * result.</p>
+     */
     public static VC convertToImmutableVC(VerificationCondition vc,
             MathExpTypeResolver typer) {
 
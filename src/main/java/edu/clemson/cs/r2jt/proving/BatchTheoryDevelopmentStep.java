@@ -1,51 +1,120 @@
 package edu.clemson.cs.r2jt.proving;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import edu.clemson.cs.r2jt.proving.absyn.BindingException;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolDictionary;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolSet;
 
 /**
  * <p>A <code>BatchTheoryDevelopmentStep</code> extends the antecedents of given
  * VCs by repeatedly applying a set of implication theorems in a finite number
  * of rounds, where each round is a complete pass through all the theorems.</p>
+ *
+ * <p>Each theorem is applied as a <code>ConditionalAntecedentExtender</code>
+ * would apply it: its antecedent is bound to the conjuncts of the VC's
+ * antecedent and to the global theorems, with at least one conjunct bound to
+ * the VC's antecedent, and the correspondingly bound consequent is added if it
+ * mentions some name the VC's antecedent does not.  Rounds are evaluated
+ * semi-naively: a binding all of whose conjuncts were already available in the
+ * previous round yielded its consequent then, so each round considers only
+ * bindings that involve at least one conjunct added by the previous round, and
+ * development stops as soon as a round adds nothing.  Candidate conjuncts for
+ * each pattern are found through <code>FactIndex</code>es rather than by
+ * attempting every conjunct.</p>
  */
 public class BatchTheoryDevelopmentStep implements VCTransformer {
 
     private final Iterable<PExp> myGlobalTheorems;
     private final int myIterationCount;
-    private DevelopmentAlternativesTransformer myExtenders =
-            new DevelopmentAlternativesTransformer();
+    private final SymbolDictionary mySymbols;
+    private final List<ImplicationRule> myRules =
+            new ArrayList<ImplicationRule>();
+    private FactIndex myGlobalTheoremIndex;
 
     public BatchTheoryDevelopmentStep(Iterable<PExp> globalTheorems,
             int iterationCount) {
+        this(globalTheorems, iterationCount, new SymbolDictionary());
+    }
+
+    /**
+     * <p>Creates a step that compares symbol names as <code>SymbolSet</code>s
+     * over <code>symbols</code>.</p>
+     */
+    public BatchTheoryDevelopmentStep(Iterable<PExp> globalTheorems,
+            int iterationCount, SymbolDictionary symbols) {
         myGlobalTheorems = globalTheorems;
         myIterationCount = iterationCount;
+        mySymbols = symbols;
     }
 
     public void addImplicationTheorem(Antecedent a, Consequent c) {
-        ConditionalAntecedentExtender e =
-                new ConditionalAntecedentExtender(a, c, myGlobalTheorems);
-
-        addExtender(e);
+        myRules.add(new ImplicationRule(a, c));
     }
 
+    /**
+     * <p>Adds the implication theorem of <code>e</code>.  The theorem is
+     * applied against the global theorems of this step.</p>
+     */
     public void addExtender(ConditionalAntecedentExtender e) {
-        myExtenders.addAlternative(new NewTermsOnlyDeveloper(e));
+        addImplicationTheorem(e.getTheoremAntecedent(), e
+                .getTheoremConsequent());
     }
 
     @Override
     public Iterator<VC> transform(VC vc) {
+        return new SingletonIterator<VC>(new VC(vc.getSourceName(), develop(vc
+                .getAntecedent()), vc.getConsequent(), true));
+    }
+
+    private Antecedent develop(Antecedent original) {
+        Antecedent soFar = original;
+        Set<PExp> added = new HashSet<PExp>(original.getMutableCopy());
+
+        Round round;
+        Antecedent developed;
+        for (int iteration = 0; iteration < myIterationCount
+                && !added.isEmpty(); iteration++) {
+
+            round = new Round(soFar, added, getGlobalTheoremIndex(), mySymbols);
+
+            for (ImplicationRule rule : myRules) {
+                rule.develop(round);
+            }
+
+            if (round.extensions.isEmpty()) {
+                added = Collections.emptySet();
+            }
+            else {
+                developed =
+                        soFar.appended(new Antecedent(round.extensions))
+                                .eliminateObviousConjuncts()
+                                .eliminateRedundantConjuncts();
 
-        AccumulatingAntecedentExtender accumulator =
-                new AccumulatingAntecedentExtender(myExtenders);
+                added = new HashSet<PExp>(developed.getMutableCopy());
+                added.removeAll(soFar.getMutableCopy());
 
-        RepeatedApplicationTransformer<Antecedent> repeater =
-                new RepeatedApplicationTransformer<Antecedent>(
-                        new AntecedentSimplifier(new DevelopmentAppender(
-                                accumulator)), myIterationCount);
+                soFar = developed;
+            }
+        }
 
-        return new StaticConsequentIterator(vc.getSourceName(), repeater
-                .transform(vc.getAntecedent()), vc.getConsequent());
+        return soFar;
+    }
+
+    private FactIndex getGlobalTheoremIndex() {
+        if (myGlobalTheoremIndex == null) {
+            myGlobalTheoremIndex = new FactIndex(myGlobalTheorems);
+        }
+
+        return myGlobalTheoremIndex;
     }
 
     @Override
@@ -67,4 +136,161 @@ public class BatchTheoryDevelopmentStep implements VCTransformer {
     public boolean introducesQuantifiedVariables() {
         return true;
     }
+
+    /**
+     * <p>The facts available to a single round of development, and the
+     * conjuncts it develops.</p>
+     */
+    private static class Round {
+
+        /**
+         * <p>The conjuncts of the antecedent being developed.</p>
+         */
+        public final FactIndex antecedent;
+
+        /**
+         * <p>Those conjuncts of the antecedent added by the previous round, or
+         * all of them in the first round.</p>
+         */
+        public final FactIndex added;
+        public final Set<PExp> addedConjuncts;
+
+        public final FactIndex globalTheorems;
+        public final SymbolDictionary symbols;
+        public final SymbolSet knownSymbols;
+        public final List<PExp> extensions = new ArrayList<PExp>();
+
+        public Round(Antecedent antecedent, Set<PExp> addedConjuncts,
+                FactIndex globalTheorems, SymbolDictionary symbols) {
+
+            this.antecedent = new FactIndex(antecedent);
+            this.addedConjuncts = addedConjuncts;
+            this.globalTheorems = globalTheorems;
+            this.symbols = symbols;
+
+            added = new FactIndex();
+            for (PExp conjunct : antecedent) {
+                if (addedConjuncts.contains(conjunct)) {
+                    added.add(conjunct);
+                }
+            }
+
+            knownSymbols = antecedent.getSymbolSet(symbols);
+        }
+    }
+
+    /**
+     * <p>An implication theorem, joined against the facts of a round one
+     * antecedent conjunct at a time.</p>
+     *
+     * <p>Conjuncts are bound in the same order, and facts are tried in the
+     * same order, as by a <code>ConditionalAntecedentExtender</code>: first
+     * each conjunct in turn against the antecedent, then the others in order
+     * against the antecedent followed by the global theorems.  This matters
+     * because the facts themselves are instantiated with the bindings so far
+     * before being matched, so that which conjunct is bound first can change
+     * what the others bind to.</p>
+     */
+    private static class ImplicationRule {
+
+        private final Antecedent myAntecedent;
+        private final Consequent myConsequent;
+
+        public ImplicationRule(Antecedent antecedent, Consequent consequent) {
+            myAntecedent = antecedent;
+            myConsequent = consequent;
+        }
+
+        /**
+         * <p>Adds to the extensions of <code>round</code> the bound consequent
+         * of every binding of this theorem's antecedent in which at least one
+         * conjunct is bound to a fact added by the previous round, provided it
+         * mentions some name the antecedent does not.  Any other binding was
+         * already considered by the previous round.</p>
+         */
+        public void develop(Round round) {
+            int size = myAntecedent.size();
+            int[] order = new int[size];
+            for (int first = 0; first < size; first++) {
+                order[0] = first;
+                for (int i = 1; i < size; i++) {
+                    order[i] = (i <= first ? i - 1 : i);
+                }
+
+                join(order, 0, new HashMap<PExp, PExp>(), false, round);
+            }
+        }
+
+        private void join(int[] order, int position, Map<PExp, PExp> bindings,
+                boolean usesAdded, Round round) {
+
+            if (position == order.length) {
+                if (usesAdded) {
+                    extend(bindings, round);
+                }
+            }
+            else {
+                PExp pattern = myAntecedent.get(order[position]);
+                if (position > 0) {
+                    pattern = pattern.substitute(bindings);
+                }
+
+                boolean last = (position == order.length - 1);
+
+                if (last && !usesAdded) {
+                    //Only a newly added fact can complete a new binding
+                    joinAgainst(round.added, pattern, order, position,
+                            bindings, usesAdded, round);
+                }
+                else {
+                    joinAgainst(round.antecedent, pattern, order, position,
+                            bindings, usesAdded, round);
+
+                    if (position > 0) {
+                        joinAgainst(round.globalTheorems, pattern, order,
+                                position, bindings, usesAdded, round);
+                    }
+                }
+            }
+        }
+
+        private void joinAgainst(FactIndex facts, PExp pattern, int[] order,
+                int position, Map<PExp, PExp> bindings, boolean usesAdded,
+                Round round) {
+
+            Map<PExp, PExp> newBindings;
+            for (PExp fact : facts.getCandidates(pattern)) {
+                try {
+                    newBindings = new HashMap<PExp, PExp>();
+                    newBindings.putAll(pattern
+                            .bindTo(fact.substitute(bindings)));
+                    newBindings.putAll(bindings);
+
+                    join(
+                            order,
+                            position + 1,
+                            newBindings,
+                            usesAdded
+                                    || (facts != round.globalTheorems && round.addedConjuncts
+                                            .contains(fact)), round);
+                }
+                catch (BindingException e) {
+                    //Not a match
+                }
+            }
+        }
+
+        private void extend(Map<PExp, PExp> bindings, Round round) {
+            Antecedent extension =
+                    myConsequent.substitute(bindings).assumed()
+                            .eliminateRedundantConjuncts();
+
+            if (!extension.getSymbolSet(round.symbols).isSubsetOf(
+                    round.knownSymbols)) {
+                for (PExp conjunct : extension) {
+                    round.extensions.add(conjunct);
+                }
+            }
+        }
+    }
 }
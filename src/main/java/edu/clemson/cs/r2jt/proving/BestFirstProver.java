@@ -0,0 +1,497 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolDictionary;
+
+/**
+ * <p>The <code>BestFirstProver</code> searches for a proof of a VC by always
+ * expanding the most promising VC found so far, rather than the most recently
+ * found one as the <code>AlternativeProver</code> does.  The steps available
+ * from each VC are those suggested by a <code>TransformationChooser</code>,
+ * which is consulted exactly as the <code>AlternativeProver</code> consults it,
+ * so any chooser that bounds the length of proofs bounds this search too.</p>
+ *
+ * <p>Every VC reached but not yet expanded is kept in a single frontier,
+ * ordered by a weighted score in which lower is better: the number of steps
+ * taken to reach the VC, the size of its consequent, the number of symbols in
+ * its consequent that appear nowhere in its antecedent, and how poorly a
+ * <code>TransformerFitnessFunction</code> rates the step that produced it.  A
+ * VC equivalent to one recently reached in as many steps is discarded.</p>
+ *
+ * <p>Memory is bounded by the capacity of the frontier.  Once it holds more
+ * than that many VCs the worst is dropped, and is forgotten as reached, so the
+ * same VC may be found again by a better path.  At most a fixed multiple of
+ * the capacity of VCs are remembered as reached, the least recently reached
+ * being forgotten first, which may cost some repeated work but never a branch
+ * of the search.  Beyond these, only the ancestors of the VCs in the frontier
+ * are kept, and there are no more of those for each VC than the length of
+ * the proof that reached it.</p>
+ *
+ * <p>Like the <code>AlternativeProver</code>, the search is preceded by a
+ * <code>CongruenceClosure</code> pre-pass, and any VC whose remaining
+ * consequents all follow from the closure is taken as proved.</p>
+ */
+public class BestFirstProver implements VCProver, CertificateReplayer {
+
+    /**
+     * <p>The default number of VCs the frontier may hold.</p>
+     */
+    public static final int DEFAULT_FRONTIER_CAPACITY = 5000;
+
+    /**
+     * <p>The number of VCs remembered as reached for each VC the frontier may
+     * hold.</p>
+     */
+    private static final int REACHED_PER_FRONTIER = 4;
+
+    private static final double DEPTH_WEIGHT = 2.0;
+    private static final double SIZE_WEIGHT = 1.0;
+    private static final double NOVELTY_WEIGHT = 1.5;
+    private static final double FITNESS_WEIGHT = 3.0;
+
+    private final TransformationChooser myChooser;
+    private final MathExpTypeResolver myTyper;
+    private final CompileEnvironment myInstanceEnvironment;
+    private final Iterable<PExp> myTheorems;
+    private final TransformerFitnessFunction myFitness;
+    private final int myFrontierCapacity;
+    private final SymbolDictionary mySymbols;
+
+    public BestFirstProver(CompileEnvironment e, TransformationChooser chooser,
+            MathExpTypeResolver typer, Iterable<PExp> theorems) {
+        this(e, chooser, typer, theorems, new SymbolDictionary());
+    }
+
+    /**
+     * <p>Creates a prover that compares symbol names as
+     * <code>SymbolSet</code>s over <code>symbols</code>, both when rating the
+     * steps it takes and when rating the VCs they produce.</p>
+     */
+    public BestFirstProver(CompileEnvironment e, TransformationChooser chooser,
+            MathExpTypeResolver typer, Iterable<PExp> theorems,
+            SymbolDictionary symbols) {
+        this(e, chooser, typer, theorems, new SimpleTransformerFitnessFunction(
+                symbols), DEFAULT_FRONTIER_CAPACITY, symbols);
+    }
+
+    /**
+     * <p>Creates a prover that rates the steps it takes with
+     * <code>fitness</code> and keeps at most <code>frontierCapacity</code>
+     * VCs waiting to be expanded.</p>
+     */
+    public BestFirstProver(CompileEnvironment e, TransformationChooser chooser,
+            MathExpTypeResolver typer, Iterable<PExp> theorems,
+            TransformerFitnessFunction fitness, int frontierCapacity) {
+        this(e, chooser, typer, theorems, fitness, frontierCapacity,
+                new SymbolDictionary());
+    }
+
+    public BestFirstProver(CompileEnvironment e, TransformationChooser chooser,
+            MathExpTypeResolver typer, Iterable<PExp> theorems,
+            TransformerFitnessFunction fitness, int frontierCapacity,
+            SymbolDictionary symbols) {
+
+        if (frontierCapacity < 1) {
+            throw new IllegalArgumentException("Frontier capacity must be "
+                    + "positive.");
+        }
+
+        myChooser = chooser;
+        myTyper = typer;
+        myInstanceEnvironment = e;
+        myTheorems = theorems;
+        myFitness = fitness;
+        myFrontierCapacity = frontierCapacity;
+        mySymbols = symbols;
+    }
+
+    @Override
+    public BigInteger getProofCountOrder() {
+        return BigInteger.valueOf(-1);
+    }
+
+    @Override
+    public void prove(VerificationCondition originalVC,
+            ProverListener progressListener, ActionCanceller actionCanceller,
+            long timeoutAt)
+            throws VCInconsistentException,
+                VCProvedException,
+                UnableToProveException {
+
+        VC vc = originalVC.getImmutableVC(myTyper);
+
+        Metrics metrics = new Metrics();
+        metrics.progressListener = progressListener;
+
+        if (actionCanceller == null) {
+            actionCanceller = new ActionCanceller();
+        }
+
+        metrics.actionCanceller = actionCanceller;
+
+        if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_PROVER_STATS)) {
+            metrics.statistics = new ProverStatistics();
+        }
+
+        CongruenceClosureStep closure =
+                new CongruenceClosureStep(originalVC.getCongruenceClosure(
+                        myTyper, myTheorems));
+
+        SearchNode root;
+        Iterator<VC> closed = closure.transform(vc);
+        if (closed.hasNext()) {
+            VC closedVC = closed.next();
+            SearchNode start = new SearchNode(vc, null, null, 0, 0, null, 0, 0);
+            root =
+                    new SearchNode(closedVC, start, new ProofPathSuggestion(
+                            closure, new ProofData()), 0, 0, new ProofData(),
+                            0, 0);
+        }
+        else {
+            root = new SearchNode(vc, null, null, 0, 0, new ProofData(), 0, 0);
+        }
+
+        try {
+            search(root, metrics, closure);
+        }
+        catch (VCProvedException e) {
+            e.setOriginal(vc);
+            throw e;
+        }
+
+        throw new UnableToProveException(metrics);
+    }
+
+    @Override
+    public void replay(VerificationCondition vc, ProofCertificate certificate)
+            throws VCProvedException {
+
+        certificate.replay(vc, myChooser, myTyper, myTheorems);
+    }
+
+    private void search(SearchNode root, Metrics metrics,
+            CongruenceClosureStep closure)
+            throws UnableToProveException,
+                VCProvedException {
+
+        if (root.vc.getConsequent().size() == 0) {
+            throw proved(root, metrics);
+        }
+
+        myChooser.preoptimizeForVC(root.vc);
+
+        TreeSet<SearchNode> frontier = new TreeSet<SearchNode>();
+        Set<VCKey> reached =
+                Collections.newSetFromMap(new RecentKeys((int) Math.min(
+                        Integer.MAX_VALUE, (long) myFrontierCapacity
+                                * REACHED_PER_FRONTIER)));
+
+        frontier.add(root);
+        reached.add(new VCKey(root.vc, root.length));
+
+        long nextSequence = 1;
+        SearchNode cur;
+        while (!frontier.isEmpty()) {
+            cur = frontier.pollFirst();
+
+            metrics.incrementProofsConsidered();
+
+            if (metrics.statistics != null) {
+                metrics.statistics.recordDepth(cur.length);
+            }
+
+            if (cur.vc.getConsequent().size() == 0) {
+                throw proved(cur, metrics);
+            }
+
+            if (closure.provesAll(cur.vc)) {
+                SearchNode closedNode =
+                        new SearchNode(closure.dischargeAll(cur.vc), cur,
+                                new ProofPathSuggestion(closure, cur.data), 0,
+                                0, cur.data, 0, 0);
+                throw proved(closedNode, metrics);
+            }
+
+            if (!metrics.actionCanceller.running) {
+                //Someone from the outside world told us to stop proving.  We
+                //finish without being able to prove.
+                throw new UnableToProveException(metrics);
+            }
+
+            Iterator<ProofPathSuggestion> suggestions =
+                    myChooser.suggestTransformations(cur.vc, cur.length,
+                            metrics, cur.data);
+
+            Iterator<VC> substitutions;
+            ProofPathSuggestion suggestion;
+            double stepPenalty;
+            int alternative;
+            SearchNode evicted;
+            while (suggestions.hasNext()) {
+                suggestion = suggestions.next();
+
+                substitutions = metrics.applyStep(suggestion.step, cur.vc);
+
+                //Some transformers only find their next VC when asked whether
+                //there is one, so hasNext() is called exactly once per VC and
+                //the step is rated only once it has produced something
+                stepPenalty = -1;
+                alternative = 0;
+                while (substitutions.hasNext()) {
+                    VC newVC = substitutions.next();
+
+                    printDebugNote(suggestion, cur.vc, newVC);
+
+                    if (stepPenalty < 0) {
+                        stepPenalty = getStepPenalty(suggestion.step, cur.vc);
+                    }
+
+                    if (reached.add(new VCKey(newVC, cur.length + 1))) {
+                        frontier.add(new SearchNode(newVC, cur, suggestion,
+                                alternative, cur.length + 1, suggestion.data
+                                        .addStep(cur.vc), score(newVC,
+                                        cur.length + 1, stepPenalty),
+                                nextSequence++));
+
+                        if (frontier.size() > myFrontierCapacity) {
+                            evicted = frontier.pollLast();
+                            reached
+                                    .remove(new VCKey(evicted.vc,
+                                            evicted.length));
+
+                            if (metrics.statistics != null) {
+                                metrics.statistics.frontierEvictions++;
+                            }
+                        }
+                    }
+                    else if (metrics.statistics != null) {
+                        metrics.statistics.duplicatesPruned++;
+                    }
+
+                    alternative++;
+                }
+            }
+        }
+    }
+
+    private void printDebugNote(ProofPathSuggestion suggestion, VC vc, VC newVC) {
+
+        if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_VERBOSE)
+                && suggestion.debugNote != null) {
+
+            VC vcToPrint;
+
+            if (suggestion.debugPrevious) {
+                vcToPrint = vc;
+            }
+            else {
+                vcToPrint = newVC;
+            }
+
+            System.out.println(suggestion.debugNote + "\n\n" + vcToPrint);
+        }
+    }
+
+    /**
+     * <p>Builds the exception announcing that <code>node</code> completes a
+     * proof, recording each step along the path that reached it, most recent
+     * first, as the <code>AlternativeProver</code> does while unwinding.</p>
+     */
+    private static VCProvedException proved(SearchNode node, Metrics metrics) {
+        VCProvedException retval = new VCProvedException(metrics);
+
+        SearchNode cur = node;
+        while (cur.parent != null) {
+            retval.addStep(new AlternativeProofStep(cur.step, cur.vc,
+                    cur.alternative));
+            cur = cur.parent;
+        }
+
+        return retval;
+    }
+
+    private double score(VC vc, int length, double stepPenalty) {
+        Consequent consequent = vc.getConsequent();
+
+        int size =
+                consequent.size() + consequent.getFunctionApplications().size();
+
+        int novelty =
+                consequent.getSymbolSet(mySymbols).countNotIn(
+                        vc.getAntecedent().getSymbolSet(mySymbols));
+
+        return DEPTH_WEIGHT * length + SIZE_WEIGHT * size + NOVELTY_WEIGHT
+                * novelty + FITNESS_WEIGHT * stepPenalty;
+    }
+
+    /**
+     * <p>Returns how poorly the fitness function rates taking
+     * <code>step</code> from <code>vc</code>, between 0 and 2.  Steps without
+     * a pattern to rate, such as simplification, are structural steps the
+     * chooser has decided to take and carry no penalty.</p>
+     */
+    private double getStepPenalty(VCTransformer step, VC vc) {
+        double retval;
+
+        boolean rateable;
+        try {
+            step.getPattern();
+            rateable = true;
+        }
+        catch (UnsupportedOperationException e) {
+            rateable = false;
+        }
+
+        if (rateable) {
+            retval = 1 - myFitness.calculateFitness(step, vc);
+        }
+        else {
+            retval = 0;
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>A VC reached by the search, together with the path that reached it
+     * and the state the chooser associated with that path.  Nodes order by
+     * score, and those of equal score in the order they were reached.</p>
+     */
+    private static class SearchNode implements Comparable<SearchNode> {
+
+        public final VC vc;
+        public final SearchNode parent;
+        public final ProofPathSuggestion step;
+
+        /**
+         * <p>Which of the VCs produced by <code>step</code> this is, counting
+         * from zero.</p>
+         */
+        public final int alternative;
+
+        public final int length;
+        public final ProofData data;
+
+        private final double myScore;
+        private final long mySequence;
+
+        public SearchNode(VC vc, SearchNode parent, ProofPathSuggestion step,
+                int alternative, int length, ProofData data, double score,
+                long sequence) {
+            this.vc = vc;
+            this.parent = parent;
+            this.step = step;
+            this.alternative = alternative;
+            this.length = length;
+            this.data = data;
+
+            myScore = score;
+            mySequence = sequence;
+        }
+
+        @Override
+        public int compareTo(SearchNode o) {
+            int retval = Double.compare(myScore, o.myScore);
+
+            if (retval == 0) {
+                if (mySequence < o.mySequence) {
+                    retval = -1;
+                }
+                else if (mySequence > o.mySequence) {
+                    retval = 1;
+                }
+            }
+
+            return retval;
+        }
+    }
+
+    /**
+     * <p>The keys of the VCs most recently reached, as the map behind a
+     * <code>Set</code>, holding no more than a fixed number of them by
+     * forgetting the least recently reached first.</p>
+     */
+    private static class RecentKeys extends LinkedHashMap<VCKey, Boolean> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int myCapacity;
+
+        public RecentKeys(int capacity) {
+            myCapacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<VCKey, Boolean> eldest) {
+            return size() > myCapacity;
+        }
+    }
+
+    /**
+     * <p>Identifies a <code>VC</code> reached after a given number of steps, so
+     * that equivalent VCs, whose antecedents and consequents hold the same
+     * conjuncts regardless of order, reached after the same number of steps
+     * are equal and hash alike.</p>
+     *
+     * <p>The number of steps is part of the identity because choosers suggest
+     * different steps at different lengths: a <code>Simplifier</code> step
+     * that changes nothing still advances a
+     * <code>SimplifyingTransformationChooser</code> to its next phase.</p>
+     */
+    private static class VCKey {
+
+        private final VC myVC;
+        private final int myLength;
+        private final int myHash;
+
+        public VCKey(VC vc, int length) {
+            myVC = vc;
+            myLength = length;
+            myHash =
+                    31
+                            * (31 * conjunctsHash(vc.getAntecedent()) + conjunctsHash(vc
+                                    .getConsequent())) + length;
+        }
+
+        private static int conjunctsHash(ImmutableConjuncts c) {
+            int retval = 0;
+
+            for (PExp e : new HashSet<PExp>(c.getMutableCopy())) {
+                retval += e.hashCode();
+            }
+
+            return retval;
+        }
+
+        @Override
+        public int hashCode() {
+            return myHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean retval = (o instanceof VCKey);
+
+            if (retval) {
+                VCKey other = (VCKey) o;
+                retval =
+                        (myHash == other.myHash)
+                                && (myLength == other.myLength)
+                                && myVC.equivalent(other.myVC);
+            }
+
+            return retval;
+        }
+    }
+}
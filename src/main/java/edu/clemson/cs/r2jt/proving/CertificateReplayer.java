@@ -0,0 +1,17 @@
+package edu.clemson.cs.r2jt.proving;
+
+/**
+ * <p>A <code>CertificateReplayer</code> is a <code>VCProver</code> that can
+ * re-establish a proof from a <code>ProofCertificate</code> of a proof it
+ * found earlier, without searching.</p>
+ */
+interface CertificateReplayer {
+
+    /**
+     * <p>Replays <code>certificate</code> against <code>vc</code>, throwing
+     * the resulting proof if the replay succeeds and otherwise returning
+     * normally.</p>
+     */
+    public void replay(VerificationCondition vc, ProofCertificate certificate)
+            throws VCProvedException;
+}
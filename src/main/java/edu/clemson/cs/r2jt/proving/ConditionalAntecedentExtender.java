@@ -41,6 +41,14 @@ public class ConditionalAntecedentExtender implements AntecedentDeveloper {
         myTheoremConsequent = theoremConsequent;
     }
 
+    public Antecedent getTheoremAntecedent() {
+        return myTheoremAntecedent;
+    }
+
+    public Consequent getTheoremConsequent() {
+        return myTheoremConsequent;
+    }
+
     @Override
     public Iterator<Antecedent> transform(Antecedent original) {
         return new ExtendedAntecedentsIterator(original);
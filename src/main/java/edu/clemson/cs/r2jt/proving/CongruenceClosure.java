@@ -0,0 +1,559 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import edu.clemson.cs.r2jt.proving.absyn.BindingException;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+
+/**
+ * <p>A <code>CongruenceClosure</code> maintains the equivalence classes of
+ * ground <code>PExp</code>s induced by a set of asserted equalities and the
+ * congruence rule: two applications of the same function to equal arguments
+ * are equal.</p>
+ *
+ * <p>Terms are hash-consed into nodes, so each distinct term, up to the
+ * equivalence classes of its arguments, is represented exactly once.  The
+ * classes are kept in a union-find structure and a table maps the signature of
+ * each node, its name together with the classes of its arguments, to the node.
+ * When two classes are merged, only the nodes that use the smaller class as an
+ * argument are re-signed, and any of them that collide in the table are merged
+ * in turn.  Once the closure is built, asking whether two terms are equal costs
+ * a table lookup per subterm and does not change the closure.</p>
+ *
+ * <p>Predicates are handled by equating them with <code>true</code> or
+ * <code>false</code>.  Terms that contain quantified variables are not ground
+ * and are never added.</p>
+ */
+public class CongruenceClosure {
+
+    private static final String TRUE = "true";
+    private static final String FALSE = "false";
+
+    private static final int INSTANTIATION_ROUNDS = 2;
+
+    /**
+     * <p>The union-find parent of each node.</p>
+     */
+    private int[] myParents = new int[64];
+
+    /**
+     * <p>The number of nodes in the class of each root node.</p>
+     */
+    private int[] mySizes = new int[64];
+
+    private int myNodeCount = 0;
+
+    /**
+     * <p>The name and argument nodes of each node, or <code>null</code> for
+     * nodes that are opaque terms, such as lambdas.</p>
+     */
+    private final List<Signature> myNodeSignatures = new ArrayList<Signature>();
+
+    /**
+     * <p>The term each node was first added for.</p>
+     */
+    private final List<PExp> myNodeTerms = new ArrayList<PExp>();
+
+    /**
+     * <p>For each root node, the nodes that have an argument in its class.</p>
+     */
+    private final List<List<Integer>> myUses = new ArrayList<List<Integer>>();
+
+    private final Map<Signature, Integer> mySignatureTable =
+            new HashMap<Signature, Integer>();
+
+    private final Map<PExp, Integer> myOpaqueTerms =
+            new HashMap<PExp, Integer>();
+
+    private final int myTrue;
+    private final int myFalse;
+
+    public CongruenceClosure() {
+        myTrue = addConstant(TRUE);
+        myFalse = addConstant(FALSE);
+    }
+
+    /**
+     * <p>Builds the closure of the given facts, such as the antecedents of a
+     * VC, together with the ground instances of <code>theorems</code> over the
+     * terms of those facts and of <code>goals</code>, such as the consequents
+     * of the VC.  The goals are added as terms only, not asserted.</p>
+     */
+    public static CongruenceClosure build(Iterable<PExp> facts,
+            Iterable<PExp> goals, Iterable<PExp> theorems) {
+
+        CongruenceClosure retval = new CongruenceClosure();
+
+        for (PExp fact : facts) {
+            retval.assertFact(fact);
+        }
+
+        for (PExp goal : goals) {
+            retval.add(goal);
+        }
+
+        retval.instantiateTheorems(theorems);
+
+        return retval;
+    }
+
+    /**
+     * <p>Asserts that <code>fact</code> holds.  An equality merges the classes
+     * of its two sides, a negation equates its argument with
+     * <code>false</code>, and any other fact is equated with
+     * <code>true</code>.  Facts that are not ground are ignored.</p>
+     */
+    public void assertFact(PExp fact) {
+        int factNode = add(fact);
+
+        if (factNode >= 0) {
+            merge(factNode, myTrue);
+
+            if (fact.isEquality()) {
+                PSymbol factAsPSymbol = (PSymbol) fact;
+                merge(add(factAsPSymbol.arguments.get(0)),
+                        add(factAsPSymbol.arguments.get(1)));
+            }
+            else if (isNegation(fact)) {
+                merge(add(((PSymbol) fact).arguments.get(0)), myFalse);
+            }
+        }
+    }
+
+    /**
+     * <p>Adds the ground instances of each of <code>theorems</code> over the
+     * terms in the closure.  A ground theorem is simply asserted.  A
+     * universally quantified equality is instantiated by binding either of its
+     * sides, wherever that side mentions all of the theorem's quantified
+     * variables, against each term with the same top-level function, then
+     * equating the term with the correspondingly instantiated other side.</p>
+     *
+     * <p>Each round of instantiation matches only the terms present when the
+     * round begins, and at most <code>INSTANTIATION_ROUNDS</code> rounds are
+     * made, so that theorems such as commutativity, whose instances are always
+     * new terms, cannot grow the closure without bound.</p>
+     */
+    public void instantiateTheorems(Iterable<PExp> theorems) {
+        for (PExp theorem : theorems) {
+            if (theorem.getQuantifiedVariables().isEmpty()) {
+                assertFact(theorem);
+            }
+        }
+
+        int matchedNodes = 0;
+        for (int round = 0; round < INSTANTIATION_ROUNDS
+                && matchedNodes < myNodeCount; round++) {
+
+            matchedNodes = myNodeCount;
+            instantiateOnce(theorems, getNodesByName(matchedNodes));
+        }
+    }
+
+    private void instantiateOnce(Iterable<PExp> theorems,
+            Map<String, List<Integer>> nodesByName) {
+
+        PSymbol equality;
+        for (PExp theorem : theorems) {
+            if (theorem.isEquality() && !theorem.containsExistential()
+                    && !theorem.getQuantifiedVariables().isEmpty()) {
+
+                equality = (PSymbol) theorem;
+
+                instantiate(equality.arguments.get(0), equality.arguments
+                        .get(1), nodesByName);
+                instantiate(equality.arguments.get(1), equality.arguments
+                        .get(0), nodesByName);
+            }
+        }
+    }
+
+    /**
+     * <p>Groups the first <code>nodeCount</code> nodes that were added for a
+     * term by the name of their top-level function.</p>
+     */
+    private Map<String, List<Integer>> getNodesByName(int nodeCount) {
+        Map<String, List<Integer>> retval =
+                new HashMap<String, List<Integer>>();
+
+        Signature s;
+        List<Integer> nodes;
+        for (int node = 0; node < nodeCount; node++) {
+            s = myNodeSignatures.get(node);
+
+            if (s != null && myNodeTerms.get(node) != null) {
+                nodes = retval.get(s.myName);
+                if (nodes == null) {
+                    nodes = new LinkedList<Integer>();
+                    retval.put(s.myName, nodes);
+                }
+                nodes.add(node);
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> <code>e</code>
+     * follows from the facts asserted so far: it is an equality whose sides
+     * are in the same class, it is in the class of <code>true</code>, or the
+     * asserted facts are themselves inconsistent.</p>
+     */
+    public boolean isProved(PExp e) {
+        boolean retval =
+                e.isObviouslyTrue() || find(myTrue) == find(myFalse)
+                        || isInClass(e, myTrue);
+
+        if (!retval && e.isEquality()) {
+            PSymbol eAsPSymbol = (PSymbol) e;
+            retval =
+                    areEqual(eAsPSymbol.arguments.get(0), eAsPSymbol.arguments
+                            .get(1));
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> <code>e1</code> and
+     * <code>e2</code> are known to be equal.  Neither need have been added to
+     * the closure, and neither will be.</p>
+     */
+    public boolean areEqual(PExp e1, PExp e2) {
+        boolean retval;
+
+        int class1 = lookUp(e1);
+        int class2 = lookUp(e2);
+
+        if (class1 >= 0 && class2 >= 0) {
+            retval = (class1 == class2);
+        }
+        else if (class1 < 0 && class2 < 0 && e1 instanceof PSymbol
+                && e2 instanceof PSymbol) {
+
+            //Neither is in the closure, so each is in a class of its own
+            //unless they are congruent
+            PSymbol s1 = (PSymbol) e1;
+            PSymbol s2 = (PSymbol) e2;
+
+            retval =
+                    isGroundName(s1) && isGroundName(s2)
+                            && s1.name.equals(s2.name)
+                            && s1.arguments.size() == s2.arguments.size();
+
+            int argumentCount = s1.arguments.size();
+            for (int i = 0; retval && i < argumentCount; i++) {
+                retval = areEqual(s1.arguments.get(i), s2.arguments.get(i));
+            }
+        }
+        else {
+            retval = false;
+        }
+
+        return retval;
+    }
+
+    public int getNodeCount() {
+        return myNodeCount;
+    }
+
+    private boolean isInClass(PExp e, int node) {
+        int eClass = lookUp(e);
+        return eClass >= 0 && eClass == find(node);
+    }
+
+    private void instantiate(PExp pattern, PExp template,
+            Map<String, List<Integer>> nodesByName) {
+
+        if (pattern instanceof PSymbol
+                && isGroundName((PSymbol) pattern)
+                && pattern.getQuantifiedVariables().containsAll(
+                        template.getQuantifiedVariables())) {
+
+            List<Integer> candidates =
+                    nodesByName.get(((PSymbol) pattern).name);
+
+            if (candidates != null) {
+                Map<PExp, PExp> bindings;
+                int instance;
+                for (int candidate : candidates) {
+                    try {
+                        bindings = pattern.bindTo(myNodeTerms.get(candidate));
+                        instance = add(template.substitute(bindings));
+
+                        if (instance >= 0) {
+                            merge(candidate, instance);
+                        }
+                    }
+                    catch (BindingException e) {
+                        //Not an instance of the pattern
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Adds <code>e</code> and its subterms to the closure, returning the
+     * node that represents it, or -1 if <code>e</code> is not ground.</p>
+     */
+    private int add(PExp e) {
+        int retval;
+
+        if (e instanceof PSymbol) {
+            PSymbol eAsPSymbol = (PSymbol) e;
+
+            if (isGroundName(eAsPSymbol)) {
+                int argumentCount = eAsPSymbol.arguments.size();
+                int[] arguments = new int[argumentCount];
+
+                retval = 0;
+                for (int i = 0; retval >= 0 && i < argumentCount; i++) {
+                    retval = add(eAsPSymbol.arguments.get(i));
+                    arguments[i] = retval;
+                }
+
+                if (retval >= 0) {
+                    retval = addApplication(eAsPSymbol.name, arguments, e);
+                }
+            }
+            else {
+                retval = -1;
+            }
+        }
+        else if (e.getQuantifiedVariables().isEmpty()) {
+            Integer existing = myOpaqueTerms.get(e);
+
+            if (existing == null) {
+                retval = newNode(null, e);
+                myOpaqueTerms.put(e, retval);
+            }
+            else {
+                retval = existing;
+            }
+        }
+        else {
+            retval = -1;
+        }
+
+        return retval;
+    }
+
+    private int addConstant(String name) {
+        return addApplication(name, new int[0], null);
+    }
+
+    private int addApplication(String name, int[] arguments, PExp term) {
+        Signature s = new Signature(name, arguments);
+        Signature canonical = canonicalize(s);
+
+        Integer retval = mySignatureTable.get(canonical);
+        if (retval == null) {
+            retval = newNode(s, term);
+            mySignatureTable.put(canonical, retval);
+
+            for (int argument : arguments) {
+                myUses.get(find(argument)).add(retval);
+            }
+        }
+
+        return retval;
+    }
+
+    private int newNode(Signature s, PExp term) {
+        if (myNodeCount == myParents.length) {
+            myParents = Arrays.copyOf(myParents, myNodeCount * 2);
+            mySizes = Arrays.copyOf(mySizes, myNodeCount * 2);
+        }
+
+        int retval = myNodeCount++;
+        myParents[retval] = retval;
+        mySizes[retval] = 1;
+        myNodeSignatures.add(s);
+        myNodeTerms.add(term);
+        myUses.add(new ArrayList<Integer>());
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the class of <code>e</code> if it, or a term congruent to it,
+     * has been added to the closure, or -1 otherwise.</p>
+     */
+    private int lookUp(PExp e) {
+        int retval;
+
+        if (e instanceof PSymbol) {
+            PSymbol eAsPSymbol = (PSymbol) e;
+
+            if (isGroundName(eAsPSymbol)) {
+                int argumentCount = eAsPSymbol.arguments.size();
+                int[] arguments = new int[argumentCount];
+
+                retval = 0;
+                for (int i = 0; retval >= 0 && i < argumentCount; i++) {
+                    retval = lookUp(eAsPSymbol.arguments.get(i));
+                    arguments[i] = retval;
+                }
+
+                if (retval >= 0) {
+                    Integer node =
+                            mySignatureTable.get(new Signature(eAsPSymbol.name,
+                                    arguments));
+
+                    if (node == null) {
+                        retval = -1;
+                    }
+                    else {
+                        retval = find(node);
+                    }
+                }
+            }
+            else {
+                retval = -1;
+            }
+        }
+        else {
+            Integer node = myOpaqueTerms.get(e);
+
+            if (node == null) {
+                retval = -1;
+            }
+            else {
+                retval = find(node);
+            }
+        }
+
+        return retval;
+    }
+
+    private void merge(int node1, int node2) {
+        LinkedList<int[]> pending = new LinkedList<int[]>();
+        pending.add(new int[] { node1, node2 });
+
+        int[] pair;
+        int root1, root2, swap;
+        List<Integer> moved;
+        Signature s;
+        Integer existing;
+        while (!pending.isEmpty()) {
+            pair = pending.removeFirst();
+            root1 = find(pair[0]);
+            root2 = find(pair[1]);
+
+            if (root1 != root2) {
+                if (mySizes[root1] < mySizes[root2]) {
+                    swap = root1;
+                    root1 = root2;
+                    root2 = swap;
+                }
+
+                //The signatures of everything using root2 are about to change
+                moved = myUses.get(root2);
+                for (int use : moved) {
+                    s = canonicalize(myNodeSignatures.get(use));
+                    existing = mySignatureTable.get(s);
+                    if (existing != null && existing == use) {
+                        mySignatureTable.remove(s);
+                    }
+                }
+
+                myParents[root2] = root1;
+                mySizes[root1] += mySizes[root2];
+
+                for (int use : moved) {
+                    s = canonicalize(myNodeSignatures.get(use));
+                    existing = mySignatureTable.get(s);
+                    if (existing == null) {
+                        mySignatureTable.put(s, use);
+                    }
+                    else if (find(existing) != find(use)) {
+                        pending.add(new int[] { existing, use });
+                    }
+                }
+
+                myUses.get(root1).addAll(moved);
+                myUses.set(root2, new ArrayList<Integer>());
+            }
+        }
+    }
+
+    private int find(int node) {
+        int root = node;
+        while (myParents[root] != root) {
+            root = myParents[root];
+        }
+
+        //Compress the path
+        int next;
+        while (myParents[node] != root) {
+            next = myParents[node];
+            myParents[node] = root;
+            node = next;
+        }
+
+        return root;
+    }
+
+    private Signature canonicalize(Signature s) {
+        int[] arguments = new int[s.myArguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = find(s.myArguments[i]);
+        }
+
+        return new Signature(s.myName, arguments);
+    }
+
+    private static boolean isGroundName(PSymbol s) {
+        return s.quantification == PSymbol.Quantification.NONE;
+    }
+
+    private static boolean isNegation(PExp e) {
+        return e instanceof PSymbol && ((PSymbol) e).arguments.size() == 1
+                && ((PSymbol) e).name.equals("not");
+    }
+
+    /**
+     * <p>The name of a function application together with the nodes, or
+     * classes, of its arguments.</p>
+     */
+    private static class Signature {
+
+        private final String myName;
+        private final int[] myArguments;
+        private final int myHash;
+
+        public Signature(String name, int[] arguments) {
+            myName = name;
+            myArguments = arguments;
+            myHash = 31 * name.hashCode() + Arrays.hashCode(arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return myHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean retval = (o instanceof Signature);
+
+            if (retval) {
+                Signature oAsSignature = (Signature) o;
+                retval =
+                        myHash == oAsSignature.myHash
+                                && myName.equals(oAsSignature.myName)
+                                && Arrays.equals(myArguments,
+                                        oAsSignature.myArguments);
+            }
+
+            return retval;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>A <code>CongruenceClosureStep</code> removes from a VC each consequent
+ * that follows by equational reasoning alone from a fixed
+ * <code>CongruenceClosure</code>, typically that of the antecedents of the VC
+ * being proved together with the ground instances of the theorems.</p>
+ *
+ * <p>Since antecedents are only ever developed and rewritten with theorems
+ * over the course of a proof, the closure of the original antecedents remains
+ * valid for every VC derived from them, so the same step may be applied at
+ * any point in the search.</p>
+ */
+public class CongruenceClosureStep implements VCTransformer {
+
+    private static final Iterator<VC> DUMMY_ITERATOR =
+            DummyIterator.getInstance((Iterator<VC>) null);
+
+    private static final Consequent NO_CONSEQUENTS =
+            new Consequent(Collections.<PExp> emptyList());
+
+    private final CongruenceClosure myClosure;
+
+    public CongruenceClosureStep(CongruenceClosure closure) {
+        myClosure = closure;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> every consequent of
+     * <code>vc</code> follows from the closure.</p>
+     */
+    public boolean provesAll(VC vc) {
+        boolean retval = true;
+
+        Iterator<PExp> consequents = vc.getConsequent().iterator();
+        while (retval && consequents.hasNext()) {
+            retval = myClosure.isProved(consequents.next());
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns <code>vc</code> with all of its consequents discharged, the
+     * VC with which a proof ends once <code>provesAll(vc)</code>.</p>
+     */
+    public VC dischargeAll(VC vc) {
+        return new VC(vc.getSourceName(), vc.getAntecedent(), NO_CONSEQUENTS,
+                true);
+    }
+
+    @Override
+    public Iterator<VC> transform(VC original) {
+        Iterator<VC> retval;
+
+        Consequent originalConsequent = original.getConsequent();
+        List<PExp> remaining = new LinkedList<PExp>();
+        for (PExp c : originalConsequent) {
+            if (!myClosure.isProved(c)) {
+                remaining.add(c);
+            }
+        }
+
+        if (remaining.size() == originalConsequent.size()) {
+            retval = DummyIterator.getInstance(DUMMY_ITERATOR);
+        }
+        else {
+            retval =
+                    new SingletonIterator<VC>(new VC(original.getSourceName(),
+                            original.getAntecedent(),
+                            new Consequent(remaining), true));
+        }
+
+        return retval;
+    }
+
+    @Override
+    public Antecedent getPattern() {
+        throw new UnsupportedOperationException("Not applicable.");
+    }
+
+    @Override
+    public Consequent getReplacementTemplate() {
+        throw new UnsupportedOperationException("Not applicable.");
+    }
+
+    @Override
+    public boolean introducesQuantifiedVariables() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Congruence Closure";
+    }
+}
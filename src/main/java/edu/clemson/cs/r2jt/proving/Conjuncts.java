@@ -1,6 +1,9 @@
 package edu.clemson.cs.r2jt.proving;
 
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
 
 import edu.clemson.cs.r2jt.absyn.BetweenExp;
 import edu.clemson.cs.r2jt.absyn.Exp;
@@ -78,18 +81,41 @@ public class Conjuncts extends List<Exp> {
 
     public void eliminateRedundantConjuncts() {
 
-        Exp curExp;
-        for (int curUniqueIndex = 0; curUniqueIndex < size(); curUniqueIndex++) {
+        //Only conjuncts with the same structural hash code can be equivalent,
+        //so each conjunct need only be compared with the earlier unique 
+        //conjuncts that share its hash code
+        Map<Integer, java.util.List<Exp>> uniqueConjuncts =
+                new HashMap<Integer, java.util.List<Exp>>();
 
-            curExp = get(curUniqueIndex);
+        java.util.List<Exp> bucket;
+        boolean redundant;
+        Iterator<Exp> iter = iterator();
+        Exp curExp;
+        Integer curHash;
+        while (iter.hasNext()) {
+            curExp = iter.next();
+            curHash = curExp.structuralHashCode();
 
-            for (int compareIndex = curUniqueIndex + 1; compareIndex < size(); compareIndex++) {
+            bucket = uniqueConjuncts.get(curHash);
+            if (bucket == null) {
+                bucket = new LinkedList<Exp>();
+                uniqueConjuncts.put(curHash, bucket);
+            }
 
-                while (compareIndex < size()
-                        && curExp.equivalent(get(compareIndex))) {
-                    remove(compareIndex);
+            redundant = false;
+            for (Exp unique : bucket) {
+                if (unique.equivalent(curExp)) {
+                    redundant = true;
+                    break;
                 }
             }
+
+            if (redundant) {
+                iter.remove();
+            }
+            else {
+                bucket.add(curExp);
+            }
         }
     }
 
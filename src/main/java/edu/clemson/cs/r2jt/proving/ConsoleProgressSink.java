@@ -0,0 +1,43 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.io.PrintStream;
+
+/**
+ * <p>A <code>ConsoleProgressSink</code> prints the progress of each VC as a
+ * line of text whenever its whole-percentage has changed since it was last
+ * printed.  VCs settled before their progress is first sampled print nothing,
+ * since their results are printed by the <code>Prover</code> anyway.</p>
+ */
+class ConsoleProgressSink implements ProgressSink {
+
+    private final PrintStream myOut;
+    private int myLastPercent;
+
+    public ConsoleProgressSink(PrintStream out) {
+        myOut = out;
+    }
+
+    @Override
+    public void vcStarted(String vcName, ActionCanceller canceller) {
+        myLastPercent = 0;
+    }
+
+    @Override
+    public void progressUpdate(String vcName, double progress, long milliseconds) {
+
+        int percent = (int) (100 * progress);
+        if (percent != myLastPercent) {
+            myOut.println("  " + vcName + ": " + percent + "% of proof space "
+                    + "searched after " + milliseconds + " milliseconds.");
+            myLastPercent = percent;
+        }
+    }
+
+    @Override
+    public void vcFinished(String vcName, String result, long milliseconds) {}
+
+    @Override
+    public void close() {
+        myOut.flush();
+    }
+}
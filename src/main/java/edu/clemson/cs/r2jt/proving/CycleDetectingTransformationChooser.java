@@ -42,6 +42,10 @@ public class CycleDetectingTransformationChooser
             retval = DummyIterator.getInstance(TYPE_SAFE_ITERATOR);
             metrics.numTimesBacktracked =
                     metrics.numTimesBacktracked.add(BigInteger.ONE);
+
+            if (metrics.statistics != null) {
+                metrics.statistics.cyclesPruned++;
+            }
         }
         else {
             retval =
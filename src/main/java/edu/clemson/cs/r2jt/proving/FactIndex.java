@@ -0,0 +1,128 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol.Quantification;
+
+/**
+ * <p>A <code>FactIndex</code> holds a list of facts indexed by the name of the
+ * function each is an application of, so that the facts a pattern could
+ * possibly bind to may be found without attempting to bind it to every
+ * fact.</p>
+ *
+ * <p>A pattern that is an application of an unquantified function can only
+ * bind to an application of the same function, and binding never replaces an
+ * application of a function with arguments, so only those facts need be
+ * considered, along with any facts that are not function applications with
+ * arguments.  Candidates are always returned in the order the facts were
+ * added.</p>
+ */
+class FactIndex {
+
+    private final List<PExp> myFacts = new ArrayList<PExp>();
+
+    /**
+     * <p>Maps each function name to the positions in <code>myFacts</code> of
+     * the applications of that function with arguments.</p>
+     */
+    private final Map<String, List<Integer>> myApplications =
+            new HashMap<String, List<Integer>>();
+
+    /**
+     * <p>The positions in <code>myFacts</code> of those facts that are not
+     * applications of a function with arguments, which any pattern might
+     * bind to.</p>
+     */
+    private final List<Integer> myUnindexed = new ArrayList<Integer>();
+
+    public FactIndex() {}
+
+    public FactIndex(Iterable<PExp> facts) {
+        addAll(facts);
+    }
+
+    public void add(PExp fact) {
+        Integer position = myFacts.size();
+        myFacts.add(fact);
+
+        if (fact instanceof PSymbol && ((PSymbol) fact).arguments.size() > 0) {
+
+            String name = ((PSymbol) fact).name;
+            List<Integer> applications = myApplications.get(name);
+            if (applications == null) {
+                applications = new ArrayList<Integer>();
+                myApplications.put(name, applications);
+            }
+            applications.add(position);
+        }
+        else {
+            myUnindexed.add(position);
+        }
+    }
+
+    public void addAll(Iterable<PExp> facts) {
+        for (PExp fact : facts) {
+            add(fact);
+        }
+    }
+
+    public boolean isEmpty() {
+        return myFacts.isEmpty();
+    }
+
+    /**
+     * <p>Returns those facts that <code>pattern</code> might bind to, in the
+     * order they were added.</p>
+     */
+    public List<PExp> getCandidates(PExp pattern) {
+        List<PExp> retval;
+
+        if (pattern instanceof PSymbol
+                && ((PSymbol) pattern).quantification != Quantification.FOR_ALL) {
+
+            List<Integer> applications =
+                    myApplications.get(((PSymbol) pattern).name);
+
+            if (applications == null) {
+                applications = Collections.emptyList();
+            }
+
+            retval = merge(applications, myUnindexed);
+        }
+        else {
+            retval = myFacts;
+        }
+
+        return retval;
+    }
+
+    private List<PExp> merge(List<Integer> positions1, List<Integer> positions2) {
+
+        List<PExp> retval =
+                new ArrayList<PExp>(positions1.size() + positions2.size());
+
+        int index1 = 0, index2 = 0;
+        int size1 = positions1.size(), size2 = positions2.size();
+        int next;
+        while (index1 < size1 || index2 < size2) {
+            if (index2 == size2
+                    || (index1 < size1 && positions1.get(index1) < positions2
+                            .get(index2))) {
+                next = positions1.get(index1++);
+            }
+            else {
+                next = positions2.get(index2++);
+            }
+
+            retval.add(myFacts.get(next));
+        }
+
+        return retval;
+    }
+}
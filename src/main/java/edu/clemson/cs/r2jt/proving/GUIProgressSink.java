@@ -0,0 +1,66 @@
+package edu.clemson.cs.r2jt.proving;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * <p>A <code>GUIProgressSink</code> displays progress in a
+ * <code>ProofProgressWindow</code>, whose "Skip VC" button cancels the VC being
+ * attempted.  The window is created when the first VC starts, and it is only
+ * ever touched from the Swing event dispatch thread.</p>
+ */
+class GUIProgressSink implements ProgressSink {
+
+    /**
+     * <p>Accessed only from the event dispatch thread.</p>
+     */
+    private ProofProgressWindow myWindow;
+
+    @Override
+    public void vcStarted(final String vcName, final ActionCanceller canceller) {
+        SwingUtilities.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+                if (myWindow == null) {
+                    myWindow = new ProofProgressWindow("VC", canceller);
+                }
+
+                myWindow.setTitle("VC " + vcName);
+                myWindow.setActionCanceller(canceller);
+                myWindow.setProgress(0);
+            }
+        });
+    }
+
+    @Override
+    public void progressUpdate(String vcName, final double progress,
+            long milliseconds) {
+
+        SwingUtilities.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+                if (myWindow != null) {
+                    myWindow.setProgress(progress);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void vcFinished(String vcName, String result, long milliseconds) {}
+
+    @Override
+    public void close() {
+        SwingUtilities.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+                if (myWindow != null) {
+                    myWindow.done();
+                    myWindow = null;
+                }
+            }
+        });
+    }
+}
@@ -12,6 +12,8 @@ import edu.clemson.cs.r2jt.absyn.Exp;
 import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolDictionary;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolSet;
 import edu.clemson.cs.r2jt.proving.immutableadts.EmptyImmutableList;
 import edu.clemson.cs.r2jt.proving.immutableadts.ImmutableList;
 import edu.clemson.cs.r2jt.proving.immutableadts.SimpleImmutableList;
@@ -32,6 +34,7 @@ public class ImmutableConjuncts implements Iterable<PExp> {
     private final int myConjunctsSize;
 
     private Set<String> myCachedSymbolNames;
+    private SymbolSet myCachedSymbolSet;
     private Set<PSymbol> myCachedQuantifiedVariables;
     private List<PExp> myCachedFunctionApplications;
 
@@ -76,6 +79,7 @@ public class ImmutableConjuncts implements Iterable<PExp> {
 
             myConjuncts = expsAsImmutableConjuncts.myConjuncts;
             myCachedSymbolNames = expsAsImmutableConjuncts.myCachedSymbolNames;
+            myCachedSymbolSet = expsAsImmutableConjuncts.myCachedSymbolSet;
             myCachedQuantifiedVariables =
                     expsAsImmutableConjuncts.myCachedQuantifiedVariables;
             myCachedFunctionApplications =
@@ -604,17 +608,47 @@ public class ImmutableConjuncts implements Iterable<PExp> {
         return myCachedFunctionApplications;
     }
 
+    /**
+     * <p>Returns the names of the symbols in these conjuncts, not counting
+     * quantified variables.  The returned set is shared and may not be
+     * modified.</p>
+     */
     public Set<String> getSymbolNames() {
         if (myCachedSymbolNames == null) {
-            myCachedSymbolNames = new HashSet<String>();
+            Set<String> symbolNames = new HashSet<String>();
 
             Iterator<PExp> conjunctsIter = myConjuncts.iterator();
             while (conjunctsIter.hasNext()) {
-                myCachedSymbolNames.addAll(conjunctsIter.next()
-                        .getSymbolNames());
+                symbolNames.addAll(conjunctsIter.next().getSymbolNames());
             }
+
+            myCachedSymbolNames = Collections.unmodifiableSet(symbolNames);
         }
 
         return myCachedSymbolNames;
     }
+
+    /**
+     * <p>Returns the symbol names of these conjuncts as a
+     * <code>SymbolSet</code> over <code>dictionary</code>.  The set is cached
+     * for as long as it is asked for with the same dictionary.</p>
+     */
+    public SymbolSet getSymbolSet(SymbolDictionary dictionary) {
+        SymbolSet retval = myCachedSymbolSet;
+
+        if (retval == null || retval.getDictionary() != dictionary) {
+            retval = dictionary.getSymbolSet(Collections.<String> emptySet());
+
+            Iterator<PExp> conjunctsIter = myConjuncts.iterator();
+            while (conjunctsIter.hasNext()) {
+                retval =
+                        retval.union(conjunctsIter.next().getSymbolSet(
+                                dictionary));
+            }
+
+            myCachedSymbolSet = retval;
+        }
+
+        return retval;
+    }
 }
@@ -0,0 +1,84 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * <p>A <code>JSONProgressSink</code> writes each progress event as a line
+ * holding a JSON object of the form <code>{"vc": ..., "event": ...,
+ * "milliseconds": ...}</code>, where <code>event</code> is one of
+ * <code>"started"</code>, <code>"progress"</code>, or <code>"finished"</code>.
+ * Progress events also give the fraction of the proof space searched as
+ * <code>progress</code>, and finished events give the <code>result</code>.
+ * Each line is flushed as it is written so that the file can be followed
+ * while the prover runs.</p>
+ *
+ * <p>If the file cannot be written, the problem is reported once and nothing
+ * further is written.</p>
+ */
+class JSONProgressSink implements ProgressSink {
+
+    private final Writer myOut;
+    private boolean myFailedFlag;
+
+    public JSONProgressSink(Writer out) {
+        myOut = out;
+    }
+
+    @Override
+    public void vcStarted(String vcName, ActionCanceller canceller) {
+        writeEvent(vcName, "started", 0, "");
+    }
+
+    @Override
+    public void progressUpdate(String vcName, double progress, long milliseconds) {
+
+        writeEvent(vcName, "progress", milliseconds, ", \"progress\": "
+                + progress);
+    }
+
+    @Override
+    public void vcFinished(String vcName, String result, long milliseconds) {
+        StringBuilder fields = new StringBuilder(", \"result\": ");
+        ProverStatistics.appendJSONString(fields, result);
+
+        writeEvent(vcName, "finished", milliseconds, fields.toString());
+    }
+
+    @Override
+    public void close() {
+        try {
+            myOut.close();
+        }
+        catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writeEvent(String vcName, String event, long milliseconds,
+            String fields) {
+
+        if (!myFailedFlag) {
+            StringBuilder line = new StringBuilder("{\"vc\": ");
+            ProverStatistics.appendJSONString(line, vcName);
+            line.append(", \"event\": \"" + event + "\", \"milliseconds\": "
+                    + milliseconds + fields + "}\n");
+
+            try {
+                myOut.write(line.toString());
+                myOut.flush();
+            }
+            catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    private void fail(IOException e) {
+        if (!myFailedFlag) {
+            myFailedFlag = true;
+            System.err.println("Could not write prover progress: "
+                    + e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package edu.clemson.cs.r2jt.proving;
 
 import java.math.BigInteger;
+import java.util.Iterator;
 
 /**
  * <p>The <code>Metrics</code> class contains aggregate data about a full proof
@@ -16,6 +17,12 @@ class Metrics {
 
     public ActionCanceller actionCanceller;
 
+    /**
+     * <p>Detailed statistics about the proof attempt, or <code>null</code> if
+     * none are being kept.</p>
+     */
+    public ProverStatistics statistics;
+
     public Metrics() {
         clear();
     }
@@ -28,9 +35,34 @@ class Metrics {
         numProofsConsidered = numProofsConsidered.add(BigInteger.ONE);
     }
 
+    /**
+     * <p>Applies <code>step</code> to <code>vc</code>, through
+     * <code>statistics</code> if any are being kept.</p>
+     */
+    public Iterator<VC> applyStep(VCTransformer step, VC vc) {
+        Iterator<VC> retval;
+
+        if (statistics == null) {
+            retval = step.transform(vc);
+        }
+        else {
+            retval = statistics.transform(step, vc);
+        }
+
+        return retval;
+    }
+
     public void accumulate(Metrics m) {
         numProofsConsidered = numProofsConsidered.add(m.numProofsConsidered);
         numTimesBacktracked = numTimesBacktracked.add(m.numTimesBacktracked);
+
+        if (m.statistics != null) {
+            if (statistics == null) {
+                statistics = new ProverStatistics();
+            }
+
+            statistics.accumulate(m.statistics);
+        }
     }
 
     public void clear() {
@@ -38,5 +70,9 @@ class Metrics {
         numProofsConsidered = BigInteger.ZERO;
         ruleCount = 0;
         rulesTried = 0;
+
+        if (statistics != null) {
+            statistics = new ProverStatistics();
+        }
     }
 }
@@ -19,7 +19,7 @@ import java.util.List;
  * 
  * @author H. Smith, June 9th 2009
  */
-public class MultiStrategyProver implements VCProver {
+public class MultiStrategyProver implements VCProver, CertificateReplayer {
 
     /**
      * <p>A constant <code>BigInteger</code> with a value of -1.</p>
@@ -175,6 +175,7 @@ public class MultiStrategyProver implements VCProver {
         ProgressAccumulator progressAccumulator;
         progressAccumulator = new ProgressAccumulator(progressListener);
 
+        int strategy = 0;
         for (VCProver p : myStrategies) {
             try {
                 p.prove(vC, progressAccumulator, actionCanceller, timeoutAt);
@@ -189,16 +190,45 @@ public class MultiStrategyProver implements VCProver {
                 accumulatedMetrics.accumulate(e.getMetrics());
 
                 e.setMetrics(accumulatedMetrics);
+                e.setStrategy(strategy);
 
                 throw e;
             }
 
             progressAccumulator.startingNextStrategy();
+            strategy++;
         }
 
         throw new UnableToProveException(accumulatedMetrics);
     }
 
+    /**
+     * <p>Replays <code>certificate</code> with the strategy that found the
+     * proof it records.  Only that strategy's chooser suggests the steps the
+     * certificate names, so no other strategy is tried.</p>
+     */
+    @Override
+    public void replay(VerificationCondition vC, ProofCertificate certificate)
+            throws VCProvedException {
+
+        int strategy = certificate.getStrategy();
+
+        if (strategy < myStrategyCount) {
+            VCProver p = myStrategies.get(strategy);
+
+            if (p instanceof CertificateReplayer) {
+                try {
+                    ((CertificateReplayer) p).replay(vC, certificate);
+                }
+                catch (VCProvedException e) {
+                    e.setStrategy(strategy);
+
+                    throw e;
+                }
+            }
+        }
+    }
+
     public BigInteger getProofCountOrder() {
         BigInteger averageOrder =
                 myProofCountOrder.divide(BigInteger
@@ -1,8 +1,9 @@
 package edu.clemson.cs.r2jt.proving;
 
 import java.util.Iterator;
-import java.util.Set;
 
+import edu.clemson.cs.r2jt.proving.absyn.SymbolDictionary;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolSet;
 import edu.clemson.cs.r2jt.utilities.Mapping;
 
 /**
@@ -17,9 +18,20 @@ import edu.clemson.cs.r2jt.utilities.Mapping;
 public class NewTermsOnlyDeveloper implements AntecedentDeveloper {
 
     private final AntecedentDeveloper myBaseDeveloper;
+    private final SymbolDictionary mySymbols;
 
     public NewTermsOnlyDeveloper(AntecedentDeveloper base) {
+        this(base, new SymbolDictionary());
+    }
+
+    /**
+     * <p>Creates a developer that compares symbol names as
+     * <code>SymbolSet</code>s over <code>symbols</code>.</p>
+     */
+    public NewTermsOnlyDeveloper(AntecedentDeveloper base,
+            SymbolDictionary symbols) {
         myBaseDeveloper = base;
+        mySymbols = symbols;
     }
 
     @Override
@@ -36,11 +48,11 @@ public class NewTermsOnlyDeveloper implements AntecedentDeveloper {
      */
     private class GoodVCPredicate implements Mapping<Antecedent, Boolean> {
 
-        private Set<String> myOriginalVCSymbols;
+        private SymbolSet myOriginalVCSymbols;
         private int myOriginalApplicationCount;
 
         public GoodVCPredicate(Antecedent original) {
-            myOriginalVCSymbols = original.getSymbolNames();
+            myOriginalVCSymbols = original.getSymbolSet(mySymbols);
             myOriginalApplicationCount =
                     original.getFunctionApplications().size();
         }
@@ -52,11 +64,9 @@ public class NewTermsOnlyDeveloper implements AntecedentDeveloper {
                                     myOriginalApplicationCount);*/
 
             if (!retval) {
-                Set<String> inputSymbols = input.getSymbolNames();
-
-                inputSymbols.removeAll(myOriginalVCSymbols);
-
-                retval = (inputSymbols.size() != 0);
+                retval =
+                        !input.getSymbolSet(mySymbols).isSubsetOf(
+                                myOriginalVCSymbols);
             }
 
             return retval;
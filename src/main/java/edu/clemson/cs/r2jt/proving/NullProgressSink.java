@@ -0,0 +1,19 @@
+package edu.clemson.cs.r2jt.proving;
+
+/**
+ * <p>A <code>NullProgressSink</code> discards all progress.</p>
+ */
+class NullProgressSink implements ProgressSink {
+
+    @Override
+    public void vcStarted(String vcName, ActionCanceller canceller) {}
+
+    @Override
+    public void progressUpdate(String vcName, double progress, long milliseconds) {}
+
+    @Override
+    public void vcFinished(String vcName, String result, long milliseconds) {}
+
+    @Override
+    public void close() {}
+}
@@ -0,0 +1,201 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * <p>A <code>ProgressReporter</code> decouples the prover's progress updates
+ * from whatever displays them.  The prover reports progress as often as it
+ * likes through {@link #progressUpdate(double) progressUpdate()}, which only
+ * records the latest value.  A separate daemon thread samples that value at
+ * most once every given number of milliseconds and passes it on to a
+ * <code>ProgressSink</code> if it has changed.</p>
+ *
+ * <p>The start and end of each VC are queued for the same thread, which passes
+ * them on in order with the sampled progress.  Every call to the sink is made
+ * from that thread, and never while holding a lock the search thread needs, so
+ * however slow the sink, the search thread never waits on it.</p>
+ */
+class ProgressReporter implements ProverListener {
+
+    private final ProgressSink mySink;
+    private final long myInterval;
+
+    /**
+     * <p>The most recent progress reported by the prover.  Written by the
+     * search thread and read by the sampling thread without locking.</p>
+     */
+    private volatile double myProgress;
+
+    /**
+     * <p>The calls to the sink waiting for the sampling thread, in the order
+     * they were made.</p>
+     */
+    private final List<Runnable> myEvents = new LinkedList<Runnable>();
+
+    private String myVCName;
+    private long myVCStartTime;
+
+    private Thread mySampler;
+    private boolean myClosedFlag;
+
+    /**
+     * <p>The progress last passed on to the sink.  Accessed only from the
+     * sampling thread.</p>
+     */
+    private double myReportedProgress;
+
+    public ProgressReporter(ProgressSink sink, long interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be positive.");
+        }
+
+        mySink = sink;
+        myInterval = interval;
+    }
+
+    public void progressUpdate(double progress) {
+        myProgress = progress;
+    }
+
+    /**
+     * <p>Reports that an attempt to prove the VC named <code>vcName</code> has
+     * begun, and that progress reported from now on belongs to it.</p>
+     */
+    public synchronized void startVC(final String vcName,
+            final ActionCanceller canceller) {
+
+        myVCName = vcName;
+        myVCStartTime = System.currentTimeMillis();
+        myProgress = 0;
+
+        queue(new Runnable() {
+
+            @Override
+            public void run() {
+                myReportedProgress = 0;
+                mySink.vcStarted(vcName, canceller);
+            }
+        });
+
+        if (mySampler == null && !myClosedFlag) {
+            mySampler = new Thread(new Sampler(), "Prover progress");
+            mySampler.setDaemon(true);
+            mySampler.start();
+        }
+    }
+
+    /**
+     * <p>Reports that the attempt begun by the last call to
+     * {@link #startVC(String, ActionCanceller) startVC()} ended with
+     * <code>result</code>.</p>
+     */
+    public synchronized void finishVC(final String result) {
+        if (myVCName != null) {
+            final String vcName = myVCName;
+            final long milliseconds =
+                    System.currentTimeMillis() - myVCStartTime;
+
+            queue(new Runnable() {
+
+                @Override
+                public void run() {
+                    mySink.vcFinished(vcName, result, milliseconds);
+                }
+            });
+
+            myVCName = null;
+        }
+    }
+
+    /**
+     * <p>Stops sampling and closes the sink once everything reported so far
+     * has been passed on to it.  Nothing further is reported.</p>
+     */
+    public void close() {
+        boolean closing;
+        Thread sampler;
+        synchronized (this) {
+            closing = !myClosedFlag;
+            myClosedFlag = true;
+            sampler = mySampler;
+
+            notifyAll();
+        }
+
+        if (closing) {
+            if (sampler == null) {
+                mySink.close();
+            }
+            else {
+                try {
+                    sampler.join();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void queue(Runnable event) {
+        if (!myClosedFlag) {
+            myEvents.add(event);
+            notifyAll();
+        }
+    }
+
+    /**
+     * <p>Passes events and sampled progress on to the sink until closed, then
+     * closes the sink.</p>
+     */
+    private void sample() throws InterruptedException {
+        boolean closed = false;
+
+        List<Runnable> events;
+        String vcName;
+        long milliseconds;
+        double progress;
+        while (!closed) {
+            synchronized (this) {
+                if (myEvents.isEmpty() && !myClosedFlag) {
+                    wait(myInterval);
+                }
+
+                events = new ArrayList<Runnable>(myEvents);
+                myEvents.clear();
+
+                closed = myClosedFlag;
+                vcName = myVCName;
+                milliseconds = System.currentTimeMillis() - myVCStartTime;
+                progress = myProgress;
+            }
+
+            for (Runnable event : events) {
+                event.run();
+            }
+
+            if (!closed && vcName != null && progress != myReportedProgress) {
+                mySink.progressUpdate(vcName, progress, milliseconds);
+                myReportedProgress = progress;
+            }
+        }
+    }
+
+    private class Sampler implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                sample();
+            }
+            catch (InterruptedException e) {
+                //Nothing more to report
+            }
+            finally {
+                mySink.close();
+            }
+        }
+    }
+}
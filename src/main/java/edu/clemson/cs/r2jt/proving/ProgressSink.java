@@ -0,0 +1,37 @@
+package edu.clemson.cs.r2jt.proving;
+
+/**
+ * <p>A <code>ProgressSink</code> is the destination of the progress reported
+ * by a <code>ProgressReporter</code>.  Its methods are called from the
+ * reporter's own thread, never from within the search for a proof, so a sink
+ * may take its time without slowing the prover.  Only <code>close()</code> may
+ * be called from elsewhere, and only if nothing was ever reported.</p>
+ */
+interface ProgressSink {
+
+    /**
+     * <p>Reports that an attempt to prove the VC named <code>vcName</code> has
+     * begun.  <code>canceller</code> may be used to abandon the attempt.</p>
+     */
+    public void vcStarted(String vcName, ActionCanceller canceller);
+
+    /**
+     * <p>Reports that the attempt to prove the VC named <code>vcName</code>
+     * has searched the fraction <code>progress</code> of its proof space after
+     * <code>milliseconds</code>.</p>
+     */
+    public void progressUpdate(String vcName, double progress, long milliseconds);
+
+    /**
+     * <p>Reports that the attempt to prove the VC named <code>vcName</code>
+     * ended with <code>result</code>, either <code>"proved"</code> or
+     * <code>"unproved"</code>, after <code>milliseconds</code>.</p>
+     */
+    public void vcFinished(String vcName, String result, long milliseconds);
+
+    /**
+     * <p>Releases any resources held by this sink.  No further progress will
+     * be reported to it.</p>
+     */
+    public void close();
+}
@@ -0,0 +1,330 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>A <code>ProofCertificate</code> is a compact record of a proof found by
+ * the alternative prover, from which the proof can be re-established without
+ * searching.  Each step of the proof is recorded as the rule applied,
+ * identified by the hash of its <code>toString()</code>, and which of the VCs
+ * produced by applying the rule was taken, counting from zero.  Since rules
+ * produce their VCs in a fixed order, the latter identifies the binding and
+ * the conjuncts the rule was applied to.  The congruence closure steps with
+ * which a proof may begin and end are not recorded, since they are always
+ * taken when they apply.  So that the proof can be replayed by the strategy
+ * that found it, the certificate also records that strategy's index among
+ * those of the <code>MultiStrategyProver</code> that tried it.</p>
+ *
+ * <p>A certificate is {@link #replay(VerificationCondition,
+ * TransformationChooser, MathExpTypeResolver, Iterable) replayed} by asking
+ * the chooser that found the proof for its suggestions at each step in turn,
+ * exactly as the search did, and following the recorded rule and VC, so that
+ * the cost of replay is linear in the length of the proof.  Every step of the
+ * replay is an ordinary application of one of the prover's rules, and the
+ * replay succeeds only if it reaches a proved VC, so a certificate that no
+ * longer fits its VC, or even one belonging to some other VC, can cause a
+ * replay to fail but never to prove something unproven.</p>
+ *
+ * <p>Certificates are stored one per line, as the name of the VC, the index of
+ * the strategy, and each step as
+ * <code><em>rule</em>:<em>alternative</em></code>, separated by spaces, with
+ * the rule's hash in hexadecimal.</p>
+ */
+class ProofCertificate {
+
+    private final String myVCName;
+    private final int myStrategy;
+    private final List<Step> mySteps;
+
+    private ProofCertificate(String vcName, int strategy, List<Step> steps) {
+        myVCName = vcName;
+        myStrategy = strategy;
+        mySteps = steps;
+    }
+
+    /**
+     * <p>Returns the certificate for the proof <code>proof</code> of the VC
+     * named <code>vcName</code>, or <code>null</code> if the proof was not
+     * found by the alternative prover.</p>
+     */
+    public static ProofCertificate fromProof(String vcName,
+            VCProvedException proof) {
+
+        ProofCertificate retval = null;
+
+        List<Step> steps = new ArrayList<Step>();
+        boolean alternative = true;
+
+        AlternativeProofStep proofStep;
+        Iterator<Object> proofSteps = proof.getSteps().iterator();
+        while (alternative && proofSteps.hasNext()) {
+            Object step = proofSteps.next();
+
+            alternative = (step instanceof AlternativeProofStep);
+            if (alternative) {
+                proofStep = (AlternativeProofStep) step;
+                if (!(proofStep.getStep().step instanceof CongruenceClosureStep)) {
+                    steps.add(new Step(getRuleID(proofStep.getStep().step),
+                            proofStep.getAlternative()));
+                }
+            }
+        }
+
+        if (alternative) {
+            retval = new ProofCertificate(vcName, proof.getStrategy(), steps);
+        }
+
+        return retval;
+    }
+
+    public String getVCName() {
+        return myVCName;
+    }
+
+    public int getStrategy() {
+        return myStrategy;
+    }
+
+    public int size() {
+        return mySteps.size();
+    }
+
+    /**
+     * <p>Replays this certificate against <code>originalVC</code>, choosing
+     * each step from among the suggestions of <code>chooser</code> and
+     * discharging consequents with the closure of the VC's antecedents and
+     * <code>theorems</code> as the prover would.  If the replay reaches a
+     * proved VC, the resulting proof is thrown.  Otherwise this method returns
+     * normally.</p>
+     */
+    public void replay(VerificationCondition originalVC,
+            TransformationChooser chooser, MathExpTypeResolver typer,
+            Iterable<PExp> theorems) throws VCProvedException {
+
+        VC vc = originalVC.getImmutableVC(typer);
+
+        Metrics metrics = new Metrics();
+        metrics.actionCanceller = new ActionCanceller();
+
+        CongruenceClosureStep closure =
+                new CongruenceClosureStep(originalVC.getCongruenceClosure(
+                        typer, theorems));
+
+        List<AlternativeProofStep> taken =
+                new ArrayList<AlternativeProofStep>();
+
+        VC cur = vc;
+        Iterator<VC> closed = closure.transform(vc);
+        if (closed.hasNext()) {
+            cur = closed.next();
+            taken.add(new AlternativeProofStep(new ProofPathSuggestion(closure,
+                    new ProofData()), cur));
+        }
+
+        chooser.preoptimizeForVC(cur);
+
+        ProofData data = new ProofData();
+        int length = 0;
+        Iterator<Step> steps = mySteps.iterator();
+        boolean proved = false, failed = false;
+        Step step;
+        ProofPathSuggestion suggestion;
+        VC next;
+        while (!proved && !failed) {
+            metrics.incrementProofsConsidered();
+
+            if (cur.getConsequent().size() == 0) {
+                proved = true;
+            }
+            else if (closure.provesAll(cur)) {
+                taken.add(new AlternativeProofStep(new ProofPathSuggestion(
+                        closure, data), closure.dischargeAll(cur)));
+                proved = true;
+            }
+            else if (!steps.hasNext()) {
+                failed = true;
+            }
+            else {
+                step = steps.next();
+
+                suggestion =
+                        findSuggestion(chooser.suggestTransformations(cur,
+                                length, metrics, data), cur, step.rule);
+
+                next = null;
+                if (suggestion != null) {
+                    next =
+                            getAlternative(suggestion.step.transform(cur),
+                                    step.alternative);
+                }
+
+                if (next == null) {
+                    failed = true;
+                }
+                else {
+                    taken.add(new AlternativeProofStep(suggestion, next,
+                            step.alternative));
+
+                    data = suggestion.data.addStep(cur);
+                    cur = next;
+                    length++;
+                }
+            }
+        }
+
+        if (proved) {
+            VCProvedException proof = new VCProvedException(metrics);
+
+            for (int i = taken.size() - 1; i >= 0; i--) {
+                proof.addStep(taken.get(i));
+            }
+
+            proof.setOriginal(vc);
+
+            throw proof;
+        }
+    }
+
+    /**
+     * <p>Returns the first of <code>suggestions</code> for <code>vc</code>
+     * whose rule is <code>rule</code>, or <code>null</code> if there is none.
+     * Some choosers decide what to suggest next from the results of the
+     * suggestions before, so each suggestion passed over is applied to
+     * <code>vc</code> in full, as the search would have applied it, though the
+     * VCs it produces are not pursued.</p>
+     */
+    private static ProofPathSuggestion findSuggestion(
+            Iterator<ProofPathSuggestion> suggestions, VC vc, int rule) {
+
+        ProofPathSuggestion retval = null;
+
+        ProofPathSuggestion suggestion;
+        Iterator<VC> passedOver;
+        while (retval == null && suggestions.hasNext()) {
+            suggestion = suggestions.next();
+
+            if (getRuleID(suggestion.step) == rule) {
+                retval = suggestion;
+            }
+            else {
+                passedOver = suggestion.step.transform(vc);
+                while (passedOver.hasNext()) {
+                    passedOver.next();
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    private static VC getAlternative(Iterator<VC> alternatives, int index) {
+        VC retval = null;
+
+        int alternative = 0;
+        while (retval == null && alternatives.hasNext()) {
+            VC vc = alternatives.next();
+
+            if (alternative == index) {
+                retval = vc;
+            }
+
+            alternative++;
+        }
+
+        return retval;
+    }
+
+    private static int getRuleID(VCTransformer rule) {
+        return rule.toString().hashCode();
+    }
+
+    /**
+     * <p>Writes this certificate as a single line.</p>
+     */
+    public void write(Writer out) throws IOException {
+        StringBuilder line = new StringBuilder(myVCName);
+        line.append(' ');
+        line.append(myStrategy);
+
+        for (Step step : mySteps) {
+            line.append(' ');
+            line.append(Integer.toHexString(step.rule));
+            line.append(':');
+            line.append(step.alternative);
+        }
+
+        line.append('\n');
+
+        out.write(line.toString());
+    }
+
+    /**
+     * <p>Reads the certificates written to <code>in</code>, keyed by the names
+     * of their VCs.  Lines that cannot be understood are skipped.</p>
+     */
+    public static Map<String, ProofCertificate> read(BufferedReader in)
+            throws IOException {
+
+        Map<String, ProofCertificate> retval =
+                new HashMap<String, ProofCertificate>();
+
+        String line;
+        String[] fields;
+        List<Step> steps;
+        int colon;
+        int strategy;
+        while ((line = in.readLine()) != null) {
+            fields = line.trim().split(" +");
+
+            if (fields.length > 1) {
+                steps = new ArrayList<Step>(fields.length - 2);
+
+                try {
+                    strategy = Integer.parseInt(fields[1]);
+                    if (strategy < 0) {
+                        throw new NumberFormatException();
+                    }
+
+                    for (int i = 2; i < fields.length; i++) {
+                        colon = fields[i].indexOf(':');
+                        steps.add(new Step((int) Long.parseLong(fields[i]
+                                .substring(0, colon), 16), Integer
+                                .parseInt(fields[i].substring(colon + 1))));
+                    }
+
+                    retval.put(fields[0], new ProofCertificate(fields[0],
+                            strategy, steps));
+                }
+                catch (NumberFormatException e) {
+                    //Not a certificate
+                }
+                catch (StringIndexOutOfBoundsException e) {
+                    //Not a certificate
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    private static class Step {
+
+        public final int rule;
+        public final int alternative;
+
+        public Step(int rule, int alternative) {
+            this.rule = rule;
+            this.alternative = alternative;
+        }
+    }
+}
@@ -48,11 +48,18 @@
  */
 package edu.clemson.cs.r2jt.proving;
 
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
 
 import edu.clemson.cs.r2jt.Main;
 import edu.clemson.cs.r2jt.ResolveCompiler;
@@ -66,12 +73,16 @@ import edu.clemson.cs.r2jt.absyn.ModuleDec;
 import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.compilereport.CompileReport;
+import edu.clemson.cs.r2jt.compilereport.PerformanceReport;
+import edu.clemson.cs.r2jt.compilereport.PerformanceReport.Measurement;
+import edu.clemson.cs.r2jt.compilereport.PerformanceReport.Phase;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.data.Symbol;
 import edu.clemson.cs.r2jt.errors.ErrorHandler;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.init.Environment;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolDictionary;
 import edu.clemson.cs.r2jt.scope.ModuleScope;
 import edu.clemson.cs.r2jt.scope.SymbolTable;
 import edu.clemson.cs.r2jt.utilities.Flag;
@@ -119,14 +130,66 @@ public final class Prover {
     private static final String FLAG_DESC_VERBOSE =
             "Prints prover debugging information.  May be used with either the "
                     + "-prove or -altprove options.";
+    private static final String FLAG_DESC_BEST_FIRST =
+            "Searches for each proof best-first rather than in successive "
+                    + "depth-first rounds.  May be used only with the "
+                    + "-altprove option.";
     private static final String FLAG_DESC_NOGUI =
             "Supresses any graphical interfaces so that the compiler can be run "
                     + "headlessly.";
 
+    private static final String FLAG_DESC_PROVER_STATS =
+            "Writes statistics about the search for each proof to the given "
+                    + "file, one JSON object per VC per line.  May be used "
+                    + "only with the -altprove option.";
+
+    private static final String FLAG_DESC_REPLAY_PROOFS =
+            "Before searching for the proof of each VC, replays the certificate "
+                    + "recorded for it by the last run of the prover, if any.  "
+                    + "May be used only with the -altprove option.";
+
+    private static final String FLAG_DESC_PROGRESS =
+            "Reports the progress of each proof to the given sink: gui, "
+                    + "console, or none.  By default progress is shown in a "
+                    + "window unless -noGUI is given or the compiler is "
+                    + "running headlessly, in which case none is reported.";
+
+    private static final String FLAG_DESC_PROGRESS_FILE =
+            "Writes the progress of each proof to the given file, one JSON "
+                    + "object per event per line, instead of reporting it "
+                    + "elsewhere.";
+
+    private static final String FLAG_DESC_PROGRESS_INTERVAL =
+            "Reports the progress of each proof at most once per the given "
+                    + "number of milliseconds.  The default is "
+                    + "500 milliseconds.";
+
     public static final String FLAG_TIMEOUT_ARG_NAME = "milliseconds";
 
     private static final String[] FLAG_TIMEOUT_ARGS = { FLAG_TIMEOUT_ARG_NAME };
 
+    public static final String FLAG_PROVER_STATS_ARG_NAME = "file";
+
+    private static final String[] FLAG_PROVER_STATS_ARGS =
+            { FLAG_PROVER_STATS_ARG_NAME };
+
+    public static final String FLAG_PROGRESS_ARG_NAME = "sink";
+
+    private static final String[] FLAG_PROGRESS_ARGS =
+            { FLAG_PROGRESS_ARG_NAME };
+
+    public static final String FLAG_PROGRESS_FILE_ARG_NAME = "file";
+
+    private static final String[] FLAG_PROGRESS_FILE_ARGS =
+            { FLAG_PROGRESS_FILE_ARG_NAME };
+
+    public static final String FLAG_PROGRESS_INTERVAL_ARG_NAME = "milliseconds";
+
+    private static final String[] FLAG_PROGRESS_INTERVAL_ARGS =
+            { FLAG_PROGRESS_INTERVAL_ARG_NAME };
+
+    private static final long DEFAULT_PROGRESS_INTERVAL = 500;
+
     /**
      * <p>
      * The main prover flag. Causes the integrated prover to attempt to dispatch
@@ -186,9 +249,64 @@ public final class Prover {
     public static final Flag FLAG_VERBOSE =
             new Flag(FLAG_SECTION_NAME, "verboseprove", FLAG_DESC_VERBOSE,
                     Flag.Type.HIDDEN);
+
+    /**
+     * <p>
+     * Causes the alternative prover to search best-first, ranking every VC
+     * reached so far, rather than depth-first within successive length
+     * windows.
+     * </p>
+     */
+    public static final Flag FLAG_BEST_FIRST =
+            new Flag(FLAG_SECTION_NAME, "bestfirst", FLAG_DESC_BEST_FIRST,
+                    Flag.Type.HIDDEN);
+
+    /**
+     * <p>
+     * Causes the alternative prover to keep statistics about its search for
+     * each proof: rule applications, VCs generated, depth reached, pruned VCs,
+     * time spent in each phase of the search and the rules each proof used.
+     * They are written to the file given as the flag's argument.
+     * </p>
+     */
+    public static final Flag FLAG_PROVER_STATS =
+            new Flag(FLAG_SECTION_NAME, "proverStats", FLAG_DESC_PROVER_STATS,
+                    FLAG_PROVER_STATS_ARGS, Flag.Type.HIDDEN);
+
     public static final Flag FLAG_NOGUI =
             new Flag(Main.FLAG_SECTION_GENERAL, "noGUI", FLAG_DESC_NOGUI);
 
+    /**
+     * <p>
+     * Causes the alternative prover to re-establish each proof from the
+     * certificate written by its last run, searching only for those proofs
+     * whose certificates are missing or no longer apply.
+     * </p>
+     */
+    public static final Flag FLAG_REPLAY_PROOFS =
+            new Flag(FLAG_SECTION_NAME, "replayProofs",
+                    FLAG_DESC_REPLAY_PROOFS, Flag.Type.HIDDEN);
+
+    /**
+     * <p>
+     * Chooses where the progress of each proof is reported. The sink is given
+     * as the flag's argument.
+     * </p>
+     */
+    public static final Flag FLAG_PROGRESS =
+            new Flag(FLAG_SECTION_NAME, "proverProgress", FLAG_DESC_PROGRESS,
+                    FLAG_PROGRESS_ARGS, Flag.Type.HIDDEN);
+
+    public static final Flag FLAG_PROGRESS_FILE =
+            new Flag(FLAG_SECTION_NAME, "proverProgressFile",
+                    FLAG_DESC_PROGRESS_FILE, FLAG_PROGRESS_FILE_ARGS,
+                    Flag.Type.HIDDEN);
+
+    public static final Flag FLAG_PROGRESS_INTERVAL =
+            new Flag(FLAG_SECTION_NAME, "proverProgressInterval",
+                    FLAG_DESC_PROGRESS_INTERVAL, FLAG_PROGRESS_INTERVAL_ARGS,
+                    Flag.Type.HIDDEN);
+
     /**
      * <p>
      * An auxiliary flag implied by any flag that attempts to do some proving.
@@ -223,10 +341,27 @@ public final class Prover {
     private static DebugOptionsWindow myDebugOptions = null;
     /**
      * <p>
-     * A window displaying progress if OPTION_DISPLAY_PROGRES_WINDOW is on.
+     * Passes the progress of each proof on to wherever it is being reported.
+     * </p>
+     */
+    private ProgressReporter myProgress;
+
+    /**
+     * <p>
+     * The certificates written by the last run of the prover, keyed by VC
+     * name, if they are to be replayed, or <code>null</code> otherwise.
+     * </p>
+     */
+    private Map<String, ProofCertificate> myPastCertificates;
+
+    /**
+     * <p>
+     * The certificates of the proofs found so far, in the order they were
+     * found.
      * </p>
      */
-    private ProofProgressWindow myProgressWindow;
+    private final List<ProofCertificate> myCertificates =
+            new List<ProofCertificate>();
     /**
      * <p>
      * The current RESOLVE environment, from which we can get information on the
@@ -253,6 +388,15 @@ public final class Prover {
      * </p>
      */
     private final MathExpTypeResolver myTyper;
+
+    /**
+     * <p>
+     * Numbers the symbol names seen while proving, so that the prover's
+     * components can compare sets of them as bitsets. Shared by all of them,
+     * since sets over different dictionaries can't be compared.
+     * </p>
+     */
+    private final SymbolDictionary mySymbols = new SymbolDictionary();
     /**
      * <p>
      * A list of theorems available in the current scope. This will be built up
@@ -262,6 +406,16 @@ public final class Prover {
     private final List<Exp> myTheorems = new List<Exp>();
     private final List<PExp> myPExpTheorems = new List<PExp>();
     private final List<Implication> myImplications = new List<Implication>();
+    /**
+     * <p>
+     * The implications available to the alternative prover, each as a
+     * <code>VC</code> whose antecedent and consequent are those of the
+     * implication. Only used when proving with <code>FLAG_PROVE</code>, in
+     * which case <code>myTheorems</code> and <code>myImplications</code>
+     * hold just the local axioms of the target file.
+     * </p>
+     */
+    private final List<VC> myImplicationRules = new List<VC>();
     /**
      * <p>
      * A list of the names of the theorems in <code>myTheorems</code> such that
@@ -316,14 +470,14 @@ public final class Prover {
 
         allProved = true;
 
-        if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
-            myProgressWindow = new ProofProgressWindow("VC", null);
-        }
+        myProgress =
+                new ProgressReporter(createProgressSink(),
+                        getProgressInterval());
 
         myTyper = typer;
-        buildTheories();
 
         try {
+            buildTheories();
             proveVCs(vCs);
 
             CompileReport myReport = myInstanceEnvironment.getCompileReport();
@@ -347,10 +501,111 @@ public final class Prover {
             handler.error(e.getMessage()
                     + "\n\nTry disabling the -prove option.");
         }
+        finally {
+            myProgress.close();
+        }
+    }
+
+    /**
+     * <p>
+     * Creates the sink to which the progress of each proof should be
+     * reported, as chosen by <code>FLAG_PROGRESS_FILE</code> or
+     * <code>FLAG_PROGRESS</code>. By default, progress is shown in a window,
+     * and no progress is reported if windows have been suppressed or cannot
+     * be shown, or from the web interface.  Printed progress must be asked
+     * for.
+     * </p>
+     */
+    private ProgressSink createProgressSink() {
+        FlagManager flags = myInstanceEnvironment.flags;
 
-        if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
-            myProgressWindow.dispose();
+        ProgressSink retval = null;
+
+        String sink = null;
+        if (flags.isFlagSet(FLAG_PROGRESS_FILE)) {
+            String progressFileName =
+                    flags.getFlagArgument(FLAG_PROGRESS_FILE,
+                            FLAG_PROGRESS_FILE_ARG_NAME);
+            try {
+                retval =
+                        new JSONProgressSink(new BufferedWriter(new FileWriter(
+                                progressFileName)));
+            }
+            catch (IOException e) {
+                System.err.println("Could not open " + progressFileName
+                        + " to write prover progress: " + e.getMessage());
+            }
+        }
+        else if (flags.isFlagSet(FLAG_PROGRESS)) {
+            sink = flags.getFlagArgument(FLAG_PROGRESS, FLAG_PROGRESS_ARG_NAME);
+
+            if (!sink.equals("gui") && !sink.equals("console")
+                    && !sink.equals("none")) {
+                System.err.println("Unknown prover progress sink \"" + sink
+                        + "\".  Expected gui, console, or none.");
+                sink = null;
+            }
         }
+
+        if (retval == null) {
+            if (sink == null) {
+                if (flags.isFlagSet(ResolveCompiler.FLAG_WEB)
+                        || flags.isFlagSet(FLAG_NOGUI)
+                        || GraphicsEnvironment.isHeadless()) {
+                    sink = "none";
+                }
+                else {
+                    sink = "gui";
+                }
+            }
+
+            //A window was asked for by name, so print rather than drop it
+            if (sink.equals("gui") && GraphicsEnvironment.isHeadless()) {
+                sink = "console";
+            }
+
+            if (sink.equals("gui")) {
+                retval = new GUIProgressSink();
+            }
+            else if (sink.equals("console")) {
+                retval = new ConsoleProgressSink(System.err);
+            }
+            else {
+                retval = new NullProgressSink();
+            }
+        }
+
+        return retval;
+    }
+
+    private long getProgressInterval() {
+        long retval = DEFAULT_PROGRESS_INTERVAL;
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROGRESS_INTERVAL)) {
+            String interval =
+                    myInstanceEnvironment.flags.getFlagArgument(
+                            FLAG_PROGRESS_INTERVAL,
+                            FLAG_PROGRESS_INTERVAL_ARG_NAME);
+
+            long milliseconds = 0;
+            try {
+                milliseconds = Long.parseLong(interval.trim());
+            }
+            catch (NumberFormatException e) {
+                //Reported below
+            }
+
+            if (milliseconds > 0) {
+                retval = milliseconds;
+            }
+            else {
+                System.err.println("Invalid prover progress interval \""
+                        + interval
+                        + "\".  Expected a positive number of milliseconds.");
+            }
+        }
+
+        return retval;
     }
 
     /**
@@ -388,15 +643,27 @@ public final class Prover {
         ModuleScope bindingsInScope;
         List<Symbol> symbolsInScope;
         for (ModuleID curModule : availableTheories) {
-            curSymbolTable = myInstanceEnvironment.getSymbolTable(curModule);
-            bindingsInScope = curSymbolTable.getModuleScope();
-            symbolsInScope = bindingsInScope.getLocalTheoremNames();
+            if (!myInstanceEnvironment.flags.isFlagSet(FLAG_PROVE)) {
+                curSymbolTable =
+                        myInstanceEnvironment.getSymbolTable(curModule);
+                bindingsInScope = curSymbolTable.getModuleScope();
+                symbolsInScope = bindingsInScope.getLocalTheoremNames();
 
-            for (Symbol s : symbolsInScope) {
+                for (Symbol s : symbolsInScope) {
 
-                curTheorem = bindingsInScope.getLocalTheorem(s).getValue();
-                addTheoremToLibrary(s.getName(), curTheorem);
+                    curTheorem = bindingsInScope.getLocalTheorem(s).getValue();
+                    addTheoremToLibrary(s.getName(), curTheorem);
 
+                }
+            }
+            else {
+                // The alternative prover works only from the precompiled
+                // forms of the theorems, which all of its choosers share
+                TheoryLibrary library =
+                        TheoryLibrary.build(curModule, myTyper,
+                                myInstanceEnvironment);
+                myPExpTheorems.addAll(library.getTheorems());
+                myImplicationRules.addAll(library.getImplications());
             }
         }
     }
@@ -445,6 +712,13 @@ public final class Prover {
                 if (theoremAsInfixExp.getOpName().getName().equals("implies")) {
                     myImplications.add(new Implication(theoremAsInfixExp
                             .getLeft(), theoremAsInfixExp.getRight()));
+
+                    if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROVE)) {
+                        myImplicationRules.add(new VC(name, new Antecedent(
+                                theoremAsInfixExp.getLeft(), myTyper),
+                                new Consequent(theoremAsInfixExp.getRight(),
+                                        myTyper)));
+                    }
                 }
             }
 
@@ -493,12 +767,34 @@ public final class Prover {
             proofFile = null;
         }
 
+        Writer statisticsFile = null;
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROVER_STATS)) {
+            String statisticsFileName =
+                    myInstanceEnvironment.flags.getFlagArgument(
+                            FLAG_PROVER_STATS, FLAG_PROVER_STATS_ARG_NAME);
+            try {
+                statisticsFile =
+                        new BufferedWriter(new FileWriter(statisticsFileName));
+            }
+            catch (IOException e) {
+                System.err.println("Could not open " + statisticsFileName
+                        + " to write prover statistics: " + e.getMessage());
+            }
+        }
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_REPLAY_PROOFS)) {
+            myPastCertificates = readCertificates();
+        }
+
         VCProver p;
 
         if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROVE)) {
             if (myInstanceEnvironment.flags.isFlagSet(FLAG_DEBUG)) {
                 p = setUpProverDebug();
             }
+            else if (myInstanceEnvironment.flags.isFlagSet(FLAG_BEST_FIRST)) {
+                p = setUpBestFirstProver();
+            }
             else {
                 p = setUpProver();
             }
@@ -507,8 +803,41 @@ public final class Prover {
             p = null;
         }
 
-        for (VerificationCondition vc : vcs) {
-            proveVC(vc, metrics, proofFile, p);
+        PerformanceReport performance =
+                myInstanceEnvironment.getPerformanceReport();
+        String moduleName = myInstanceEnvironment.getTargetFile().getName();
+
+        // Attempt the easy VCs first so their results aren't held up behind
+        // the hard ones.  When the user is guiding the prover, though, keep
+        // the VCs in the order they were generated
+        VCScheduler scheduler = null;
+        Iterable<VerificationCondition> scheduledVCs = vcs;
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROVE)
+                && !myInstanceEnvironment.flags.isFlagSet(FLAG_DEBUG)) {
+
+            scheduler =
+                    new VCScheduler(myTyper, setUpReductionTransformer(),
+                            myPExpTheorems);
+            scheduledVCs = scheduler.schedule(moduleName, vcs);
+        }
+
+        Measurement proving;
+        long startTime;
+        for (VerificationCondition vc : scheduledVCs) {
+            proving =
+                    performance.begin(moduleName, Phase.PROVING, vc.getName());
+            startTime = System.currentTimeMillis();
+            try {
+                proveVC(vc, metrics, proofFile, statisticsFile, p);
+            }
+            finally {
+                performance.end(proving);
+
+                if (scheduler != null) {
+                    scheduler.recordTime(vc, System.currentTimeMillis()
+                            - startTime);
+                }
+            }
         }
 
         if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
@@ -528,6 +857,20 @@ public final class Prover {
             catch (Exception e) {}
         }
 
+        if (statisticsFile != null) {
+            try {
+                statisticsFile.close();
+            }
+            catch (IOException e) {
+                System.err.println("Could not write prover statistics: "
+                        + e.getMessage());
+            }
+        }
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROVE)) {
+            writeCertificates();
+        }
+
         System.out.println(output);
     }
 
@@ -604,7 +947,8 @@ public final class Prover {
      *             <code>metrics</code> is <code>null</code>.
      */
     private void proveVC(final VerificationCondition vC, final Metrics metrics,
-            FileWriter proofFile, VCProver p) throws VCInconsistentException {
+            FileWriter proofFile, Writer statisticsFile, VCProver p)
+            throws VCInconsistentException {
 
         if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE)) {
             System.out.println("\n\n############################# VC "
@@ -620,10 +964,7 @@ public final class Prover {
 
         ActionCanceller c = new ActionCanceller();
 
-        if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
-            myProgressWindow.setTitle("VC " + vC.getName());
-            myProgressWindow.setActionCanceller(c);
-        }
+        myProgress.startVC(vC.getName(), c);
 
         if (p == null) {
             if (myInstanceEnvironment.flags.isFlagSet(FLAG_DEBUG)) {
@@ -641,8 +982,31 @@ public final class Prover {
         }
         // System.out.print(vC.getName() + " ");
 
+        //The legacy prover works destructively on its VC, but the alternative
+        //prover works from the immutable VC cached inside vC, which we don't
+        //want to throw away by copying
+        VerificationCondition vCToProve;
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROVE)) {
+            vCToProve = vC;
+        }
+        else {
+            vCToProve = vC.copy();
+        }
+
+        ProofCertificate pastCertificate = null;
+        if (myPastCertificates != null && p instanceof CertificateReplayer) {
+            pastCertificate = myPastCertificates.get(vC.getName());
+        }
+
+        //Only a successful replay ends the attempt while we're still replaying
+        boolean replaying = (pastCertificate != null);
         try {
-            p.prove(vC.copy(), myProgressWindow, c, System.currentTimeMillis()
+            if (replaying) {
+                ((CertificateReplayer) p).replay(vCToProve, pastCertificate);
+                replaying = false;
+            }
+
+            p.prove(vCToProve, myProgress, c, System.currentTimeMillis()
                     + TIMEOUT);
         }
         catch (UnableToProveException e) {
@@ -660,9 +1024,20 @@ public final class Prover {
         }
         catch (VCProvedException e) {
             exitInformation = e;
-            output.append("Proved in ");
+            if (replaying) {
+                output.append("Proved by replay in ");
+            }
+            else {
+                output.append("Proved in ");
+            }
             // System.out.print("Proved in ");
 
+            ProofCertificate certificate =
+                    ProofCertificate.fromProof(vC.getName(), e);
+            if (certificate != null) {
+                myCertificates.add(certificate);
+            }
+
             if (proofFile != null) {
                 try {
                     proofFile.append(vC.getName() + " succeeded.\n\n");
@@ -672,7 +1047,15 @@ public final class Prover {
             }
         }
 
+        myProgress
+                .finishVC(exitInformation instanceof VCProvedException ? "proved"
+                        : "unproved");
+
         printExitReport(startTime, exitInformation);
+
+        if (statisticsFile != null) {
+            writeStatistics(statisticsFile, vC, startTime, exitInformation);
+        }
         if (myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
             output.append("</vcProve>");
             myInstanceEnvironment.getCompileReport().setProveVCs(
@@ -680,6 +1063,50 @@ public final class Prover {
         }
     }
 
+    /**
+     * <p>
+     * Writes the statistics kept while attempting to prove <code>vC</code>,
+     * if any were, as a single line of JSON.
+     * </p>
+     * 
+     * @param statisticsFile
+     *            The file to write to.
+     * @param vC
+     *            The verification condition that was attempted.
+     * @param startTime
+     *            The time at which the proof was begun, as returned from
+     *            <code>System.currentTimeMillis()</code>.
+     * @param exitInformation
+     *            The exception with which the proof attempt ended.
+     */
+    private void writeStatistics(Writer statisticsFile,
+            VerificationCondition vC, long startTime,
+            ProverException exitInformation) {
+
+        Metrics metrics = exitInformation.getMetrics();
+        ProverStatistics statistics = metrics.statistics;
+
+        if (statistics != null) {
+            String result;
+            if (exitInformation instanceof VCProvedException) {
+                statistics.recordProof((VCProvedException) exitInformation);
+                result = "proved";
+            }
+            else {
+                result = "unproved";
+            }
+
+            try {
+                statistics.writeJSON(statisticsFile, vC.getName(), result,
+                        System.currentTimeMillis() - startTime, metrics);
+            }
+            catch (IOException e) {
+                System.err.println("Could not write prover statistics: "
+                        + e.getMessage());
+            }
+        }
+    }
+
     private VCProver setUpProverDebug() {
         ChainingIterable<VCTransformer> steps =
                 new ChainingIterable<VCTransformer>();
@@ -697,10 +1124,10 @@ public final class Prover {
 
         Antecedent antecedent;
         Consequent consequent;
-        for (Implication i : myImplications) {
+        for (VC i : myImplicationRules) {
 
-            antecedent = new Antecedent(i.getAntecedent(), myTyper);
-            consequent = new Consequent(i.getConsequent(), myTyper);
+            antecedent = i.getAntecedent();
+            consequent = i.getConsequent();
 
             steps.add(new ConsequentWeakeningStep(antecedent, consequent));
             steps.add(new TheoryDevelopingStep(antecedent, consequent,
@@ -714,7 +1141,7 @@ public final class Prover {
                 new FirstStepGivenTransformationChooser(
                         new SimplifyingTransformationChooser(
                                 new GuidedTransformationChooser(steps, myTyper),
-                                0), batchDeveloper), myTyper);
+                                0), batchDeveloper), myTyper, myPExpTheorems);
     }
 
     private TransformationChooser buildConsequentSubstitutions(
@@ -742,10 +1169,10 @@ public final class Prover {
         Antecedent an;
         Consequent co;
         java.util.List<VCTransformer> l = new LinkedList<VCTransformer>();
-        for (Implication i : myImplications) {
+        for (VC i : myImplicationRules) {
 
-            an = new Antecedent(i.getAntecedent(), myTyper);
-            co = new Consequent(i.getConsequent(), myTyper);
+            an = i.getAntecedent();
+            co = i.getConsequent();
 
             l.add(new TheoryDevelopingStep(an, co, myPExpTheorems));
         }
@@ -760,10 +1187,10 @@ public final class Prover {
         Antecedent an;
         Consequent co;
         java.util.List<VCTransformer> l = new LinkedList<VCTransformer>();
-        for (Implication i : myImplications) {
+        for (VC i : myImplicationRules) {
 
-            an = new Antecedent(i.getAntecedent(), myTyper);
-            co = new Consequent(i.getConsequent(), myTyper);
+            an = i.getAntecedent();
+            co = i.getConsequent();
 
             l.add(new ConsequentWeakeningStep(an, co));
         }
@@ -774,14 +1201,15 @@ public final class Prover {
 
     private VCTransformer buildBatchTheoryDeveloper(int iterations) {
         BatchTheoryDevelopmentStep developer =
-                new BatchTheoryDevelopmentStep(myPExpTheorems, iterations);
+                new BatchTheoryDevelopmentStep(myPExpTheorems, iterations,
+                        mySymbols);
 
         Antecedent an;
         Consequent co;
-        for (Implication i : myImplications) {
+        for (VC i : myImplicationRules) {
 
-            an = new Antecedent(i.getAntecedent(), myTyper);
-            co = new Consequent(i.getConsequent(), myTyper);
+            an = i.getAntecedent();
+            co = i.getConsequent();
 
             if (!co.containsQuantifiedVariableNotIn(an)) {
                 developer.addImplicationTheorem(an, co);
@@ -793,9 +1221,11 @@ public final class Prover {
 
     private VCProver setUpProver() {
 
-        TransformationChooser mainStrategy = setUpMainProofStrategy();
+        TransformationChooser mainStrategy =
+                timed("main strategy", setUpMainProofStrategy());
         VCTransformer batchDeveloper = buildBatchTheoryDeveloper(5);
-        TransformationChooser reductionStep = setUpReductionTransformer();
+        TransformationChooser reductionStep =
+                timed("reduction", setUpReductionTransformer());
 
         // First reduce, then develop
         /*
@@ -828,7 +1258,7 @@ public final class Prover {
             curDepth =
                     new AlternativeProver(myInstanceEnvironment,
                             new FailoverChooser(reductionStep, developAndProve,
-                                    failoverNote), myTyper);
+                                    failoverNote), myTyper, myPExpTheorems);
 
             retval.addStrategy(curDepth);
         }
@@ -836,6 +1266,27 @@ public final class Prover {
         return retval;
     }
 
+    private VCProver setUpBestFirstProver() {
+
+        TransformationChooser mainStrategy =
+                timed("main strategy", setUpMainProofStrategy());
+        VCTransformer batchDeveloper = buildBatchTheoryDeveloper(5);
+        TransformationChooser reductionStep =
+                timed("reduction", setUpReductionTransformer());
+
+        // A single window covering the lengths of all the depth-first rounds,
+        // since the search itself decides which VC to develop next
+        TransformationChooser developAndProve =
+                new FirstStepGivenTransformationChooser(
+                        new LengthWindowTransformationChooser(mainStrategy, 0,
+                                4), batchDeveloper);
+
+        return new BestFirstProver(myInstanceEnvironment, new FailoverChooser(
+                reductionStep, developAndProve,
+                "--- End of reduction phase. ---"), myTyper, myPExpTheorems,
+                mySymbols);
+    }
+
     private TransformationChooser setUpReductionTransformer() {
         ChainingIterable<VCTransformer> steps =
                 new ChainingIterable<VCTransformer>();
@@ -855,26 +1306,30 @@ public final class Prover {
     private TransformationChooser setUpMainProofStrategy() {
         // Basic fitness function for equivalence rules
         TransformerFitnessFunction fitness =
-                new SimpleTransformerFitnessFunction();
+                new SimpleTransformerFitnessFunction(mySymbols);
 
         // OK, first we're going to build objects to perform each of the basic
         // kinds of steps.
 
         // (A ^ B ==> C ^ D) + (C = E) becomes A ^ B ==> E ^ D
         TransformationChooser consequentSubstitutions =
-                buildConsequentSubstitutions(fitness);
+                timed("consequent substitutions",
+                        buildConsequentSubstitutions(fitness));
 
         // (A ^ B ==> C ^ D) + (A = E) becomes A ^ B ^ E ==> C ^ D
         TransformationChooser equivalentDevelopments =
-                buildEquivalentAntecedentDevelopments(fitness);
+                timed("equivalent antecedent developments",
+                        buildEquivalentAntecedentDevelopments(fitness));
 
         // (A ^ B ==> C ^ D) + (A ^ B ==> E) becomes A ^ B ^ E ==> C ^ D
         TransformationChooser implicationDevelopments =
-                buildImplicationAntecedentDevelopments(fitness);
+                timed("implication antecedent developments",
+                        buildImplicationAntecedentDevelopments(fitness));
 
         // (A ^ B ==> C ^ D) + (E ^ F ==> C) becomes A ^ B ==> E ^ F ^ D
         TransformationChooser consequentStrengthenings =
-                buildConsequentStrengthenings(fitness);
+                timed("consequent strengthenings",
+                        buildConsequentStrengthenings(fitness));
 
         // (A:a ^ B:b ==> there exists C:a s.t. C ^ D) becomes A ^ B ==> A ^ D
         VCTransformer instantiateExistential =
@@ -908,13 +1363,34 @@ public final class Prover {
         return workingChooser;
     }
 
+    /**
+     * <p>
+     * Returns <code>chooser</code>, composed so that the time spent in it is
+     * recorded under <code>name</code> if prover statistics are being kept.
+     * </p>
+     */
+    private TransformationChooser timed(String name,
+            TransformationChooser chooser) {
+
+        TransformationChooser retval;
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_PROVER_STATS)) {
+            retval = new TimedTransformationChooser(name, chooser);
+        }
+        else {
+            retval = chooser;
+        }
+
+        return retval;
+    }
+
     private VCProver setUpOldProverDebug(VerificationCondition vc) {
         vc.simplify();
 
         GuidedRuleChooser chooser = new GuidedRuleChooser(myTyper);
         chooser.addRules(myTheoremNames, myTheorems);
         SingleStrategyProver slaveProver =
-                new SingleStrategyProver(chooser, false, 0, myImplications,
+                new SingleStrategyProver(chooser, true, 0, myImplications,
                         myTyper, myInstanceEnvironment);
 
         return slaveProver;
@@ -934,19 +1410,72 @@ public final class Prover {
 
         SingleStrategyProver slaveProver =
                 new SingleStrategyProver(new LengthLimitedProvider(baseChooser,
-                        2), false, 0, myImplications, myTyper,
+                        2), true, 0, myImplications, myTyper,
                         myInstanceEnvironment);
         p.addStrategy(slaveProver);
 
         slaveProver =
                 new SingleStrategyProver(new LengthLimitedProvider(baseChooser,
-                        3), false, 3, myImplications, myTyper,
+                        3), true, 3, myImplications, myTyper,
                         myInstanceEnvironment);
         p.addStrategy(slaveProver);
 
         return p;
     }
 
+    /**
+     * <p>
+     * Reads the certificates written by the last run of the prover on the
+     * target file. If there are none, there is nothing to replay.
+     * </p>
+     */
+    private Map<String, ProofCertificate> readCertificates() {
+        Map<String, ProofCertificate> retval;
+
+        try {
+            BufferedReader in =
+                    new BufferedReader(new FileReader(getCertificateFileName()));
+            try {
+                retval = ProofCertificate.read(in);
+            }
+            finally {
+                in.close();
+            }
+        }
+        catch (IOException e) {
+            retval = new HashMap<String, ProofCertificate>();
+        }
+
+        return retval;
+    }
+
+    private void writeCertificates() {
+        try {
+            Writer out =
+                    new BufferedWriter(new FileWriter(getCertificateFileName()));
+            try {
+                for (ProofCertificate c : myCertificates) {
+                    c.write(out);
+                }
+            }
+            finally {
+                out.close();
+            }
+        }
+        catch (IOException e) {
+            System.err.println("Could not write proof certificates: "
+                    + e.getMessage());
+        }
+    }
+
+    private String getCertificateFileName() {
+        String proofFileName = getProofFileName();
+
+        return proofFileName.substring(0, proofFileName.length()
+                - ".proof".length())
+                + ".certificates";
+    }
+
     private String getProofFileName() {
         File file = myInstanceEnvironment.getTargetFile();
         ModuleID cid = myInstanceEnvironment.getModuleID(file);
@@ -974,6 +1503,18 @@ public final class Prover {
 
         FlagDependencies.addExcludes(FLAG_NOGUI, FLAG_DEBUG);
 
+        FlagDependencies.addRequires(FLAG_BEST_FIRST, FLAG_PROVE);
+        FlagDependencies.addExcludes(FLAG_BEST_FIRST, FLAG_DEBUG);
+
+        FlagDependencies.addRequires(FLAG_PROVER_STATS, FLAG_PROVE);
+
+        FlagDependencies.addRequires(FLAG_REPLAY_PROOFS, FLAG_PROVE);
+        FlagDependencies.addExcludes(FLAG_REPLAY_PROOFS, FLAG_DEBUG);
+
+        FlagDependencies.addRequires(FLAG_PROGRESS, someProveFlag);
+        FlagDependencies.addRequires(FLAG_PROGRESS_FILE, someProveFlag);
+        FlagDependencies.addRequires(FLAG_PROGRESS_INTERVAL, someProveFlag);
+
         FlagDependencies.addImplies(FLAG_PROVE, FLAG_SOME_PROVER);
         FlagDependencies.addImplies(FLAG_LEGACY_PROVE, FLAG_SOME_PROVER);
 
@@ -0,0 +1,402 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p><code>ProverStatistics</code> instruments the search for a single proof:
+ * how often each rule was applied and how many VCs it produced, how deep the
+ * search went, how many VCs were pruned as cycles or duplicates, how long was
+ * spent in each instrumented <code>TransformationChooser</code>, and which
+ * rules the proof finally used.  It is carried by the <code>Metrics</code> of
+ * the proof and is absent unless statistics were requested, so that an
+ * uninstrumented search pays only for a <code>null</code> check.</p>
+ *
+ * <p>All counts are plain <code>long</code>s and all times are in nanoseconds
+ * as measured by <code>System.nanoTime()</code>.  Rules are identified by
+ * their <code>toString()</code>, so that the same theorem is counted together
+ * however many times the choosers wrap it.  Chooser times are inclusive: the
+ * time of a chooser includes that of any instrumented chooser it defers to.
+ * </p>
+ */
+class ProverStatistics {
+
+    public long transformationsGenerated;
+    public long cyclesPruned;
+    public long duplicatesPruned;
+    public long frontierEvictions;
+
+    /**
+     * <p>The number of VCs considered at each proof length, indexed by
+     * length.</p>
+     */
+    private long[] myDepthCounts = new long[8];
+    private int myMaxDepth = -1;
+
+    /**
+     * <p>The time taken to produce each generated VC, from the moment its rule
+     * was asked for it.</p>
+     */
+    private final Histogram myGenerationTimes = new Histogram();
+
+    private final Map<String, RuleStatistics> myRules =
+            new HashMap<String, RuleStatistics>();
+
+    private final Map<String, ChooserStatistics> myChoosers =
+            new HashMap<String, ChooserStatistics>();
+
+    /**
+     * <p>Records that a VC was considered at proof length <code>depth</code>.
+     * </p>
+     */
+    public void recordDepth(int depth) {
+        recordDepth(depth, 1);
+    }
+
+    private void recordDepth(int depth, long count) {
+        if (depth >= myDepthCounts.length) {
+            myDepthCounts =
+                    Arrays.copyOf(myDepthCounts, Math.max(depth + 1,
+                            myDepthCounts.length * 2));
+        }
+
+        myDepthCounts[depth] += count;
+        myMaxDepth = Math.max(myMaxDepth, depth);
+    }
+
+    /**
+     * <p>Applies <code>step</code> to <code>vc</code>, returning the VCs it
+     * produces as <code>step.transform(vc)</code> would while recording the
+     * application, each VC it produces, and the time taken to produce them.
+     * </p>
+     */
+    public Iterator<VC> transform(VCTransformer step, VC vc) {
+        RuleStatistics rule = getRule(step.toString());
+        rule.applications++;
+
+        long start = System.nanoTime();
+        Iterator<VC> source = step.transform(vc);
+        long elapsed = System.nanoTime() - start;
+
+        rule.nanos += elapsed;
+
+        return new ObservedIterator(rule, source, elapsed);
+    }
+
+    /**
+     * <p>Records <code>nanos</code> spent in a single call to the chooser named
+     * <code>name</code> or to one of its suggestion <code>Iterator</code>s.
+     * </p>
+     */
+    public void recordChooserTime(String name, long nanos) {
+        ChooserStatistics chooser = myChoosers.get(name);
+        if (chooser == null) {
+            chooser = new ChooserStatistics();
+            myChoosers.put(name, chooser);
+        }
+
+        chooser.calls++;
+        chooser.nanos += nanos;
+    }
+
+    /**
+     * <p>Records the use of each rule applied in the proof
+     * <code>proof</code>.</p>
+     */
+    public void recordProof(VCProvedException proof) {
+        for (Object step : proof.getSteps()) {
+            if (step instanceof AlternativeProofStep) {
+                getRule(((AlternativeProofStep) step).getStep().step.toString()).proofUses++;
+            }
+        }
+    }
+
+    /**
+     * <p>Adds the counts and times of <code>s</code> to these.</p>
+     */
+    public void accumulate(ProverStatistics s) {
+        transformationsGenerated += s.transformationsGenerated;
+        cyclesPruned += s.cyclesPruned;
+        duplicatesPruned += s.duplicatesPruned;
+        frontierEvictions += s.frontierEvictions;
+
+        for (int depth = 0; depth <= s.myMaxDepth; depth++) {
+            if (s.myDepthCounts[depth] > 0) {
+                recordDepth(depth, s.myDepthCounts[depth]);
+            }
+        }
+
+        myGenerationTimes.accumulate(s.myGenerationTimes);
+
+        for (Map.Entry<String, RuleStatistics> rule : s.myRules.entrySet()) {
+            getRule(rule.getKey()).accumulate(rule.getValue());
+        }
+
+        ChooserStatistics chooser;
+        for (Map.Entry<String, ChooserStatistics> c : s.myChoosers.entrySet()) {
+            chooser = myChoosers.get(c.getKey());
+            if (chooser == null) {
+                chooser = new ChooserStatistics();
+                myChoosers.put(c.getKey(), chooser);
+            }
+
+            chooser.calls += c.getValue().calls;
+            chooser.nanos += c.getValue().nanos;
+        }
+    }
+
+    /**
+     * <p>Writes these statistics as a single line holding a JSON object of the
+     * form <code>{"vc": ..., "result": ..., "milliseconds": ...,
+     * "proofsConsidered": ..., "transformationsGenerated": ...,
+     * "maxDepth": ..., "depths": [...], "cyclesPruned": ...,
+     * "duplicatesPruned": ..., "frontierEvictions": ...,
+     * "generationNanos": {...}, "choosers": {...}, "rules": {...}}</code>,
+     * where <code>depths</code> counts the VCs considered at each proof
+     * length, <code>generationNanos</code> is a histogram of the time taken to
+     * produce each generated VC, and <code>rules</code> maps each rule applied
+     * to its <code>applications</code>, the number of those that were
+     * <code>productive</code>, the VCs it <code>generated</code>, its
+     * <code>nanos</code>, and its <code>proofUses</code>.</p>
+     */
+    public void writeJSON(Writer out, String vcName, String result,
+            long milliseconds, Metrics metrics) throws IOException {
+
+        out.write("{\"vc\": ");
+        writeJSONString(out, vcName);
+        out.write(", \"result\": ");
+        writeJSONString(out, result);
+        out.write(", \"milliseconds\": " + milliseconds);
+        out.write(", \"proofsConsidered\": " + metrics.numProofsConsidered);
+        out
+                .write(", \"transformationsGenerated\": "
+                        + transformationsGenerated);
+        out.write(", \"maxDepth\": " + myMaxDepth);
+
+        out.write(", \"depths\": [");
+        for (int depth = 0; depth <= myMaxDepth; depth++) {
+            if (depth > 0) {
+                out.write(", ");
+            }
+            out.write("" + myDepthCounts[depth]);
+        }
+        out.write("]");
+
+        out.write(", \"cyclesPruned\": " + cyclesPruned);
+        out.write(", \"duplicatesPruned\": " + duplicatesPruned);
+        out.write(", \"frontierEvictions\": " + frontierEvictions);
+
+        out.write(", \"generationNanos\": ");
+        myGenerationTimes.writeJSON(out);
+
+        out.write(", \"choosers\": {");
+        boolean first = true;
+        for (Map.Entry<String, ChooserStatistics> chooser : new TreeMap<String, ChooserStatistics>(
+                myChoosers).entrySet()) {
+            if (!first) {
+                out.write(", ");
+            }
+            first = false;
+
+            writeJSONString(out, chooser.getKey());
+            out.write(": {\"calls\": " + chooser.getValue().calls
+                    + ", \"nanos\": " + chooser.getValue().nanos + "}");
+        }
+        out.write("}");
+
+        out.write(", \"rules\": {");
+        first = true;
+        RuleStatistics rule;
+        for (Map.Entry<String, RuleStatistics> r : new TreeMap<String, RuleStatistics>(
+                myRules).entrySet()) {
+            if (!first) {
+                out.write(", ");
+            }
+            first = false;
+
+            rule = r.getValue();
+            writeJSONString(out, r.getKey());
+            out.write(": {\"applications\": " + rule.applications
+                    + ", \"productive\": " + rule.productive
+                    + ", \"generated\": " + rule.generated + ", \"nanos\": "
+                    + rule.nanos + ", \"proofUses\": " + rule.proofUses + "}");
+        }
+        out.write("}}\n");
+    }
+
+    private RuleStatistics getRule(String name) {
+        RuleStatistics retval = myRules.get(name);
+
+        if (retval == null) {
+            retval = new RuleStatistics();
+            myRules.put(name, retval);
+        }
+
+        return retval;
+    }
+
+    private static void writeJSONString(Writer out, String s)
+            throws IOException {
+        StringBuilder quoted = new StringBuilder();
+        appendJSONString(quoted, s);
+
+        out.write(quoted.toString());
+    }
+
+    /**
+     * <p>Appends <code>s</code> to <code>b</code> as a quoted JSON string.</p>
+     */
+    static void appendJSONString(StringBuilder b, String s) {
+        b.append('"');
+
+        char c;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            c = s.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                b.append('\\');
+                b.append(c);
+            }
+            else if (c < 0x20) {
+                b.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                b.append(c);
+            }
+        }
+
+        b.append('"');
+    }
+
+    private static class RuleStatistics {
+
+        public long applications, productive, generated, nanos, proofUses;
+
+        public void accumulate(RuleStatistics r) {
+            applications += r.applications;
+            productive += r.productive;
+            generated += r.generated;
+            nanos += r.nanos;
+            proofUses += r.proofUses;
+        }
+    }
+
+    private static class ChooserStatistics {
+
+        public long calls, nanos;
+    }
+
+    /**
+     * <p>A histogram of non-negative values in buckets of increasing powers of
+     * two: bucket <code>i</code> counts the values less than
+     * <code>2^i</code> and not less than <code>2^(i - 1)</code>.</p>
+     */
+    private static class Histogram {
+
+        private final long[] myBuckets = new long[64];
+        private long myCount, myTotal, myMax;
+
+        public void record(long value) {
+            myBuckets[64 - Long.numberOfLeadingZeros(Math.max(value, 0))]++;
+            myCount++;
+            myTotal += value;
+            myMax = Math.max(myMax, value);
+        }
+
+        public void accumulate(Histogram h) {
+            for (int i = 0; i < myBuckets.length; i++) {
+                myBuckets[i] += h.myBuckets[i];
+            }
+
+            myCount += h.myCount;
+            myTotal += h.myTotal;
+            myMax = Math.max(myMax, h.myMax);
+        }
+
+        public void writeJSON(Writer out) throws IOException {
+            int last = myBuckets.length - 1;
+            while (last >= 0 && myBuckets[last] == 0) {
+                last--;
+            }
+
+            out.write("{\"count\": " + myCount + ", \"total\": " + myTotal
+                    + ", \"max\": " + myMax + ", \"buckets\": [");
+            for (int i = 0; i <= last; i++) {
+                if (i > 0) {
+                    out.write(", ");
+                }
+                out.write("" + myBuckets[i]);
+            }
+            out.write("]}");
+        }
+    }
+
+    /**
+     * <p>Passes along the VCs produced by a single application of a rule,
+     * charging the time spent finding each to the rule.</p>
+     */
+    private class ObservedIterator implements Iterator<VC> {
+
+        private final RuleStatistics myRule;
+        private final Iterator<VC> mySource;
+
+        /**
+         * <p>The time spent looking for the next VC since the last was
+         * produced.</p>
+         */
+        private long myPendingNanos;
+
+        private boolean myProductive;
+
+        public ObservedIterator(RuleStatistics rule, Iterator<VC> source,
+                long pendingNanos) {
+            myRule = rule;
+            mySource = source;
+            myPendingNanos = pendingNanos;
+        }
+
+        @Override
+        public boolean hasNext() {
+            long start = System.nanoTime();
+            boolean retval = mySource.hasNext();
+            charge(System.nanoTime() - start);
+
+            return retval;
+        }
+
+        @Override
+        public VC next() {
+            long start = System.nanoTime();
+            VC retval = mySource.next();
+            charge(System.nanoTime() - start);
+
+            myGenerationTimes.record(myPendingNanos);
+            myPendingNanos = 0;
+
+            if (!myProductive) {
+                myProductive = true;
+                myRule.productive++;
+            }
+            myRule.generated++;
+            transformationsGenerated++;
+
+            return retval;
+        }
+
+        private void charge(long nanos) {
+            myRule.nanos += nanos;
+            myPendingNanos += nanos;
+        }
+
+        @Override
+        public void remove() {
+            mySource.remove();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package edu.clemson.cs.r2jt.proving;
 
-import java.util.Set;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolDictionary;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolSet;
 
 /**
  * <p>A straightforward implementation of 
@@ -13,11 +14,25 @@ import java.util.Set;
  * <p>This fitness function advises against (i.e., returns a negative value from
  * <code>calculateFitness()</code>) the application of transformations that
  * introduce quantified variables.</p>
+ *
+ * <p>Symbol names are compared as <code>SymbolSet</code>s over a
+ * <code>SymbolDictionary</code>, which should be shared with the rest of the
+ * prover.</p>
  */
 public class SimpleTransformerFitnessFunction
         extends
             TransformerFitnessFunction {
 
+    private final SymbolDictionary mySymbols;
+
+    public SimpleTransformerFitnessFunction() {
+        this(new SymbolDictionary());
+    }
+
+    public SimpleTransformerFitnessFunction(SymbolDictionary symbols) {
+        mySymbols = symbols;
+    }
+
     @Override
     public String toString() {
         return "Relevance Fitness";
@@ -35,12 +50,14 @@ public class SimpleTransformerFitnessFunction
                 Antecedent pattern = t.getPattern();
                 Consequent template = t.getReplacementTemplate();
 
-                Set<String> vcFunctions = vc.getConsequent().getSymbolNames();
+                SymbolSet vcFunctions =
+                        vc.getConsequent().getSymbolSet(mySymbols);
 
-                Set<String> ruleFunctions = pattern.getSymbolNames();
-                ruleFunctions.addAll(template.getSymbolNames());
+                SymbolSet ruleFunctions =
+                        pattern.getSymbolSet(mySymbols).union(
+                                template.getSymbolSet(mySymbols));
 
-                int nonOverlaps = inAButNotB(ruleFunctions, vcFunctions);
+                int nonOverlaps = ruleFunctions.countNotIn(vcFunctions);
 
                 double findFunctionCount =
                         pattern.getFunctionApplications().size();
@@ -65,16 +82,4 @@ public class SimpleTransformerFitnessFunction
 
         return retval;
     }
-
-    private static int inAButNotB(Set<String> a, Set<String> b) {
-        int notThere = 0;
-
-        for (String s : a) {
-            if (!b.contains(s)) {
-                notThere++;
-            }
-        }
-
-        return notThere;
-    }
 }
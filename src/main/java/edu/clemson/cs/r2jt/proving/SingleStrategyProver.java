@@ -3,7 +3,6 @@ package edu.clemson.cs.r2jt.proving;
 import java.math.BigInteger;
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.Iterator;
 import java.util.concurrent.TimeoutException;
 
 import edu.clemson.cs.r2jt.absyn.Exp;
@@ -24,7 +23,8 @@ class SingleStrategyProver implements VCProver {
     /**
      * <p>Whether or not the prover should backtrack if it finds that it has
      * applied a series of rules that took it in a circle.  True means it 
-     * should.</p>
+     * should.  States are recognized by their <code>VCFingerprint</code>s.
+     * </p>
      */
     private final boolean OPTION_BACKTRACK_ON_CYCLE;
 
@@ -104,7 +104,8 @@ class SingleStrategyProver implements VCProver {
         metrics.actionCanceller = actionCanceller;
 
         continueProofFrom(vC, 0, metrics,
-                new ArrayDeque<VerificationCondition>(10), timeoutAt);
+                new ArrayDeque<VerificationCondition>(10),
+                new ArrayDeque<VCFingerprint>(10), timeoutAt);
 
         throw new UnableToProveException(metrics);
     }
@@ -160,6 +161,10 @@ class SingleStrategyProver implements VCProver {
      * @param pastStates A list of proof states that have already been visited
      *                   along the path that is the current proof-in-progress.
      *                   May not be <code>null</code>.
+     * @param pastFingerprints The fingerprints of the states in 
+     *                         <code>pastStates</code>, in the same order, if
+     *                         cycles are being detected.  May not be 
+     *                         <code>null</code>.
      * @param topLevel If <code>true</code>, indicates that this is the first
      *                 proof step on the way to proving the VC.  Otherwise, this
      *                 is a recursive call attempting to recursively solve some
@@ -170,13 +175,15 @@ class SingleStrategyProver implements VCProver {
      * @throws VCInconsistentException If the VC can be proved inconsistent.
      * @throws VCProvedException If the VC is proved.
      * @throws NullPointerException If <code>vC</code>, <code>theorems</code>,
-     *                              <code>metrics</code>, or 
-     *                              <code>pastStates</code> is 
+     *                              <code>metrics</code>, 
+     *                              <code>pastStates</code>, or
+     *                              <code>pastFingerprints</code> is 
      *                              <code>null</code>.
      */
     private void continueProofFrom(final VerificationCondition vC,
             final int curLength, final Metrics metrics,
-            final Deque<VerificationCondition> pastStates, long timeoutAt)
+            final Deque<VerificationCondition> pastStates,
+            final Deque<VCFingerprint> pastFingerprints, long timeoutAt)
             throws UnableToProveException,
                 VCProvedException,
                 VCInconsistentException {
@@ -201,7 +208,14 @@ class SingleStrategyProver implements VCProver {
             throw new UnableToProveException(metrics);
         }
 
-        if (OPTION_BACKTRACK_ON_CYCLE && isRepeatState(vC, pastStates)) {
+        //Successive states share their antecedents, so the fingerprint of the
+        //state before this one can usually lend us its snapshot of them
+        VCFingerprint fingerprint = null;
+        if (OPTION_BACKTRACK_ON_CYCLE) {
+            fingerprint = new VCFingerprint(vC, pastFingerprints.peek());
+        }
+
+        if (fingerprint != null && isRepeatState(fingerprint, pastFingerprints)) {
             //We've decided not to explore the tree from here down, so update
             //the count on the number of times we've usefully backtracked
             metrics.numTimesBacktracked =
@@ -209,14 +223,23 @@ class SingleStrategyProver implements VCProver {
         }
         else {
             pastStates.push(vC);
-            attemptStep(vC, curLength, metrics, pastStates, timeoutAt);
+            if (fingerprint != null) {
+                pastFingerprints.push(fingerprint);
+            }
+
+            attemptStep(vC, curLength, metrics, pastStates, pastFingerprints,
+                    timeoutAt);
+
             pastStates.pop();
+            if (fingerprint != null) {
+                pastFingerprints.pop();
+            }
         }
     }
 
     private void attemptStep(VerificationCondition vC, int curLength,
             Metrics metrics, Deque<VerificationCondition> pastStates,
-            long timeoutAt)
+            Deque<VCFingerprint> pastFingerprints, long timeoutAt)
             throws UnableToProveException,
                 VCProvedException,
                 VCInconsistentException {
@@ -236,42 +259,29 @@ class SingleStrategyProver implements VCProver {
         while (rules.hasNext()) {
             curRule = rules.next();
             applyReplaceStep(curRule, vC, curLength, metrics, pastStates,
-                    timeoutAt);
+                    pastFingerprints, timeoutAt);
             incrementProgress(curLength, metrics);
         }
     }
 
     /**
-     * <p>Returns <code>true</code> <strong>iff</strong> <code>vC</code> is
-     * equal to some past state listed in <code>pastStates</code>.</p>
+     * <p>Returns <code>true</code> <strong>iff</strong> the VC whose 
+     * fingerprint is <code>fingerprint</code> holds the same conjuncts as some
+     * past state whose fingerprint is in <code>pastFingerprints</code>.  The
+     * conjuncts themselves are compared only when the fingerprints collide, 
+     * and without relying on <code>Exp.equivalent()</code>, which is not
+     * implemented throughout its concrete subclasses.</p>
      * 
-     * @param vC The VC to test if it is a repeat state.  May not be 
-     *           <code>null</code>.
-     * @param pastStates The list of previous states.  May not be 
-     *        <code>null</code>.
-     * @return <code>true</code> <strong>iff</strong> <code>vC</code> is a
-     *         repeat state.
+     * @param fingerprint The fingerprint of the VC to test if it is a repeat
+     *                    state.  May not be <code>null</code>.
+     * @param pastFingerprints The fingerprints of the previous states.  May
+     *        not be <code>null</code>.
+     * @return <code>true</code> <strong>iff</strong> the VC is a repeat state.
      */
-    private static boolean isRepeatState(final VerificationCondition vC,
-            final Deque<VerificationCondition> pastStates) {
-
-        if (true) {
-            throw new UnsupportedOperationException("This code seems to be "
-                    + "broken (or more likely there are serious issues with "
-                    + "Exp.equivalent() throughout its concrete subclasses.)  "
-                    + "Until it is fixed, do not use the backtrack-on-cycle "
-                    + "option of the old prover.");
-        }
-
-        boolean retval = false;
+    private static boolean isRepeatState(final VCFingerprint fingerprint,
+            final Deque<VCFingerprint> pastFingerprints) {
 
-        Iterator<VerificationCondition> pastStatesIter = pastStates.iterator();
-
-        while (!retval && pastStatesIter.hasNext()) {
-            retval = pastStatesIter.next().equals(vC);
-        }
-
-        return retval;
+        return pastFingerprints.contains(fingerprint);
     }
 
     /**
@@ -301,6 +311,10 @@ class SingleStrategyProver implements VCProver {
      * @param pastStates A list of proof states that have already been visited
      *                   along the path that is the current proof-in-progress.
      *                   May not be <code>null</code>.
+     * @param pastFingerprints The fingerprints of the states in 
+     *                         <code>pastStates</code>, in the same order, if
+     *                         cycles are being detected.  May not be 
+     *                         <code>null</code>.
      * @param topLevel If <code>true</code>, indicates that this is the first
      *                 proof step on the way to proving the VC.  Otherwise, this
      *                 is a recursive call attempting to recursively solve some
@@ -312,14 +326,15 @@ class SingleStrategyProver implements VCProver {
      * @throws VCProvedException If the VC is proved.
      * @throws NullPointerException If <code>vC</code>, <code>theorems</code>,
      *                              <code>metrics</code>, 
-     *                              <code>pastStates</code>, or
+     *                              <code>pastStates</code>,
+     *                              <code>pastFingerprints</code>, or
      *                              <code>matcher</code> is 
      *                              <code>null</code>.
      */
     private void applyReplaceStep(final MatchReplace matcher,
             final VerificationCondition vC, final int curLength,
             Metrics metrics, final Deque<VerificationCondition> pastStates,
-            long timeoutAt)
+            final Deque<VCFingerprint> pastFingerprints, long timeoutAt)
             throws UnableToProveException,
                 VCProvedException,
                 VCInconsistentException {
@@ -337,7 +352,7 @@ class SingleStrategyProver implements VCProver {
                                 newConsequents);
 
                 continueProofFrom(newVC, curLengthPlusOne, metrics, pastStates,
-                        timeoutAt);
+                        pastFingerprints, timeoutAt);
             }
             catch (VCProvedException e) {
                 e.addStep(new ProofStep(matcher.toString(), newConsequents));
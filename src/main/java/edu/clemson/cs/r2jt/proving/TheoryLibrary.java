@@ -0,0 +1,133 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.clemson.cs.r2jt.absyn.EqualsExp;
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.absyn.InfixExp;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.scope.ModuleScope;
+
+/**
+ * <p>The theorems of a single theory module, precompiled into the forms the
+ * alternative prover works with: each equality theorem as a
+ * <code>PExp</code>, and each implication as a <code>VC</code> whose
+ * antecedent and consequent are those of the implication.</p>
+ *
+ * <p>Precompiling a theory means applying quantification to each of its
+ * theorems and resolving the types of every subexpression, which is slow
+ * enough for the large standard theories that it dominates proving a small
+ * facility.  A prover therefore builds each library once and shares it among
+ * all of its choosers.  Libraries are not cached beyond their prover: each
+ * <code>PExp</code> matches types through the typer that built it, and so
+ * through the symbol table of that typer's module, and every prover has its
+ * own typer.</p>
+ *
+ * <p>Libraries are immutable once built.  The <code>VCTransformer</code>s
+ * normalized from their rules are not cached here, since transformers keep
+ * the state of their most recent match and so may not be shared between
+ * provers.</p>
+ */
+public class TheoryLibrary {
+
+    private final List<PExp> myTheorems;
+    private final List<VC> myImplications;
+
+    private TheoryLibrary(List<PExp> theorems, List<VC> implications) {
+        myTheorems = Collections.unmodifiableList(theorems);
+        myImplications = Collections.unmodifiableList(implications);
+    }
+
+    /**
+     * <p>Builds the library of the theory <code>id</code> of
+     * <code>environment</code>, resolving types with <code>typer</code>.</p>
+     */
+    public static TheoryLibrary build(ModuleID id, MathExpTypeResolver typer,
+            CompileEnvironment environment) {
+
+        return build(environment.getSymbolTable(id).getModuleScope(), typer);
+    }
+
+    /**
+     * <p>Returns the equality theorems of this theory.</p>
+     */
+    public List<PExp> getTheorems() {
+        return myTheorems;
+    }
+
+    /**
+     * <p>Returns the implications of this theory, each as a <code>VC</code>
+     * named for the theorem.</p>
+     */
+    public List<VC> getImplications() {
+        return myImplications;
+    }
+
+    private static TheoryLibrary build(ModuleScope scope,
+            MathExpTypeResolver typer) {
+
+        List<PExp> theorems = new ArrayList<PExp>();
+        List<VC> implications = new ArrayList<VC>();
+
+        Exp theorem;
+        for (Symbol s : scope.getLocalTheoremNames()) {
+            theorem = scope.getLocalTheorem(s).getValue();
+
+            try {
+                Exp quantifiersAppliedTheorem =
+                        Utilities.applyQuantification(theorem);
+
+                if (quantifiersAppliedTheorem instanceof EqualsExp) {
+                    theorems.add(warm(PExp.buildPExp(quantifiersAppliedTheorem,
+                            typer)));
+                }
+                else if (quantifiersAppliedTheorem instanceof InfixExp) {
+                    InfixExp theoremAsInfixExp =
+                            (InfixExp) quantifiersAppliedTheorem;
+
+                    if (theoremAsInfixExp.getOpName().getName().equals(
+                            "implies")) {
+                        implications.add(new VC(s.getName(), new Antecedent(
+                                theoremAsInfixExp.getLeft(), typer),
+                                new Consequent(theoremAsInfixExp.getRight(),
+                                        typer)));
+                    }
+                }
+            }
+            catch (IllegalArgumentException e) {
+                // This theorem contains a "where" clause and just shouldn't
+                // be added.
+            }
+        }
+
+        for (VC implication : implications) {
+            for (PExp e : implication.getAntecedent()) {
+                warm(e);
+            }
+            for (PExp e : implication.getConsequent()) {
+                warm(e);
+            }
+        }
+
+        return new TheoryLibrary(theorems, implications);
+    }
+
+    /**
+     * <p>Fills in the lazily computed caches of <code>e</code> that the prover
+     * consults when ranking rules, so that they are computed once here rather
+     * than by every prover that shares the library.</p>
+     */
+    private static PExp warm(PExp e) {
+        e.getSymbolNames();
+        e.getQuantifiedVariables();
+        e.getFunctionApplications();
+
+        return e;
+    }
+}
@@ -0,0 +1,95 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.Iterator;
+
+/**
+ * <p>A <code>TimedTransformationChooser</code> composes with an existing
+ * chooser to record, under a given name, the time spent suggesting
+ * transformations, otherwise simply deferring to the existing chooser.  Since
+ * choosers suggest lazily, the time includes that spent in each call to the
+ * returned <code>Iterator</code>, but not that spent applying the suggested
+ * transformations.</p>
+ *
+ * <p>Time is recorded in the <code>ProverStatistics</code> of the
+ * <code>Metrics</code> passed to
+ * {@link #suggestTransformations(VC, int, Metrics, ProofData)
+ * suggestTransformations()}, and not at all if it has none.</p>
+ */
+public class TimedTransformationChooser implements TransformationChooser {
+
+    private final String myName;
+    private final TransformationChooser mySourceChooser;
+
+    public TimedTransformationChooser(String name, TransformationChooser source) {
+        myName = name;
+        mySourceChooser = source;
+    }
+
+    @Override
+    public void preoptimizeForVC(VC vc) {
+        mySourceChooser.preoptimizeForVC(vc);
+    }
+
+    @Override
+    public Iterator<ProofPathSuggestion> suggestTransformations(VC vc,
+            int curLength, Metrics metrics, ProofData d) {
+
+        Iterator<ProofPathSuggestion> retval;
+
+        ProverStatistics statistics = metrics.statistics;
+        if (statistics == null) {
+            retval =
+                    mySourceChooser.suggestTransformations(vc, curLength,
+                            metrics, d);
+        }
+        else {
+            long start = System.nanoTime();
+            retval =
+                    new TimedIterator(statistics, mySourceChooser
+                            .suggestTransformations(vc, curLength, metrics, d));
+            statistics.recordChooserTime(myName, System.nanoTime() - start);
+        }
+
+        return retval;
+    }
+
+    @Override
+    public String toString() {
+        return "" + mySourceChooser;
+    }
+
+    private class TimedIterator implements Iterator<ProofPathSuggestion> {
+
+        private final ProverStatistics myStatistics;
+        private final Iterator<ProofPathSuggestion> mySource;
+
+        public TimedIterator(ProverStatistics statistics,
+                Iterator<ProofPathSuggestion> source) {
+            myStatistics = statistics;
+            mySource = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            long start = System.nanoTime();
+            boolean retval = mySource.hasNext();
+            myStatistics.recordChooserTime(myName, System.nanoTime() - start);
+
+            return retval;
+        }
+
+        @Override
+        public ProofPathSuggestion next() {
+            long start = System.nanoTime();
+            ProofPathSuggestion retval = mySource.next();
+            myStatistics.recordChooserTime(myName, System.nanoTime() - start);
+
+            return retval;
+        }
+
+        @Override
+        public void remove() {
+            mySource.remove();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package edu.clemson.cs.r2jt.proving;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -9,6 +10,8 @@ import java.util.Set;
 import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolDictionary;
+import edu.clemson.cs.r2jt.proving.absyn.SymbolSet;
 
 /**
  * <p>Represents an immutable <em>verification condition</em>, which takes the 
@@ -201,12 +204,21 @@ public class VC {
     }
 
     public Set<String> getSymbolNames() {
-        Set<String> retval = myAntecedent.getSymbolNames();
-        retval.addAll(myAntecedent.getSymbolNames());
+        Set<String> retval = new HashSet<String>(myAntecedent.getSymbolNames());
+        retval.addAll(myConsequent.getSymbolNames());
 
         return retval;
     }
 
+    /**
+     * <p>Returns the symbol names of this VC's antecedent and consequent as a
+     * <code>SymbolSet</code> over <code>dictionary</code>.</p>
+     */
+    public SymbolSet getSymbolSet(SymbolDictionary dictionary) {
+        return myAntecedent.getSymbolSet(dictionary).union(
+                myConsequent.getSymbolSet(dictionary));
+    }
+
     public String toString() {
 
         String retval =
@@ -0,0 +1,222 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import edu.clemson.cs.r2jt.absyn.Exp;
+
+/**
+ * <p>A <code>VCFingerprint</code> identifies the state of a
+ * <code>VerificationCondition</code> without relying on
+ * <code>Exp.equivalent()</code>, which many kinds of expression do not
+ * support.  Two fingerprints are equal <strong>iff</strong> the antecedents of
+ * their VCs hold the same conjuncts, regardless of order, and so do their
+ * consequents.</p>
+ *
+ * <p>The conjuncts of each side are sorted by their structural hash codes, and
+ * the fingerprint hashes the sorted codes, so that equal fingerprints hash
+ * alike however their conjuncts were ordered.  Fingerprints whose sorted codes
+ * agree are then compared conjunct by conjunct with
+ * <code>Exp.equals(Exp)</code>, which compares structurally where it can and
+ * by printed form otherwise.</p>
+ *
+ * <p>A fingerprint is a snapshot: it keeps its own copy of each conjunct,
+ * taken with its structural hash code when the fingerprint is built, so that
+ * it continues to identify the state its VC was in however the VC or its
+ * expressions are changed afterward.</p>
+ *
+ * <p>Copying and hashing every conjunct is the bulk of the cost of a
+ * fingerprint.  Where successive states share their antecedents, as the
+ * states along a proof do, a fingerprint may be built from the fingerprint
+ * of an earlier state, reusing its snapshot of the antecedents if they are
+ * the very same expressions.  This assumes the antecedent expressions
+ * themselves are not changed in place in the meantime, only added to or
+ * removed from.</p>
+ */
+class VCFingerprint {
+
+    private static final ConjunctOrder CONJUNCT_ORDER = new ConjunctOrder();
+
+    /**
+     * <p>The antecedents of the VC, in their original order, from which
+     * <code>myAntecedents</code> was built.  Compared only by identity.</p>
+     */
+    private final Exp[] myAntecedentSources;
+
+    private final HashedConjunct[] myAntecedents;
+    private final HashedConjunct[] myConsequents;
+    private final int myHash;
+
+    public VCFingerprint(VerificationCondition vc) {
+        this(vc, null);
+    }
+
+    /**
+     * <p>Builds the fingerprint of <code>vc</code>, reusing the snapshot of
+     * the antecedents in <code>previous</code>, which may be
+     * <code>null</code>, if they are the same expressions in the same
+     * order.</p>
+     */
+    public VCFingerprint(VerificationCondition vc, VCFingerprint previous) {
+        Conjuncts antecedents = vc.getAntecedents();
+
+        if (previous != null
+                && sameExpressions(previous.myAntecedentSources, antecedents)) {
+            myAntecedentSources = previous.myAntecedentSources;
+            myAntecedents = previous.myAntecedents;
+        }
+        else {
+            myAntecedentSources = antecedents.toArray(new Exp[0]);
+            myAntecedents = sortedConjuncts(antecedents);
+        }
+
+        myConsequents = sortedConjuncts(vc.getConsequents());
+
+        myHash = 31 * hash(myAntecedents) + hash(myConsequents);
+    }
+
+    private static boolean sameExpressions(Exp[] sources, Conjuncts conjuncts) {
+        boolean retval = (sources.length == conjuncts.size());
+
+        Iterator<Exp> conjunctIter = conjuncts.iterator();
+        for (int i = 0; retval && i < sources.length; i++) {
+            retval = (sources[i] == conjunctIter.next());
+        }
+
+        return retval;
+    }
+
+    private static HashedConjunct[] sortedConjuncts(Conjuncts conjuncts) {
+        HashedConjunct[] retval = new HashedConjunct[conjuncts.size()];
+
+        int index = 0;
+        Exp snapshot;
+        for (Exp conjunct : conjuncts) {
+            snapshot = conjunct.copy();
+            retval[index] =
+                    new HashedConjunct(snapshot, snapshot.structuralHashCode());
+            index++;
+        }
+
+        Arrays.sort(retval, CONJUNCT_ORDER);
+
+        return retval;
+    }
+
+    private static int hash(HashedConjunct[] conjuncts) {
+        int retval = conjuncts.length;
+
+        for (HashedConjunct c : conjuncts) {
+            retval = 31 * retval + c.hash;
+        }
+
+        return retval;
+    }
+
+    @Override
+    public int hashCode() {
+        return myHash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        boolean retval = (o instanceof VCFingerprint);
+
+        if (retval) {
+            VCFingerprint other = (VCFingerprint) o;
+
+            retval =
+                    (myHash == other.myHash)
+                            && sameConjuncts(myConsequents, other.myConsequents)
+                            && sameConjuncts(myAntecedents, other.myAntecedents);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> <code>c1</code> and
+     * <code>c2</code>, each sorted by hash code, hold the same conjuncts.
+     * Only conjuncts of equal hash code are compared, each against those in
+     * the other run of conjuncts sharing its hash code that have not already
+     * been matched.</p>
+     */
+    private static boolean sameConjuncts(HashedConjunct[] c1,
+            HashedConjunct[] c2) {
+
+        boolean retval = (c1.length == c2.length);
+
+        for (int i = 0; retval && i < c1.length; i++) {
+            retval = (c1[i].hash == c2[i].hash);
+        }
+
+        int runStart = 0, runEnd;
+        while (retval && runStart < c1.length) {
+            runEnd = runStart + 1;
+            while (runEnd < c1.length && c1[runEnd].hash == c1[runStart].hash) {
+                runEnd++;
+            }
+
+            retval = sameRun(c1, c2, runStart, runEnd);
+
+            runStart = runEnd;
+        }
+
+        return retval;
+    }
+
+    private static boolean sameRun(HashedConjunct[] c1, HashedConjunct[] c2,
+            int start, int end) {
+
+        boolean retval = true;
+
+        boolean[] matched = new boolean[end - start];
+        boolean found;
+        for (int i = start; retval && i < end; i++) {
+            found = false;
+            for (int j = start; !found && j < end; j++) {
+                if (!matched[j - start]
+                        && c1[i].conjunct.equals(c2[j].conjunct)) {
+                    matched[j - start] = true;
+                    found = true;
+                }
+            }
+
+            retval = found;
+        }
+
+        return retval;
+    }
+
+    private static class HashedConjunct {
+
+        public final Exp conjunct;
+        public final int hash;
+
+        public HashedConjunct(Exp conjunct, int hash) {
+            this.conjunct = conjunct;
+            this.hash = hash;
+        }
+    }
+
+    private static class ConjunctOrder implements Comparator<HashedConjunct> {
+
+        @Override
+        public int compare(HashedConjunct o1, HashedConjunct o2) {
+            int retval;
+
+            if (o1.hash < o2.hash) {
+                retval = -1;
+            }
+            else if (o1.hash > o2.hash) {
+                retval = 1;
+            }
+            else {
+                retval = 0;
+            }
+
+            return retval;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package edu.clemson.cs.r2jt.proving;
 
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 
 import edu.clemson.cs.r2jt.verification.AssertiveCode;
 
@@ -14,6 +16,12 @@ public class VCProvedException extends ProverException {
 
     private VC myOriginalVC;
 
+    /**
+     * <p>The index of the strategy that found this proof, among those of the
+     * <code>MultiStrategyProver</code> that tried it.</p>
+     */
+    private int myStrategy;
+
     public VCProvedException(Metrics metrics) {
         super(metrics);
     }
@@ -26,10 +34,32 @@ public class VCProvedException extends ProverException {
         mySteps.add(s);
     }
 
+    /**
+     * <p>Returns the steps of the proof in the order they were taken.</p>
+     */
+    public List<Object> getSteps() {
+        List<Object> retval = new ArrayList<Object>(mySteps.size());
+
+        Iterator<Object> iter = mySteps.descendingIterator();
+        while (iter.hasNext()) {
+            retval.add(iter.next());
+        }
+
+        return retval;
+    }
+
     public void setOriginal(VC vc) {
         myOriginalVC = vc;
     }
 
+    public int getStrategy() {
+        return myStrategy;
+    }
+
+    public void setStrategy(int strategy) {
+        myStrategy = strategy;
+    }
+
     public void setMetrics(Metrics m) {
         myMetrics = m;
     }
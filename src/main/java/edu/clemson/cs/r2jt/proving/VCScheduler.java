@@ -0,0 +1,262 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>A <code>VCScheduler</code> orders the VCs of a module so that those
+ * likely to be proved quickly are attempted first, and the results for many
+ * easy VCs are not held up behind a few hard ones.</p>
+ *
+ * <p>Each VC first gets a cheap pass: its obvious consequents are eliminated,
+ * it is reduced by a single application of a reduction chooser, and what
+ * remains is checked against its antecedents and against the
+ * <code>CongruenceClosure</code> of its antecedents and the theorems.  The
+ * closure is the one cached in the VC by
+ * {@link VerificationCondition#getCongruenceClosure(MathExpTypeResolver,
+ * Iterable) getCongruenceClosure()}, so the prover goes on to use it rather
+ * than building it again.  VCs the cheap pass discharges come first, in their
+ * original order.  The rest follow in order of estimated difficulty: the
+ * time the same VC took when last attempted if it has been, or otherwise the
+ * size of its remaining consequents and the number of variables quantified in
+ * them.  VCs of equal difficulty keep their original order.</p>
+ *
+ * <p>The time taken for each VC is recorded for the life of the JVM, keyed by
+ * the module and name of the VC, so that successive compiles, such as those
+ * of the web interface, schedule from experience.  Only the times of the
+ * <code>HISTORY_CAPACITY</code> most recently scheduled VCs are kept.  A
+ * recorded time is used only while the hash code of the VC's
+ * <code>VCFingerprint</code> is unchanged.  Only the hash code is kept, since
+ * the fingerprint itself refers to the expressions of the VC, which belong to
+ * a single compile.  Two versions of a VC whose fingerprints hash alike are
+ * rare, and would cost no more than a poorly estimated difficulty.</p>
+ */
+class VCScheduler {
+
+    /**
+     * <p>The number of VCs whose times are kept.</p>
+     */
+    static final int HISTORY_CAPACITY = 4096;
+
+    private static final Map<String, History> HISTORY =
+            new LinkedHashMap<String, History>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, History> eldest) {
+                    return size() > HISTORY_CAPACITY;
+                }
+            };
+
+    private static final double QUANTIFIER_WEIGHT = 2.0;
+
+    /**
+     * <p>The number of milliseconds a VC must have taken to be rated as
+     * difficult as one with a single remaining consequent.</p>
+     */
+    private static final double MILLIS_PER_POINT = 100.0;
+
+    private final MathExpTypeResolver myTyper;
+    private final ChooserEncapsulationStep myReduction;
+    private final Iterable<PExp> myTheorems;
+
+    /**
+     * <p>The history keys and fingerprints of the VCs scheduled so far.</p>
+     */
+    private final Map<VerificationCondition, History> myScheduled =
+            new IdentityHashMap<VerificationCondition, History>();
+
+    public VCScheduler(MathExpTypeResolver typer,
+            TransformationChooser reduction, Iterable<PExp> theorems) {
+        myTyper = typer;
+        myReduction = new ChooserEncapsulationStep("Reduce", reduction);
+        myTheorems = theorems;
+    }
+
+    /**
+     * <p>Returns the VCs of the module <code>moduleName</code> in the order
+     * they should be attempted.  The VCs themselves are changed only by
+     * propagating their expansions, as the prover does before it starts.</p>
+     */
+    public List<VerificationCondition> schedule(String moduleName,
+            Iterable<VerificationCondition> vcs) {
+
+        List<Scheduled> scheduled = new ArrayList<Scheduled>();
+
+        History recorded, current;
+        for (VerificationCondition vc : vcs) {
+            vc.propagateExpansionsInPlace();
+
+            current =
+                    new History(moduleName + "/" + vc.getName(),
+                            new VCFingerprint(vc).hashCode());
+            myScheduled.put(vc, current);
+
+            synchronized (HISTORY) {
+                recorded = HISTORY.get(current.key);
+            }
+
+            if (recorded != null && recorded.fingerprint != current.fingerprint) {
+                recorded = null;
+            }
+
+            scheduled.add(estimate(vc, recorded));
+        }
+
+        Collections.sort(scheduled);
+
+        List<VerificationCondition> retval =
+                new ArrayList<VerificationCondition>(scheduled.size());
+        for (Scheduled s : scheduled) {
+            retval.add(s.vc);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Records that attempting <code>vc</code>, which must have been
+     * scheduled by this scheduler, took <code>millis</code> milliseconds.</p>
+     */
+    public void recordTime(VerificationCondition vc, long millis) {
+        History scheduled = myScheduled.get(vc);
+
+        if (scheduled != null) {
+            synchronized (HISTORY) {
+                HISTORY.put(scheduled.key, new History(scheduled.key,
+                        scheduled.fingerprint, millis));
+            }
+        }
+    }
+
+    private Scheduled estimate(VerificationCondition original, History recorded) {
+
+        Scheduled retval;
+
+        VC vc;
+        CongruenceClosure closure = null;
+        try {
+            vc = original.getImmutableVC(myTyper);
+            closure = original.getCongruenceClosure(myTyper, myTheorems);
+        }
+        catch (RuntimeException e) {
+            //The prover will report whatever is wrong with this VC, so there's
+            //no sense in keeping the easy ones waiting for it
+            vc = null;
+        }
+
+        if (vc == null) {
+            retval = new Scheduled(original, false, Double.POSITIVE_INFINITY);
+        }
+        else {
+            vc =
+                    new VC(vc.getSourceName(), vc.getAntecedent(), vc
+                            .getConsequent().eliminateObviousConjuncts(), true);
+
+            Iterator<VC> reduced = myReduction.transform(vc);
+            if (reduced.hasNext()) {
+                vc = reduced.next();
+            }
+
+            Consequent remaining = getUnprovedConsequents(vc, closure);
+
+            if (remaining.size() == 0) {
+                retval = new Scheduled(original, true, 0);
+            }
+            else if (recorded != null) {
+                retval =
+                        new Scheduled(original, false, recorded.millis
+                                / MILLIS_PER_POINT);
+            }
+            else {
+                retval =
+                        new Scheduled(original, false, remaining.size()
+                                + remaining.getFunctionApplications().size()
+                                + QUANTIFIER_WEIGHT
+                                * remaining.getQuantifiedVariables().size());
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns those consequents of <code>vc</code> that neither appear among
+     * its antecedents nor follow from <code>closure</code>.</p>
+     */
+    private static Consequent getUnprovedConsequents(VC vc,
+            CongruenceClosure closure) {
+
+        Antecedent antecedent = vc.getAntecedent();
+
+        List<PExp> retval = new ArrayList<PExp>();
+        for (PExp c : vc.getConsequent()) {
+            if (!antecedent.containsEqual(c) && !closure.isProved(c)) {
+                retval.add(c);
+            }
+        }
+
+        return new Consequent(retval);
+    }
+
+    private static class History {
+
+        public final String key;
+        public final int fingerprint;
+        public final long millis;
+
+        public History(String key, int fingerprint) {
+            this(key, fingerprint, -1);
+        }
+
+        public History(String key, int fingerprint, long millis) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.millis = millis;
+        }
+    }
+
+    /**
+     * <p>A VC with its estimated difficulty.  VCs the cheap pass discharged
+     * order first, and the rest by difficulty.</p>
+     */
+    private static class Scheduled implements Comparable<Scheduled> {
+
+        public final VerificationCondition vc;
+
+        private final boolean myEasy;
+        private final double myDifficulty;
+
+        public Scheduled(VerificationCondition vc, boolean easy,
+                double difficulty) {
+            this.vc = vc;
+
+            myEasy = easy;
+            myDifficulty = difficulty;
+        }
+
+        @Override
+        public int compareTo(Scheduled o) {
+            int retval;
+
+            if (myEasy != o.myEasy) {
+                retval = (myEasy ? -1 : 1);
+            }
+            else {
+                retval = Double.compare(myDifficulty, o.myDifficulty);
+            }
+
+            return retval;
+        }
+    }
+}
@@ -6,13 +6,41 @@ import edu.clemson.cs.r2jt.absyn.DotExp;
 import edu.clemson.cs.r2jt.absyn.EqualsExp;
 import edu.clemson.cs.r2jt.absyn.Exp;
 import edu.clemson.cs.r2jt.absyn.VarExp;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
 import edu.clemson.cs.r2jt.collections.List;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
 
 public class VerificationCondition {
 
     private String myName;
     private Conjuncts myAntecedents, myConsequents;
 
+    /**
+     * <p>The immutable <code>VC</code> most recently built from this
+     * verification condition by <code>getImmutableVC()</code>, or
+     * <code>null</code> if none has been built since this verification
+     * condition last changed.</p>
+     */
+    private VC myImmutableVC;
+
+    /**
+     * <p>The typer that was used to build <code>myImmutableVC</code>.</p>
+     */
+    private MathExpTypeResolver myImmutableVCTyper;
+
+    /**
+     * <p>The closure most recently built by <code>getCongruenceClosure()</code>,
+     * or <code>null</code> if none has been built.</p>
+     */
+    private CongruenceClosure myClosure;
+
+    /**
+     * <p>The immutable <code>VC</code> and theorems from which
+     * <code>myClosure</code> was built.</p>
+     */
+    private VC myClosureVC;
+    private Iterable<PExp> myClosureTheorems;
+
     public VerificationCondition(Exp antecedent, Exp consequent, String name) {
         myAntecedents = new Conjuncts(antecedent);
         myConsequents = new Conjuncts(consequent);
@@ -59,10 +87,12 @@ public class VerificationCondition {
 
     public void setAntecedents(Conjuncts antecedents) {
         myAntecedents = antecedents;
+        myImmutableVC = null;
     }
 
     public void setConsequents(Conjuncts consequents) {
         myConsequents = consequents;
+        myImmutableVC = null;
     }
 
     public Conjuncts getAntecedents() {
@@ -77,7 +107,68 @@ public class VerificationCondition {
         return myName;
     }
 
+    /**
+     * <p>Returns an immutable <code>VC</code> equivalent to this verification
+     * condition, suitable as input to the <code>AlternativeProver</code>.  The
+     * result is built at most once with a given <code>typer</code> and then
+     * cached until this verification condition is changed by one of its
+     * mutating methods, so that converting a VC as a sanity check and then
+     * again for each proof strategy costs a single conversion.</p>
+     * 
+     * <p>Note that changes made directly to the <code>Conjuncts</code> returned
+     * from <code>getAntecedents()</code> or <code>getConsequents()</code> are
+     * not detected.  Such clients should work on a <code>copy()</code>.</p>
+     * 
+     * @param typer The typer to use for resolving the types of the
+     *              expressions in this VC.
+     * 
+     * @return The equivalent immutable <code>VC</code>.
+     * 
+     * @throws RuntimeException If some expression in this VC cannot be
+     *              converted, most likely because it lacks typing information.
+     */
+    public VC getImmutableVC(MathExpTypeResolver typer) {
+        if (myImmutableVC == null || myImmutableVCTyper != typer) {
+            myImmutableVC = AlternativeProver.convertToImmutableVC(this, typer);
+            myImmutableVCTyper = typer;
+        }
+
+        return myImmutableVC;
+    }
+
+    /**
+     * <p>Returns the <code>CongruenceClosure</code> of the antecedents of
+     * <code>getImmutableVC(typer)</code> together with the ground instances of
+     * <code>theorems</code> over its terms.  Building the closure instantiates
+     * every theorem, so the result is cached alongside the immutable VC and
+     * shared by everyone who asks for it with the same
+     * <code>theorems</code>, such as each strategy of a
+     * <code>MultiStrategyProver</code>, until this verification condition
+     * changes.</p>
+     * 
+     * <p>Queries on the closure do not change what it holds, but they are not
+     * safe to make from more than one thread at once.</p>
+     */
+    public CongruenceClosure getCongruenceClosure(MathExpTypeResolver typer,
+            Iterable<PExp> theorems) {
+
+        VC vc = getImmutableVC(typer);
+
+        if (myClosure == null || myClosureVC != vc
+                || myClosureTheorems != theorems) {
+            myClosure =
+                    CongruenceClosure.build(vc.getAntecedent(), vc
+                            .getConsequent(), theorems);
+            myClosureVC = vc;
+            myClosureTheorems = theorems;
+        }
+
+        return myClosure;
+    }
+
     public void simplify() {
+        myImmutableVC = null;
+
         myAntecedents.eliminateObviousConjunctsInPlace();
         myConsequents.eliminateObviousConjunctsInPlace();
 
@@ -124,6 +215,10 @@ public class VerificationCondition {
 
         EqualsExp curExpansion = retrieveExpansion();
 
+        if (curExpansion != null) {
+            myImmutableVC = null;
+        }
+
         MatchReplace curMatcher;
         while (curExpansion != null) {
             curMatcher =
@@ -2,6 +2,7 @@ package edu.clemson.cs.r2jt.proving.absyn;
 
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -48,6 +49,7 @@ public abstract class PExp {
     protected final MathExpTypeResolver myTyper;
 
     private Set<String> myCachedSymbolNames = null;
+    private SymbolSet myCachedSymbolSet = null;
     private List<PExp> myCachedFunctionApplications = null;
     private Set<PSymbol> myCachedQuantifiedVariables = null;
 
@@ -346,15 +348,37 @@ public abstract class PExp {
 
     public abstract boolean containsName(String name);
 
+    /**
+     * <p>Returns the names of the symbols in this expression, not counting
+     * quantified variables.  The returned set is shared and may not be
+     * modified.</p>
+     */
     public final Set<String> getSymbolNames() {
         if (myCachedSymbolNames == null) {
             //We're immutable, so only do this once
-            myCachedSymbolNames = getSymbolNamesNoCache();
+            myCachedSymbolNames =
+                    Collections.unmodifiableSet(getSymbolNamesNoCache());
         }
 
         return myCachedSymbolNames;
     }
 
+    /**
+     * <p>Returns the symbol names of this expression as a
+     * <code>SymbolSet</code> over <code>dictionary</code>.  The set is cached
+     * for as long as it is asked for with the same dictionary.</p>
+     */
+    public final SymbolSet getSymbolSet(SymbolDictionary dictionary) {
+        SymbolSet retval = myCachedSymbolSet;
+
+        if (retval == null || retval.getDictionary() != dictionary) {
+            retval = dictionary.getSymbolSet(getSymbolNames());
+            myCachedSymbolSet = retval;
+        }
+
+        return retval;
+    }
+
     protected abstract Set<String> getSymbolNamesNoCache();
 
     public final Set<PSymbol> getQuantifiedVariables() {
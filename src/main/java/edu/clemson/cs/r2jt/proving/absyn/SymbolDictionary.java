@@ -0,0 +1,64 @@
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>A <code>SymbolDictionary</code> numbers the symbol names seen by a prover
+ * so that sets of them can be represented as {@link SymbolSet SymbolSet}s.
+ * Each name is assigned the next free number the first time it is seen, so the
+ * sets of a dictionary are only as wide as the number of distinct names it has
+ * seen.  A prover should share a single dictionary among everything that
+ * compares symbol sets, since sets from different dictionaries cannot be
+ * compared, and since <code>PExp</code>s cache the set from only the most
+ * recent dictionary they were asked about.</p>
+ *
+ * <p>Dictionaries are not safe for use by multiple threads at once.</p>
+ */
+public class SymbolDictionary {
+
+    private final Map<String, Integer> myIndices =
+            new HashMap<String, Integer>();
+
+    /**
+     * <p>Returns the number of <code>name</code>, assigning it one if it has
+     * none.</p>
+     */
+    public int indexOf(String name) {
+        Integer retval = myIndices.get(name);
+
+        if (retval == null) {
+            retval = myIndices.size();
+            myIndices.put(name, retval);
+        }
+
+        return retval;
+    }
+
+    public int size() {
+        return myIndices.size();
+    }
+
+    /**
+     * <p>Returns the <code>SymbolSet</code> of <code>names</code>.</p>
+     */
+    public SymbolSet getSymbolSet(Set<String> names) {
+        int[] indices = new int[names.size()];
+
+        int maxIndex = -1;
+        int i = 0;
+        for (String name : names) {
+            indices[i] = indexOf(name);
+            maxIndex = Math.max(maxIndex, indices[i]);
+            i++;
+        }
+
+        long[] bits = new long[(maxIndex >> 6) + 1];
+        for (int index : indices) {
+            bits[index >> 6] |= 1L << index;
+        }
+
+        return new SymbolSet(this, bits);
+    }
+}
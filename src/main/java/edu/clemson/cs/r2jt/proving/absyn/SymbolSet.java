@@ -0,0 +1,113 @@
+package edu.clemson.cs.r2jt.proving.absyn;
+
+/**
+ * <p>A <code>SymbolSet</code> is an immutable set of symbol names, represented
+ * as a bitset over the numbering of a {@link SymbolDictionary
+ * SymbolDictionary}, so that sets can be compared and combined a word at a
+ * time without hashing any strings.  Only sets from the same dictionary may be
+ * combined.</p>
+ */
+public final class SymbolSet {
+
+    private final SymbolDictionary myDictionary;
+
+    /**
+     * <p>Bit <code>i % 64</code> of word <code>i / 64</code> is set
+     * <strong>iff</strong> the symbol numbered <code>i</code> is in this set.
+     * Words beyond the end are all clear.</p>
+     */
+    private final long[] myBits;
+
+    private final int mySize;
+
+    SymbolSet(SymbolDictionary dictionary, long[] bits) {
+        myDictionary = dictionary;
+        myBits = bits;
+
+        int size = 0;
+        for (long word : bits) {
+            size += Long.bitCount(word);
+        }
+        mySize = size;
+    }
+
+    public SymbolDictionary getDictionary() {
+        return myDictionary;
+    }
+
+    public int size() {
+        return mySize;
+    }
+
+    public boolean isEmpty() {
+        return mySize == 0;
+    }
+
+    /**
+     * <p>Returns the set of symbols in this set or in <code>other</code>.</p>
+     */
+    public SymbolSet union(SymbolSet other) {
+        checkDictionary(other);
+
+        SymbolSet retval;
+
+        if (other.mySize == 0) {
+            retval = this;
+        }
+        else if (mySize == 0) {
+            retval = other;
+        }
+        else {
+            long[] longer = myBits, shorter = other.myBits;
+            if (shorter.length > longer.length) {
+                longer = other.myBits;
+                shorter = myBits;
+            }
+
+            long[] bits = longer.clone();
+            for (int i = 0; i < shorter.length; i++) {
+                bits[i] |= shorter[i];
+            }
+
+            retval = new SymbolSet(myDictionary, bits);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the number of symbols in this set that are not in
+     * <code>other</code>.</p>
+     */
+    public int countNotIn(SymbolSet other) {
+        checkDictionary(other);
+
+        int retval = 0;
+
+        int shared = Math.min(myBits.length, other.myBits.length);
+        for (int i = 0; i < shared; i++) {
+            retval += Long.bitCount(myBits[i] & ~other.myBits[i]);
+        }
+
+        for (int i = shared; i < myBits.length; i++) {
+            retval += Long.bitCount(myBits[i]);
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> every symbol in this
+     * set is also in <code>other</code>.</p>
+     */
+    public boolean isSubsetOf(SymbolSet other) {
+        return countNotIn(other) == 0;
+    }
+
+    private void checkDictionary(SymbolSet other) {
+        if (other.myDictionary != myDictionary) {
+            throw new IllegalArgumentException("Symbol sets from different "
+                    + "dictionaries cannot be compared.");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package edu.clemson.cs.r2jt.proving2;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -203,8 +204,8 @@ public class VC {
     }
 
     public Set<String> getSymbolNames() {
-        Set<String> retval = myAntecedent.getSymbolNames();
-        retval.addAll(myAntecedent.getSymbolNames());
+        Set<String> retval = new HashSet<String>(myAntecedent.getSymbolNames());
+        retval.addAll(myConsequent.getSymbolNames());
 
         return retval;
     }
@@ -127,6 +127,24 @@ public class ModuleScope extends Scope {
 
     private TypeHolder holder = null;
 
+    /* Once population of this scope is complete, the types, operations and
+     * variables found under each name in the visible modules are recorded
+     * here, so that each name is searched for across the visible modules only
+     * once.
+     */
+    private boolean visibleModulesComplete = false;
+
+    private Map<Symbol, List<TypeEntry>> mathVisibleTypes =
+            new Map<Symbol, List<TypeEntry>>();
+    private Map<Symbol, List<TypeEntry>> progVisibleTypes =
+            new Map<Symbol, List<TypeEntry>>();
+    private Map<Symbol, List<OperationEntry>> progVisibleOperations =
+            new Map<Symbol, List<OperationEntry>>();
+    private Map<Symbol, List<VarEntry>> mathVisibleVariables =
+            new Map<Symbol, List<VarEntry>>();
+    private Map<Symbol, List<VarEntry>> progVisibleVariables =
+            new Map<Symbol, List<VarEntry>>();
+
     // ===========================================================
     // Constructors
     // ===========================================================
@@ -251,6 +269,7 @@ public class ModuleScope extends Scope {
     public void addFacility(ModuleEntry entry) {
         mathModules.put(entry.getSymbol(), entry);
         progModules.put(entry.getSymbol(), entry);
+        clearVisibilityIndex();
     }
 
     /** Returns an iterator of all import modules visible in a math
@@ -317,6 +336,103 @@ public class ModuleScope extends Scope {
         params.add(entry);
     }
 
+    // -----------------------------------------------------------
+    // Visibility Index Methods
+    // -----------------------------------------------------------
+
+    /*
+     * The following methods locate the types, operations and variables
+     * declared under a given name in each of the visible modules.  Until
+     * completeVisibleModules() is called every request searches the visible
+     * modules; afterward the result for each name is kept and reused.  Each
+     * method returns a new list that the caller may modify.
+     */
+
+    /** Indicates that no more modules will be made visible to this module
+     *  scope, so the entries located in them may be kept.
+     */
+    public synchronized void completeVisibleModules() {
+        visibleModulesComplete = true;
+    }
+
+    /** Returns the types with the given name declared directly in the
+     *  modules visible in a math context.
+     */
+    public synchronized List<TypeEntry> getMathVisibleTypes(Symbol sym) {
+        List<TypeEntry> entries = mathVisibleTypes.get(sym);
+        if (entries == null) {
+            entries = findLocalTypes(sym, getMathVisibleModules());
+            if (visibleModulesComplete) {
+                mathVisibleTypes.put(sym, entries);
+            }
+        }
+        return new List<TypeEntry>(entries);
+    }
+
+    /** Returns the types with the given name declared directly in the
+     *  modules visible in a programming context.
+     */
+    public synchronized List<TypeEntry> getProgramVisibleTypes(Symbol sym) {
+        List<TypeEntry> entries = progVisibleTypes.get(sym);
+        if (entries == null) {
+            entries = findLocalTypes(sym, getProgramVisibleModules());
+            if (visibleModulesComplete) {
+                progVisibleTypes.put(sym, entries);
+            }
+        }
+        return new List<TypeEntry>(entries);
+    }
+
+    /** Returns the operations with the given name in the modules visible
+     *  in a programming context.
+     */
+    public synchronized List<OperationEntry> getProgramVisibleOperations(
+            Symbol sym) {
+        List<OperationEntry> entries = progVisibleOperations.get(sym);
+        if (entries == null) {
+            entries = new List<OperationEntry>();
+            Iterator<ModuleScope> i = getProgramVisibleModules();
+            while (i.hasNext()) {
+                ModuleScope scope = i.next();
+                if (scope.containsOperation(sym)) {
+                    entries.add(scope.getOperation(sym));
+                }
+            }
+            if (visibleModulesComplete) {
+                progVisibleOperations.put(sym, entries);
+            }
+        }
+        return new List<OperationEntry>(entries);
+    }
+
+    /** Returns the variables with the given name in the modules visible
+     *  in a math context.
+     */
+    public synchronized List<VarEntry> getMathVisibleVariables(Symbol sym) {
+        List<VarEntry> entries = mathVisibleVariables.get(sym);
+        if (entries == null) {
+            entries = findVariables(sym, getMathVisibleModules());
+            if (visibleModulesComplete) {
+                mathVisibleVariables.put(sym, entries);
+            }
+        }
+        return new List<VarEntry>(entries);
+    }
+
+    /** Returns the variables with the given name in the modules visible
+     *  in a programming context.
+     */
+    public synchronized List<VarEntry> getProgramVisibleVariables(Symbol sym) {
+        List<VarEntry> entries = progVisibleVariables.get(sym);
+        if (entries == null) {
+            entries = findVariables(sym, getProgramVisibleModules());
+            if (visibleModulesComplete) {
+                progVisibleVariables.put(sym, entries);
+            }
+        }
+        return new List<VarEntry>(entries);
+    }
+
     // -----------------------------------------------------------
     // Population Methods
     // -----------------------------------------------------------
@@ -982,6 +1098,36 @@ public class ModuleScope extends Scope {
     // Private Methods
     // ===========================================================
 
+    private List<TypeEntry> findLocalTypes(Symbol sym, Iterator<ModuleScope> i) {
+        List<TypeEntry> entries = new List<TypeEntry>();
+        while (i.hasNext()) {
+            ModuleScope scope = i.next();
+            if (scope.containsLocalType(sym)) {
+                entries.add(scope.getLocalType(sym));
+            }
+        }
+        return entries;
+    }
+
+    private List<VarEntry> findVariables(Symbol sym, Iterator<ModuleScope> i) {
+        List<VarEntry> entries = new List<VarEntry>();
+        while (i.hasNext()) {
+            ModuleScope scope = i.next();
+            if (scope.containsVariable(sym)) {
+                entries.add(scope.getVariable(sym));
+            }
+        }
+        return entries;
+    }
+
+    private synchronized void clearVisibilityIndex() {
+        mathVisibleTypes.clear();
+        progVisibleTypes.clear();
+        progVisibleOperations.clear();
+        mathVisibleVariables.clear();
+        progVisibleVariables.clear();
+    }
+
     private void addVariablesFromScope(ModuleScope scope)
             throws InstantiationException {
         Iterator<Symbol> i = scope.variables.keyIterator();
@@ -1059,6 +1205,7 @@ public class ModuleScope extends Scope {
         ModuleEntry entry = new ModuleEntry(id, myInstanceEnvironment);
         if (!mathModules.containsKey(sym)) {
             mathModules.put(sym, entry);
+            clearVisibilityIndex();
         }
     }
 
@@ -1067,6 +1214,7 @@ public class ModuleScope extends Scope {
         ModuleEntry entry = new ModuleEntry(id, myInstanceEnvironment);
         if (!progModules.containsKey(sym)) {
             progModules.put(sym, entry);
+            clearVisibilityIndex();
         }
     }
 
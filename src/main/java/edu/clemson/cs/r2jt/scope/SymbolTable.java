@@ -105,6 +105,17 @@ public class SymbolTable {
 
     private String name = "Anonymous Table";
 
+    /* Once population of the module scope is complete, the type
+     * correspondences of the module scope and its math-visible modules, and
+     * the types reachable from each canonical math type through them.  Adding
+     * a type correspondence discards both.
+     */
+    private boolean correspondencesComplete = false;
+    private List<TypeCorrespondence> allCorrespondences = null;
+    private boolean correspondencesCanonical = false;
+    private Map<String, List<Type>> correspondenceClosures =
+            new Map<String, List<Type>>();
+
     // ==========================================================
     // Constructors
     // ==========================================================
@@ -343,33 +354,49 @@ public class SymbolTable {
         }
     }
 
-    public void addTypeCorrespondence(Type t1, Type t2) {
+    public synchronized void addTypeCorrespondence(Type t1, Type t2) {
         moduleScope.addTypeCorrespondence(t1, t2);
+        clearTypeCorrespondences();
     }
 
     public void addAlternateVarType(MathVarDec dec) {
         moduleScope.addAlternateVarType(dec);
     }
 
-    public List<Type> getTypeCorrespondences(Type t, TypeMatcher tm) {
+    /**
+     * Returns <code>t</code> followed by every type that may be accepted in
+     * its place, following the type correspondences of the module scope and
+     * the math-visible modules transitively.
+     */
+    public synchronized List<Type> getTypeCorrespondences(Type t, TypeMatcher tm) {
         List<TypeCorrespondence> equivTypes = getAllTypeCorrespondences();
-        List<Type> types = new List<Type>();
-        types.add(t);
-        int origSize = 1;
-        int skip = 0;
-        while (true) {
-            types.addAll(getTypeCorrespondencesFor(t, tm,
-                    equivTypes.iterator(), skip));
-            if (types.size() == origSize) {
-                break;
+
+        String key = null;
+        if (correspondencesComplete && correspondencesCanonical) {
+            key = TypeMatcher.getCanonicalForm(t);
+        }
+
+        List<Type> closure = null;
+        if (key != null) {
+            closure = correspondenceClosures.get(key);
+        }
+        if (closure == null) {
+            closure = getTypeCorrespondenceClosure(t, tm, equivTypes);
+            if (key != null) {
+                correspondenceClosures.put(key, closure);
             }
-            skip = origSize;
-            origSize = types.size();
         }
+
+        List<Type> types = new List<Type>();
+        types.add(t);
+        types.addAll(closure);
         return types;
     }
 
     private List<TypeCorrespondence> getAllTypeCorrespondences() {
+        if (allCorrespondences != null) {
+            return allCorrespondences;
+        }
         List<TypeCorrespondence> correspondences =
                 new List<TypeCorrespondence>();
         correspondences.addAll(moduleScope.getTypeCorrespondences());
@@ -377,25 +404,64 @@ public class SymbolTable {
         while (scopeIt.hasNext()) {
             correspondences.addAll(scopeIt.next().getTypeCorrespondences());
         }
+        if (correspondencesComplete) {
+            /* Matching a type with no canonical form may bind math formal
+             * types in the caller's TypeMatcher, so closures over
+             * correspondences involving such types are recomputed for each
+             * query.
+             */
+            correspondencesCanonical = true;
+            Iterator<TypeCorrespondence> i = correspondences.iterator();
+            while (i.hasNext() && correspondencesCanonical) {
+                TypeCorrespondence temp = i.next();
+                correspondencesCanonical =
+                        isCanonical(temp.getType1())
+                                && isCanonical(temp.getType2());
+            }
+            allCorrespondences = correspondences;
+        }
         return correspondences;
     }
 
-    private List<Type> getTypeCorrespondencesFor(Type t, TypeMatcher tm,
-            Iterator<TypeCorrespondence> correspondences, int skip) {
+    /*
+     * Returns the types reachable from t through the given correspondences,
+     * breadth first.  Each correspondence is followed at most once.
+     */
+    private List<Type> getTypeCorrespondenceClosure(Type t, TypeMatcher tm,
+            List<TypeCorrespondence> correspondences) {
         List<Type> typesFound = new List<Type>();
-        TypeCorrespondence temp = null;
-        for (int i = 0; i < skip; i++) {
-            correspondences.next();
-        }
-        while (correspondences.hasNext()) {
-            temp = correspondences.next();
-            if (tm.mathMatches(t, temp.getType1())) {
-                typesFound.add(temp.getType2());
+        boolean[] followed = new boolean[correspondences.size()];
+        List<Type> frontier = new List<Type>();
+        frontier.add(t);
+        while (!frontier.isEmpty()) {
+            List<Type> next = new List<Type>();
+            Iterator<Type> i = frontier.iterator();
+            while (i.hasNext()) {
+                Type current = i.next();
+                for (int j = 0; j < followed.length; j++) {
+                    TypeCorrespondence temp = correspondences.get(j);
+                    if (!followed[j]
+                            && tm.mathMatches(current, temp.getType1())) {
+                        followed[j] = true;
+                        next.add(temp.getType2());
+                    }
+                }
             }
+            typesFound.addAll(next);
+            frontier = next;
         }
         return typesFound;
     }
 
+    private boolean isCanonical(Type t) {
+        return (TypeMatcher.getCanonicalForm(t) != null);
+    }
+
+    private void clearTypeCorrespondences() {
+        allCorrespondences = null;
+        correspondenceClosures.clear();
+    }
+
     // -----------------------------------------------------------
     // Binding Methods
     // -----------------------------------------------------------
@@ -519,6 +585,11 @@ public class SymbolTable {
 
     public void completeModuleScope() {
         assert stack.getTop() instanceof ModuleScope;
+        ((ModuleScope) stack.getTop()).completeVisibleModules();
+        synchronized (this) {
+            correspondencesComplete = true;
+            clearTypeCorrespondences();
+        }
         completeNewScope();
         assert stack.size() == 0;
     }
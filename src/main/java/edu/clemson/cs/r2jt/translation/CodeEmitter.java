@@ -0,0 +1,179 @@
+package edu.clemson.cs.r2jt.translation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Accumulates generated source code in sections that are filled in
+ * independently and in any order, such as the imports, the class header and
+ * the operations of a translated module, and are spliced together only once
+ * translation is complete.</p>
+ *
+ * <p>The sections are never concatenated into a single string:
+ * {@link #writeTo(Writer)} streams each of them in turn, so the generated
+ * code is held in memory only once.  Sections are not synchronized; an
+ * emitter belongs to the single translator filling it in.</p>
+ */
+public class CodeEmitter {
+
+    private final List<Section> mySections = new ArrayList<Section>();
+
+    /**
+     * <p>Adds a new, empty section after all of the existing ones.</p>
+     */
+    public Section newSection() {
+        Section retval = new Section();
+        mySections.add(retval);
+
+        return retval;
+    }
+
+    public int length() {
+        int retval = 0;
+
+        for (Section s : mySections) {
+            retval += s.length();
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Writes every section, in the order they were created, to
+     * <code>out</code>.  <code>out</code> is neither flushed nor closed.</p>
+     */
+    public void writeTo(Writer out) throws IOException {
+        char[] chunk = new char[Section.CHUNK_SIZE];
+
+        for (Section s : mySections) {
+            s.writeTo(out, chunk);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder retval = new StringBuilder(length());
+
+        for (Section s : mySections) {
+            retval.append(s.myText);
+        }
+
+        return retval.toString();
+    }
+
+    /**
+     * <p>A section of generated code.  Besides appending raw text, a section
+     * tracks an indentation level, applied by
+     * {@link #appendIndented(String)} and {@link #line(String)}, and the
+     * number of the line being written, advanced by {@link #newLine()}.</p>
+     */
+    public static class Section {
+
+        private static final int CHUNK_SIZE = 8192;
+
+        private final StringBuilder myText = new StringBuilder();
+        private int myIndent = 0;
+        private int myLineNumber = 1;
+
+        private Section() {}
+
+        public Section append(String s) {
+            myText.append(s);
+            return this;
+        }
+
+        public Section append(Section s) {
+            myText.append(s.myText);
+            return this;
+        }
+
+        public Section append(CharSequence s) {
+            myText.append(s);
+            return this;
+        }
+
+        public Section append(char c) {
+            myText.append(c);
+            return this;
+        }
+
+        public Section append(int i) {
+            myText.append(i);
+            return this;
+        }
+
+        public Section append(Object o) {
+            myText.append(o);
+            return this;
+        }
+
+        /**
+         * <p>Appends one tab per level of indentation, then
+         * <code>s</code>.</p>
+         */
+        public Section appendIndented(String s) {
+            for (int i = 0; i < myIndent; i++) {
+                myText.append('\t');
+            }
+            myText.append(s);
+            return this;
+        }
+
+        /**
+         * <p>Ends the current line.</p>
+         */
+        public Section newLine() {
+            myText.append('\n');
+            myLineNumber++;
+            return this;
+        }
+
+        /**
+         * <p>Appends <code>s</code>, indented, as a line of its own.</p>
+         */
+        public Section line(String s) {
+            return appendIndented(s).newLine();
+        }
+
+        public void indent() {
+            myIndent++;
+        }
+
+        public void unIndent() {
+            myIndent--;
+        }
+
+        /**
+         * <p>Returns the number of the line being written, counting only the
+         * lines ended by {@link #newLine()}.</p>
+         */
+        public int getLineNumber() {
+            return myLineNumber;
+        }
+
+        public int length() {
+            return myText.length();
+        }
+
+        public void setLength(int length) {
+            myText.setLength(length);
+        }
+
+        @Override
+        public String toString() {
+            return myText.toString();
+        }
+
+        private void writeTo(Writer out, char[] chunk) throws IOException {
+            int length = myText.length();
+            int count;
+            for (int start = 0; start < length; start += count) {
+                count = Math.min(chunk.length, length - start);
+                myText.getChars(start, start + count, chunk, 0);
+                out.write(chunk, 0, count);
+            }
+        }
+    }
+}
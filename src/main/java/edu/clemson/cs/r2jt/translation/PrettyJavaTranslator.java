@@ -29,10 +29,13 @@ import edu.clemson.cs.r2jt.scope.*;
 import edu.clemson.cs.r2jt.type.*;
 import edu.clemson.cs.r2jt.utilities.Flag;
 import edu.clemson.cs.r2jt.utilities.FlagDependencies;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Date;
 import java.util.Deque;
 import java.util.LinkedList;
@@ -74,9 +77,8 @@ public class PrettyJavaTranslator extends ResolveConceptualVisitor {
 
     private final CompileEnvironment myInstanceEnvironment;
 
-    private StringBuilder myJavaBuffer = new StringBuilder();
-    private int myCurrentLineNumber = 1;
-    private int myCurrentIndent = 0;
+    private final CodeEmitter myEmitter = new CodeEmitter();
+    private final CodeEmitter.Section myJavaBuffer = myEmitter.newSection();
     /*
      * This boolean was added to provide a method for the compiler/web interface
      * to be able to check and make sure the RESOLVE file was translated before
@@ -88,13 +90,13 @@ public class PrettyJavaTranslator extends ResolveConceptualVisitor {
     private ErrorHandler err;
     private SymbolTable table;
     private String targetFileName = new String();
-    private StringBuffer facilityConstructorBuf = new StringBuffer();
-    private StringBuffer operBuf = new StringBuffer();
-    private StringBuffer headerBuf = new StringBuffer();
-    private StringBuffer tailBuf = new StringBuffer();
-    private StringBuffer typeBuf = new StringBuffer(); //restricted its use to a handful of places
-    private StringBuffer typeFuncBuf = new StringBuffer();
-    private StringBuffer usesItemBuf = new StringBuffer();
+    private StringBuilder facilityConstructorBuf = new StringBuilder();
+    private StringBuilder operBuf = new StringBuilder();
+    private StringBuilder headerBuf = new StringBuilder();
+    private StringBuilder tailBuf = new StringBuilder();
+    private StringBuilder typeBuf = new StringBuilder(); //restricted its use to a handful of places
+    private StringBuilder typeFuncBuf = new StringBuilder();
+    private StringBuilder usesItemBuf = new StringBuilder();
     //    private StringBuffer        cbHeadBuf          = new StringBuffer(); //apparently has no use; never set anywhere
     //    private StringBuffer        parmOpBuf          = new StringBuffer(); // removed all its uses
     private List<String> exportedTypeNames = new List<String>();
@@ -110,12 +112,12 @@ public class PrettyJavaTranslator extends ResolveConceptualVisitor {
     private PosSymbol curFacilityPosSym = null; // global bad but absyn has no parent ptr
     private PosSymbol curConceptPosSym = null; // added this global; removed curConceptName
     private PosSymbol curConceptBodyPosSym = null; // added this global; removed curRealizName
-    private StringBuffer stmtBuf = new StringBuffer();
-    private StringBuffer initBuf = new StringBuffer();
+    private StringBuilder stmtBuf = new StringBuilder();
+    private StringBuilder initBuf = new StringBuilder();
     private PosSymbol containsArrayName;
     private ProgramExp containsArraySubscript;
     private String containsArrayType;
-    private StringBuffer consInitBuf = new StringBuffer();
+    private StringBuilder consInitBuf = new StringBuilder();
     private Binding concBinding;
     private List<String> typeParms;
     private List<String> concParms;
@@ -153,39 +155,37 @@ public class PrettyJavaTranslator extends ResolveConceptualVisitor {
     }
 
     public String getMainBuffer() {
-        return myJavaBuffer.toString();
+        return myEmitter.toString();
     }
 
     private void appendJava(String java, boolean indent) {
         if (indent) {
-            for (int i = 0; i < myCurrentIndent; i++) {
-                myJavaBuffer.append("\t");
-            }
+            myJavaBuffer.appendIndented(java);
+        }
+        else {
+            myJavaBuffer.append(java);
         }
-        myJavaBuffer.append(java);
     }
 
     private void bumpLine() {
-        appendJava("\n", false);
-        myCurrentLineNumber++;
+        myJavaBuffer.newLine();
     }
 
     private boolean bumpLine(int targetLine) {
         boolean bumped = false;
-        while (targetLine > myCurrentLineNumber) {
+        while (targetLine > myJavaBuffer.getLineNumber()) {
             bumped = true;
-            appendJava("\n", false);
-            myCurrentLineNumber++;
+            myJavaBuffer.newLine();
         }
         return bumped;
     }
 
     private void indent() {
-        myCurrentIndent++;
+        myJavaBuffer.indent();
     }
 
     private void unIndent() {
-        myCurrentIndent--;
+        myJavaBuffer.unIndent();
     }
 
     /*public String getMainBuffer() { 
@@ -1319,7 +1319,7 @@ public class PrettyJavaTranslator extends ResolveConceptualVisitor {
     // See if the side effect on castLookUPMap can be removed; 
     // that's the only reason why the variable name (not just the type) is a parameter here
     private String formVarDecType(PosSymbol name, Ty ty) {
-        StringBuffer strBuf = new StringBuffer();
+        StringBuilder strBuf = new StringBuilder();
 
         if (ty instanceof ArrayTy) {
             /*if (!checkImportDup(IMPORT_ARRAY)) { // only do once
@@ -3992,7 +3992,7 @@ public class PrettyJavaTranslator extends ResolveConceptualVisitor {
                 || myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
             //outputAsFile(targetFileName, getMainBuffer());
             //outputAsFile(outputFile.getAbsolutePath(), getMainBuffer());
-            System.out.println(getMainBuffer());
+            outputToConsole();
         }
         else {
             outputToReport(getMainBuffer());
@@ -4027,6 +4027,20 @@ public class PrettyJavaTranslator extends ResolveConceptualVisitor {
         }
     }
 
+    // streams the generated code straight to standard out
+    private void outputToConsole() {
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            myEmitter.writeTo(out);
+            out.write(System.getProperty("line.separator"));
+            out.flush();
+        }
+        catch (IOException ex) {
+            //FIX: Something should be done with this exception
+            ;
+        }
+    }
+
     private void outputToReport(String fileContents) {
         CompileReport report = myInstanceEnvironment.getCompileReport();
         report.setTranslateSuccess();
@@ -4263,7 +4277,7 @@ public class PrettyJavaTranslator extends ResolveConceptualVisitor {
     private String formGetModuleParm(List<ModuleParameter> parms) {
         Iterator<ModuleParameter> mpIt = parms.iterator();
         ModuleParameter mp = null;
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         while (mpIt.hasNext()) {
             mp = mpIt.next();
@@ -105,6 +105,10 @@ public class Translator extends ResolveConceptualVisitor {
     private static final String FLAG_DESC_TRANSLATE_CLEAN =
             "Regenerates Java code for all supporting RESOLVE files.";
 
+    private static final String FLAG_DESC_TRANSLATE_FAST =
+            "Translate local Integer, Boolean and Character variables to "
+                    + "Java primitives.";
+
     /**
      * <p>The main translator flag.  Tells the compiler convert
      * RESOLVE source code to Java source code.</p>
@@ -120,30 +124,48 @@ public class Translator extends ResolveConceptualVisitor {
             new Flag(FLAG_SECTION_NAME, "translateClean",
                     FLAG_DESC_TRANSLATE_CLEAN);
 
+    /**
+     * <p>Tells the translator to keep local variables of the standard
+     * <code>Integer</code>, <code>Boolean</code> and <code>Character</code>
+     * types in Java primitives, boxing them only where they are passed to
+     * operations that are not specialized.</p>
+     */
+    public static final Flag FLAG_TRANSLATE_FAST =
+            new Flag(FLAG_SECTION_NAME, "translateFast",
+                    FLAG_DESC_TRANSLATE_FAST);
+
     private static String IMPORT_ARRAY =
             "import RESOLVE.Main.Concepts.Standard.Static_Array.*;\n";
 
     private final CompileEnvironment myInstanceEnvironment;
-    /*
-     * This boolean was added to provide a method for the compiler/web interface
-     * to be able to check and make sure the RESOLVE file was translated before
-     * attempting to create a jar file.
-     */
-    public static boolean translated = false;
 
     //private Environment         env                = Environment.getInstance();
     private ErrorHandler err;
     private SymbolTable table;
     private String targetFileName = new String();
-    private StringBuffer facilityConstructorBuf = new StringBuffer();
-    private StringBuffer operBuf = new StringBuffer();
-    private StringBuffer headerBuf = new StringBuffer();
-    private StringBuffer tailBuf = new StringBuffer();
-    private StringBuffer typeBuf = new StringBuffer(); //restricted its use to a handful of places
-    private StringBuffer typeFuncBuf = new StringBuffer();
-    private StringBuffer usesItemBuf = new StringBuffer();
-    //    private StringBuffer        cbHeadBuf          = new StringBuffer(); //apparently has no use; never set anywhere
-    //    private StringBuffer        parmOpBuf          = new StringBuffer(); // removed all its uses
+    private StringBuilder facilityConstructorBuf = new StringBuilder();
+    // the sections of the generated class, in the order they are written out
+    private final CodeEmitter myEmitter = new CodeEmitter();
+    private final CodeEmitter.Section usesItemBuf = myEmitter.newSection();
+    private final CodeEmitter.Section headerBuf = myEmitter.newSection();
+    private final CodeEmitter.Section typeBuf = myEmitter.newSection(); //restricted its use to a handful of places
+    private final CodeEmitter.Section operBuf = myEmitter.newSection();
+    private final CodeEmitter.Section typeFuncBuf = myEmitter.newSection();
+    // with -translateFast, the static helpers boxing and unboxing primitives
+    private final CodeEmitter.Section primitiveHelperBuf =
+            myEmitter.newSection();
+    // nested classes delegating to the enhancements of facilities
+    private final CodeEmitter.Section enhancedFacilityBuf =
+            myEmitter.newSection();
+    private final CodeEmitter.Section tailBuf = myEmitter.newSection();
+    private List<String> enhancedFacilityClasses = new List<String>();
+    // with -translateFast, the locals of the current procedure kept in Java
+    // primitives, mapped to the name of their type
+    private Map<String, String> primitiveVars = new Map<String, String>();
+    private List<String> primitiveHelperTypes = new List<String>();
+    private int primitiveTempCount = 0;
+    //    private StringBuilder        cbHeadBuf          = new StringBuilder(); //apparently has no use; never set anywhere
+    //    private StringBuilder        parmOpBuf          = new StringBuilder(); // removed all its uses
     private List<String> exportedTypeNames = new List<String>();
     private Map<String, String> castLookUpMap = new Map<String, String>();
     private List<String> importList;
@@ -157,12 +179,12 @@ public class Translator extends ResolveConceptualVisitor {
     private PosSymbol curFacilityPosSym = null; // global bad but absyn has no parent ptr
     private PosSymbol curConceptPosSym = null; // added this global; removed curConceptName
     private PosSymbol curConceptBodyPosSym = null; // added this global; removed curRealizName
-    private StringBuffer stmtBuf = new StringBuffer();
-    private StringBuffer initBuf = new StringBuffer();
+    private StringBuilder stmtBuf = new StringBuilder();
+    private StringBuilder initBuf = new StringBuilder();
     private PosSymbol containsArrayName;
     private ProgramExp containsArraySubscript;
     private String containsArrayType;
-    private StringBuffer consInitBuf = new StringBuffer();
+    private StringBuilder consInitBuf = new StringBuilder();
     private Binding concBinding;
     private List<String> typeParms;
     private List<String> concParms;
@@ -200,10 +222,7 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     public String getMainBuffer() {
-        return buildHeaderComment() + usesItemBuf.toString()
-                + headerBuf.toString() + typeBuf.toString()
-                + operBuf.toString() + typeFuncBuf.toString()
-                + tailBuf.toString();
+        return buildHeaderComment() + myEmitter.toString();
     }
 
     public String getMainFileName() {
@@ -276,7 +295,7 @@ public class Translator extends ResolveConceptualVisitor {
      *         compiled.
      */
     private String formPkgPath(File file) {
-        StringBuffer pkgPath = new StringBuffer();
+        StringBuilder pkgPath = new StringBuilder();
         String filePath;
         if (file.exists()) {
             filePath = file.getAbsolutePath();
@@ -412,7 +431,7 @@ public class Translator extends ResolveConceptualVisitor {
     }*/
 
     private String declFacNames(List<Dec> facDecList) {
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
         Dec facDec;
         Iterator<Dec> facDecIt = facDecList.iterator();
         while (facDecIt.hasNext()) {
@@ -611,11 +630,6 @@ public class Translator extends ResolveConceptualVisitor {
         usesItemBuf.append("package ");
         usesItemBuf.append(formPkgPath(packageParent));
         usesItemBuf.append(";\n\n");
-        // allow for proxy
-        usesItemBuf.append("import java.lang.reflect.Proxy;\n");
-        usesItemBuf.append("import java.lang.reflect.InvocationHandler;\n");
-        usesItemBuf.append("import java.lang.reflect.Method;\n");
-        usesItemBuf.append("\n");
 
         usesItemBuf.append("import ");
         usesItemBuf.append(getRootPackage(packageParent));
@@ -660,7 +674,6 @@ public class Translator extends ResolveConceptualVisitor {
         headerBuf.append(dec.getEnhancementName().toString());
         headerBuf.append(", ");
         headerBuf.append(curConceptPosSym.toString());
-        headerBuf.append(", InvocationHandler");
         headerBuf.append(" {\n");
         //       headerBuf.append(cbHeadBuf.toString());
 
@@ -685,7 +698,7 @@ public class Translator extends ResolveConceptualVisitor {
 
         operBuf.append(formConceptProcWrappers(cDec));
         operBuf.append(formConceptTypesWrappers(cDec));
-        operBuf.append(formProxyProcedures(cDec, dec));
+        operBuf.append(formWrappedAccessor(cDec));
 
         usesItemBuf.append("\n");
 
@@ -749,7 +762,7 @@ public class Translator extends ResolveConceptualVisitor {
         }
 
         facilityConstructorBuf.append("\t}\n");
-        operBuf.append(facilityConstructorBuf.toString());
+        operBuf.append(facilityConstructorBuf);
 
         table.endModuleScope();
     }
@@ -774,7 +787,7 @@ public class Translator extends ResolveConceptualVisitor {
     // temporary fix at this point.
 
     private String formActualOpParmToFacDec(ModuleArgumentItem modArgItem) {
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
         Iterator<ParameterVarDec> pvIt = null;
         int parmCnt = 0;
         boolean firstParm = true;
@@ -999,7 +1012,7 @@ public class Translator extends ResolveConceptualVisitor {
 
     /* forms return type if function and void otherwise */
     private String retTypeString(Ty retTy) {
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
         if (retTy != null) { //this is a function operation
             PosSymbol unused = null;
             thisBuf.append(formVarDecType(unused, retTy));
@@ -1014,7 +1027,7 @@ public class Translator extends ResolveConceptualVisitor {
     // so now the bugs have to be fixed one less time;;
     private String formOpParmToFacDec(OperationDec opDec,
             ModuleArgumentItem modArgItem, String decName) {
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
         int parmNum = 0;
 
         //removed the use of vfdFirstParm from this function
@@ -1136,7 +1149,7 @@ public class Translator extends ResolveConceptualVisitor {
 
     //facility declaration done in 2 steps for reuse in Concept bodies
     public String concNameforFac(FacilityDec dec) {
-        StringBuffer temp = new StringBuffer();
+        StringBuilder temp = new StringBuilder();
 
         List<EnhancementBodyItem> ebItemList = dec.getEnhancementBodies();
         if (ebItemList.size() == 0) {
@@ -1285,14 +1298,19 @@ public class Translator extends ResolveConceptualVisitor {
             stmtBuf.append(";\n");
         }
         else {
-            // no choice use the expensive dynamic decorator pattern
+            // chain the enhancement bodies as decorators, as for a single
+            // enhancement, and wrap the outermost in a generated class that
+            // implements all of the enhancements by delegating to each body
             /*           stmtBuf.setLength(0);
                        stmtBuf.append("\t");
                        stmtBuf.append(dec.getConceptName().toString());
                        stmtBuf.append(" "); */
             stmtBuf.append(dec.getName().toString());
             stmtBuf.append(" = \n");
-            StringBuffer endBuf = new StringBuffer();
+            stmtBuf.append("\t\t new ");
+            stmtBuf.append(formEnhancedFacilityClass(dec));
+            stmtBuf.append("(\n");
+            StringBuilder endBuf = new StringBuilder();
             EnhancementBodyItem ebItem;
             Iterator<EnhancementBodyItem> ebItemIt = ebItemList.iterator();
             boolean isFirstEnh = true;
@@ -1301,10 +1319,10 @@ public class Translator extends ResolveConceptualVisitor {
                     isFirstEnh = false;
                 else
                     stmtBuf.append(", ");
-                stmtBuf.append("\t\t");
+                stmtBuf.append("\t\t new ");
                 ebItem = ebItemIt.next();
                 stmtBuf.append(ebItem.getBodyName().toString());
-                stmtBuf.append(".createProxy(\n");
+                stmtBuf.append("(\n");
                 handleEnhancedFacParameters(dec, ebItem);
                 endBuf.append("\t\t)\n");
             }
@@ -1313,8 +1331,8 @@ public class Translator extends ResolveConceptualVisitor {
             stmtBuf.append(dec.getBodyName().toString());
             handleSimpleFacParameters(dec);
             stmtBuf.append("\n");
-            stmtBuf.append(endBuf.toString());
-            stmtBuf.append("\t\t;\n");
+            stmtBuf.append(endBuf);
+            stmtBuf.append("\t\t);\n");
         }
         // The following code has been moved to visitFacilityDec.
         // The following code appears to handle the case of imports not declared in the uses clause; 
@@ -1337,7 +1355,7 @@ public class Translator extends ResolveConceptualVisitor {
         stmtBuf.append(concNameforFac(dec));
         stmtBuf.append(" ");
         declNewFacility(dec);
-        operBuf.append(stmtBuf.toString());
+        operBuf.append(stmtBuf);
         ModuleID cid = ModuleID.createConceptID(dec.getConceptName());
         ConceptModuleDec cDec =
                 (ConceptModuleDec) myInstanceEnvironment.getModuleDec(cid);
@@ -1403,7 +1421,7 @@ public class Translator extends ResolveConceptualVisitor {
     // See if the side effect on castLookUPMap can be removed; 
     // that's the only reason why the variable name (not just the type) is a parameter here
     private String formVarDecType(PosSymbol name, Ty ty) {
-        StringBuffer strBuf = new StringBuffer();
+        StringBuilder strBuf = new StringBuilder();
 
         if (ty instanceof ArrayTy) {
             if (!checkImportDup(IMPORT_ARRAY)) { // only do once
@@ -1427,7 +1445,7 @@ public class Translator extends ResolveConceptualVisitor {
             else if (exportedTypeNames.contains(typeNameStr)) { //get rid of this side effecting code
                 strBuf.append(curConceptPosSym.toString());
                 strBuf.append(".");
-                StringBuffer castExp = new StringBuffer();
+                StringBuilder castExp = new StringBuilder();
                 castExp.append("((");
                 castExp.append(curConceptBodyPosSym.toString());
                 castExp.append(".");
@@ -1475,7 +1493,7 @@ public class Translator extends ResolveConceptualVisitor {
                                 // - YS
                                 if (fDec.getConceptName().getName().equals(
                                         "Static_Array_Template")) {
-                                    StringBuffer castExp = new StringBuffer();
+                                    StringBuilder castExp = new StringBuilder();
                                     castExp.append("(");
                                     ModuleArgumentItem arrayType =
                                             fDec.getConceptParams().get(0);
@@ -1538,7 +1556,7 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     private String formParameterVarDec(ParameterVarDec dec) {
-        StringBuffer strBuf = new StringBuffer();
+        StringBuilder strBuf = new StringBuilder();
         strBuf.append(formParameterVarDecType(dec));
         strBuf.append(" ");
         strBuf.append(dec.getName().toString());
@@ -1549,7 +1567,7 @@ public class Translator extends ResolveConceptualVisitor {
     // so visitEBModuleParameters is unused and has been removed.
 
     private String formModuleParameterOpDec(OperationDec opDec) {
-        StringBuffer strBuf = new StringBuffer();
+        StringBuilder strBuf = new StringBuilder();
 
         table.beginOperationScope();
         parmOpList.addUnique(opDec.getName().toString());
@@ -1609,10 +1627,12 @@ public class Translator extends ResolveConceptualVisitor {
                     .toString(), (ArrayTy) curTy));
         }
         else if (curTy instanceof RecordTy) {
+            StringBuilder classBuf = new StringBuilder();
             formImplClassDeclBuf(dec.getName().toString(), "RType",
-                    "RESOLVE_BASE", typeBuf);
+                    "RESOLVE_BASE", classBuf);
             formRepClassDeclBuf(dec.getName().toString(), (RecordTy) curTy,
-                    typeBuf);
+                    classBuf);
+            typeBuf.append(classBuf);
         }
         table.endTypeScope();
     }
@@ -1628,6 +1648,8 @@ public class Translator extends ResolveConceptualVisitor {
         operBuf.append("(");
 
         castLookUpMap = new Map<String, String>();
+        primitiveVars =
+                findPrimitiveVars(dec.getVariables(), dec.getStatements());
         List<ParameterVarDec> varDecs = dec.getParameters();
         Iterator<ParameterVarDec> varIter = varDecs.iterator();
         while (varIter.hasNext()) {
@@ -1683,7 +1705,7 @@ public class Translator extends ResolveConceptualVisitor {
             curVar = varIt.next();
             stmtBuf.setLength(0);
             visitVarDec(curVar);
-            operBuf.append(stmtBuf.toString());
+            operBuf.append(stmtBuf);
         }
         operBuf.append("\n");
 
@@ -1692,7 +1714,7 @@ public class Translator extends ResolveConceptualVisitor {
         while (stmtIter.hasNext()) {
             stmtBuf.setLength(0);// clear 
             visitStatement(stmtIter.next());
-            operBuf.append(stmtBuf.toString());
+            operBuf.append(stmtBuf);
         }
 
         if (retTy instanceof NameTy) {
@@ -1703,6 +1725,7 @@ public class Translator extends ResolveConceptualVisitor {
 
         operBuf.append("\t}\n\n");
 
+        primitiveVars = new Map<String, String>();
         table.endProcedureScope();
         table.endOperationScope();
     }
@@ -1718,7 +1741,7 @@ public class Translator extends ResolveConceptualVisitor {
     public String formNewVarDecl(VarDec curVar) {
         PosSymbol name = curVar.getName();
         Ty ty = curVar.getTy();
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         Ty curVarTy = curVar.getTy();
         if (curVarTy instanceof ArrayTy) {
@@ -1807,8 +1830,20 @@ public class Translator extends ResolveConceptualVisitor {
     public void visitVarDec(VarDec curVar) {
         PosSymbol name = curVar.getName();
         Ty ty = curVar.getTy();
-        stmtBuf.append(formVarDecType(name, ty));
-        formVarInit(curVar, stmtBuf);
+        String primitiveType = primitiveVars.get(name.getName());
+        if (primitiveType != null) {
+            usePrimitiveHelpers(primitiveType);
+            stmtBuf.append(getJavaPrimitive(primitiveType));
+            stmtBuf.append(" ");
+            stmtBuf.append(name.getName());
+            stmtBuf.append(" = ");
+            stmtBuf.append(primitiveType);
+            stmtBuf.append("_Initial_Value;\n");
+        }
+        else {
+            stmtBuf.append(formVarDecType(name, ty));
+            formVarInit(curVar, stmtBuf);
+        }
         /*
         stmtBuf.append(name.toString());
         stmtBuf.append(" = ");
@@ -1844,9 +1879,9 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     public void visitWhileStmt(WhileStmt stmt) {
-        stmtBuf.append("while (((Std_Boolean_Realiz.Boolean)(");
-        visitProgramExp(stmt.getTest());
-        stmtBuf.append(")).val) {\n");
+        stmtBuf.append("while (");
+        visitCondition(stmt.getTest());
+        stmtBuf.append(") {\n");
         List<Statement> statements = stmt.getStatements();
         Iterator<Statement> stmtIter = statements.iterator();
         while (stmtIter.hasNext()) {
@@ -1860,9 +1895,9 @@ public class Translator extends ResolveConceptualVisitor {
 
     public void visitIfStmt(IfStmt stmt) {
         // if part
-        stmtBuf.append("if (((Std_Boolean_Realiz.Boolean)(");
-        visitProgramExp(stmt.getTest());
-        stmtBuf.append(")).val) {\n");
+        stmtBuf.append("if (");
+        visitCondition(stmt.getTest());
+        stmtBuf.append(") {\n");
         List<Statement> statements = stmt.getThenclause();
         Iterator<Statement> stmtIt = statements.iterator();
         while (stmtIt.hasNext()) {
@@ -1879,9 +1914,9 @@ public class Translator extends ResolveConceptualVisitor {
             Iterator<ConditionItem> elseifIt = elseifList.iterator();
             while (elseifIt.hasNext()) {
                 condItem = elseifIt.next();
-                stmtBuf.append("else if (((Std_Boolean_Realiz.Boolean)(");
-                visitProgramExp(condItem.getTest());
-                stmtBuf.append(")).val) {\n");
+                stmtBuf.append("else if (");
+                visitCondition(condItem.getTest());
+                stmtBuf.append(") {\n");
 
                 statements = condItem.getThenclause();
                 stmtIt = statements.iterator();
@@ -1909,6 +1944,51 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     public void visitCallStmt(CallStmt stmt) {
+        List<ProgramExp> expList = stmt.getArguments();
+
+        // primitive arguments are copied into boxes and back out again, so
+        // the operation called sees and updates them like any other variable
+        String[] boxedArgs = new String[expList.size()];
+        StringBuilder copyOutBuf = new StringBuilder();
+        if (!primitiveVars.isEmpty()) {
+            if (isPrimitiveClear(stmt)) {
+                String varName =
+                        ((VariableNameExp) expList.get(0)).getName().getName();
+                stmtBuf.append(varName);
+                stmtBuf.append(" = ");
+                stmtBuf.append(primitiveVars.get(varName));
+                stmtBuf.append("_Initial_Value;");
+                return;
+            }
+
+            for (int i = 0; i < boxedArgs.length; i++) {
+                String primitiveType = getPrimitiveVarType(expList.get(i));
+                if (primitiveType != null) {
+                    String varName =
+                            ((VariableNameExp) expList.get(i)).getName()
+                                    .getName();
+                    boxedArgs[i] = newPrimitiveTemp();
+                    if (copyOutBuf.length() == 0) {
+                        stmtBuf.append("{ ");
+                    }
+                    stmtBuf.append(getPrimitiveConceptType(primitiveType));
+                    stmtBuf.append(" ");
+                    stmtBuf.append(boxedArgs[i]);
+                    stmtBuf.append(" = box");
+                    stmtBuf.append(primitiveType);
+                    stmtBuf.append("(");
+                    stmtBuf.append(varName);
+                    stmtBuf.append("); ");
+                    copyOutBuf.append(" ");
+                    copyOutBuf.append(varName);
+                    copyOutBuf.append(" = unbox");
+                    copyOutBuf.append(primitiveType);
+                    copyOutBuf.append("(");
+                    copyOutBuf.append(boxedArgs[i]);
+                    copyOutBuf.append(");");
+                }
+            }
+        }
 
         if (stmt.getQualifier() != null) {
             stmtBuf.append(stmt.getQualifier().toString());
@@ -1916,7 +1996,7 @@ public class Translator extends ResolveConceptualVisitor {
         }
         else {
             ProgramExpTypeResolver resolver =
-                    new ProgramExpTypeResolver(table, myInstanceEnvironment);
+                    new ProgramExpTypeResolver(table, err);
             Location loc =
                     (stmt.getQualifier() == null) ? stmt.getName()
                             .getLocation() : stmt.getQualifier().getLocation();
@@ -1943,22 +2023,29 @@ public class Translator extends ResolveConceptualVisitor {
 
         stmtBuf.append(callName);
         stmtBuf.append("(");
-        List<ProgramExp> expList = stmt.getArguments();
-        Iterator<ProgramExp> expIter = expList.iterator();
-        while (expIter.hasNext()) {
-            visitProgramExp(expIter.next());
-            if (expIter.hasNext()) {
+        for (int i = 0; i < boxedArgs.length; i++) {
+            if (boxedArgs[i] != null) {
+                stmtBuf.append(boxedArgs[i]);
+            }
+            else {
+                visitProgramExp(expList.get(i));
+            }
+            if (i < boxedArgs.length - 1) {
                 stmtBuf.append(", ");
             }
         }
 
         stmtBuf.append(")");
         stmtBuf.append(";");
+        if (copyOutBuf.length() > 0) {
+            stmtBuf.append(copyOutBuf);
+            stmtBuf.append(" }");
+        }
     }
 
     private void buildCallQualifier(OperationEntry oper, FacilityDec fDec) {
         if (fDec != null) {
-            // if multiple enhancements then dynamic decorators are used and casting may be needed
+            // if multiple enhancements then the facility is declared as its concept and casting may be needed
             if (fDec.getEnhancementBodies().size() > 1) {
                 String fileName = oper.getLocation().getFilename();
                 String fileNameExt = fileName.substring(fileName.length() - 2);
@@ -1988,7 +2075,29 @@ public class Translator extends ResolveConceptualVisitor {
     public void visitSwapStmt(SwapStmt stmt) {
         VariableExp lhs = stmt.getLeft();
         VariableExp rhs = stmt.getRight();
-        if (!(lhs instanceof VariableArrayExp)
+        String primitiveType = getPrimitiveVarType(lhs);
+        if (primitiveType != null) {
+            // both sides are primitive; see removeUnspecializableVars()
+            String temp = newPrimitiveTemp();
+            String lhsName = ((VariableNameExp) lhs).getName().getName();
+            String rhsName = ((VariableNameExp) rhs).getName().getName();
+            stmtBuf.append("{ ");
+            stmtBuf.append(getJavaPrimitive(primitiveType));
+            stmtBuf.append(" ");
+            stmtBuf.append(temp);
+            stmtBuf.append(" = ");
+            stmtBuf.append(lhsName);
+            stmtBuf.append("; ");
+            stmtBuf.append(lhsName);
+            stmtBuf.append(" = ");
+            stmtBuf.append(rhsName);
+            stmtBuf.append("; ");
+            stmtBuf.append(rhsName);
+            stmtBuf.append(" = ");
+            stmtBuf.append(temp);
+            stmtBuf.append("; }");
+        }
+        else if (!(lhs instanceof VariableArrayExp)
                 || !(rhs instanceof VariableArrayExp)) {
             if (ContainsArray(lhs, false)) {
                 if (containsArrayType != null) {
@@ -2078,7 +2187,9 @@ public class Translator extends ResolveConceptualVisitor {
                 stmtBuf.append(")");
             }
         }
-        stmtBuf.append(";");
+        if (primitiveType == null) {
+            stmtBuf.append(";");
+        }
     }
 
     // ok, the inRecord to track the context is gross but I'm short ideas - jmh
@@ -2138,7 +2249,14 @@ public class Translator extends ResolveConceptualVisitor {
 
     public void visitFuncAssignStmt(FuncAssignStmt stmt) {
         ProgramExp pgmExp = stmt.getAssign();
-        if (pgmExp instanceof ProgramParamExp
+        String primitiveType = getPrimitiveVarType(stmt.getVar());
+        if (primitiveType != null) {
+            stmtBuf.append(((VariableNameExp) stmt.getVar()).getName()
+                    .getName());
+            stmtBuf.append(" = ");
+            visitPrimitiveExp(pgmExp, primitiveType);
+        }
+        else if (pgmExp instanceof ProgramParamExp
                 || pgmExp instanceof ProgramIntegerExp
                 || pgmExp instanceof ProgramCharExp
                 || pgmExp instanceof ProgramStringExp
@@ -2189,7 +2307,7 @@ public class Translator extends ResolveConceptualVisitor {
          */
 
         ProgramExpTypeResolver resolver =
-                new ProgramExpTypeResolver(table, myInstanceEnvironment);
+                new ProgramExpTypeResolver(table, err);
         if (varExp instanceof VariableNameExp) {
             VariableNameExp curExp = (VariableNameExp) varExp;
             try {
@@ -2374,7 +2492,7 @@ public class Translator extends ResolveConceptualVisitor {
             if (se instanceof ProgramFunctionExp) {
                 ProgramFunctionExp exp = (ProgramFunctionExp) se;
                 ProgramExpTypeResolver resolver =
-                        new ProgramExpTypeResolver(table, myInstanceEnvironment);
+                        new ProgramExpTypeResolver(table, err);
                 try {
                     OperationEntry oper = resolver.getOperationEntry(exp);
                     ModuleScope modScope = (ModuleScope) oper.getScope();
@@ -2415,7 +2533,18 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     private void visitProgramExp(ProgramExp pgmExp) {
-        if (pgmExp instanceof VariableExp) {
+        String primitiveType = getPrimitiveExpType(pgmExp);
+        if (primitiveType != null && !(pgmExp instanceof ProgramIntegerExp)
+                && !(pgmExp instanceof ProgramCharExp)) {
+            // computed with Java operators, then boxed
+            usePrimitiveHelpers(primitiveType);
+            stmtBuf.append("box");
+            stmtBuf.append(primitiveType);
+            stmtBuf.append("(");
+            visitPrimitiveOperand(pgmExp);
+            stmtBuf.append(")");
+        }
+        else if (pgmExp instanceof VariableExp) {
             visitVariableExp((VariableExp) pgmExp);
         }
         else if (pgmExp instanceof ProgramParamExp) {
@@ -2612,7 +2741,7 @@ public class Translator extends ResolveConceptualVisitor {
         }
         else {
             ProgramExpTypeResolver resolver =
-                    new ProgramExpTypeResolver(table, myInstanceEnvironment);
+                    new ProgramExpTypeResolver(table, err);
             try {
                 OperationEntry oper = resolver.getOperationEntry(exp);
                 ModuleScope modScope = (ModuleScope) oper.getScope();
@@ -2647,8 +2776,433 @@ public class Translator extends ResolveConceptualVisitor {
         stmtBuf.append(")");
     }
 
+    // -----------------------------------------------------------
+    // Primitive Specialization (-translateFast)
+    // -----------------------------------------------------------
+
+    /*
+     * Local variables of the standard Integer, Boolean and Character types
+     * are declared as Java ints, booleans and chars.  Assignments, swaps,
+     * Clear, and the comparisons and Boolean operators of the standard
+     * facilities on them become plain Java.  Arithmetic is still done by
+     * Std_Integer_Fac, so that it keeps the facility's range checks rather
+     * than silently wrapping around.  Everywhere else they are boxed: a copy
+     * when passed to a function or used in an expression that cannot be
+     * specialized, and a copy in and back out again when passed to an
+     * operation, which may update them.
+     *
+     * The boxes rely on the standard realizations keeping their value in a
+     * public val field, as the translation of conditions already does for
+     * Std_Boolean_Realiz.
+     */
+
+    private Map<String, String> findPrimitiveVars(List<VarDec> vars,
+            List<Statement> statements) {
+        Map<String, String> retval = new Map<String, String>();
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_TRANSLATE_FAST)) {
+            VarDec curVar;
+            String primitiveType;
+            Iterator<VarDec> varIt = vars.iterator();
+            while (varIt.hasNext()) {
+                curVar = varIt.next();
+                primitiveType = getStdPrimitiveType(curVar.getTy());
+                if (primitiveType != null) {
+                    retval.put(curVar.getName().getName(), primitiveType);
+                }
+            }
+
+            if (!retval.isEmpty()) {
+                removeUnspecializableVars(statements, retval);
+            }
+        }
+
+        return retval;
+    }
+
+    /*
+     * Returns the name of ty if it is the Integer, Boolean or Character type
+     * of its standard facility, null otherwise.
+     */
+    private String getStdPrimitiveType(Ty ty) {
+        String retval = null;
+
+        if (ty instanceof NameTy) {
+            NameTy nameTy = (NameTy) ty;
+            String typeName = nameTy.getName().getName();
+            if (getJavaPrimitive(typeName) != null && !isTypeParm(typeName)
+                    && !exportedTypeNames.contains(typeName)) {
+                FacilityDec fDec =
+                        getFacility(nameTy.getQualifier(), nameTy.getName());
+                if (fDec != null
+                        && getStdFacilityName(typeName).equals(
+                                fDec.getName().getName())) {
+                    retval = typeName;
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    /*
+     * A variable swapped with one that is not primitive is left boxed; every
+     * other use of a primitive variable can be translated.
+     */
+    private void removeUnspecializableVars(List<Statement> statements,
+            Map<String, String> vars) {
+        Statement stmt;
+        Iterator<Statement> stmtIt = statements.iterator();
+        while (stmtIt.hasNext()) {
+            stmt = stmtIt.next();
+            if (stmt instanceof SwapStmt) {
+                VariableExp lhs = ((SwapStmt) stmt).getLeft();
+                VariableExp rhs = ((SwapStmt) stmt).getRight();
+                String lhsName = getVariableName(lhs);
+                String rhsName = getVariableName(rhs);
+                if (lhsName == null || rhsName == null
+                        || !vars.containsKey(lhsName)
+                        || !vars.containsKey(rhsName)) {
+                    vars.remove(lhsName);
+                    vars.remove(rhsName);
+                }
+            }
+            else if (stmt instanceof IfStmt) {
+                IfStmt ifStmt = (IfStmt) stmt;
+                removeUnspecializableVars(ifStmt.getThenclause(), vars);
+                List<ConditionItem> elseifList = ifStmt.getElseifpairs();
+                if (elseifList != null) {
+                    Iterator<ConditionItem> elseifIt = elseifList.iterator();
+                    while (elseifIt.hasNext()) {
+                        removeUnspecializableVars(elseifIt.next()
+                                .getThenclause(), vars);
+                    }
+                }
+                if (ifStmt.getElseclause() != null) {
+                    removeUnspecializableVars(ifStmt.getElseclause(), vars);
+                }
+            }
+            else if (stmt instanceof WhileStmt) {
+                removeUnspecializableVars(((WhileStmt) stmt).getStatements(),
+                        vars);
+            }
+        }
+    }
+
+    private String getVariableName(VariableExp varExp) {
+        String retval = null;
+
+        if (varExp instanceof VariableNameExp) {
+            retval = ((VariableNameExp) varExp).getName().getName();
+        }
+
+        return retval;
+    }
+
+    /*
+     * Returns the type of exp if it is a primitive variable, null otherwise.
+     */
+    private String getPrimitiveVarType(ProgramExp exp) {
+        String retval = null;
+
+        if (exp instanceof VariableNameExp) {
+            retval =
+                    primitiveVars.get(((VariableNameExp) exp).getName()
+                            .getName());
+        }
+
+        return retval;
+    }
+
+    /*
+     * Returns the type of exp if it can be computed with Java operators
+     * over primitive variables and literals, null otherwise.
+     */
+    private String getPrimitiveExpType(ProgramExp exp) {
+        String retval = null;
+
+        if (primitiveVars.isEmpty()) {
+            retval = null;
+        }
+        else if (exp instanceof ProgramParamExp) {
+            retval =
+                    getPrimitiveExpType(((ProgramParamExp) exp)
+                            .getSemanticExp());
+        }
+        else if (exp instanceof ProgramDotExp) {
+            retval =
+                    getPrimitiveExpType(((ProgramDotExp) exp).getSemanticExp());
+        }
+        else if (exp instanceof VariableNameExp) {
+            retval = getPrimitiveVarType(exp);
+        }
+        else if (exp instanceof ProgramIntegerExp) {
+            retval = "Integer";
+        }
+        else if (exp instanceof ProgramCharExp) {
+            retval = "Character";
+        }
+        else if (exp instanceof ProgramOpExp) {
+            ProgramOpExp opExp = (ProgramOpExp) exp;
+            String first = getPrimitiveExpType(opExp.getFirst());
+            String second = null;
+            if (opExp.getSecond() != null) {
+                second = getPrimitiveExpType(opExp.getSecond());
+            }
+
+            switch (opExp.getOperator()) {
+            case ProgramOpExp.LT:
+            case ProgramOpExp.LT_EQL:
+            case ProgramOpExp.GT:
+            case ProgramOpExp.GT_EQL:
+                if ("Integer".equals(first) && "Integer".equals(second)) {
+                    retval = "Boolean";
+                }
+                break;
+            case ProgramOpExp.EQUAL:
+            case ProgramOpExp.NOT_EQUAL:
+                if (first != null && first.equals(second)) {
+                    retval = "Boolean";
+                }
+                break;
+            case ProgramOpExp.AND:
+            case ProgramOpExp.OR:
+                if ("Boolean".equals(first) && "Boolean".equals(second)) {
+                    retval = "Boolean";
+                }
+                break;
+            case ProgramOpExp.NOT:
+                if ("Boolean".equals(first)) {
+                    retval = "Boolean";
+                }
+                break;
+            default:
+                // Arithmetic is left to Std_Integer_Fac, whose range checks,
+                // rounding and errors it follows
+                break;
+            }
+        }
+
+        return retval;
+    }
+
+    /*
+     * Translates pgmExp to a Java expression of the primitive for type,
+     * unboxing it if it cannot be computed with Java operators.
+     */
+    private void visitPrimitiveExp(ProgramExp pgmExp, String type) {
+        if (type.equals(getPrimitiveExpType(pgmExp))) {
+            visitPrimitiveOperand(pgmExp);
+        }
+        else {
+            usePrimitiveHelpers(type);
+            stmtBuf.append("unbox");
+            stmtBuf.append(type);
+            stmtBuf.append("(");
+            visitProgramExp(pgmExp);
+            stmtBuf.append(")");
+        }
+    }
+
+    /*
+     * Translates pgmExp, for which getPrimitiveExpType() is not null, to Java
+     * operators over primitives.  The operands are only variables, literals
+     * and comparisons, which neither fail nor have side effects, so And and
+     * Or may skip their second operand as Java's && and || do.
+     */
+    private void visitPrimitiveOperand(ProgramExp pgmExp) {
+        if (pgmExp instanceof ProgramParamExp) {
+            visitPrimitiveOperand(((ProgramParamExp) pgmExp).getSemanticExp());
+        }
+        else if (pgmExp instanceof ProgramDotExp) {
+            visitPrimitiveOperand(((ProgramDotExp) pgmExp).getSemanticExp());
+        }
+        else if (pgmExp instanceof VariableNameExp) {
+            stmtBuf.append(((VariableNameExp) pgmExp).getName().getName());
+        }
+        else if (pgmExp instanceof ProgramIntegerExp) {
+            stmtBuf.append(((ProgramIntegerExp) pgmExp).getValue());
+        }
+        else if (pgmExp instanceof ProgramCharExp) {
+            stmtBuf.append("'");
+            stmtBuf.append(((ProgramCharExp) pgmExp).getValue());
+            stmtBuf.append("'");
+        }
+        else if (pgmExp instanceof ProgramOpExp) {
+            ProgramOpExp opExp = (ProgramOpExp) pgmExp;
+            String operator = null;
+            switch (opExp.getOperator()) {
+            case ProgramOpExp.AND:
+                operator = " && ";
+                break;
+            case ProgramOpExp.OR:
+                operator = " || ";
+                break;
+            case ProgramOpExp.EQUAL:
+                operator = " == ";
+                break;
+            case ProgramOpExp.NOT_EQUAL:
+                operator = " != ";
+                break;
+            case ProgramOpExp.LT:
+                operator = " < ";
+                break;
+            case ProgramOpExp.LT_EQL:
+                operator = " <= ";
+                break;
+            case ProgramOpExp.GT:
+                operator = " > ";
+                break;
+            case ProgramOpExp.GT_EQL:
+                operator = " >= ";
+                break;
+            case ProgramOpExp.NOT:
+                operator = "!";
+                break;
+            default:
+                assert false;
+            }
+
+            stmtBuf.append("(");
+            if (opExp.getOperator() == ProgramOpExp.NOT) {
+                stmtBuf.append(operator);
+                visitPrimitiveOperand(opExp.getFirst());
+            }
+            else {
+                visitPrimitiveOperand(opExp.getFirst());
+                stmtBuf.append(operator);
+                visitPrimitiveOperand(opExp.getSecond());
+            }
+            stmtBuf.append(")");
+        }
+        else {
+            assert false;
+        }
+    }
+
+    private void visitCondition(ProgramExp test) {
+        if ("Boolean".equals(getPrimitiveExpType(test))) {
+            visitPrimitiveOperand(test);
+        }
+        else {
+            stmtBuf.append("((Std_Boolean_Realiz.Boolean)(");
+            visitProgramExp(test);
+            stmtBuf.append(")).val");
+        }
+    }
+
+    /*
+     * Returns true if stmt is the Clear of a primitive variable's standard
+     * facility.
+     */
+    private boolean isPrimitiveClear(CallStmt stmt) {
+        boolean retval = false;
+
+        List<ProgramExp> args = stmt.getArguments();
+        if ("Clear".equals(stmt.getName().getName()) && args.size() == 1
+                && getPrimitiveVarType(args.get(0)) != null) {
+            String facName =
+                    getStdFacilityName(getPrimitiveVarType(args.get(0)));
+            if (stmt.getQualifier() != null) {
+                retval = facName.equals(stmt.getQualifier().getName());
+            }
+            else {
+                ProgramExpTypeResolver resolver =
+                        new ProgramExpTypeResolver(table, err);
+                ProgramFunctionExp exp =
+                        new ProgramFunctionExp(stmt.getName().getLocation(),
+                                null, stmt.getName(), args);
+                try {
+                    OperationEntry oper = resolver.getOperationEntry(exp);
+                    FacilityDec fDec =
+                            ((ModuleScope) oper.getScope()).getFacilityDec();
+                    retval =
+                            fDec != null
+                                    && facName.equals(fDec.getName().getName());
+                }
+                catch (TypeResolutionException trex) {
+                    // leave it to visitCallStmt() to report
+                }
+            }
+        }
+
+        return retval;
+    }
+
+    private String newPrimitiveTemp() {
+        primitiveTempCount++;
+        return "Primitive_Temp_" + primitiveTempCount;
+    }
+
+    /*
+     * Adds the initial value and the box and unbox helpers for type to the
+     * class being translated, once.
+     */
+    private void usePrimitiveHelpers(String type) {
+        if (!primitiveHelperTypes.contains(type)) {
+            primitiveHelperTypes.add(type);
+
+            String javaType = getJavaPrimitive(type);
+            String conceptType = getPrimitiveConceptType(type);
+            String realizType = "Std_" + type + "_Realiz." + type;
+            String facName = getStdFacilityName(type);
+
+            primitiveHelperBuf.indent();
+            primitiveHelperBuf.line("private static final " + javaType + " "
+                    + type + "_Initial_Value =");
+            primitiveHelperBuf.line("\t\tunbox" + type + "(" + facName
+                    + ".create" + type + "());");
+            primitiveHelperBuf.newLine();
+
+            primitiveHelperBuf.line("private static " + conceptType + " box"
+                    + type + "(" + javaType + " value) {");
+            primitiveHelperBuf.indent();
+            primitiveHelperBuf.line(conceptType + " boxed = " + facName
+                    + ".create" + type + "();");
+            primitiveHelperBuf
+                    .line("((" + realizType + ") boxed).val = value;");
+            primitiveHelperBuf.line("return boxed;");
+            primitiveHelperBuf.unIndent();
+            primitiveHelperBuf.line("}");
+            primitiveHelperBuf.newLine();
+
+            primitiveHelperBuf.line("private static " + javaType + " unbox"
+                    + type + "(RType boxed) {");
+            primitiveHelperBuf.indent();
+            primitiveHelperBuf.line("return ((" + realizType + ") boxed).val;");
+            primitiveHelperBuf.unIndent();
+            primitiveHelperBuf.line("}");
+            primitiveHelperBuf.newLine();
+            primitiveHelperBuf.unIndent();
+        }
+    }
+
+    private String getJavaPrimitive(String type) {
+        String retval = null;
+
+        if ("Integer".equals(type)) {
+            retval = "int";
+        }
+        else if ("Boolean".equals(type)) {
+            retval = "boolean";
+        }
+        else if ("Character".equals(type)) {
+            retval = "char";
+        }
+
+        return retval;
+    }
+
+    private String getPrimitiveConceptType(String type) {
+        return type + "_Template." + type;
+    }
+
+    private String getStdFacilityName(String type) {
+        return "Std_" + type + "_Fac";
+    }
+
     public void formImplClassDeclBuf(String typeName, String interfaceName,
-            String extName, StringBuffer thisBuf) {
+            String extName, StringBuilder thisBuf) {
         thisBuf.append("\tclass ");
         thisBuf.append(typeName);
         if (extName != null) {
@@ -2696,7 +3250,7 @@ public class Translator extends ResolveConceptualVisitor {
 
     //side effects or depends on initBuf
     public void formRepClassDeclBuf(String typeName, RecordTy curTy,
-            StringBuffer thisBuf) {
+            StringBuilder thisBuf) {
         List<VarDec> varList = ((RecordTy) curTy).getFields();
 
         thisBuf.append("\tclass ");
@@ -2712,14 +3266,14 @@ public class Translator extends ResolveConceptualVisitor {
         recordVarInitialization(varList, thisBuf);
         if (initBuf.length() > 0) {
             thisBuf.append("\t\t\t{\n");
-            thisBuf.append(initBuf.toString());
+            thisBuf.append(initBuf);
             thisBuf.append("\t\t\t}\n");
         }
         thisBuf.append("\t\t}\n");
         thisBuf.append("\n");
 
         thisBuf.append("\t\tpublic String toString() {\n");
-        thisBuf.append("\t\t\tStringBuffer sb = new StringBuffer();\n");
+        thisBuf.append("\t\t\tStringBuilder sb = new StringBuilder();\n");
         recordVartoString(varList, thisBuf);
         thisBuf.append("\t\t\treturn sb.toString();\n");
         thisBuf.append("\t\t}\n");
@@ -2757,14 +3311,14 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     public void visitRepresentationDec(RepresentationDec dec) {
-        StringBuffer localTypeBuf = new StringBuffer();
-        StringBuffer interfaceName = new StringBuffer();
+        StringBuilder localTypeBuf = new StringBuilder();
+        StringBuilder interfaceName = new StringBuilder();
 
         if (isLocalType(dec)) {
             visitFacilityTypeDec(facTypeDecforRepDec(dec));
             // another global variable problem
             // added the following to handle local array type declarations
-            typeBuf.append(facilityConstructorBuf.toString());
+            typeBuf.append(facilityConstructorBuf);
         }
         else {
             table.beginTypeScope();
@@ -2787,7 +3341,7 @@ public class Translator extends ResolveConceptualVisitor {
             if (curTy instanceof RecordTy) {
                 formRepClassDeclBuf(typeName, (RecordTy) curTy, localTypeBuf);
             } // end RecordTy
-            typeBuf.append(localTypeBuf.toString());
+            typeBuf.append(localTypeBuf);
             table.endTypeScope();
         }
     }
@@ -2795,7 +3349,7 @@ public class Translator extends ResolveConceptualVisitor {
     //requires Type type = binding.getType(qualifier,name);
     //changed this to return a String instead of using a String parameter
     private String typeParamStr(Type type, PosSymbol qualifier, PosSymbol name) {
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         if (type instanceof ArrayType) {
             ArrayType aType = (ArrayType) type;
@@ -2846,7 +3400,7 @@ public class Translator extends ResolveConceptualVisitor {
     //requires the name is an array and type is an array type
     //resets stmtBuf
     private String formArrayDeclBuf(String VarName, ArrayTy arrayDec) {
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         thisBuf.append("\t\t");
         thisBuf.append(VarName);
@@ -2871,11 +3425,11 @@ public class Translator extends ResolveConceptualVisitor {
         thisBuf.append(", ");
         stmtBuf.setLength(0);
         visitProgramExp(arrayDec.getLo()); //side effects stmtBuf
-        thisBuf.append(stmtBuf.toString());
+        thisBuf.append(stmtBuf);
         thisBuf.append(", ");
         stmtBuf.setLength(0);
         visitProgramExp(arrayDec.getHi());
-        thisBuf.append(stmtBuf.toString());
+        thisBuf.append(stmtBuf);
         stmtBuf.setLength(0);
         thisBuf.append(");\n");
 
@@ -2885,7 +3439,7 @@ public class Translator extends ResolveConceptualVisitor {
     // this has been rewritten, reusing formVarDecType to handle all cases, in general
     // this used to be recordVarDeclarations
     private void recordVarDeclarations(List<VarDec> varList,
-            StringBuffer thisTypeBuf) {
+            StringBuilder thisTypeBuf) {
         Iterator<VarDec> i = varList.iterator();
         while (i.hasNext()) {
             thisTypeBuf.append("\t\t");
@@ -2896,14 +3450,14 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     // this part factored out for reuse; also used to handle communal variables
-    private void formVarDecl(VarDec curVar, StringBuffer thisBuf) {
+    private void formVarDecl(VarDec curVar, StringBuilder thisBuf) {
         thisBuf.append(formVarDecType(curVar.getName(), curVar.getTy()));
         thisBuf.append(curVar.getName().toString());
         thisBuf.append(";\n");
     }
 
     private void recordVarInitialization(List<VarDec> varList,
-            StringBuffer thisTypeBuf) {
+            StringBuilder thisTypeBuf) {
         Iterator<VarDec> i = varList.iterator();
         while (i.hasNext()) {
             thisTypeBuf.append("\t\t\t");
@@ -2913,7 +3467,7 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     // this part factored out for reuse; also used to handle communal variables
-    private void formVarInit(VarDec curVar, StringBuffer thisBuf) {
+    private void formVarInit(VarDec curVar, StringBuilder thisBuf) {
         thisBuf.append(curVar.getName().toString());
         thisBuf.append(" = ");
         thisBuf.append(formNewVarDecl(curVar));
@@ -2939,7 +3493,7 @@ public class Translator extends ResolveConceptualVisitor {
         return facName;
     }
 
-    private void recordVartoString(List<VarDec> varList, StringBuffer thisBuf) {
+    private void recordVartoString(List<VarDec> varList, StringBuilder thisBuf) {
         Iterator<VarDec> i = varList.iterator();
         while (i.hasNext()) {
             thisBuf.append("\t\t\t");
@@ -3122,7 +3676,12 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     public String formOperWrapper(OperationDec dec) {
-        StringBuffer wrapBuf = new StringBuffer();
+        return formOperWrapper(dec, "con");
+    }
+
+    // forms a wrapper that forwards the operation to the named object
+    private String formOperWrapper(OperationDec dec, String target) {
+        StringBuilder wrapBuf = new StringBuilder();
         wrapBuf.append("\tpublic ");
         wrapBuf.append(formOperTypeWrapper(dec.getReturnTy()));
         wrapBuf.append(" ");
@@ -3130,7 +3689,7 @@ public class Translator extends ResolveConceptualVisitor {
         wrapBuf.append("(");
 
         String parm = null;
-        StringBuffer parmBuf = new StringBuffer();
+        StringBuilder parmBuf = new StringBuilder();
         List<ParameterVarDec> decs = dec.getParameters();
         Iterator<ParameterVarDec> i = decs.iterator();
         ParameterVarDec pVarDec = null;
@@ -3155,10 +3714,11 @@ public class Translator extends ResolveConceptualVisitor {
         if (dec.getReturnTy() != null) {
             wrapBuf.append("return ");
         }
-        wrapBuf.append("con.");
+        wrapBuf.append(target);
+        wrapBuf.append(".");
         wrapBuf.append(dec.getName().toString());
         wrapBuf.append("(");
-        wrapBuf.append(parmBuf.toString());
+        wrapBuf.append(parmBuf);
         wrapBuf.append(");\n");
         wrapBuf.append("\t}\n");
 
@@ -3261,7 +3821,7 @@ public class Translator extends ResolveConceptualVisitor {
         while (stmtIt.hasNext()) {
             stmtBuf.setLength(0);// clear 
             visitStatement(stmtIt.next());
-            initBuf.append(stmtBuf.toString());
+            initBuf.append(stmtBuf);
         }
         stmtBuf.setLength(0);
         isLocalVar = false;
@@ -3395,7 +3955,7 @@ public class Translator extends ResolveConceptualVisitor {
 
     private String formConceptTypesWrappers(ConceptModuleDec cDec) {
         List<Dec> decs = cDec.getDecs();
-        StringBuffer wrappersBuf = new StringBuffer();
+        StringBuilder wrappersBuf = new StringBuilder();
         Iterator<Dec> i = decs.iterator();
         while (i.hasNext()) {
             Dec dec = i.next();
@@ -3467,108 +4027,156 @@ public class Translator extends ResolveConceptualVisitor {
         return wrappersBuf.toString();
     }
 
-    // changed this so that the proxy procedures now have the extra concept paramaters
-    // need for enhancements
-    // though this reuses some code, the later part of it contains duplication; re-code
-    private String formProxyProcedures(ConceptModuleDec cDec,
-            EnhancementBodyModuleDec ebDec) {
-        StringBuffer pBuf = new StringBuffer();
-        pBuf
-                .append("\n\tpublic Object invoke(Object proxy, Method method, Object[] args) throws Throwable {\n");
-        boolean isFirst = true;
-        Iterator<Dec> i = ebDec.getDecs().iterator();
-        while (i.hasNext()) {
-            Dec dec = i.next();
-            if (dec instanceof ProcedureDec) {
-                if (isFirst) {
-                    pBuf.append("\t\tif (\"");
-                    isFirst = false;
+    // lets the class generated by formEnhancedFacilityClass reach each
+    // enhancement body in a chain of them
+    private String formWrappedAccessor(ConceptModuleDec cDec) {
+        StringBuilder aBuf = new StringBuilder();
+        aBuf.append("\n\tpublic ");
+        aBuf.append(cDec.getName().toString());
+        aBuf.append(" getWrapped() {\n");
+        aBuf.append("\t\treturn con;\n");
+        aBuf.append("\t}\n");
+        return aBuf.toString();
+    }
+
+    // A facility with several enhancements is a chain of enhancement bodies,
+    // each wrapping the next and the last wrapping the realization.  This
+    // generates a nested class, once per combination of concept and
+    // enhancement bodies, that takes the outermost body and implements the
+    // concept and every enhancement by calling the realization or the right
+    // body directly.  Returns the name of the class.
+    private String formEnhancedFacilityClass(FacilityDec dec) {
+        PosSymbol cName = dec.getConceptName();
+        List<EnhancementBodyItem> ebItemList = dec.getEnhancementBodies();
+
+        StringBuilder nameBuf = new StringBuilder();
+        nameBuf.append(cName.toString());
+        nameBuf.append("_With");
+        Iterator<EnhancementBodyItem> ebItemIt = ebItemList.iterator();
+        while (ebItemIt.hasNext()) {
+            nameBuf.append("_");
+            nameBuf.append(ebItemIt.next().getBodyName().toString());
+        }
+        String className = nameBuf.toString();
+
+        if (!enhancedFacilityClasses.contains(className)) {
+            enhancedFacilityClasses.add(className);
+
+            ModuleID cid = ModuleID.createConceptID(cName);
+            ConceptModuleDec cDec =
+                    (ConceptModuleDec) myInstanceEnvironment.getModuleDec(cid);
+
+            // the wrappers are formed just as in an enhancement body
+            Binding oldConcBinding = concBinding;
+            PosSymbol oldConceptPosSym = curConceptPosSym;
+            curConceptPosSym = cName;
+
+            StringBuilder classBuf = new StringBuilder();
+            StringBuilder fieldBuf = new StringBuilder();
+            StringBuilder consBuf = new StringBuilder();
+            StringBuilder wrappersBuf = new StringBuilder();
+
+            classBuf.append("\n\tprivate static class ");
+            classBuf.append(className);
+            classBuf.append(" implements ");
+            classBuf.append(cName.toString());
+
+            consBuf.append("\tpublic ");
+            consBuf.append(className);
+            consBuf.append("(");
+
+            EnhancementBodyItem ebItem;
+            String bodyName, fieldName = null, wrappedName;
+            int enhNum = 0;
+            ebItemIt = ebItemList.iterator();
+            while (ebItemIt.hasNext()) {
+                ebItem = ebItemIt.next();
+                enhNum++;
+                bodyName = ebItem.getBodyName().toString();
+                wrappedName = fieldName;
+                fieldName = "enh" + enhNum;
+
+                classBuf.append(", ");
+                classBuf.append(ebItem.getName().toString());
+
+                fieldBuf.append("\tprivate final ");
+                fieldBuf.append(bodyName);
+                fieldBuf.append(" ");
+                fieldBuf.append(fieldName);
+                fieldBuf.append(";\n");
+
+                if (wrappedName == null) {
+                    consBuf.append(bodyName);
+                    consBuf.append(" ");
+                    consBuf.append(fieldName);
+                    consBuf.append(") {\n");
+                    consBuf.append("\t\tthis.");
+                    consBuf.append(fieldName);
+                    consBuf.append(" = ");
+                    consBuf.append(fieldName);
+                    consBuf.append(";\n");
                 }
                 else {
-                    pBuf.append("\t\telse if (\"");
+                    consBuf.append("\t\t");
+                    consBuf.append(fieldName);
+                    consBuf.append(" = (");
+                    consBuf.append(bodyName);
+                    consBuf.append(") ");
+                    consBuf.append(wrappedName);
+                    consBuf.append(".getWrapped();\n");
+                }
+
+                ModuleID eid =
+                        ModuleID.createEnhancementID(ebItem.getName(), cName);
+                EnhancementModuleDec eDec =
+                        (EnhancementModuleDec) myInstanceEnvironment
+                                .getModuleDec(eid);
+                concBinding =
+                        myInstanceEnvironment.getModuleScope(eid).getBinding();
+                Iterator<Dec> decIt = eDec.getDecs().iterator();
+                Dec eOpDec;
+                while (decIt.hasNext()) {
+                    eOpDec = decIt.next();
+                    if (eOpDec instanceof OperationDec) {
+                        wrappersBuf.append(formOperWrapper(
+                                (OperationDec) eOpDec, fieldName));
+                        wrappersBuf.append("\n");
+                    }
                 }
-                pBuf.append(((ProcedureDec) dec).getName());
-                pBuf.append("\".equals(method.getName())) {\n");
-                pBuf.append("\t\t\treturn method.invoke(this, args);\n");
-                pBuf.append("\t\t}\n");
             }
-        }
 
-        if (!isFirst) { // if no procedures don't write else clause
-            pBuf.append("\t\telse {\n");
-            pBuf.append("\t\t\treturn method.invoke(con, args);\n");
-            pBuf.append("\t\t}\n");
-        }
+            classBuf.append(" {\n");
 
-        pBuf.append("\t}\n");
+            fieldBuf.append("\tprivate final ");
+            fieldBuf.append(cName.toString());
+            fieldBuf.append(" con;\n\n");
 
-        pBuf.append("\n\tpublic static ");
-        pBuf.append(ebDec.getConceptName().toString());
-        pBuf.append(" createProxy(");
+            consBuf.append("\t\tcon = ");
+            consBuf.append(fieldName);
+            consBuf.append(".getWrapped();\n");
+            consBuf.append("\t}\n\n");
 
-        pBuf.append(visitModuleParameterList(cDec.getParameters(), ",", ","));
-        if (!ebDec.getParameters().isEmpty()) {
-            pBuf.append(visitModuleParameterList(ebDec.getParameters(), ",",
-                    ","));
-        }
-        ;
-        pBuf.append(" ");
-        // following code factored out and removed
+            concBinding =
+                    myInstanceEnvironment.getModuleScope(cid).getBinding();
+            wrappersBuf.append(formConceptProcWrappers(cDec));
+            wrappersBuf.append(formConceptTypesWrappers(cDec));
 
-        pBuf.append(ebDec.getConceptName().toString());
-        pBuf.append(" toWrap) {\n");
-        pBuf.append("\t\t");
-        pBuf.append(ebDec.getName().toString());
-        pBuf.append(" eObj = new ");
-        pBuf.append(ebDec.getName().toString());
-        pBuf.append("(");
-
-        // added this loop to print out parameters for the concept that corresponds to the enhancement
-        Iterator<ModuleParameter> cpIt = cDec.getParameters().iterator();
-        ModuleParameter modParm;
-        while (cpIt.hasNext()) {
-            modParm = cpIt.next();
-            pBuf.append(((Dec) modParm).getName().toString());
-            pBuf.append(", ");
-        }
-
-        Iterator<ModuleParameter> bpIt = ebDec.getParameters().iterator();
-        while (bpIt.hasNext()) {
-            modParm = bpIt.next();
-            if (modParm instanceof OperationDec) {
-                OperationDec opDec = (OperationDec) modParm;
-                pBuf.append(opDec.getName().toString());
-                pBuf.append("Parm, ");
-            }
-            else {
-                System.out.println("Error expecting OperationDec found: "
-                        + modParm.asString(1, 1));
-            }
-        }
+            concBinding = oldConcBinding;
+            curConceptPosSym = oldConceptPosSym;
 
-        pBuf.append("toWrap);\n");
-        pBuf
-                .append("\t\tClass[] toWrapInterfaces = toWrap.getClass().getInterfaces();\n");
-        pBuf
-                .append("\t\tClass[] thisInterfaces = new Class[toWrapInterfaces.length+1];\n");
-        pBuf
-                .append("\t\tClass[] tmpInterfaces = eObj.getClass().getInterfaces();\n");
-        pBuf.append("\t\tthisInterfaces[0] = tmpInterfaces[0];\n");
-        pBuf
-                .append("\t\tSystem.arraycopy(toWrapInterfaces, 0, thisInterfaces, 1, toWrapInterfaces.length);\n");
-        pBuf.append("\t\treturn (");
-        pBuf.append(ebDec.getConceptName().toString());
-        pBuf.append(")(Proxy.newProxyInstance(");
-        pBuf.append(ebDec.getConceptName().toString());
-        pBuf.append(".class.getClassLoader(),thisInterfaces, eObj));\n");
-        pBuf.append("\t}\n");
+            enhancedFacilityBuf.append(classBuf);
+            enhancedFacilityBuf.append(fieldBuf);
+            enhancedFacilityBuf.append(consBuf);
+            enhancedFacilityBuf.append(wrappersBuf);
+            enhancedFacilityBuf.append("\t}\n");
+        }
 
-        return pBuf.toString();
+        return className;
     }
 
     private String formCommunalVarDecs(List<Dec> decs) {
         Iterator<Dec> i = decs.iterator();
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         while (i.hasNext()) {
             Dec dec = i.next();
@@ -3581,7 +4189,7 @@ public class Translator extends ResolveConceptualVisitor {
 
     private String formCommunalVarInits(List<Dec> decs) {
         Iterator<Dec> i = decs.iterator();
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         while (i.hasNext()) {
             Dec dec = i.next();
@@ -3632,7 +4240,7 @@ public class Translator extends ResolveConceptualVisitor {
     //changed this to output a public interface operation for only exported types
     private String visitCBTypeProcedures(List<Dec> decs) {
         Iterator<Dec> i = decs.iterator();
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         while (i.hasNext()) {
             Dec dec = i.next();
@@ -3645,7 +4253,7 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     private String visitTypeProc(RepresentationDec dec) {
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         thisBuf.append("\tpublic ");
         thisBuf.append(curConceptPosSym.toString());
@@ -3697,7 +4305,7 @@ public class Translator extends ResolveConceptualVisitor {
     //formJavaConstructorsParms operation is no longer used and has been removed.
 
     private String formJavaConstructorsAssign(List<ModuleParameter> parameters) {
-        StringBuffer caBuf = new StringBuffer();
+        StringBuilder caBuf = new StringBuilder();
         Iterator<ModuleParameter> parmIt = parameters.iterator();
 
         while (parmIt.hasNext()) {
@@ -3740,7 +4348,7 @@ public class Translator extends ResolveConceptualVisitor {
     //factored this our to reuse in enhancement body and concept body constructors
     //side effects and resets stmtBuf
     private String declNewFacilities(List<Dec> facDecList) {
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
         stmtBuf.setLength(0);
 
         Dec facDec;
@@ -3752,7 +4360,7 @@ public class Translator extends ResolveConceptualVisitor {
                 declNewFacility((FacilityDec) facDec);
             }
         }
-        thisBuf.append(stmtBuf.toString());
+        thisBuf.append(stmtBuf);
         stmtBuf.setLength(0); //this is new addition; does it hose up anything?
         return thisBuf.toString();
     }
@@ -3764,7 +4372,7 @@ public class Translator extends ResolveConceptualVisitor {
             List<ModuleParameter> conceptParameters,
             List<ModuleParameter> cBodyParameters, List<Dec> decList) {
 
-        StringBuffer consBuf = new StringBuffer();
+        StringBuilder consBuf = new StringBuilder();
 
         consBuf.append("\tpublic ");
         consBuf.append(cbName);
@@ -3789,7 +4397,7 @@ public class Translator extends ResolveConceptualVisitor {
     private String formJavaConstructorBody(
             List<ModuleParameter> conceptParameters,
             List<ModuleParameter> cBodyParameters, List<Dec> decList) {
-        StringBuffer consBodyBuf = new StringBuffer();
+        StringBuilder consBodyBuf = new StringBuilder();
 
         consBodyBuf.append(formJavaConstructorsAssign(conceptParameters));
         consBodyBuf.append(formJavaConstructorsAssign(cBodyParameters));
@@ -3801,7 +4409,7 @@ public class Translator extends ResolveConceptualVisitor {
         //Though stmtBuf has been used all over the place, it'll be nice to get rid of these globals.
         // More global problems; stmtBuf is appended to consInitBuf, another global, elsewhere.
 
-        consBodyBuf.append(consInitBuf.toString());
+        consBodyBuf.append(consInitBuf);
         consBodyBuf.append(declNewFacilities(decList));
         consBodyBuf.append(formCommunalVarInits(decList));
         return consBodyBuf.toString();
@@ -3819,7 +4427,7 @@ public class Translator extends ResolveConceptualVisitor {
     private String formJavaEnhancementConstructors(String enhancementName,
             String conceptName, List<ModuleParameter> conceptParameters,
             List<ModuleParameter> cBodyParameters, List<Dec> decList) {
-        StringBuffer consBuf = new StringBuffer();
+        StringBuilder consBuf = new StringBuilder();
         consBuf.append("\n");
 
         // the following statement made unnecessary due to its handling elsewhere
@@ -3850,7 +4458,7 @@ public class Translator extends ResolveConceptualVisitor {
     }
 
     private String formConceptProcWrappers(ConceptModuleDec cDec) {
-        StringBuffer wrappersBuf = new StringBuffer();
+        StringBuilder wrappersBuf = new StringBuilder();
         List<Dec> decs = cDec.getDecs();
         Iterator<Dec> i = decs.iterator();
         while (i.hasNext()) {
@@ -3865,7 +4473,7 @@ public class Translator extends ResolveConceptualVisitor {
 
     //factored this out for reuse in visitModuleParameterList and in constructor parameter generation
     private String ModuleParameterStr(Dec dec) {
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         if (dec instanceof ConceptTypeParamDec) {
             thisBuf.append(" RType ");
@@ -3903,7 +4511,7 @@ public class Translator extends ResolveConceptualVisitor {
     private String visitModuleParameterList(List<ModuleParameter> parameters,
             String separator, String lastSeparator) {
         Iterator<ModuleParameter> i = parameters.iterator();
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
         boolean isFirstParam = true;
         Dec dec;
 
@@ -3925,7 +4533,7 @@ public class Translator extends ResolveConceptualVisitor {
     // unfortunately this side effects paramOpBuf through a call to visitModuleParameterOpDec
     private String generateOPParamInterfaces(List<ModuleParameter> parameters) {
         Iterator<ModuleParameter> i = parameters.iterator();
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
         Dec dec;
 
         while (i.hasNext()) {
@@ -3973,7 +4581,7 @@ public class Translator extends ResolveConceptualVisitor {
         if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)
                 || myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
             //outputAsFile(targetFileName, getMainBuffer());
-            outputAsFile(outputFile.getAbsolutePath(), getMainBuffer());
+            outputAsFile(outputFile.getAbsolutePath());
         }
         else {
             outputToReport(getMainBuffer());
@@ -3981,18 +4589,20 @@ public class Translator extends ResolveConceptualVisitor {
         //outputAsFile(getMainFileName(), getMainBuffer());
     }
 
-    private void outputAsFile(String fileName, String fileContents) {
+    // streams the sections of the generated class straight to the file
+    private void outputAsFile(String fileName) {
         String[] temp = fileName.split("\\.");
         fileName = temp[0] + ".java";
-        if (fileContents != null && fileContents.length() > 0) {
+        if (myEmitter.length() > 0) {
             try {
                 File outputJavaFile = new File(fileName);
                 if (!outputJavaFile.exists()) {
                     outputJavaFile.createNewFile();
                 }
-                byte buf[] = fileContents.getBytes();
-                OutputStream outFile = new FileOutputStream(outputJavaFile);
-                outFile.write(buf);
+                Writer outFile =
+                        new BufferedWriter(new FileWriter(outputJavaFile));
+                outFile.write(buildHeaderComment());
+                myEmitter.writeTo(outFile);
                 outFile.close();
                 //System.out.println(fileContents);
                 //System.out.println("Writing file: "+fileName);
@@ -4244,7 +4854,7 @@ public class Translator extends ResolveConceptualVisitor {
     private String formGetModuleParm(List<ModuleParameter> parms) {
         Iterator<ModuleParameter> mpIt = parms.iterator();
         ModuleParameter mp = null;
-        StringBuffer thisBuf = new StringBuffer();
+        StringBuilder thisBuf = new StringBuilder();
 
         while (mpIt.hasNext()) {
             mp = mpIt.next();
@@ -4405,5 +5015,6 @@ public class Translator extends ResolveConceptualVisitor {
 
     public static final void setUpFlags() {
         FlagDependencies.addRequires(FLAG_TRANSLATE_CLEAN, FLAG_TRANSLATE);
+        FlagDependencies.addRequires(FLAG_TRANSLATE_FAST, FLAG_TRANSLATE);
     }
 }
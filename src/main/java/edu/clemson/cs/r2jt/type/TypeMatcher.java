@@ -58,6 +58,10 @@
 
 package edu.clemson.cs.r2jt.type;
 
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import edu.clemson.cs.r2jt.collections.Iterator;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.collections.Map;
@@ -73,6 +77,31 @@ public class TypeMatcher {
 
     private Map<Symbol, Type> typeMap = null;
 
+    /* The results of mathMatches() for pairs of types that contain no math
+     * formal types.  Matching such types neither reads nor updates the
+     * typeMap, so their results are shared by every TypeMatcher.
+     *
+     * Each such type is given a MatchKey, one for each canonical form (see
+     * appendMatchKey()), and the result of matching two types is cached on
+     * the key of the first under the key of the second.  The key of each
+     * Type object is remembered, so matching types seen before needs no
+     * canonical form to be built, nor even the math types to be found.  A
+     * type with no canonical form is given no key, and is looked at afresh
+     * each time, since it may yet gain one as its bindings are filled in.
+     *
+     * Everything is simply forgotten once more than MATCH_CACHE_LIMIT
+     * results have been cached.
+     */
+    private static final int MATCH_CACHE_LIMIT = 10000;
+
+    private static final WeakHashMap<Type, MatchKey> typeKeys =
+            new WeakHashMap<Type, MatchKey>();
+
+    private static final ConcurrentHashMap<String, MatchKey> canonicalKeys =
+            new ConcurrentHashMap<String, MatchKey>();
+
+    private static final AtomicInteger matchCacheSize = new AtomicInteger();
+
     // ===========================================================
     // Constructors
     // ===========================================================
@@ -109,8 +138,52 @@ public class TypeMatcher {
         if (t1 == null || t2 == null)
             return false;
 
-        Type type1 = t1.toMath();
-        Type type2 = t2.toMath();
+        Boolean result;
+        MatchKey key1 = getMatchKey(t1);
+        MatchKey key2 = null;
+        if (key1 != null) {
+            key2 = getMatchKey(t2);
+        }
+        if (key2 == null) {
+            result = mathTypesMatch(t1.toMath(), t2.toMath());
+        }
+        else {
+            result = key1.matches.get(key2);
+            if (result == null) {
+                result = mathTypesMatch(t1.toMath(), t2.toMath());
+                if (matchCacheSize.incrementAndGet() > MATCH_CACHE_LIMIT) {
+                    clearMatchCache();
+                }
+                key1.matches.put(key2, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>Returns a canonical form of the math type of <code>t</code>, such
+     * that types with the same canonical form are matched alike by 
+     * {@link #mathMatches(Type, Type) mathMatches()}, irrespective of the
+     * state of any <code>TypeMatcher</code>.  Returns <code>null</code> if
+     * <code>t</code> has no such form, as when it contains a math formal
+     * type.</p>
+     */
+    public static String getCanonicalForm(Type t) {
+        if (t == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        if (appendMatchKey(sb, t.toMath())) {
+            return sb.toString();
+        }
+        return null;
+    }
+
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    private boolean mathTypesMatch(Type type1, Type type2) {
         //if(type1 == null || type2 == null) return false;
         if (type2 instanceof MathFormalType) {
             return matchesToMathFormalType(type1, (MathFormalType) type2);
@@ -145,6 +218,135 @@ public class TypeMatcher {
         }
     }
 
+    /*
+     * Returns the key shared by every type with the same canonical form as
+     * t, or null if t has none, in which case results of matching it may not
+     * be cached.
+     */
+    private static MatchKey getMatchKey(Type t) {
+        MatchKey key;
+        synchronized (typeKeys) {
+            key = typeKeys.get(t);
+        }
+        if (key == null) {
+            String form = getCanonicalForm(t);
+            if (form != null) {
+                key = canonicalKeys.get(form);
+                if (key == null) {
+                    MatchKey newKey = new MatchKey();
+                    key = canonicalKeys.putIfAbsent(form, newKey);
+                    if (key == null) {
+                        key = newKey;
+                    }
+                }
+                synchronized (typeKeys) {
+                    typeKeys.put(t, key);
+                }
+            }
+        }
+        return key;
+    }
+
+    private static void clearMatchCache() {
+        synchronized (typeKeys) {
+            typeKeys.clear();
+        }
+        canonicalKeys.clear();
+        matchCacheSize.set(0);
+    }
+
+    /*
+     * Appends to sb a rendering of the math type that distinguishes it from
+     * every type that might match differently, returning false if the type
+     * contains a math formal type, whose matching depends on the typeMap, or
+     * any other type whose matching is not determined by such a rendering.
+     */
+    private static boolean appendMatchKey(StringBuilder sb, Type type) {
+        if (type instanceof PrimitiveType) {
+            PrimitiveType ptype = (PrimitiveType) type;
+            sb.append("P:");
+            if (!appendModuleID(sb, ptype.getModuleID())) {
+                return false;
+            }
+            sb.append(".").append(ptype.getSymbol().toString());
+            sb.append("/").append(ptype.paramCount());
+            return true;
+        }
+        else if (type instanceof FormalType) {
+            FormalType ftype = (FormalType) type;
+            sb.append("F:");
+            if (!appendModuleID(sb, ftype.getModuleID())) {
+                return false;
+            }
+            sb.append(".").append(ftype.getSymbol().toString());
+            return true;
+        }
+        else if (type instanceof BooleanType) {
+            sb.append("B");
+            return true;
+        }
+        else if (type instanceof ConstructedType) {
+            ConstructedType ctype = (ConstructedType) type;
+            if (ctype.getQualifier() == null) {
+                return false;
+            }
+            sb.append("C:").append(ctype.getQualifier().getSymbol().toString());
+            sb.append(".").append(ctype.getName().getSymbol().toString());
+            sb.append("(");
+            Iterator<Type> i = ctype.getArgs().iterator();
+            while (i.hasNext()) {
+                Type arg = i.next();
+                if (arg == null || !appendMatchKey(sb, arg.toMath())) {
+                    return false;
+                }
+                sb.append(",");
+            }
+            sb.append(")");
+            return true;
+        }
+        else if (type instanceof TupleType) {
+            sb.append("T(");
+            Iterator<FieldItem> i = ((TupleType) type).getFields().iterator();
+            while (i.hasNext()) {
+                Type field = i.next().getType();
+                if (field == null || !appendMatchKey(sb, field.toMath())) {
+                    return false;
+                }
+                sb.append(",");
+            }
+            sb.append(")");
+            return true;
+        }
+        else if (type instanceof FunctionType) {
+            FunctionType ftype = (FunctionType) type;
+            if (ftype.getDomain() == null || ftype.getRange() == null) {
+                return false;
+            }
+            sb.append("(");
+            if (!appendMatchKey(sb, ftype.getDomain().toMath())) {
+                return false;
+            }
+            sb.append(" -> ");
+            if (!appendMatchKey(sb, ftype.getRange().toMath())) {
+                return false;
+            }
+            sb.append(")");
+            return true;
+        }
+        else {
+            return false;
+        }
+    }
+
+    private static boolean appendModuleID(StringBuilder sb, ModuleID id) {
+        if (id == null) {
+            return false;
+        }
+        sb.append(id.getModuleKind().toString()).append(":");
+        sb.append(id.toString());
+        return true;
+    }
+
     // Should this be made more robust? (10/3/06)
     private boolean matchesToMathFormalType(Type t1, MathFormalType t2) {
         if (t1 instanceof MathFormalType) {
@@ -273,4 +475,15 @@ public class TypeMatcher {
         }
     }
 
+    /*
+     * Stands for every math type with a given canonical form.  Keys are
+     * compared by identity, there being exactly one for each form.
+     */
+    private static class MatchKey {
+
+        /* The results of matching types with this key to types with each
+         * other key. */
+        final ConcurrentHashMap<MatchKey, Boolean> matches =
+                new ConcurrentHashMap<MatchKey, Boolean>();
+    }
 }
@@ -0,0 +1,98 @@
+package edu.clemson.cs.r2jt.verification;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * <p>A <code>VCOutputSink</code> that writes its text through a buffer into a
+ * file, as used for <code>.asrt</code> and <code>.thy</code> output.  The file
+ * is not created until the first text is appended.</p>
+ * 
+ * <p>If an I/O error occurs, it is reported once on standard error and any
+ * further text is discarded.</p>
+ */
+public class FileVCOutputSink extends VCOutputSink {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String myFileName;
+
+    /**
+     * <p>The open file, or <code>null</code> if it has not yet been opened,
+     * has been closed, or could not be written.</p>
+     */
+    private Writer myWriter;
+
+    private boolean myFailedFlag = false;
+
+    public FileVCOutputSink(String fileName) {
+        myFileName = fileName;
+    }
+
+    @Override
+    public void append(String s) {
+        if (!myFailedFlag) {
+            try {
+                if (myWriter == null) {
+                    myWriter =
+                            new BufferedWriter(new OutputStreamWriter(
+                                    new FileOutputStream(myFileName)),
+                                    BUFFER_SIZE);
+                }
+
+                myWriter.write(s);
+            }
+            catch (IOException e) {
+                fail();
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (myWriter != null) {
+            try {
+                myWriter.flush();
+            }
+            catch (IOException e) {
+                fail();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (myWriter != null) {
+            try {
+                myWriter.close();
+            }
+            catch (IOException e) {
+                fail();
+            }
+
+            myWriter = null;
+        }
+
+        myFailedFlag = true;
+    }
+
+    private void fail() {
+        if (!myFailedFlag) {
+            System.err.println("File I/O error when writing: " + myFileName);
+        }
+
+        myFailedFlag = true;
+
+        if (myWriter != null) {
+            try {
+                myWriter.close();
+            }
+            catch (IOException e) {}
+
+            myWriter = null;
+        }
+    }
+}
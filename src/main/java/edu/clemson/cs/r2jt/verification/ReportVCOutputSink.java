@@ -0,0 +1,77 @@
+package edu.clemson.cs.r2jt.verification;
+
+import edu.clemson.cs.r2jt.compilereport.CompileReport;
+
+/**
+ * <p>A <code>VCOutputSink</code> that streams web-formatted VCs into the
+ * output of a <code>CompileReport</code> as a JSON list wrapped in a
+ * <code>&lt;vcFile&gt;</code> element.</p>
+ * 
+ * <p>In web mode each VC arrives as a JSON object followed by a separator, so
+ * the separator after the final VC must not appear in the list.  Since we
+ * can't know which VC is last until the sink is closed, the last 
+ * <code>TRAILER_LENGTH</code> characters appended are always held back and
+ * are only passed on once more text arrives.</p>
+ */
+public class ReportVCOutputSink extends VCOutputSink {
+
+    private static final String PREFIX = "<vcFile>{\"vcs\":[";
+    private static final String SUFFIX = "]}</vcFile>";
+
+    /**
+     * <p>The length of the separator following the final VC, which is 
+     * dropped.</p>
+     */
+    private static final int TRAILER_LENGTH = 3;
+
+    private final CompileReport myReport;
+
+    /**
+     * <p>Text that has been appended but not yet passed to the report.</p>
+     * 
+     * <p>INVARIANT: <code>myHeldBack.length() &lt;= TRAILER_LENGTH</code></p>
+     */
+    private final StringBuilder myHeldBack = new StringBuilder();
+
+    private boolean myStartedFlag = false;
+    private boolean myClosedFlag = false;
+
+    public ReportVCOutputSink(CompileReport report) {
+        myReport = report;
+    }
+
+    @Override
+    public void append(String s) {
+        if (!myClosedFlag && s.length() > 0) {
+            if (!myStartedFlag) {
+                myReport.setOutput(PREFIX);
+                myStartedFlag = true;
+            }
+
+            int passOn = myHeldBack.length() + s.length() - TRAILER_LENGTH;
+
+            if (passOn > 0) {
+                int fromHeldBack = Math.min(passOn, myHeldBack.length());
+                myReport.appendOutput(myHeldBack, 0, fromHeldBack);
+                myHeldBack.delete(0, fromHeldBack);
+
+                int fromS = passOn - fromHeldBack;
+                myReport.appendOutput(s, 0, fromS);
+                myHeldBack.append(s, fromS, s.length());
+            }
+            else {
+                myHeldBack.append(s);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!myClosedFlag && myStartedFlag) {
+            myReport.appendOutput(SUFFIX, 0, SUFFIX.length());
+            myReport.setVcSuccess();
+        }
+
+        myClosedFlag = true;
+    }
+}
@@ -0,0 +1,42 @@
+package edu.clemson.cs.r2jt.verification;
+
+/**
+ * <p>A <code>VCOutputSink</code> receives the text generated by the
+ * <code>Verifier</code> as it is produced, so that the output for a module
+ * never has to be held in memory all at once.</p>
+ * 
+ * <p>Text may be appended until the sink is closed.  What happens to the text
+ * and when it becomes visible is up to the concrete sink.</p>
+ */
+public abstract class VCOutputSink {
+
+    /**
+     * <p>A sink that discards everything appended to it.  Used for whichever
+     * of the <code>Verifier</code>'s outputs the current flags do not ask
+     * for.</p>
+     */
+    public static final VCOutputSink DISCARD = new VCOutputSink() {
+
+        @Override
+        public void append(String s) {}
+    };
+
+    /**
+     * <p>Adds the given text to the end of this sink.</p>
+     * 
+     * @param s The text to add.  May not be <code>null</code>.
+     */
+    public abstract void append(String s);
+
+    /**
+     * <p>Pushes any text buffered inside this sink on to its destination.  By
+     * default, does nothing.</p>
+     */
+    public void flush() {}
+
+    /**
+     * <p>Finishes this sink, releasing any resources it holds.  Nothing may be
+     * appended afterward.  By default, does nothing.</p>
+     */
+    public void close() {}
+}
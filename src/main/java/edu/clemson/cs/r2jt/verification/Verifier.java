@@ -74,7 +74,6 @@ import edu.clemson.cs.r2jt.utilities.FlagDependencies;
 import edu.clemson.cs.r2jt.location.*;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.collections.Iterator;
-import edu.clemson.cs.r2jt.compilereport.CompileReport;
 import edu.clemson.cs.r2jt.data.*; // import edu.clemson.cs.r2jt.errors.*;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.analysis.TypeResolutionException;
@@ -108,11 +107,11 @@ public class Verifier extends ResolveConceptualVisitor {
 
     private boolean isInInterface = false;
 
-    // This buffer holds the verbose data
-    private StringBuffer VCBuffer;
+    // This sink receives the verbose data
+    private VCOutputSink VCBuffer;
 
-    // This buffer holds just the VCs
-    private StringBuffer assrtBuf = new StringBuffer();
+    // This sink receives just the VCs
+    private VCOutputSink assrtBuf;
 
     private static final String FLAG_SECTION_NAME = "GenerateVCs";
 
@@ -236,7 +235,7 @@ public class Verifier extends ResolveConceptualVisitor {
         	System.err.println("Something went wrong when creating output file");
         }*/
 
-        VCBuffer = new StringBuffer(buildHeaderComment());
+        openOutputSinks();
 
         //Reset some static variables in AssertiveCode, in case the compiler
         //has not been re-instantiated since the last Verification attempt.
@@ -1730,19 +1729,6 @@ public class Verifier extends ResolveConceptualVisitor {
             return null;
     }
 
-    /*
-     * Clear buffers
-     */
-    public void clearMainBuffer() {
-        if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE_VC)) {
-            //env.flags.isFlagSet(FLAG_FINALVERB_VC) || env.flags.isFlagSet(FLAG_VERIFY_VC)){
-            VCBuffer = new StringBuffer();
-        }
-        else {
-            assrtBuf = new StringBuffer();
-        }
-    }
-
     private boolean compareArguments(List<ProgramExp> arguments,
             List<ParameterVarDec> params) {
         if (arguments == null) {
@@ -4654,28 +4640,6 @@ public class Verifier extends ResolveConceptualVisitor {
         return loc;
     }
 
-    // Return output String based on flags
-    public String getMainBuffer() {
-        if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE_VC)) {
-            //	env.flags.isFlagSet(FLAG_FINALVERB_VC) || env.flags.isFlagSet(FLAG_VERIFY_VC)){
-            return VCBuffer.toString();
-        }
-        else {
-            if (!myInstanceEnvironment.flags
-                    .isFlagSet(ResolveCompiler.FLAG_XML_OUT)) {
-                return buildHeaderComment() + assrtBuf.toString()
-                        + buildFooterComment();
-            }
-            else {
-                return assrtBuf.toString();
-                //return ResolveCompiler.webEncode(buildHeaderComment()) +
-                //assrtBuf.toString() +
-                //ResolveCompiler.webEncode(buildFooterComment());
-            }
-
-        }
-    }
-
     private String getMainFile() {
         File file = myInstanceEnvironment.getTargetFile();
         ModuleID cid = myInstanceEnvironment.getModuleID(file);
@@ -6035,44 +5999,53 @@ public class Verifier extends ResolveConceptualVisitor {
         return oldVar;
     }
 
-    private void outputAsFile(String fileName, String fileContents) {
-        try {
-            FileWriter outFile = new FileWriter(getMainFileName());
-            outFile.write("");
-            outFile.append(fileContents);
-            outFile.flush();
-
+    /**
+     * <p>Chooses where the verbose and the plain VC output go based on the
+     * flags, and writes the header.  Whichever of the two the flags do not ask
+     * for is discarded as it is produced.</p>
+     */
+    private void openOutputSinks() {
+        VCOutputSink out;
+        if (myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_XML_OUT)) {
+            out =
+                    new ReportVCOutputSink(myInstanceEnvironment
+                            .getCompileReport());
         }
-        catch (IOException ex) {
-            System.err.println("File I/O error when writing: " + fileName);
+        else {
+            out = new FileVCOutputSink(getMainFileName());
         }
 
-    }
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE_VC)) {
+            VCBuffer = out;
+            assrtBuf = VCOutputSink.DISCARD;
 
-    public void outputAsrt() {
-        Boolean WebOut =
-                myInstanceEnvironment.flags
-                        .isFlagSet(ResolveCompiler.FLAG_XML_OUT);
-        String fileContents = getMainBuffer();
-        String fileName = getMainFileName();
-        if (fileContents != null && fileContents.length() > 0) {
-            if (WebOut) {
-                outputToReport(fileContents);
-            }
-            else {
-                outputAsFile(fileName, fileContents);
+            VCBuffer.append(buildHeaderComment());
+        }
+        else {
+            VCBuffer = VCOutputSink.DISCARD;
+            assrtBuf = out;
+
+            if (!myInstanceEnvironment.flags
+                    .isFlagSet(ResolveCompiler.FLAG_XML_OUT)) {
+                assrtBuf.append(buildHeaderComment());
             }
         }
     }
 
-    private void outputToReport(String fileContents) {
-        CompileReport report = myInstanceEnvironment.getCompileReport();
-        StringBuffer outBuffer = new StringBuffer();
-        outBuffer.append("<vcFile>{\"vcs\":[");
-        outBuffer.append(fileContents.substring(0, fileContents.length() - 3));
-        outBuffer.append("]}</vcFile>");
-        report.setVcSuccess();
-        report.setOutput(outBuffer.toString());
+    /**
+     * <p>Finishes the VC output.  Everything generated so far has already been
+     * passed on to the output file or the compile report as it was produced;
+     * this writes the footer and closes the output.</p>
+     */
+    public void outputAsrt() {
+        if (!myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE_VC)
+                && !myInstanceEnvironment.flags
+                        .isFlagSet(ResolveCompiler.FLAG_XML_OUT)) {
+            assrtBuf.append(buildFooterComment());
+        }
+
+        VCBuffer.close();
+        assrtBuf.close();
     }
 
     private Statement processIterateExitStmt(IterateStmt stmt,
@@ -7058,8 +7031,8 @@ public class Verifier extends ResolveConceptualVisitor {
                 assertion);
         if (!(myInstanceEnvironment.flags.isFlagSet(FLAG_FINALVERB_VC) || myInstanceEnvironment.flags
                 .isFlagSet(Verifier.FLAG_VERIFY_VC))) {
-            outputAsrt();
-            clearMainBuffer();
+            VCBuffer.flush();
+            assrtBuf.flush();
         }
     }
 
@@ -469,4 +469,55 @@ public class TestMathSymbolTable {
         //There is now a module "y" that imports module "x"
         b.seal();
     }
+
+    @Test
+    public void testImportBehavior6()
+            throws DuplicateSymbolException,
+                NoSuchSymbolException,
+                NoSuchModuleException {
+        MathSymbolTableBuilder b = new MathSymbolTableBuilder();
+        MathModuleDec m = new MathModuleDec(myPosSymbol1, null, null, null);
+        ScopeBuilder s = b.startModuleScope(m);
+        s.addBinding("E", myConceptualElement1, myType1);
+        b.endScope();
+        //There is now a module "x" with a single "E" (at the top level)
+        m = new MathModuleDec(myPosSymbol2, null, null, null);
+        b.startModuleScope(m);
+        b.addModuleImport(new ModuleIdentifier(myPosSymbol1.getName()));
+        b.endScope();
+        //There is now a module "y" that imports "x"
+        m = new MathModuleDec(myPosSymbol3, null, null, null);
+        b.startModuleScope(m);
+        b.addModuleImport(new ModuleIdentifier(myPosSymbol1.getName()));
+        b.endScope();
+        //There is now a module "z" that imports "x"
+        m = new MathModuleDec(myPosSymbol4, null, null, null);
+        b.startModuleScope(m);
+        b.addModuleImport(new ModuleIdentifier(myPosSymbol2.getName()));
+        b.addModuleImport(new ModuleIdentifier(myPosSymbol3.getName()));
+        b.endScope();
+
+        //There is now a module "w" that imports "y" and "z", both of which
+        //import "x".  "x" should only be searched once.
+        MathSymbolTable t = b.seal();
+        ModuleScope ss =
+                t.getModuleScope(new ModuleIdentifier(myPosSymbol4.getName()));
+
+        assertEquals(3, ss.getTransitiveImports().size());
+
+        MathSymbolTableEntry e =
+                ss.getInnermostBinding("E",
+                        MathSymbolTable.ImportStrategy.IMPORT_RECURSIVE);
+        assertEquals(e.getDefiningElement(), myConceptualElement1);
+
+        List<MathSymbolTableEntry> bindings =
+                ss.getAllBindings("E",
+                        MathSymbolTable.ImportStrategy.IMPORT_RECURSIVE);
+        assertEquals(1, bindings.size());
+
+        bindings =
+                ss.getAllBindings("E",
+                        MathSymbolTable.ImportStrategy.IMPORT_NAMED);
+        assertEquals(0, bindings.size());
+    }
 }
@@ -0,0 +1,48 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>Suggests a fixed list of rules, in order, for proofs shorter than a given
+ * length, and counts how often it is asked.</p>
+ */
+class FixedChooser implements TransformationChooser {
+
+    private final List<VCTransformer> myRules;
+    private final int myMaxLength;
+
+    public int mySuggestionCount;
+
+    public FixedChooser(VCTransformer... rules) {
+        this(Integer.MAX_VALUE, rules);
+    }
+
+    public FixedChooser(int maxLength, VCTransformer... rules) {
+        myRules = Arrays.asList(rules);
+        myMaxLength = maxLength;
+    }
+
+    @Override
+    public void preoptimizeForVC(VC vc) {
+
+    }
+
+    @Override
+    public Iterator<ProofPathSuggestion> suggestTransformations(VC vc,
+            int curLength, Metrics metrics, ProofData d) {
+
+        mySuggestionCount++;
+
+        List<ProofPathSuggestion> retval = new ArrayList<ProofPathSuggestion>();
+        if (curLength < myMaxLength) {
+            for (VCTransformer rule : myRules) {
+                retval.add(new ProofPathSuggestion(rule, d));
+            }
+        }
+
+        return retval.iterator();
+    }
+}
@@ -0,0 +1,31 @@
+package edu.clemson.cs.r2jt.proving;
+
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.collections.List;
+
+/**
+ * <p>A <code>VerificationCondition</code> given directly in its immutable
+ * form.  The expressions in tests are untyped, and so could not be converted
+ * from the absyn.  Any absyn consequents it is given are seen only by what
+ * looks at the absyn, such as a <code>VCFingerprint</code>.</p>
+ */
+class ImmutableVerificationCondition extends VerificationCondition {
+
+    private final VC myVC;
+
+    public ImmutableVerificationCondition(VC vc) {
+        this(vc, new List<Exp>());
+    }
+
+    public ImmutableVerificationCondition(VC vc, List<Exp> consequents) {
+        super(new List<Exp>(), consequents, vc.getName());
+
+        myVC = vc;
+    }
+
+    @Override
+    public VC getImmutableVC(MathExpTypeResolver typer) {
+        return myVC;
+    }
+}
@@ -0,0 +1,59 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>A rule that rewrites one goal to another.</p>
+ */
+class Rewrite implements VCTransformer {
+
+    private final PExp myGoal;
+    private final PExp myReplacement;
+
+    public Rewrite(PExp goal, PExp replacement) {
+        myGoal = goal;
+        myReplacement = replacement;
+    }
+
+    @Override
+    public Iterator<VC> transform(VC original) {
+        List<VC> retval = new ArrayList<VC>();
+
+        Consequent consequent = original.getConsequent();
+        for (int i = 0; i < consequent.size(); i++) {
+            if (consequent.get(i).equals(myGoal)) {
+                List<PExp> rewritten = consequent.getMutableCopy();
+                rewritten.set(i, myReplacement);
+
+                retval.add(new VC(original.getName(), original.getAntecedent(),
+                        new Consequent(rewritten)));
+            }
+        }
+
+        return retval.iterator();
+    }
+
+    @Override
+    public Antecedent getPattern() {
+        return new Antecedent(myGoal);
+    }
+
+    @Override
+    public Consequent getReplacementTemplate() {
+        return new Consequent(myReplacement);
+    }
+
+    @Override
+    public boolean introducesQuantifiedVariables() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Rewrite " + myGoal + " to " + myReplacement;
+    }
+}
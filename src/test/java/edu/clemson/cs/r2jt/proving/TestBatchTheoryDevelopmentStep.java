@@ -0,0 +1,198 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol.Quantification;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+
+public class TestBatchTheoryDevelopmentStep {
+
+    private final MathExpTypeResolver myTyper =
+            new MathExpTypeResolver(null, null, newEnvironment());
+
+    private final PExp myX = variable("x");
+    private final PExp myY = variable("y");
+    private final PExp myZ = variable("z");
+
+    /**
+     * <p><code>Lt(x, y)</code> implies <code>Le(x, y)</code>.</p>
+     */
+    private final Antecedent myWeakenPattern = new Antecedent(lt(myX, myY));
+    private final Consequent myWeakenResult = new Consequent(le(myX, myY));
+
+    /**
+     * <p><code>Le(x, y)</code> and <code>Le(y, z)</code> imply
+     * <code>Le2(x, z)</code>.</p>
+     */
+    private final Antecedent myChainPattern =
+            new Antecedent(Arrays.asList(le(myX, myY), le(myY, myZ)));
+    private final Consequent myChainResult =
+            new Consequent(apply("Le2", myX, myZ));
+
+    /**
+     * <p><code>Le2(x, y)</code> and <code>Lt(y, z)</code> imply
+     * <code>Le3(x, z)</code>, joining a fact of the second round with facts
+     * given from the start.</p>
+     */
+    private final Antecedent myExtendPattern =
+            new Antecedent(Arrays.asList(apply("Le2", myX, myY), lt(myY, myZ)));
+    private final Consequent myExtendResult =
+            new Consequent(apply("Le3", myX, myZ));
+
+    @Test
+    public void testEachRoundBuildsOnTheLast() {
+        Antecedent given =
+                new Antecedent(Arrays.asList(lt(c("a"), c("b")), lt(c("b"),
+                        c("c")), lt(c("c"), c("d"))));
+
+        List<PExp> developed = develop(newStep(100), given);
+
+        assertConjuncts(developed, lt(c("a"), c("b")), lt(c("b"), c("c")), lt(
+                c("c"), c("d")), le(c("a"), c("b")), le(c("b"), c("c")), le(
+                c("c"), c("d")), apply("Le2", c("a"), c("c")), apply("Le2",
+                c("b"), c("d")), apply("Le3", c("a"), c("d")));
+    }
+
+    @Test
+    public void testRoundsAreLimited() {
+        Antecedent given =
+                new Antecedent(Arrays.asList(lt(c("a"), c("b")), lt(c("b"),
+                        c("c")), lt(c("c"), c("d"))));
+
+        assertConjuncts(develop(newStep(1), given), lt(c("a"), c("b")), lt(
+                c("b"), c("c")), lt(c("c"), c("d")), le(c("a"), c("b")), le(
+                c("b"), c("c")), le(c("c"), c("d")));
+
+        List<PExp> twoRounds = develop(newStep(2), given);
+        assertEquals(8, twoRounds.size());
+        assertFalse(twoRounds.contains(apply("Le3", c("a"), c("d"))));
+    }
+
+    @Test
+    public void testFactsAreAddedOnce() {
+        //The same theorem twice over yields each fact twice in one round
+        BatchTheoryDevelopmentStep step = newStep(100);
+        step.addImplicationTheorem(myWeakenPattern, myWeakenResult);
+
+        Antecedent given =
+                new Antecedent(Arrays.asList(lt(c("a"), c("b")), lt(c("b"),
+                        c("c"))));
+
+        assertConjuncts(develop(step, given), lt(c("a"), c("b")), lt(c("b"),
+                c("c")), le(c("a"), c("b")), le(c("b"), c("c")), apply("Le2",
+                c("a"), c("c")));
+    }
+
+    @Test
+    public void testOnlyNewNamesAreAdded() {
+        //Le(a, b) mentions nothing new once Le(b, c) is known
+        Antecedent given =
+                new Antecedent(Arrays.asList(lt(c("a"), c("b")), le(c("b"),
+                        c("a"))));
+
+        BatchTheoryDevelopmentStep step =
+                new BatchTheoryDevelopmentStep(Collections.<PExp> emptyList(),
+                        100);
+        step.addImplicationTheorem(myWeakenPattern, myWeakenResult);
+
+        assertConjuncts(develop(step, given), lt(c("a"), c("b")), le(c("b"),
+                c("a")));
+    }
+
+    @Test
+    public void testGlobalTheoremsCompleteBindings() {
+        BatchTheoryDevelopmentStep step =
+                new BatchTheoryDevelopmentStep(Arrays.asList(
+                        le(c("b"), c("c")), le(c("p"), c("q"))), 100);
+        step.addImplicationTheorem(myWeakenPattern, myWeakenResult);
+        step.addImplicationTheorem(myChainPattern, myChainResult);
+
+        Antecedent given = new Antecedent(lt(c("a"), c("b")));
+
+        //Le(p, q) and Le(b, c) are not bound alone, as neither is part of the
+        //antecedent
+        assertConjuncts(develop(step, given), lt(c("a"), c("b")), le(c("a"),
+                c("b")), apply("Le2", c("a"), c("c")));
+    }
+
+    private BatchTheoryDevelopmentStep newStep(int iterationCount) {
+        BatchTheoryDevelopmentStep retval =
+                new BatchTheoryDevelopmentStep(Collections.<PExp> emptyList(),
+                        iterationCount);
+
+        retval.addImplicationTheorem(myWeakenPattern, myWeakenResult);
+        retval.addImplicationTheorem(myChainPattern, myChainResult);
+        retval.addImplicationTheorem(myExtendPattern, myExtendResult);
+
+        return retval;
+    }
+
+    private List<PExp> develop(BatchTheoryDevelopmentStep step,
+            Antecedent antecedent) {
+
+        Iterator<VC> developed =
+                step.transform(new VC("test", antecedent, new Consequent(lt(
+                        c("a"), c("z")))));
+
+        return developed.next().getAntecedent().getMutableCopy();
+    }
+
+    /**
+     * <p>Asserts that <code>conjuncts</code> holds exactly the given
+     * conjuncts, each once, in any order.</p>
+     */
+    private static void assertConjuncts(List<PExp> conjuncts, PExp... expected) {
+
+        assertEquals(new HashSet<PExp>(Arrays.asList(expected)),
+                new HashSet<PExp>(conjuncts));
+        assertEquals(expected.length, conjuncts.size());
+    }
+
+    private PExp lt(PExp left, PExp right) {
+        return apply("Lt", left, right);
+    }
+
+    private PExp le(PExp left, PExp right) {
+        return apply("Le", left, right);
+    }
+
+    private PExp apply(String function, PExp... arguments) {
+        return new PSymbol(null, function, Arrays.asList(arguments), myTyper);
+    }
+
+    private PExp c(String name) {
+        return new PSymbol(null, name, myTyper);
+    }
+
+    private PExp variable(String name) {
+        return new PSymbol(null, name, Quantification.FOR_ALL, myTyper);
+    }
+
+    private static CompileEnvironment newEnvironment() {
+        Main.setUpFlagDependencies();
+
+        CompileEnvironment retval;
+        try {
+            retval = new CompileEnvironment(new String[0]);
+        }
+        catch (FlagDependencyException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        return retval;
+    }
+}
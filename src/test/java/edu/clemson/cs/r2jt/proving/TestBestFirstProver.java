@@ -0,0 +1,247 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+
+public class TestBestFirstProver {
+
+    private final CompileEnvironment myEnvironment = newEnvironment();
+
+    /**
+     * <p>All of the expressions here are untyped, and the resolver matches
+     * untyped expressions without consulting its symbol table, so it needs
+     * none.</p>
+     */
+    private final MathExpTypeResolver myTyper =
+            new MathExpTypeResolver(null, null, myEnvironment);
+
+    private final Iterable<PExp> myTheorems = Collections.<PExp> emptyList();
+
+    /**
+     * <p>Rates every step alike, so that VCs are ordered by their own merits.
+     * </p>
+     */
+    private final TransformerFitnessFunction myEvenFitness =
+            new TransformerFitnessFunction() {
+
+                @Override
+                public double calculateFitness(VCTransformer t, VC vc) {
+                    return 1;
+                }
+            };
+
+    /**
+     * <p>A long way round from <code>c = d</code> to <code>a = b</code>,
+     * through goals that mention nothing in the antecedent.</p>
+     */
+    private final VCTransformer myRewriteCDGH =
+            new Rewrite(equal("c", "d"), equal("g", "h"));
+    private final VCTransformer myRewriteGHIJ =
+            new Rewrite(equal("g", "h"), equal("i", "j"));
+    private final VCTransformer myRewriteIJAB =
+            new Rewrite(equal("i", "j"), equal("a", "b"));
+
+    /**
+     * <p>The short way round.</p>
+     */
+    private final VCTransformer myRewriteCDAB =
+            new Rewrite(equal("c", "d"), equal("a", "b"));
+
+    @Test
+    public void testExpandsTheMostPromisingVCFirst() throws Exception {
+        FixedChooser chooser =
+                new FixedChooser(myRewriteCDGH, myRewriteGHIJ, myRewriteIJAB,
+                        myRewriteCDAB);
+
+        VCProvedException proof =
+                prove(newProver(chooser, 100), vc("a", "b", "c", "d"));
+
+        //The goal a = b, which follows from the antecedent, is taken up
+        //before any VC on the long way round is expanded
+        assertEquals(Arrays.asList(myRewriteCDAB), rulesOf(proof));
+        assertEquals(1, chooser.mySuggestionCount);
+    }
+
+    @Test
+    public void testFindsTheOnlyProofWhenItIsTheLongWay() throws Exception {
+        FixedChooser chooser =
+                new FixedChooser(myRewriteCDGH, myRewriteGHIJ, myRewriteIJAB);
+
+        VCProvedException proof =
+                prove(newProver(chooser, 100), vc("a", "b", "c", "d"));
+
+        assertEquals(
+                Arrays.asList(myRewriteCDGH, myRewriteGHIJ, myRewriteIJAB),
+                rulesOf(proof));
+
+        ProofCertificate certificate =
+                ProofCertificate.fromProof("test", proof);
+        assertNotNull(certificate);
+        assertEquals(3, certificate.size());
+
+        try {
+            newProver(
+                    new FixedChooser(myRewriteCDGH, myRewriteGHIJ,
+                            myRewriteIJAB), 100).replay(vc("a", "b", "c", "d"),
+                    certificate);
+            fail("Replay failed.");
+        }
+        catch (VCProvedException e) {
+            assertEquals(3, rulesOf(e).size());
+        }
+    }
+
+    @Test
+    public void testEquivalentVCsAreExpandedOnce() throws Exception {
+        //Each goal can be rewritten to the other two ways, so without pruning
+        //the number of VCs would double with every step
+        VCTransformer rewriteCDEF =
+                new Rewrite(equal("c", "d"), equal("e", "f"));
+        VCTransformer rewriteEFCD =
+                new Rewrite(equal("e", "f"), equal("c", "d"));
+
+        FixedChooser chooser =
+                new FixedChooser(4, rewriteCDEF, rewriteCDEF, rewriteEFCD,
+                        rewriteEFCD);
+
+        assertUnprovable(newProver(chooser, 100), vc("x", "y", "c", "d"));
+
+        //One VC after each of zero through four steps
+        assertEquals(5, chooser.mySuggestionCount);
+    }
+
+    @Test
+    public void testSmallFrontierDropsTheWorstVCs() throws Exception {
+        FixedChooser chooser =
+                new FixedChooser(myRewriteCDGH, myRewriteGHIJ, myRewriteIJAB,
+                        myRewriteCDAB);
+
+        VCProvedException proof =
+                prove(newProver(chooser, 1), vc("a", "b", "c", "d"));
+
+        assertEquals(Arrays.asList(myRewriteCDAB), rulesOf(proof));
+
+        //Here only the long way round leads to a proof, but its first VC
+        //is no more promising than the dead end a = b, so with room for only
+        //one VC it is dropped
+        chooser = new FixedChooser(myRewriteCDAB, myRewriteCDGH, myRewriteGHIJ);
+        assertUnprovable(newProver(chooser, 1), vc("i", "j", "c", "d"));
+        assertEquals(2, chooser.mySuggestionCount);
+
+        chooser = new FixedChooser(myRewriteCDAB, myRewriteCDGH, myRewriteGHIJ);
+        proof = prove(newProver(chooser, 100), vc("i", "j", "c", "d"));
+        assertEquals(Arrays.asList(myRewriteCDGH, myRewriteGHIJ),
+                rulesOf(proof));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFrontierCapacityMustBePositive() {
+        newProver(new FixedChooser(), 0);
+    }
+
+    private BestFirstProver newProver(TransformationChooser chooser,
+            int frontierCapacity) {
+
+        return new BestFirstProver(myEnvironment, chooser, myTyper, myTheorems,
+                myEvenFitness, frontierCapacity);
+    }
+
+    private static VCProvedException prove(VCProver prover,
+            VerificationCondition vc) throws VCInconsistentException {
+
+        VCProvedException retval = null;
+
+        try {
+            prover.prove(vc, null, null, Long.MAX_VALUE);
+            fail("Proof not found.");
+        }
+        catch (UnableToProveException e) {
+            fail("Proof not found.");
+        }
+        catch (VCProvedException e) {
+            retval = e;
+        }
+
+        return retval;
+    }
+
+    private static void assertUnprovable(VCProver prover,
+            VerificationCondition vc) throws VCInconsistentException {
+
+        try {
+            prover.prove(vc, null, null, Long.MAX_VALUE);
+            fail("Search did not end.");
+        }
+        catch (UnableToProveException e) {
+            //Expected
+        }
+        catch (VCProvedException e) {
+            fail("Proved an unprovable VC.");
+        }
+    }
+
+    /**
+     * <p>Returns the rules applied by <code>proof</code>, in the order they
+     * were applied, leaving out congruence closure.</p>
+     */
+    private static List<VCTransformer> rulesOf(VCProvedException proof) {
+        List<VCTransformer> retval = new ArrayList<VCTransformer>();
+
+        for (Object step : proof.getSteps()) {
+            VCTransformer rule = ((AlternativeProofStep) step).getStep().step;
+
+            if (!(rule instanceof CongruenceClosureStep)) {
+                retval.add(rule);
+            }
+        }
+
+        return retval;
+    }
+
+    /**
+     * <p>Returns the VC <code>left1 = right1 implies left2 = right2</code>.
+     * </p>
+     */
+    private VerificationCondition vc(String left1, String right1, String left2,
+            String right2) {
+
+        return new ImmutableVerificationCondition(new VC("test",
+                new Antecedent(equal(left1, right1)), new Consequent(equal(
+                        left2, right2))));
+    }
+
+    private PExp equal(String left, String right) {
+        return new PSymbol(null, "=", Arrays.<PExp> asList(new PSymbol(null,
+                left, myTyper), new PSymbol(null, right, myTyper)),
+                PSymbol.DisplayType.INFIX, myTyper);
+    }
+
+    private static CompileEnvironment newEnvironment() {
+        Main.setUpFlagDependencies();
+
+        CompileEnvironment retval;
+        try {
+            retval = new CompileEnvironment(new String[0]);
+        }
+        catch (FlagDependencyException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        return retval;
+    }
+}
@@ -0,0 +1,224 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+
+public class TestCongruenceClosure {
+
+    private static final List<PExp> NONE = Collections.<PExp> emptyList();
+
+    /**
+     * <p>All of the expressions here are untyped, and the resolver matches
+     * untyped expressions without consulting its symbol table, so it needs
+     * none.</p>
+     */
+    private final MathExpTypeResolver myTyper =
+            new MathExpTypeResolver(null, null, newEnvironment());
+
+    private final PExp myA = constant("a");
+    private final PExp myB = constant("b");
+    private final PExp myC = constant("c");
+    private final PExp myD = constant("d");
+
+    @Test
+    public void testEqualityIsTransitive() {
+        CongruenceClosure closure =
+                build(list(equal(myA, myB), equal(myB, myC)), NONE);
+
+        assertTrue(closure.isProved(equal(myA, myC)));
+        assertTrue(closure.isProved(equal(myC, myA)));
+        assertFalse(closure.isProved(equal(myA, myD)));
+    }
+
+    @Test
+    public void testCongruenceOfTermsNeverAdded() {
+        CongruenceClosure closure = build(list(equal(myA, myB)), NONE);
+
+        assertTrue(closure.isProved(equal(apply("f", myA), apply("f", myB))));
+        assertTrue(closure.isProved(equal(apply("g", apply("f", myA), myA),
+                apply("g", apply("f", myB), myB))));
+    }
+
+    @Test
+    public void testCongruencePropagatesThroughMerges() {
+        //f(a) = d is asserted before a = b, so f(b) must be re-signed into the
+        //class of d when a and b merge
+        CongruenceClosure closure =
+                build(list(equal(apply("f", myA), myD), equal(myA, myB)),
+                        list(apply("f", myB)));
+
+        assertTrue(closure.isProved(equal(apply("f", myB), myD)));
+        assertTrue(closure.isProved(equal(apply("g", apply("f", myB)), apply(
+                "g", myD))));
+    }
+
+    @Test
+    public void testCongruenceCascades() {
+        //Merging a and b makes f(a) and f(b) congruent, which in turn makes
+        //g(f(a)) and g(f(b)) congruent
+        CongruenceClosure closure =
+                build(list(equal(apply("g", apply("f", myA)), myC), equal(myA,
+                        myB)), list(apply("g", apply("f", myB))));
+
+        assertTrue(closure.isProved(equal(apply("g", apply("f", myB)), myC)));
+    }
+
+    @Test
+    public void testPredicates() {
+        PExp p = apply("p", myA);
+        PExp q = apply("q", myA);
+
+        CongruenceClosure closure =
+                build(list(p, equal(myA, myB), apply("not", q)), NONE);
+
+        assertTrue(closure.isProved(apply("p", myB)));
+        assertTrue(closure.isProved(apply("not", apply("q", myB))));
+        assertFalse(closure.isProved(q));
+    }
+
+    @Test
+    public void testInconsistentFactsProveAnything() {
+        PExp p = apply("p", myA);
+
+        CongruenceClosure closure = build(list(p, apply("not", p)), NONE);
+
+        assertTrue(closure.isProved(equal(myC, myD)));
+    }
+
+    @Test
+    public void testFunctionsAreNotAssumedInjective() {
+        CongruenceClosure closure =
+                build(list(equal(apply("f", myA), apply("f", myB))), NONE);
+
+        assertFalse(closure.isProved(equal(myA, myB)));
+        assertFalse(closure.isProved(equal(apply("g", myA), apply("g", myB))));
+    }
+
+    @Test
+    public void testDifferentFunctionsAreNotEqual() {
+        CongruenceClosure closure = build(list(equal(myA, myB)), NONE);
+
+        assertFalse(closure.isProved(equal(apply("f", myA), apply("g", myA))));
+        assertFalse(closure.isProved(equal(apply("f", myA, myB),
+                apply("f", myA))));
+    }
+
+    @Test
+    public void testQuantifiedFactsAreIgnored() {
+        PExp x = variable("x");
+
+        CongruenceClosure closure = build(list(equal(x, myA)), list(myB));
+
+        assertFalse(closure.isProved(equal(myA, myB)));
+    }
+
+    @Test
+    public void testTheoremInstantiation() {
+        PExp x = variable("x");
+
+        //For all x, f(x) = x
+        CongruenceClosure closure =
+                CongruenceClosure.build(NONE, list(apply("f", myA)),
+                        list(equal(apply("f", x), x)));
+
+        assertTrue(closure.isProved(equal(apply("f", myA), myA)));
+        assertFalse(closure.isProved(equal(apply("f", myB), myB)));
+    }
+
+    @Test
+    public void testProvesAll() {
+        CongruenceClosureStep step =
+                new CongruenceClosureStep(build(list(equal(myA, myB)), NONE));
+
+        PExp proved = equal(apply("f", myA), apply("f", myB));
+        PExp unproved = equal(myA, myC);
+
+        assertTrue(step.provesAll(vc(list(equal(myA, myB)), list(proved))));
+        assertFalse(step.provesAll(vc(list(equal(myA, myB)), list(proved,
+                unproved))));
+    }
+
+    @Test
+    public void testTransformRemovesOnlyProvedConsequents() {
+        CongruenceClosureStep step =
+                new CongruenceClosureStep(build(list(equal(myA, myB)), NONE));
+
+        PExp proved = equal(apply("f", myA), apply("f", myB));
+        PExp unproved = equal(myA, myC);
+
+        Iterator<VC> result =
+                step
+                        .transform(vc(list(equal(myA, myB)), list(proved,
+                                unproved)));
+
+        assertTrue(result.hasNext());
+        VC reduced = result.next();
+        assertFalse(result.hasNext());
+
+        assertEquals(1, reduced.getConsequent().size());
+        assertTrue(reduced.getConsequent().containsEqual(unproved));
+
+        //Nothing to remove, so no step to take
+        assertFalse(step.transform(vc(list(equal(myA, myB)), list(unproved)))
+                .hasNext());
+    }
+
+    private CongruenceClosure build(List<PExp> facts, List<PExp> goals) {
+        return CongruenceClosure.build(facts, goals, NONE);
+    }
+
+    private VC vc(List<PExp> antecedents, List<PExp> consequents) {
+        return new VC("test", new Antecedent(antecedents), new Consequent(
+                consequents));
+    }
+
+    private PExp constant(String name) {
+        return new PSymbol(null, name, myTyper);
+    }
+
+    private PExp variable(String name) {
+        return new PSymbol(null, name, PSymbol.Quantification.FOR_ALL, myTyper);
+    }
+
+    private PExp apply(String name, PExp... arguments) {
+        return new PSymbol(null, name, Arrays.asList(arguments), myTyper);
+    }
+
+    private PExp equal(PExp left, PExp right) {
+        return new PSymbol(null, "=", Arrays.asList(left, right),
+                PSymbol.DisplayType.INFIX, myTyper);
+    }
+
+    private static List<PExp> list(PExp... exps) {
+        return Arrays.asList(exps);
+    }
+
+    private static CompileEnvironment newEnvironment() {
+        Main.setUpFlagDependencies();
+
+        CompileEnvironment retval;
+        try {
+            retval = new CompileEnvironment(new String[0]);
+        }
+        catch (FlagDependencyException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        return retval;
+    }
+}
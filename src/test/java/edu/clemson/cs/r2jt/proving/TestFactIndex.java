@@ -0,0 +1,100 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol.Quantification;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+
+public class TestFactIndex {
+
+    private final MathExpTypeResolver myTyper =
+            new MathExpTypeResolver(null, null, newEnvironment());
+
+    private final PExp myFA = apply("f", constant("a"));
+    private final PExp myGA = apply("g", constant("a"));
+    private final PExp myX = constant("x");
+    private final PExp myFB = apply("f", constant("b"));
+    private final PExp myY = constant("y");
+
+    @Test
+    public void testApplicationsFindOnlyTheirOwnFunction() {
+        FactIndex index =
+                new FactIndex(Arrays.asList(myFA, myGA, myX, myFB, myY));
+
+        assertEquals(Arrays.asList(myFA, myX, myFB, myY), index
+                .getCandidates(apply("f", variable("v"))));
+        assertEquals(Arrays.asList(myGA, myX, myY), index.getCandidates(apply(
+                "g", constant("b"))));
+        assertEquals(Arrays.asList(myX, myY), index.getCandidates(apply("h",
+                variable("v"))));
+        assertEquals(Arrays.asList(myX, myY), index
+                .getCandidates(constant("x")));
+    }
+
+    @Test
+    public void testQuantifiedPatternsFindEverything() {
+        FactIndex index =
+                new FactIndex(Arrays.asList(myFA, myGA, myX, myFB, myY));
+
+        assertEquals(Arrays.asList(myFA, myGA, myX, myFB, myY), index
+                .getCandidates(variable("v")));
+
+        PExp anyFunction =
+                new PSymbol(null, "F", Arrays.<PExp> asList(variable("v")),
+                        Quantification.FOR_ALL, myTyper);
+        assertEquals(Arrays.asList(myFA, myGA, myX, myFB, myY), index
+                .getCandidates(anyFunction));
+    }
+
+    @Test
+    public void testFactsAddedLaterKeepTheirOrder() {
+        FactIndex index = new FactIndex();
+        assertTrue(index.isEmpty());
+        assertTrue(index.getCandidates(apply("f", variable("v"))).isEmpty());
+
+        index.add(myFB);
+        index.add(myX);
+        index.addAll(Arrays.asList(myFA, myGA, myFB));
+
+        assertFalse(index.isEmpty());
+        assertEquals(Arrays.asList(myFB, myX, myFA, myFB), index
+                .getCandidates(apply("f", variable("v"))));
+    }
+
+    private PExp apply(String function, PExp... arguments) {
+        return new PSymbol(null, function, Arrays.asList(arguments), myTyper);
+    }
+
+    private PExp constant(String name) {
+        return new PSymbol(null, name, myTyper);
+    }
+
+    private PExp variable(String name) {
+        return new PSymbol(null, name, Quantification.FOR_ALL, myTyper);
+    }
+
+    private static CompileEnvironment newEnvironment() {
+        Main.setUpFlagDependencies();
+
+        CompileEnvironment retval;
+        try {
+            retval = new CompileEnvironment(new String[0]);
+        }
+        catch (FlagDependencyException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        return retval;
+    }
+}
@@ -0,0 +1,268 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+
+public class TestProofCertificate {
+
+    private final CompileEnvironment myEnvironment = newEnvironment();
+
+    /**
+     * <p>All of the expressions here are untyped, and the resolver matches
+     * untyped expressions without consulting its symbol table, so it needs
+     * none.</p>
+     */
+    private final MathExpTypeResolver myTyper =
+            new MathExpTypeResolver(null, null, myEnvironment);
+
+    /**
+     * <p>Rewrites the goal <code>c = d</code> to <code>a = b</code>, which
+     * follows from the antecedent of every VC here.</p>
+     */
+    private final VCTransformer myRewriteCD =
+            new Rewrite(equal("c", "d"), equal("a", "b"));
+
+    private final VCTransformer myRewriteCE =
+            new Rewrite(equal("c", "e"), equal("a", "b"));
+
+    /**
+     * <p>Never applies to any VC here.</p>
+     */
+    private final VCTransformer myDecoy =
+            new Rewrite(equal("x", "y"), equal("a", "b"));
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ProofCertificate certificate =
+                prove(newProver(myDecoy, myRewriteCD), vc("a", "b", "c", "d"));
+
+        assertEquals(1, certificate.size());
+
+        StringWriter out = new StringWriter();
+        certificate.write(out);
+
+        Map<String, ProofCertificate> read = read(out.toString());
+
+        assertEquals(1, read.size());
+        ProofCertificate readCertificate = read.get("test");
+        assertNotNull(readCertificate);
+        assertEquals(certificate.getStrategy(), readCertificate.getStrategy());
+        assertEquals(certificate.size(), readCertificate.size());
+
+        StringWriter rewritten = new StringWriter();
+        readCertificate.write(rewritten);
+        assertEquals(out.toString(), rewritten.toString());
+
+        assertReplays(newProver(myDecoy, myRewriteCD), vc("a", "b", "c", "d"),
+                readCertificate);
+    }
+
+    @Test
+    public void testMalformedLinesAreSkipped() throws IOException {
+        Map<String, ProofCertificate> read =
+                read("\n" + "garbage\n" + "noStrategy 1f:0\n"
+                        + "badStrategy x 1f:0\n" + "negativeStrategy -1 1f:0\n"
+                        + "badRule 0 zz:0\n" + "badAlternative 0 1f:q\n"
+                        + "noColon 0 1f\n" + "  good   1 1f:0 7a:2  \n"
+                        + "empty 0\n");
+
+        assertEquals(2, read.size());
+
+        assertEquals(1, read.get("good").getStrategy());
+        assertEquals(2, read.get("good").size());
+        assertEquals(0, read.get("empty").size());
+
+        StringWriter out = new StringWriter();
+        read.get("good").write(out);
+        assertEquals("good 1 1f:0 7a:2\n", out.toString());
+    }
+
+    @Test
+    public void testCertificateThatNoLongerFitsFallsBackToSearch()
+            throws Exception {
+
+        AlternativeProver prover = newProver(myDecoy, myRewriteCD, myRewriteCE);
+
+        ProofCertificate certificate = prove(prover, vc("a", "b", "c", "d"));
+
+        //The VC has since changed so that the recorded rule no longer applies
+        VerificationCondition changed = vc("a", "b", "c", "e");
+
+        try {
+            prover.replay(changed, certificate);
+        }
+        catch (VCProvedException e) {
+            fail("Replayed a certificate that no longer fits.");
+        }
+
+        ProofCertificate found = prove(prover, changed);
+        assertEquals(1, found.size());
+
+        StringWriter foundLine = new StringWriter(), oldLine =
+                new StringWriter();
+        found.write(foundLine);
+        certificate.write(oldLine);
+        assertFalse(foundLine.toString().equals(oldLine.toString()));
+
+        assertReplays(prover, changed, found);
+    }
+
+    @Test
+    public void testReplayUsesOnlyTheStrategyThatFoundTheProof()
+            throws Exception {
+
+        FixedChooser first = new FixedChooser(myDecoy);
+        FixedChooser second = new FixedChooser(myRewriteCD);
+
+        MultiStrategyProver prover = new MultiStrategyProver();
+        prover
+                .addStrategy(new AlternativeProver(myEnvironment, first,
+                        myTyper));
+        prover
+                .addStrategy(new AlternativeProver(myEnvironment, second,
+                        myTyper));
+
+        ProofCertificate certificate = prove(prover, vc("a", "b", "c", "d"));
+        assertEquals(1, certificate.getStrategy());
+
+        first.mySuggestionCount = 0;
+        second.mySuggestionCount = 0;
+
+        try {
+            prover.replay(vc("a", "b", "c", "d"), certificate);
+            fail("Replay failed.");
+        }
+        catch (VCProvedException e) {
+            assertEquals(1, e.getStrategy());
+        }
+
+        assertEquals(0, first.mySuggestionCount);
+        assertEquals(1, second.mySuggestionCount);
+
+        //Recorded against the wrong strategy, the same proof can't be replayed
+        StringWriter out = new StringWriter();
+        certificate.write(out);
+        ProofCertificate misplaced =
+                read(out.toString().replaceFirst(" 1 ", " 0 ")).get("test");
+
+        try {
+            prover.replay(vc("a", "b", "c", "d"), misplaced);
+        }
+        catch (VCProvedException e) {
+            fail("Replayed with the wrong strategy.");
+        }
+
+        //Nor can one naming a strategy that doesn't exist
+        ProofCertificate missing =
+                read(out.toString().replaceFirst(" 1 ", " 2 ")).get("test");
+
+        try {
+            prover.replay(vc("a", "b", "c", "d"), missing);
+        }
+        catch (VCProvedException e) {
+            fail("Replayed with a missing strategy.");
+        }
+    }
+
+    private void assertReplays(CertificateReplayer prover,
+            VerificationCondition vc, ProofCertificate certificate) {
+
+        try {
+            prover.replay(vc, certificate);
+            fail("Replay failed.");
+        }
+        catch (VCProvedException e) {
+            ProofCertificate replayed = ProofCertificate.fromProof("test", e);
+
+            assertNotNull(replayed);
+            assertEquals(certificate.size(), replayed.size());
+        }
+    }
+
+    /**
+     * <p>Proves <code>vc</code> with <code>prover</code> and returns the
+     * certificate of the proof.</p>
+     */
+    private static ProofCertificate prove(VCProver prover,
+            VerificationCondition vc) throws VCInconsistentException {
+
+        ProofCertificate retval = null;
+
+        try {
+            prover.prove(vc, null, null, Long.MAX_VALUE);
+            fail("Proof not found.");
+        }
+        catch (UnableToProveException e) {
+            fail("Proof not found.");
+        }
+        catch (VCProvedException e) {
+            retval = ProofCertificate.fromProof(vc.getName(), e);
+        }
+
+        assertNotNull(retval);
+
+        return retval;
+    }
+
+    private static Map<String, ProofCertificate> read(String certificates)
+            throws IOException {
+
+        return ProofCertificate.read(new BufferedReader(new StringReader(
+                certificates)));
+    }
+
+    private AlternativeProver newProver(VCTransformer... rules) {
+        return new AlternativeProver(myEnvironment, new FixedChooser(rules),
+                myTyper);
+    }
+
+    /**
+     * <p>Returns the VC <code>left1 = right1 implies left2 = right2</code>.
+     * </p>
+     */
+    private VerificationCondition vc(String left1, String right1, String left2,
+            String right2) {
+
+        return new ImmutableVerificationCondition(new VC("test",
+                new Antecedent(equal(left1, right1)), new Consequent(equal(
+                        left2, right2))));
+    }
+
+    private PExp equal(String left, String right) {
+        return new PSymbol(null, "=", Arrays.<PExp> asList(new PSymbol(null,
+                left, myTyper), new PSymbol(null, right, myTyper)),
+                PSymbol.DisplayType.INFIX, myTyper);
+    }
+
+    private static CompileEnvironment newEnvironment() {
+        Main.setUpFlagDependencies();
+
+        CompileEnvironment retval;
+        try {
+            retval = new CompileEnvironment(new String[0]);
+        }
+        catch (FlagDependencyException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        return retval;
+    }
+}
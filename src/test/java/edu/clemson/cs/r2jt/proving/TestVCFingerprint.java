@@ -0,0 +1,154 @@
+package edu.clemson.cs.r2jt.proving;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.absyn.EqualsExp;
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.absyn.VarExp;
+import edu.clemson.cs.r2jt.collections.List;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+
+public class TestVCFingerprint {
+
+    @Test
+    public void testConjunctOrderDoesNotMatter() {
+        VCFingerprint f1 =
+                new VCFingerprint(vc(list(equal("a", "b"), equal("c", "d")),
+                        list(equal("e", "f"), equal("g", "h"))));
+        VCFingerprint f2 =
+                new VCFingerprint(vc(list(equal("c", "d"), equal("a", "b")),
+                        list(equal("g", "h"), equal("e", "f"))));
+
+        assertEquals(f1, f2);
+        assertEquals(f1.hashCode(), f2.hashCode());
+    }
+
+    @Test
+    public void testDifferentConjunctsDiffer() {
+        VCFingerprint f =
+                new VCFingerprint(vc(list(equal("a", "b")),
+                        list(equal("c", "d"))));
+
+        assertFalse(f.equals(new VCFingerprint(vc(list(equal("a", "b")),
+                list(equal("c", "e"))))));
+        assertFalse(f.equals(new VCFingerprint(vc(list(equal("a", "e")),
+                list(equal("c", "d"))))));
+        assertFalse(f.equals(new VCFingerprint(vc(list(equal("a", "b"), equal(
+                "a", "b")), list(equal("c", "d"))))));
+
+        //Antecedents and consequents are not interchangeable
+        assertFalse(f.equals(new VCFingerprint(vc(list(equal("c", "d")),
+                list(equal("a", "b"))))));
+    }
+
+    @Test
+    public void testRepeatedConjunctsAreCounted() {
+        VCFingerprint f1 =
+                new VCFingerprint(vc(list(), list(equal("a", "b"), equal("a",
+                        "b"), equal("c", "d"))));
+        VCFingerprint f2 =
+                new VCFingerprint(vc(list(), list(equal("a", "b"), equal("c",
+                        "d"), equal("c", "d"))));
+
+        assertFalse(f1.equals(f2));
+    }
+
+    @Test
+    public void testFingerprintIsASnapshot() {
+        EqualsExp consequent = equal("c", "d");
+        VerificationCondition vc =
+                vc(list(equal("a", "b"), equal("x", "x")), list(consequent));
+
+        VCFingerprint before = new VCFingerprint(vc);
+
+        //Change the VC's lists and its expressions in place
+        vc.simplify();
+        consequent.setSubExpression(1, var("e"));
+
+        assertEquals(before, new VCFingerprint(vc(list(equal("a", "b"), equal(
+                "x", "x")), list(equal("c", "d")))));
+        assertFalse(before.equals(new VCFingerprint(vc)));
+    }
+
+    @Test
+    public void testReusedAntecedentsMatchAFreshFingerprint() {
+        List<Exp> antecedents = list(equal("a", "b"), equal("c", "d"));
+
+        VerificationCondition parent =
+                new VerificationCondition(antecedents, list(equal("e", "f")));
+        VCFingerprint parentFingerprint = new VCFingerprint(parent);
+
+        //Shares the parent's antecedent expressions, as successive states of
+        //a proof do
+        VerificationCondition child =
+                new VerificationCondition(parent.getAntecedents(), list(equal(
+                        "e", "g")));
+
+        VCFingerprint reused = new VCFingerprint(child, parentFingerprint);
+        assertEquals(new VCFingerprint(child), reused);
+        assertFalse(parentFingerprint.equals(reused));
+
+        //Antecedents that are not the same expressions are not reused
+        child.getAntecedents().remove(1);
+
+        VCFingerprint fresh = new VCFingerprint(child, parentFingerprint);
+        assertEquals(new VCFingerprint(child), fresh);
+        assertFalse(fresh.equals(reused));
+    }
+
+    @Test
+    public void testRepeatStateIsFoundAfterAnAncestorChanges() {
+        //The state a proof returns to after a cycle, built from the same
+        //antecedents as the states before it
+        List<Exp> antecedents = list(equal("a", "b"), equal("x", "x"));
+
+        VerificationCondition start =
+                new VerificationCondition(antecedents, list(equal("c", "d")));
+        VCFingerprint startFingerprint = new VCFingerprint(start);
+
+        VerificationCondition next =
+                new VerificationCondition(start.getAntecedents(), list(equal(
+                        "d", "c")));
+        next.simplify();
+
+        VerificationCondition back =
+                new VerificationCondition(next.getAntecedents(), list(equal(
+                        "c", "d")));
+        start.simplify();
+
+        VCFingerprint backFingerprint =
+                new VCFingerprint(back, new VCFingerprint(next,
+                        startFingerprint));
+
+        assertTrue(backFingerprint.equals(new VCFingerprint(start)));
+    }
+
+    private static VerificationCondition vc(List<Exp> antecedents,
+            List<Exp> consequents) {
+
+        return new VerificationCondition(antecedents, consequents);
+    }
+
+    private static List<Exp> list(Exp... exps) {
+        List<Exp> retval = new List<Exp>();
+
+        for (Exp e : exps) {
+            retval.add(e);
+        }
+
+        return retval;
+    }
+
+    private static EqualsExp equal(String left, String right) {
+        return new EqualsExp(null, var(left), EqualsExp.EQUAL, var(right));
+    }
+
+    private static VarExp var(String name) {
+        return new VarExp(null, null, new PosSymbol(null, Symbol.symbol(name)));
+    }
+}
@@ -0,0 +1,178 @@
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.absyn.VarExp;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+
+public class TestVCScheduler {
+
+    /**
+     * <p>All of the expressions here are untyped, and the resolver matches
+     * untyped expressions without consulting its symbol table, so it needs
+     * none.</p>
+     */
+    private final MathExpTypeResolver myTyper =
+            new MathExpTypeResolver(null, null, newEnvironment());
+
+    @Test
+    public void testEasyVCsFirstThenByDifficulty() {
+        VerificationCondition twoGoals =
+                vc("twoGoals", "v", Arrays.asList(equal("x", "y")), Arrays
+                        .asList(equal("c", "d"), equal("e", "f")));
+        VerificationCondition given =
+                vc("given", "v", Arrays.asList(equal("a", "b")), Arrays
+                        .asList(equal("a", "b")));
+        VerificationCondition oneGoal =
+                vc("oneGoal", "v", Arrays.asList(equal("x", "y")), Arrays
+                        .asList(equal("c", "d")));
+        VerificationCondition closed =
+                vc("closed", "v", Arrays.asList(equal("a", "b"),
+                        equal("b", "c")), Arrays.asList(equal("a", "c")));
+        VerificationCondition alsoOneGoal =
+                vc("alsoOneGoal", "v", Arrays.asList(equal("x", "y")), Arrays
+                        .asList(equal("e", "f")));
+
+        assertEquals(Arrays.asList(given, closed, oneGoal, alsoOneGoal,
+                twoGoals), newScheduler().schedule("Ordering",
+                Arrays.asList(twoGoals, given, oneGoal, closed, alsoOneGoal)));
+    }
+
+    @Test
+    public void testRecordedTimesOrderTheSameVCs() {
+        VCScheduler first = newScheduler();
+
+        VerificationCondition slow = oneGoal("slow", "v");
+        VerificationCondition fast = twoGoals("fast", "v");
+        VerificationCondition unrecorded = oneGoal("unrecorded", "v");
+
+        assertEquals(Arrays.asList(slow, unrecorded, fast), first.schedule(
+                "Recorded", Arrays.asList(slow, fast, unrecorded)));
+
+        first.recordTime(slow, 10000);
+        first.recordTime(fast, 0);
+
+        //Recorded times are for the life of the JVM, not the scheduler
+        slow = oneGoal("slow", "v");
+        fast = twoGoals("fast", "v");
+        unrecorded = oneGoal("unrecorded", "v");
+
+        assertEquals(Arrays.asList(fast, unrecorded, slow), newScheduler()
+                .schedule("Recorded", Arrays.asList(slow, fast, unrecorded)));
+
+        //A changed VC is estimated afresh, as is one in another module
+        VerificationCondition slowChanged = oneGoal("slow", "w");
+
+        assertEquals(Arrays.asList(slowChanged, unrecorded), newScheduler()
+                .schedule("Recorded", Arrays.asList(slowChanged, unrecorded)));
+
+        VerificationCondition fastElsewhere = twoGoals("fast", "v");
+
+        assertEquals(Arrays.asList(unrecorded, fastElsewhere),
+                newScheduler().schedule("Elsewhere",
+                        Arrays.asList(fastElsewhere, unrecorded)));
+    }
+
+    @Test
+    public void testOnlyTheMostRecentTimesAreKept() {
+        VCScheduler scheduler = newScheduler();
+
+        VerificationCondition slow = oneGoal("slow", "v");
+        VerificationCondition control = twoGoals("control", "v");
+
+        scheduler.schedule("Bounded", Arrays.asList(slow));
+        scheduler.recordTime(slow, 100000);
+
+        slow = oneGoal("slow", "v");
+        assertEquals(Arrays.asList(control, slow), newScheduler().schedule(
+                "Bounded", Arrays.asList(slow, control)));
+
+        List<VerificationCondition> others =
+                new ArrayList<VerificationCondition>();
+        for (int i = 0; i < VCScheduler.HISTORY_CAPACITY; i++) {
+            others.add(oneGoal("other" + i, "v"));
+        }
+
+        scheduler = newScheduler();
+        scheduler.schedule("Bounded", others);
+        for (VerificationCondition other : others) {
+            scheduler.recordTime(other, 1);
+        }
+
+        slow = oneGoal("slow", "v");
+        assertEquals(Arrays.asList(slow, control), newScheduler().schedule(
+                "Bounded", Arrays.asList(slow, control)));
+    }
+
+    private VCScheduler newScheduler() {
+        return new VCScheduler(myTyper, new FixedChooser(), Collections
+                .<PExp> emptyList());
+    }
+
+    /**
+     * <p>Returns a VC named <code>name</code> with a single consequent that
+     * does not follow from its antecedent.  Its fingerprint is that of
+     * <code>version</code>.</p>
+     */
+    private VerificationCondition oneGoal(String name, String version) {
+        return vc(name, version, Arrays.asList(equal("x", "y")), Arrays
+                .asList(equal("c", "d")));
+    }
+
+    /**
+     * <p>Returns a VC named <code>name</code> with two consequents that do not
+     * follow from its antecedent.  Its fingerprint is that of
+     * <code>version</code>.</p>
+     */
+    private VerificationCondition twoGoals(String name, String version) {
+        return vc(name, version, Arrays.asList(equal("x", "y")), Arrays.asList(
+                equal("c", "d"), equal("e", "f")));
+    }
+
+    private VerificationCondition vc(String name, String version,
+            List<PExp> antecedents, List<PExp> consequents) {
+
+        edu.clemson.cs.r2jt.collections.List<Exp> fingerprinted =
+                new edu.clemson.cs.r2jt.collections.List<Exp>();
+        fingerprinted.add(new VarExp(null, null, new PosSymbol(null, Symbol
+                .symbol(version))));
+
+        return new ImmutableVerificationCondition(new VC(name, new Antecedent(
+                antecedents), new Consequent(consequents)), fingerprinted);
+    }
+
+    private PExp equal(String left, String right) {
+        return new PSymbol(null, "=", Arrays.<PExp> asList(new PSymbol(null,
+                left, myTyper), new PSymbol(null, right, myTyper)),
+                PSymbol.DisplayType.INFIX, myTyper);
+    }
+
+    private static CompileEnvironment newEnvironment() {
+        Main.setUpFlagDependencies();
+
+        CompileEnvironment retval;
+        try {
+            retval = new CompileEnvironment(new String[0]);
+        }
+        catch (FlagDependencyException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        return retval;
+    }
+}
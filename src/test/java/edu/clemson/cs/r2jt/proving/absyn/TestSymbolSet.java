@@ -0,0 +1,169 @@
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.analysis.MathExpTypeResolver;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+
+public class TestSymbolSet {
+
+    /**
+     * <p>Enough names that sets of them span several words.</p>
+     */
+    private static final int NAME_COUNT = 200;
+
+    @Test
+    public void testNamesAreNumberedInOrderSeen() {
+        SymbolDictionary d = new SymbolDictionary();
+
+        assertEquals(0, d.indexOf("b"));
+        assertEquals(1, d.indexOf("a"));
+        assertEquals(0, d.indexOf("b"));
+        assertEquals(2, d.size());
+
+        d.getSymbolSet(names("c", "a", "d"));
+        assertEquals(4, d.size());
+        assertEquals(1, d.indexOf("a"));
+    }
+
+    @Test
+    public void testSetsHoldTheirNames() {
+        SymbolDictionary d = new SymbolDictionary();
+
+        SymbolSet abc = d.getSymbolSet(names("a", "b", "c"));
+        SymbolSet cd = d.getSymbolSet(names("c", "d"));
+        SymbolSet empty = d.getSymbolSet(Collections.<String> emptySet());
+
+        assertEquals(3, abc.size());
+        assertTrue(contains(abc, "a") && contains(abc, "b")
+                && contains(abc, "c"));
+        assertFalse(contains(abc, "d"));
+
+        assertTrue(empty.isEmpty());
+        assertTrue(empty.isSubsetOf(abc));
+        assertFalse(abc.isSubsetOf(empty));
+
+        assertEquals(2, abc.countNotIn(cd));
+        assertEquals(1, cd.countNotIn(abc));
+        assertTrue(d.getSymbolSet(names("b", "a")).isSubsetOf(abc));
+
+        SymbolSet union = abc.union(cd);
+        assertEquals(4, union.size());
+        assertTrue(abc.isSubsetOf(union) && cd.isSubsetOf(union));
+        assertSame(abc, abc.union(empty));
+        assertSame(cd, empty.union(cd));
+
+        //Sets are immutable
+        assertEquals(3, abc.size());
+        assertEquals(2, cd.size());
+    }
+
+    @Test
+    public void testSetsMatchHashSets() {
+        SymbolDictionary d = new SymbolDictionary();
+        Random random = new Random(1);
+
+        for (int trial = 0; trial < 200; trial++) {
+            Set<String> names1 = randomNames(random);
+            Set<String> names2 = randomNames(random);
+
+            SymbolSet set1 = d.getSymbolSet(names1);
+            SymbolSet set2 = d.getSymbolSet(names2);
+
+            Set<String> notIn = new HashSet<String>(names1);
+            notIn.removeAll(names2);
+
+            Set<String> union = new HashSet<String>(names1);
+            union.addAll(names2);
+
+            assertEquals(names1.size(), set1.size());
+            assertEquals(notIn.size(), set1.countNotIn(set2));
+            assertEquals(notIn.isEmpty(), set1.isSubsetOf(set2));
+            assertEquals(union.size(), set1.union(set2).size());
+
+            for (int i = 0; i < NAME_COUNT; i++) {
+                assertEquals(union.contains("n" + i), contains(
+                        set1.union(set2), "n" + i));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDictionariesDoNotMix() {
+        SymbolSet a = new SymbolDictionary().getSymbolSet(names("a"));
+        SymbolSet b = new SymbolDictionary().getSymbolSet(names("a"));
+
+        a.countNotIn(b);
+    }
+
+    @Test
+    public void testExpressionSetsFollowTheirDictionary() {
+        MathExpTypeResolver typer =
+                new MathExpTypeResolver(null, null, newEnvironment());
+
+        PExp e =
+                new PSymbol(null, "f", Arrays.<PExp> asList(new PSymbol(null,
+                        "a", typer), new PSymbol(null, "b", typer)), typer);
+
+        SymbolDictionary d1 = new SymbolDictionary();
+        SymbolSet set1 = e.getSymbolSet(d1);
+
+        assertEquals(e.getSymbolNames().size(), set1.size());
+        assertTrue(set1.isSubsetOf(d1.getSymbolSet(names("f", "a", "b"))));
+        assertSame(set1, e.getSymbolSet(d1));
+
+        SymbolDictionary d2 = new SymbolDictionary();
+        d2.indexOf("unrelated");
+        SymbolSet set2 = e.getSymbolSet(d2);
+
+        assertSame(d2, set2.getDictionary());
+        assertEquals(set1.size(), set2.size());
+        assertTrue(set2.isSubsetOf(d2.getSymbolSet(e.getSymbolNames())));
+    }
+
+    private static boolean contains(SymbolSet set, String name) {
+        return set.getDictionary().getSymbolSet(names(name)).isSubsetOf(set);
+    }
+
+    private static Set<String> randomNames(Random random) {
+        Set<String> retval = new HashSet<String>();
+
+        int count = random.nextInt(NAME_COUNT / 2);
+        for (int i = 0; i < count; i++) {
+            retval.add("n" + random.nextInt(NAME_COUNT));
+        }
+
+        return retval;
+    }
+
+    private static Set<String> names(String... names) {
+        return new HashSet<String>(Arrays.asList(names));
+    }
+
+    private static CompileEnvironment newEnvironment() {
+        Main.setUpFlagDependencies();
+
+        CompileEnvironment retval;
+        try {
+            retval = new CompileEnvironment(new String[0]);
+        }
+        catch (FlagDependencyException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        return retval;
+    }
+}
@@ -0,0 +1,152 @@
+package edu.clemson.cs.r2jt.type;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.clemson.cs.r2jt.collections.List;
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+
+public class TestTypeMatcher {
+
+    private static final ModuleID THEORY =
+            ModuleID.createTheoryID(Symbol.symbol("Test_Theory"));
+
+    private static final ModuleID OTHER_THEORY =
+            ModuleID.createTheoryID(Symbol.symbol("Other_Theory"));
+
+    @Test
+    public void testPrimitiveTypes() {
+        TypeMatcher tm = new TypeMatcher();
+
+        assertTrue(tm.mathMatches(primitive(THEORY, "Z"),
+                primitive(THEORY, "Z")));
+        assertFalse(tm.mathMatches(primitive(THEORY, "Z"), primitive(THEORY,
+                "N")));
+        assertFalse(tm.mathMatches(primitive(THEORY, "Z"), primitive(
+                OTHER_THEORY, "Z")));
+        assertFalse(tm
+                .mathMatches(primitive(THEORY, "Z"), BooleanType.INSTANCE));
+        assertFalse(tm.mathMatches(primitive(THEORY, "Z"), null));
+    }
+
+    @Test
+    public void testFunctionAndTupleTypes() {
+        TypeMatcher tm = new TypeMatcher();
+
+        Type z = primitive(THEORY, "Z");
+        Type n = primitive(THEORY, "N");
+
+        assertTrue(tm.mathMatches(new FunctionType(z, n), new FunctionType(
+                primitive(THEORY, "Z"), primitive(THEORY, "N"))));
+        assertFalse(tm.mathMatches(new FunctionType(z, n), new FunctionType(n,
+                z)));
+
+        assertTrue(tm.mathMatches(tuple(z, n), tuple(primitive(THEORY, "Z"),
+                primitive(THEORY, "N"))));
+        assertFalse(tm.mathMatches(tuple(z, n), tuple(z, z)));
+        assertFalse(tm.mathMatches(tuple(z, n), tuple(z, n, n)));
+    }
+
+    @Test
+    public void testMatchedTypesAreLookedAtOnce() {
+        TypeMatcher tm = new TypeMatcher();
+
+        CountingType z1 = new CountingType(THEORY, "Counted_Z");
+        CountingType z2 = new CountingType(THEORY, "Counted_Z");
+        CountingType n = new CountingType(THEORY, "Counted_N");
+
+        assertTrue(tm.mathMatches(z1, z2));
+        assertFalse(tm.mathMatches(z1, n));
+
+        int z1Count = z1.myToMathCount;
+        int z2Count = z2.myToMathCount;
+        int nCount = n.myToMathCount;
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(new TypeMatcher().mathMatches(z1, z2));
+            assertFalse(new TypeMatcher().mathMatches(z1, n));
+        }
+
+        assertEquals(z1Count, z1.myToMathCount);
+        assertEquals(z2Count, z2.myToMathCount);
+        assertEquals(nCount, n.myToMathCount);
+
+        //A new type with a form already seen shares its cached results
+        CountingType z3 = new CountingType(THEORY, "Counted_Z");
+        assertTrue(tm.mathMatches(z3, z1));
+        assertTrue(tm.mathMatches(z2, z3));
+        assertEquals(1, z3.myToMathCount);
+    }
+
+    @Test
+    public void testMathFormalTypesAreBoundPerMatcher() {
+        MathFormalType gamma =
+                new MathFormalType(THEORY, new PosSymbol(null, Symbol
+                        .symbol("Gamma")));
+        Type z = primitive(THEORY, "Z");
+        Type n = primitive(THEORY, "N");
+
+        TypeMatcher tm = new TypeMatcher();
+        assertTrue(tm.mathMatches(z, gamma));
+        assertSame(z, tm.getTypeMap().get(gamma.getSymbol()));
+        assertTrue(tm.mathMatches(z, gamma));
+        assertFalse(tm.mathMatches(n, gamma));
+        assertFalse(tm.mathMatches(new FunctionType(z, z), new FunctionType(n,
+                gamma)));
+
+        TypeMatcher other = new TypeMatcher();
+        assertTrue(other.mathMatches(n, gamma));
+        assertFalse(other.mathMatches(z, gamma));
+    }
+
+    @Test
+    public void testCanonicalForm() {
+        Type z = primitive(THEORY, "Z");
+
+        assertEquals(TypeMatcher.getCanonicalForm(z), TypeMatcher
+                .getCanonicalForm(primitive(THEORY, "Z")));
+        assertFalse(TypeMatcher.getCanonicalForm(z).equals(
+                TypeMatcher.getCanonicalForm(primitive(OTHER_THEORY, "Z"))));
+        assertEquals(null, TypeMatcher.getCanonicalForm(new FunctionType(z,
+                new MathFormalType(THEORY, new PosSymbol(null, Symbol
+                        .symbol("Gamma"))))));
+    }
+
+    private static PrimitiveType primitive(ModuleID id, String name) {
+        return new PrimitiveType(id, new PosSymbol(null, Symbol.symbol(name)),
+                0);
+    }
+
+    private static TupleType tuple(Type... fields) {
+        List<FieldItem> items = new List<FieldItem>();
+        for (Type field : fields) {
+            items.add(new FieldItem(null, field));
+        }
+        return new TupleType(items);
+    }
+
+    /**
+     * <p>A primitive type that counts how often its math type is asked for.
+     * </p>
+     */
+    private static class CountingType extends PrimitiveType {
+
+        public int myToMathCount;
+
+        public CountingType(ModuleID id, String name) {
+            super(id, new PosSymbol(null, Symbol.symbol(name)), 0);
+        }
+
+        @Override
+        public Type toMath() {
+            myToMathCount++;
+            return super.toMath();
+        }
+    }
+}